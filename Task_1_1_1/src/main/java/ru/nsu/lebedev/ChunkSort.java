@@ -0,0 +1,16 @@
+package ru.nsu.lebedev;
+
+/**
+ * Algorithms that {@link ParallelHeapSort} uses for sorting every chunk of the array.
+ */
+public enum ChunkSort {
+    /**
+     * Heap sort of {@link HeapSort}: O(n log(n)) in the worst case, but cache unfriendly.
+     */
+    HEAP_SORT,
+    /**
+     * Quick sort with three-way partition that switches to heap sort when recursion
+     * gets too deep and to insertion sort on short ranges.
+     */
+    INTRO_SORT
+}
@@ -0,0 +1,471 @@
+package ru.nsu.lebedev;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * The {@code ExternalHeapSort} class sorts binary files of big-endian ints or longs
+ * that don't fit into memory.
+ * The input is read by runs that fill the memory budget, every run is sorted by
+ * {@link HeapSort} and spilled to a temporary file. Then runs are merged by a k-way merge
+ * that keeps the current heads of at most {@code fanIn} runs in a minimum heap;
+ * if there are more runs, several merge passes are made.
+ * All files are accessed through {@link AsynchronousFileChannel} with double buffering:
+ * the next run is read and the previous one is written while the current one is sorted,
+ * and during the merge every run reads its next block ahead while the output is written behind.
+ */
+public class ExternalHeapSort {
+    private final long memoryBudget;
+    private final int fanIn;
+    private final Path tempDirectory;
+
+    /**
+     * Creates sorter that keeps temporary runs in the default temporary directory.
+     *
+     * @param memoryBudget bytes of buffers and arrays that sorter may use.
+     * @param fanIn maximal count of runs merged at once, at least 2.
+     */
+    public ExternalHeapSort(long memoryBudget, int fanIn) {
+        this(memoryBudget, fanIn, null);
+    }
+
+    /**
+     * Creates sorter.
+     *
+     * @param memoryBudget bytes of buffers and arrays that sorter may use.
+     * @param fanIn maximal count of runs merged at once, at least 2.
+     * @param tempDirectory directory for temporary runs, null for the default one.
+     */
+    public ExternalHeapSort(long memoryBudget, int fanIn, Path tempDirectory) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Fan-in must be at least 2");
+        }
+        if (memoryBudget / (2L * (fanIn + 1)) < Long.BYTES) {
+            throw new IllegalArgumentException("Memory budget is too small for fan-in " + fanIn);
+        }
+        this.memoryBudget = memoryBudget;
+        this.fanIn = fanIn;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Sorts file of big-endian ints.
+     *
+     * @param input file with ints, it is not changed.
+     * @param output file for sorted ints, an existing file is replaced.
+     * @throws IOException if files can't be read or written, or input length isn't divisible by 4.
+     */
+    public void sortInts(Path input, Path output) throws IOException {
+        sort(input, output, Integer.BYTES);
+    }
+
+    /**
+     * Sorts file of big-endian longs.
+     *
+     * @param input file with longs, it is not changed.
+     * @param output file for sorted longs, an existing file is replaced.
+     * @throws IOException if files can't be read or written, or input length isn't divisible by 8.
+     */
+    public void sortLongs(Path input, Path output) throws IOException {
+        sort(input, output, Long.BYTES);
+    }
+
+    /**
+     * Generates sorted runs and merges them into output, temporary files are always deleted.
+     */
+    private void sort(Path input, Path output, int width) throws IOException {
+        if (Files.size(input) % width != 0) {
+            throw new IOException("File length is not divisible by " + width + ": " + input);
+        }
+        List<Path> temporary = new ArrayList<>();
+        try {
+            List<Path> runs = generateRuns(input, width, temporary);
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path run = createRun(temporary);
+                    merged.add(run);
+                    merge(group, run, width);
+                    for (Path path : group) {
+                        Files.delete(path);
+                    }
+                }
+                runs = merged;
+            }
+            if (runs.size() == 1) {
+                Files.move(runs.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                merge(runs, output, width);
+            }
+        } finally {
+            for (Path run : temporary) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Creates empty temporary file for a run and adds it to the list of files
+     * that are deleted at the end.
+     */
+    private Path createRun(List<Path> temporary) throws IOException {
+        Path run = tempDirectory == null
+                ? Files.createTempFile("run", ".bin")
+                : Files.createTempFile(tempDirectory, "run", ".bin");
+        temporary.add(run);
+        return run;
+    }
+
+    /**
+     * Reads input by runs of a third of the budget, sorts and spills every run.
+     * While a run is sorted, the next one is read into the second buffer
+     * and the previous one is written from the third buffer.
+     */
+    private List<Path> generateRuns(Path input, int width, List<Path> temporary)
+            throws IOException {
+        List<Path> runs = new ArrayList<>();
+        int runBytes = (int) Math.min(Integer.MAX_VALUE - Long.BYTES, memoryBudget / 3);
+        runBytes -= runBytes % width;
+        int runLength = runBytes / width;
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(runBytes);
+        ByteBuffer writeBuffer = ByteBuffer.allocateDirect(runBytes);
+        int[] ints = width == Integer.BYTES ? new int[runLength] : null;
+        long[] longs = width == Long.BYTES ? new long[runLength] : null;
+        try (AsynchronousFileChannel in = AsynchronousFileChannel.open(input,
+                StandardOpenOption.READ)) {
+            long size = in.size();
+            AsyncTransfer reading = AsyncTransfer.read(in, readBuffer, 0, size);
+            AsyncTransfer writing = null;
+            AsynchronousFileChannel out = null;
+            long position = 0;
+            try {
+                while (position < size) {
+                    reading.await();
+                    readBuffer.flip();
+                    int length = readBuffer.remaining() / width;
+                    if (ints != null) {
+                        readBuffer.asIntBuffer().get(ints, 0, length);
+                    } else {
+                        readBuffer.asLongBuffer().get(longs, 0, length);
+                    }
+                    position += readBuffer.remaining();
+                    readBuffer.clear();
+                    reading = AsyncTransfer.read(in, readBuffer, position, size);
+                    if (ints != null) {
+                        HeapSort.heapsort(ints, 0, length);
+                    } else {
+                        HeapSort.heapsort(longs, 0, length);
+                    }
+                    if (writing != null) {
+                        writing.await();
+                        out.close();
+                    }
+                    writeBuffer.clear();
+                    if (ints != null) {
+                        writeBuffer.asIntBuffer().put(ints, 0, length);
+                    } else {
+                        writeBuffer.asLongBuffer().put(longs, 0, length);
+                    }
+                    writeBuffer.limit(length * width);
+                    Path run = createRun(temporary);
+                    runs.add(run);
+                    out = AsynchronousFileChannel.open(run, StandardOpenOption.WRITE);
+                    writing = AsyncTransfer.write(out, writeBuffer, 0);
+                }
+                if (writing != null) {
+                    writing.await();
+                }
+            } finally {
+                if (out != null) {
+                    out.close();
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Merges sorted runs into output through a heap of run readers.
+     * Every reader and the writer get two blocks, so the budget is split
+     * into {@code 2 * (runs + 1)} blocks.
+     */
+    private void merge(List<Path> runs, Path output, int width) throws IOException {
+        int blockBytes = (int) Math.min(1 << 30, memoryBudget / (2L * (runs.size() + 1)));
+        blockBytes -= blockBytes % width;
+        RunReader[] readers = new RunReader[runs.size()];
+        try (RunWriter writer = new RunWriter(output, blockBytes, width)) {
+            int[] heap = new int[readers.length];
+            int heapSize = 0;
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(runs.get(i), blockBytes, width);
+                if (readers[i].advance()) {
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; --i) {
+                siftDown(readers, heap, heapSize, i);
+            }
+            while (heapSize > 0) {
+                RunReader reader = readers[heap[0]];
+                writer.put(reader.head());
+                if (!reader.advance()) {
+                    heap[0] = heap[--heapSize];
+                }
+                if (heapSize > 0) {
+                    siftDown(readers, heap, heapSize, 0);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the minimum heap of readers ordered by their heads,
+     * starting from the node with the index {@code i}.
+     */
+    private static void siftDown(RunReader[] readers, int[] heap, int heapSize, int i) {
+        int index = i;
+        int reader = heap[index];
+        long value = readers[reader].head();
+        while (index * 2 + 1 < heapSize) {
+            int child = index * 2 + 1;
+            if (child + 1 < heapSize
+                    && readers[heap[child + 1]].head() < readers[heap[child]].head()) {
+                child++;
+            }
+            if (readers[heap[child]].head() >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = reader;
+    }
+
+    /**
+     * The {@code AsyncTransfer} class is one pending read or write that fills or drains
+     * the whole buffer, channels may transfer less at once, then the rest is requested.
+     */
+    private static final class AsyncTransfer {
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer buffer;
+        private final boolean reading;
+        private final long end;
+        private long position;
+        private Future<Integer> pending;
+
+        private AsyncTransfer(AsynchronousFileChannel channel, ByteBuffer buffer,
+                              boolean reading, long position, long end) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.reading = reading;
+            this.position = position;
+            this.end = end;
+            request();
+        }
+
+        /**
+         * Starts reading buffer from position, reading stops at end of file.
+         */
+        static AsyncTransfer read(AsynchronousFileChannel channel, ByteBuffer buffer,
+                                  long position, long end) {
+            return new AsyncTransfer(channel, buffer, true, position, end);
+        }
+
+        /**
+         * Starts writing remaining bytes of buffer at position.
+         */
+        static AsyncTransfer write(AsynchronousFileChannel channel, ByteBuffer buffer,
+                                   long position) {
+            return new AsyncTransfer(channel, buffer, false, position, Long.MAX_VALUE);
+        }
+
+        /**
+         * Requests the next part of transfer if anything is left.
+         */
+        private void request() {
+            if (!buffer.hasRemaining() || position >= end) {
+                pending = null;
+            } else if (reading) {
+                pending = channel.read(buffer, position);
+            } else {
+                pending = channel.write(buffer, position);
+            }
+        }
+
+        /**
+         * Waits until the whole transfer is done.
+         *
+         * @throws IOException if transfer failed.
+         */
+        void await() throws IOException {
+            try {
+                while (pending != null) {
+                    int count = pending.get();
+                    if (count < 0) {
+                        pending = null;
+                        break;
+                    }
+                    position += count;
+                    request();
+                }
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * The {@code RunReader} class reads a sorted run by blocks,
+     * the next block is read while the current one is consumed.
+     */
+    private static final class RunReader {
+        private final AsynchronousFileChannel channel;
+        private final int width;
+        private final long size;
+        private ByteBuffer current;
+        private ByteBuffer next;
+        private AsyncTransfer reading;
+        private long position;
+        private long head;
+
+        RunReader(Path run, int blockBytes, int width) throws IOException {
+            this.channel = AsynchronousFileChannel.open(run, StandardOpenOption.READ);
+            this.width = width;
+            this.size = channel.size();
+            this.current = ByteBuffer.allocateDirect(blockBytes);
+            this.next = ByteBuffer.allocateDirect(blockBytes);
+            this.current.limit(0);
+            this.reading = AsyncTransfer.read(channel, next, 0, size);
+        }
+
+        /**
+         * Returns the smallest element that is not merged yet.
+         */
+        long head() {
+            return head;
+        }
+
+        /**
+         * Moves to the next element, swapping blocks when the current one ends,
+         * it is called once before the first head.
+         *
+         * @return false if the run is over.
+         */
+        boolean advance() throws IOException {
+            if (!current.hasRemaining()) {
+                if (position >= size) {
+                    return false;
+                }
+                reading.await();
+                ByteBuffer filled = next;
+                next = current;
+                current = filled;
+                current.flip();
+                position += current.remaining();
+                next.clear();
+                reading = AsyncTransfer.read(channel, next, position, size);
+            }
+            head = width == Integer.BYTES ? current.getInt() : current.getLong();
+            return true;
+        }
+
+        /**
+         * Waits for the pending read and closes the file.
+         */
+        void close() throws IOException {
+            try {
+                reading.await();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * The {@code RunWriter} class writes sorted elements by blocks,
+     * a full block is written while the next one is filled.
+     */
+    private static final class RunWriter implements AutoCloseable {
+        private final AsynchronousFileChannel channel;
+        private final int width;
+        private ByteBuffer current;
+        private ByteBuffer next;
+        private AsyncTransfer writing;
+        private long position;
+
+        RunWriter(Path output, int blockBytes, int width) throws IOException {
+            this.channel = AsynchronousFileChannel.open(output, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.width = width;
+            this.current = ByteBuffer.allocateDirect(blockBytes);
+            this.next = ByteBuffer.allocateDirect(blockBytes);
+        }
+
+        /**
+         * Appends element to the output.
+         */
+        void put(long value) throws IOException {
+            if (!current.hasRemaining()) {
+                flush();
+            }
+            if (width == Integer.BYTES) {
+                current.putInt((int) value);
+            } else {
+                current.putLong(value);
+            }
+        }
+
+        /**
+         * Starts writing the current block after the previous write is done.
+         */
+        private void flush() throws IOException {
+            if (writing != null) {
+                writing.await();
+            }
+            current.flip();
+            final long start = position;
+            position += current.remaining();
+            writing = AsyncTransfer.write(channel, current, start);
+            ByteBuffer free = next;
+            next = current;
+            current = free;
+            current.clear();
+        }
+
+        /**
+         * Writes the rest of elements and closes the file.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (current.position() > 0) {
+                    flush();
+                }
+                if (writing != null) {
+                    writing.await();
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
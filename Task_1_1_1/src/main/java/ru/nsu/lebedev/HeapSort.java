@@ -1,9 +1,16 @@
 package ru.nsu.lebedev;
 
+import java.util.Comparator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
 /**
  * The {@code heapSort} class implements a Heap Sort algorithm.
  * This sorting algorithm converts an unordered array into a maximum heap,
  * and then extracts the elements one at a time, creating a sorted array.
+ * Arrays of {@code long} and {@code double} have their own specialized code,
+ * so they are never boxed. Doubles are ordered like {@link Double#compare}.
  */
 public class HeapSort {
     /**
@@ -15,28 +22,56 @@ public class HeapSort {
         arr[b] = tmp;
     }
 
+    /**
+     * Swaps two elements of the array.
+     */
+    private static void swap(long[] arr, int a, int b) {
+        long tmp = arr[a];
+        arr[a] = arr[b];
+        arr[b] = tmp;
+    }
+
+    /**
+     * Swaps two elements of the array.
+     */
+    private static void swap(double[] arr, int a, int b) {
+        double tmp = arr[a];
+        arr[a] = arr[b];
+        arr[b] = tmp;
+    }
+
+    /**
+     * Swaps two elements of the array.
+     */
+    private static <T> void swap(T[] arr, int a, int b) {
+        T tmp = arr[a];
+        arr[a] = arr[b];
+        arr[b] = tmp;
+    }
+
     /**
      * Restores the heap structure, starting from the node with the index {@code i}.
      * If the current element is smaller than the child, an exchange and "sifting down" occurs.
+     * The heap occupies {@code arr[from, from + heapSize)}, indices are relative to {@code from}.
      *
      * @param i index of the element to be "sifted"
      */
-    private static void siftDown(int[] arr, int heapSize, int i) {
+    private static void siftDown(int[] arr, int from, int heapSize, int i) {
         int index = i;
         int left = i * 2 + 1;
         int right = i * 2 + 2;
         int swapI;
         while (left < heapSize) {
             swapI = index;
-            if (arr[left] > arr[index]) {
+            if (arr[from + left] > arr[from + index]) {
                 swapI = left;
             }
             if (right < heapSize
-                    && arr[right] > arr[swapI]) {
+                    && arr[from + right] > arr[from + swapI]) {
                 swapI = left + 1;
             }
             if (swapI != index) {
-                swap(arr, swapI, index);
+                swap(arr, from + swapI, from + index);
                 index = swapI;
                 left = index * 2 + 1;
                 right = index * 2 + 2;
@@ -46,6 +81,77 @@ public class HeapSort {
         }
     }
 
+    /**
+     * Restores the heap structure of longs, starting from the node with the index {@code i}.
+     * The heap occupies {@code arr[from, from + heapSize)}, indices are relative to {@code from}.
+     */
+    private static void siftDown(long[] arr, int from, int heapSize, int i) {
+        int index = i;
+        int left = i * 2 + 1;
+        while (left < heapSize) {
+            int swapI = index;
+            if (arr[from + left] > arr[from + index]) {
+                swapI = left;
+            }
+            if (left + 1 < heapSize && arr[from + left + 1] > arr[from + swapI]) {
+                swapI = left + 1;
+            }
+            if (swapI == index) {
+                break;
+            }
+            swap(arr, from + swapI, from + index);
+            index = swapI;
+            left = index * 2 + 1;
+        }
+    }
+
+    /**
+     * Restores the heap structure of doubles, starting from the node with the index {@code i}.
+     */
+    private static void siftDown(double[] arr, int heapSize, int i) {
+        int index = i;
+        int left = i * 2 + 1;
+        while (left < heapSize) {
+            int swapI = index;
+            if (Double.compare(arr[left], arr[index]) > 0) {
+                swapI = left;
+            }
+            if (left + 1 < heapSize && Double.compare(arr[left + 1], arr[swapI]) > 0) {
+                swapI = left + 1;
+            }
+            if (swapI == index) {
+                break;
+            }
+            swap(arr, swapI, index);
+            index = swapI;
+            left = index * 2 + 1;
+        }
+    }
+
+    /**
+     * Restores the heap structure of objects, starting from the node with the index {@code i}.
+     */
+    private static <T> void siftDown(T[] arr, Comparator<? super T> comparator,
+                                     int heapSize, int i) {
+        int index = i;
+        int left = i * 2 + 1;
+        while (left < heapSize) {
+            int swapI = index;
+            if (comparator.compare(arr[left], arr[index]) > 0) {
+                swapI = left;
+            }
+            if (left + 1 < heapSize && comparator.compare(arr[left + 1], arr[swapI]) > 0) {
+                swapI = left + 1;
+            }
+            if (swapI == index) {
+                break;
+            }
+            swap(arr, swapI, index);
+            index = swapI;
+            left = index * 2 + 1;
+        }
+    }
+
     /**
      * Main sorter's method.
      * Converts an array to a maximum heap.
@@ -56,16 +162,335 @@ public class HeapSort {
      * @return Sorted arr.
      */
     public static int[] heapsort(int[] arr) {
-        arr = arr.clone();
+        int[] copy = arr.clone();
+        heapsortInPlace(copy);
+        return copy;
+    }
+
+    /**
+     * Sorts the range {@code arr[from, to)} in place.
+     *
+     * @param arr array with the range.
+     * @param from first index of the range, inclusive.
+     * @param to last index of the range, exclusive.
+     */
+    static void heapsort(int[] arr, int from, int to) {
+        int length = to - from;
+        int heapSize = length;
+        for (int i = length / 2 - 1; i >= 0; --i) {
+            siftDown(arr, from, heapSize, i);
+        }
+        for (int i = 0; i < length - 1; ++i) {
+            swap(arr, from, from + heapSize - 1);
+            heapSize--;
+            siftDown(arr, from, heapSize, 0);
+        }
+    }
+
+    /**
+     * Sorts a copy of longs' array.
+     *
+     * @param arr Unsorted longs' array.
+     * @return Sorted arr.
+     */
+    public static long[] heapsort(long[] arr) {
+        long[] copy = arr.clone();
+        heapsortInPlace(copy);
+        return copy;
+    }
+
+    /**
+     * Sorts the range {@code arr[from, to)} of longs in place.
+     *
+     * @param arr array with the range.
+     * @param from first index of the range, inclusive.
+     * @param to last index of the range, exclusive.
+     */
+    static void heapsort(long[] arr, int from, int to) {
+        int heapSize = to - from;
+        for (int i = heapSize / 2 - 1; i >= 0; --i) {
+            siftDown(arr, from, heapSize, i);
+        }
+        while (heapSize > 1) {
+            swap(arr, from, from + --heapSize);
+            siftDown(arr, from, heapSize, 0);
+        }
+    }
+
+    /**
+     * Sorts a copy of doubles' array, NaN goes last and -0.0 goes before 0.0.
+     *
+     * @param arr Unsorted doubles' array.
+     * @return Sorted arr.
+     */
+    public static double[] heapsort(double[] arr) {
+        double[] copy = arr.clone();
+        heapsortInPlace(copy);
+        return copy;
+    }
+
+    /**
+     * Sorts a copy of objects' array in the order of comparator.
+     *
+     * @param arr Unsorted array.
+     * @param comparator order of elements.
+     * @param <T> type of elements.
+     * @return Sorted arr.
+     */
+    public static <T> T[] heapsort(T[] arr, Comparator<? super T> comparator) {
+        T[] copy = arr.clone();
+        heapsortInPlace(copy, comparator);
+        return copy;
+    }
+
+    /**
+     * Sorts the array itself without copying it.
+     *
+     * @param arr Unsorted ints' array, it becomes sorted.
+     */
+    public static void heapsortInPlace(int[] arr) {
+        heapsort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts the array of longs itself without copying it.
+     *
+     * @param arr Unsorted longs' array, it becomes sorted.
+     */
+    public static void heapsortInPlace(long[] arr) {
+        heapsort(arr, 0, arr.length);
+    }
+
+    /**
+     * Sorts the array of doubles itself without copying it.
+     *
+     * @param arr Unsorted doubles' array, it becomes sorted.
+     */
+    public static void heapsortInPlace(double[] arr) {
         int heapSize = arr.length;
-        for (int i = arr.length / 2 - 1; i >= 0; --i) {
+        for (int i = heapSize / 2 - 1; i >= 0; --i) {
             siftDown(arr, heapSize, i);
         }
-        for (int i = 0; i < arr.length - 1; ++i) {
-            swap(arr, 0, heapSize - 1);
-            heapSize--;
+        while (heapSize > 1) {
+            swap(arr, 0, --heapSize);
             siftDown(arr, heapSize, 0);
         }
-        return arr;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sorts the array of objects itself without copying it.
+     *
+     * @param arr Unsorted array, it becomes sorted.
+     * @param comparator order of elements.
+     * @param <T> type of elements.
+     */
+    public static <T> void heapsortInPlace(T[] arr, Comparator<? super T> comparator) {
+        int heapSize = arr.length;
+        for (int i = heapSize / 2 - 1; i >= 0; --i) {
+            siftDown(arr, comparator, heapSize, i);
+        }
+        while (heapSize > 1) {
+            swap(arr, 0, --heapSize);
+            siftDown(arr, comparator, heapSize, 0);
+        }
+    }
+
+    /**
+     * Finds the K largest elements by one pass with a bounded heap, O(n log(K)).
+     *
+     * @param arr array, it is not changed.
+     * @param k count of elements.
+     * @return at most K largest elements in descending order.
+     */
+    public static int[] topK(int[] arr, int k) {
+        TopkAccumulator accumulator = TopkAccumulator.largest(Math.min(k, arr.length));
+        for (int value : arr) {
+            accumulator.accept(value);
+        }
+        return accumulator.toSortedArray();
+    }
+
+    /**
+     * Finds the K largest elements of a stream, parallel streams are split between
+     * accumulators that are combined at the end.
+     *
+     * @param stream stream of ints.
+     * @param k count of elements.
+     * @return at most K largest elements in descending order.
+     */
+    public static int[] topK(IntStream stream, int k) {
+        return stream.collect(() -> TopkAccumulator.largest(k), TopkAccumulator::accept,
+                TopkAccumulator::combine).toSortedArray();
+    }
+
+    /**
+     * Finds the K smallest elements by one pass with a bounded heap, O(n log(K)).
+     *
+     * @param arr array, it is not changed.
+     * @param k count of elements.
+     * @return at most K smallest elements in ascending order.
+     */
+    public static int[] bottomK(int[] arr, int k) {
+        TopkAccumulator accumulator = TopkAccumulator.smallest(Math.min(k, arr.length));
+        for (int value : arr) {
+            accumulator.accept(value);
+        }
+        return accumulator.toSortedArray();
+    }
+
+    /**
+     * Finds the K smallest elements of a stream, parallel streams are split between
+     * accumulators that are combined at the end.
+     *
+     * @param stream stream of ints.
+     * @param k count of elements.
+     * @return at most K smallest elements in ascending order.
+     */
+    public static int[] bottomK(IntStream stream, int k) {
+        return stream.collect(() -> TopkAccumulator.smallest(k), TopkAccumulator::accept,
+                TopkAccumulator::combine).toSortedArray();
+    }
+
+    /**
+     * Sorts indices of items by long key instead of moving the items.
+     * Every key is extracted once into a primitive array, then the keys and the indices
+     * are sorted together, so neither keys nor items are boxed or moved.
+     *
+     * @param items items, they are not changed.
+     * @param key extractor of the key.
+     * @param <T> type of items.
+     * @return permutation: {@code items[result[0]]} has the smallest key.
+     */
+    public static <T> int[] sortedIndicesByLong(T[] items, ToLongFunction<? super T> key) {
+        long[] keys = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            keys[i] = key.applyAsLong(items[i]);
+        }
+        return sortedIndices(keys);
+    }
+
+    /**
+     * Sorts indices of items by double key instead of moving the items,
+     * the keys are ordered like {@link Double#compare}.
+     *
+     * @param items items, they are not changed.
+     * @param key extractor of the key.
+     * @param <T> type of items.
+     * @return permutation: {@code items[result[0]]} has the smallest key.
+     */
+    public static <T> int[] sortedIndicesByDouble(T[] items, ToDoubleFunction<? super T> key) {
+        long[] keys = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            keys[i] = sortableBits(key.applyAsDouble(items[i]));
+        }
+        return sortedIndices(keys);
+    }
+
+    /**
+     * Sorts indices of items in the order of comparator instead of moving the items.
+     *
+     * @param items items, they are not changed.
+     * @param comparator order of items.
+     * @param <T> type of items.
+     * @return permutation: {@code items[result[0]]} is the smallest item.
+     */
+    public static <T> int[] sortedIndices(T[] items, Comparator<? super T> comparator) {
+        int[] indices = identity(items.length);
+        int heapSize = items.length;
+        for (int i = heapSize / 2 - 1; i >= 0; --i) {
+            siftDownIndices(items, comparator, indices, heapSize, i);
+        }
+        while (heapSize > 1) {
+            swap(indices, 0, --heapSize);
+            siftDownIndices(items, comparator, indices, heapSize, 0);
+        }
+        return indices;
+    }
+
+    /**
+     * Heap sort of identity permutation by keys, both arrays are moved together.
+     */
+    private static int[] sortedIndices(long[] keys) {
+        int[] indices = identity(keys.length);
+        int heapSize = keys.length;
+        for (int i = heapSize / 2 - 1; i >= 0; --i) {
+            siftDownIndices(keys, indices, heapSize, i);
+        }
+        while (heapSize > 1) {
+            heapSize--;
+            swap(keys, 0, heapSize);
+            swap(indices, 0, heapSize);
+            siftDownIndices(keys, indices, heapSize, 0);
+        }
+        return indices;
+    }
+
+    /**
+     * Restores the heap structure of keys with their indices.
+     */
+    private static void siftDownIndices(long[] keys, int[] indices, int heapSize, int i) {
+        int index = i;
+        int left = i * 2 + 1;
+        while (left < heapSize) {
+            int swapI = index;
+            if (keys[left] > keys[index]) {
+                swapI = left;
+            }
+            if (left + 1 < heapSize && keys[left + 1] > keys[swapI]) {
+                swapI = left + 1;
+            }
+            if (swapI == index) {
+                break;
+            }
+            swap(keys, swapI, index);
+            swap(indices, swapI, index);
+            index = swapI;
+            left = index * 2 + 1;
+        }
+    }
+
+    /**
+     * Restores the heap structure of indices compared by their items.
+     */
+    private static <T> void siftDownIndices(T[] items, Comparator<? super T> comparator,
+                                            int[] indices, int heapSize, int i) {
+        int index = i;
+        int left = i * 2 + 1;
+        while (left < heapSize) {
+            int swapI = index;
+            if (comparator.compare(items[indices[left]], items[indices[index]]) > 0) {
+                swapI = left;
+            }
+            if (left + 1 < heapSize
+                    && comparator.compare(items[indices[left + 1]], items[indices[swapI]]) > 0) {
+                swapI = left + 1;
+            }
+            if (swapI == index) {
+                break;
+            }
+            swap(indices, swapI, index);
+            index = swapI;
+            left = index * 2 + 1;
+        }
+    }
+
+    /**
+     * Returns identity permutation of given length.
+     */
+    private static int[] identity(int length) {
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Maps double to long with the same order as {@link Double#compare}:
+     * negative numbers get their bits inverted, so they go in reverse order below positives.
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+}
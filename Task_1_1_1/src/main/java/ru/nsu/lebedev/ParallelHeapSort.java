@@ -0,0 +1,249 @@
+package ru.nsu.lebedev;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code ParallelHeapSort} class sorts an array on a {@link ForkJoinPool}.
+ * The array is split into chunks, one or a few per worker thread, every chunk is sorted
+ * by its own task, and then the sorted chunks are merged by a k-way merge
+ * that keeps the current heads of the chunks in a minimum heap.
+ */
+public class ParallelHeapSort {
+    /**
+     * Arrays shorter than this are sorted by one chunk without the merge.
+     */
+    static final int MIN_CHUNK_LENGTH = 1 << 13;
+    private static final int CHUNKS_PER_THREAD = 2;
+    private static final int INSERTION_SORT_LENGTH = 24;
+
+    /**
+     * Sorts a copy of the array on the common pool, the array itself is not changed.
+     *
+     * @param arr Unsorted ints' array.
+     * @return Sorted copy of arr.
+     */
+    public static int[] sort(int[] arr) {
+        return sort(arr, ChunkSort.INTRO_SORT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts a copy of the array, the array itself is not changed.
+     *
+     * @param arr Unsorted ints' array.
+     * @param chunkSort algorithm for chunks.
+     * @param pool pool that runs the tasks.
+     * @return Sorted copy of arr.
+     */
+    public static int[] sort(int[] arr, ChunkSort chunkSort, ForkJoinPool pool) {
+        int[] copy = arr.clone();
+        sortInPlace(copy, chunkSort, pool);
+        return copy;
+    }
+
+    /**
+     * Sorts the array itself on the common pool without {@code clone()}.
+     *
+     * @param arr Unsorted ints' array, it becomes sorted.
+     */
+    public static void sortInPlace(int[] arr) {
+        sortInPlace(arr, ChunkSort.INTRO_SORT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts the array itself without {@code clone()}.
+     * The merge still needs a buffer of the array length when there are several chunks.
+     *
+     * @param arr Unsorted ints' array, it becomes sorted.
+     * @param chunkSort algorithm for chunks.
+     * @param pool pool that runs the tasks.
+     */
+    public static void sortInPlace(int[] arr, ChunkSort chunkSort, ForkJoinPool pool) {
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD,
+                arr.length / MIN_CHUNK_LENGTH));
+        int[] bounds = new int[chunks + 1];
+        for (int i = 0; i <= chunks; i++) {
+            bounds[i] = (int) ((long) arr.length * i / chunks);
+        }
+        if (chunks == 1) {
+            sortChunk(arr, 0, arr.length, chunkSort);
+            return;
+        }
+        pool.invoke(new ChunkTask(arr, bounds, 0, chunks, chunkSort));
+        if (!isOrdered(arr, bounds)) {
+            int[] merged = new int[arr.length];
+            merge(arr, bounds, merged);
+            System.arraycopy(merged, 0, arr, 0, arr.length);
+        }
+    }
+
+    /**
+     * Sorts the range {@code arr[from, to)} by the chosen algorithm.
+     */
+    static void sortChunk(int[] arr, int from, int to, ChunkSort chunkSort) {
+        if (chunkSort == ChunkSort.HEAP_SORT) {
+            HeapSort.heapsort(arr, from, to);
+        } else {
+            int depth = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(1, to - from)));
+            introSort(arr, from, to, depth);
+        }
+    }
+
+    /**
+     * Checks whether sorted chunks already follow each other in order,
+     * then the merge is not needed, e.g. for sorted input.
+     */
+    private static boolean isOrdered(int[] arr, int[] bounds) {
+        for (int i = 1; i < bounds.length - 1; i++) {
+            if (arr[bounds[i] - 1] > arr[bounds[i]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges sorted chunks of {@code arr} into {@code out}.
+     * The heap holds indices of chunks ordered by their current head element,
+     * so every output element costs O(log(k)) comparisons.
+     */
+    private static void merge(int[] arr, int[] bounds, int[] out) {
+        int chunks = bounds.length - 1;
+        int[] heads = new int[chunks];
+        int[] heap = new int[chunks];
+        int heapSize = 0;
+        for (int i = 0; i < chunks; i++) {
+            heads[i] = bounds[i];
+            if (bounds[i] < bounds[i + 1]) {
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; --i) {
+            siftDownMerge(arr, heads, heap, heapSize, i);
+        }
+        int position = 0;
+        while (heapSize > 0) {
+            int chunk = heap[0];
+            out[position++] = arr[heads[chunk]++];
+            if (heads[chunk] == bounds[chunk + 1]) {
+                heap[0] = heap[--heapSize];
+            }
+            if (heapSize > 0) {
+                siftDownMerge(arr, heads, heap, heapSize, 0);
+            }
+        }
+    }
+
+    /**
+     * Restores the minimum heap of chunks, starting from the node with the index {@code i}.
+     */
+    private static void siftDownMerge(int[] arr, int[] heads, int[] heap, int heapSize, int i) {
+        int index = i;
+        int chunk = heap[index];
+        int value = arr[heads[chunk]];
+        while (index * 2 + 1 < heapSize) {
+            int child = index * 2 + 1;
+            if (child + 1 < heapSize && arr[heads[heap[child + 1]]] < arr[heads[heap[child]]]) {
+                child++;
+            }
+            if (arr[heads[heap[child]]] >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = chunk;
+    }
+
+    /**
+     * Quick sort of {@code arr[from, to)} with three-way partition, so runs of equal
+     * elements are excluded from recursion. The smaller part is sorted recursively and
+     * the bigger one by the loop, when depth is exhausted the range is heap sorted.
+     */
+    private static void introSort(int[] arr, int from, int to, int depth) {
+        while (to - from > INSERTION_SORT_LENGTH) {
+            if (depth-- == 0) {
+                HeapSort.heapsort(arr, from, to);
+                return;
+            }
+            int pivot = medianOfThree(arr[from], arr[(from + to) >>> 1], arr[to - 1]);
+            int less = from;
+            int greater = to;
+            int i = from;
+            while (i < greater) {
+                int value = arr[i];
+                if (value < pivot) {
+                    arr[i++] = arr[less];
+                    arr[less++] = value;
+                } else if (value > pivot) {
+                    arr[i] = arr[--greater];
+                    arr[greater] = value;
+                } else {
+                    i++;
+                }
+            }
+            if (less - from < to - greater) {
+                introSort(arr, from, less, depth);
+                from = greater;
+            } else {
+                introSort(arr, greater, to, depth);
+                to = less;
+            }
+        }
+        insertionSort(arr, from, to);
+    }
+
+    /**
+     * Returns the middle one of three values.
+     */
+    private static int medianOfThree(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Insertion sort of short range {@code arr[from, to)}.
+     */
+    private static void insertionSort(int[] arr, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = arr[i];
+            int j = i - 1;
+            while (j >= from && arr[j] > value) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = value;
+        }
+    }
+
+    /**
+     * The {@code ChunkTask} class sorts chunks {@code [low, high)} by splitting them in halves.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int[] bounds;
+        private final int low;
+        private final int high;
+        private final ChunkSort chunkSort;
+
+        ChunkTask(int[] arr, int[] bounds, int low, int high, ChunkSort chunkSort) {
+            this.arr = arr;
+            this.bounds = bounds;
+            this.low = low;
+            this.high = high;
+            this.chunkSort = chunkSort;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low == 1) {
+                sortChunk(arr, bounds[low], bounds[high], chunkSort);
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            invokeAll(new ChunkTask(arr, bounds, low, middle, chunkSort),
+                    new ChunkTask(arr, bounds, middle, high, chunkSort));
+        }
+    }
+}
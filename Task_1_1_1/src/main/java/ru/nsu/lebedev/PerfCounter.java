@@ -0,0 +1,211 @@
+package ru.nsu.lebedev;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The {@code PerfCounter} class is a hook for the hardware cache miss counter of this process.
+ * It attaches {@code perf stat} to the JVM when the binary is on PATH, otherwise
+ * and on any error the count is reported as -1.
+ * The counter covers all threads of the JVM, so it includes JIT and GC work too.
+ * perf attaches asynchronously, so it is started with disabled events and enabled through
+ * its control FIFO; {@link #start()} returns after perf acknowledges it, so the measured
+ * region is counted from its beginning. perf without {@code --control} (older than 5.11)
+ * is reported as unavailable by -1.
+ */
+public class PerfCounter {
+    private static final long ATTACH_TIMEOUT_MS = 5_000;
+
+    private final String perf;
+    private Process process;
+
+    /**
+     * Creates counter that uses given perf binary.
+     */
+    private PerfCounter(String perf) {
+        this.perf = perf;
+    }
+
+    /**
+     * Finds {@code perf} on PATH.
+     *
+     * @return counter, it is unavailable if perf is not found.
+     */
+    public static PerfCounter detect() {
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String directory : path.split(File.pathSeparator)) {
+                File file = new File(directory, "perf");
+                if (file.canExecute()) {
+                    return new PerfCounter(file.getPath());
+                }
+            }
+        }
+        return new PerfCounter(null);
+    }
+
+    /**
+     * Returns whether cache misses can be counted.
+     *
+     * @return True or False.
+     */
+    public boolean isAvailable() {
+        return perf != null;
+    }
+
+    /**
+     * Starts counting cache misses and waits until perf has attached.
+     */
+    public void start() {
+        if (perf == null) {
+            return;
+        }
+        Path directory = null;
+        try {
+            directory = Files.createTempDirectory("perf");
+            Path control = directory.resolve("control");
+            Path ack = directory.resolve("ack");
+            if (new ProcessBuilder("mkfifo", control.toString(), ack.toString()).start()
+                    .waitFor() != 0) {
+                return;
+            }
+            process = new ProcessBuilder(perf, "stat", "-e", "cache-misses", "-x", ",",
+                    "--delay=-1", "--control", "fifo:" + control + "," + ack,
+                    "-p", String.valueOf(ProcessHandle.current().pid()))
+                    .redirectErrorStream(true)
+                    .start();
+            if (!enable(control, ack)) {
+                process.destroy();
+                process = null;
+            }
+        } catch (IOException e) {
+            stopQuietly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopQuietly();
+        } finally {
+            deleteQuietly(directory);
+        }
+    }
+
+    /**
+     * Sends enable command to perf and waits for its ack. FIFOs are opened for reading
+     * and writing, so opening doesn't wait for perf; reading the ack is stopped by closing
+     * the channel when perf exits or doesn't answer in time.
+     */
+    private boolean enable(Path control, Path ack) throws IOException, InterruptedException {
+        try (FileChannel commands = FileChannel.open(control, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileChannel answers = FileChannel.open(ack, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            commands.write(ByteBuffer.wrap("enable\n".getBytes(StandardCharsets.US_ASCII)));
+            CompletableFuture<Boolean> acknowledged = CompletableFuture.supplyAsync(
+                    () -> readAck(answers), task -> {
+                        Thread thread = new Thread(task, "perf-ack");
+                        thread.setDaemon(true);
+                        thread.start();
+                    });
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ATTACH_TIMEOUT_MS);
+            while (process.isAlive() && System.nanoTime() < deadline) {
+                try {
+                    return acknowledged.get(10, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // perf is still starting
+                } catch (ExecutionException e) {
+                    return false;
+                }
+            }
+            return acknowledged.isDone() && acknowledged.getNow(false);
+        }
+    }
+
+    /**
+     * Reads answer line of perf.
+     */
+    private static boolean readAck(FileChannel answers) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        try {
+            while (buffer.hasRemaining() && answers.read(buffer) >= 0) {
+                String answer = new String(buffer.array(), 0, buffer.position(),
+                        StandardCharsets.US_ASCII);
+                if (answer.indexOf('\n') >= 0) {
+                    return answer.startsWith("ack");
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return false;
+    }
+
+    private void stopQuietly() {
+        if (process != null) {
+            process.destroy();
+            process = null;
+        }
+    }
+
+    /**
+     * Deletes FIFOs, perf keeps its opened ends.
+     */
+    private static void deleteQuietly(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(directory.resolve("control"));
+            Files.deleteIfExists(directory.resolve("ack"));
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // temporary files are removed by the system
+        }
+    }
+
+    /**
+     * Stops counting, perf prints its totals on SIGINT.
+     *
+     * @return count of cache misses since start or -1 if it is unknown.
+     */
+    public long stop() {
+        if (process == null) {
+            return -1;
+        }
+        Process stopped = process;
+        process = null;
+        try {
+            new ProcessBuilder("kill", "-INT", String.valueOf(stopped.pid())).start().waitFor();
+            long misses = -1;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    stopped.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(",");
+                    if (fields.length > 2 && fields[2].startsWith("cache-misses")) {
+                        misses = Long.parseLong(fields[0].trim());
+                    }
+                }
+            }
+            stopped.waitFor();
+            return misses;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } finally {
+            stopped.destroy();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.nsu.lebedev;
+
+/**
+ * Ways of restoring the heap after its root was replaced, used by {@link HeapSorter}.
+ */
+public enum SiftStrategy {
+    /**
+     * Classic sifting: on every level the biggest child is compared with the sifted element.
+     */
+    TOP_DOWN,
+    /**
+     * Floyd's sifting: the hole goes down to a leaf along the biggest children and then
+     * the element climbs up from it. The element taken from the heap end is usually small,
+     * so it climbs only a level or two and about half of the comparisons are saved.
+     */
+    BOTTOM_UP
+}
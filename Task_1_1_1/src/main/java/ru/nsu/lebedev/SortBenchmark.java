@@ -0,0 +1,274 @@
+package ru.nsu.lebedev;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Class with comparing sorting algorithms on several distributions of input,
+ * results are printed as csv lines.
+ */
+public class SortBenchmark {
+    private static final int[] DEFAULT_SIZES = {1_000, 1_000_000, 10_000_000, 500_000_000};
+    private static final String[] DISTRIBUTIONS = {"random", "sorted", "reversed", "duplicates"};
+    private static final int WARMUP_ROUNDS = 3;
+    private static long sink;
+
+    /**
+     * Function with comparing sorting algorithms.
+     *
+     * @param args name of benchmark (sorts, heaps, external, topk) and sizes of arrays,
+     *             all benchmarks with default sizes are run when empty.
+     */
+    public static void main(String[] args) {
+        String name = args.length > 0 ? args[0] : "all";
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 1) {
+            sizes = Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray();
+        }
+        if (name.equals("all") || name.equals("sorts")) {
+            System.out.println("algorithm,distribution,size,ms");
+            for (int size : sizes) {
+                for (String distribution : DISTRIBUTIONS) {
+                    compareSorts(distribution, size);
+                }
+            }
+        }
+        if (name.equals("all") || name.equals("heaps")) {
+            System.out.println(
+                    "arity,sift,branchless,distribution,size,ms,comparisons,cacheMisses");
+            PerfCounter counter = PerfCounter.detect();
+            for (int size : sizes) {
+                for (String distribution : DISTRIBUTIONS) {
+                    compareHeaps(distribution, size, counter);
+                }
+            }
+        }
+        if (name.equals("all") || name.equals("external")) {
+            System.out.println("memoryBudget,fanIn,size,ms");
+            for (int size : sizes) {
+                compareExternal(size);
+            }
+        }
+        if (name.equals("all") || name.equals("topk")) {
+            System.out.println("way,k,size,ms");
+            for (int size : sizes) {
+                compareTopK(size);
+            }
+        }
+    }
+
+    /**
+     * Compares sorting algorithms on one array, every algorithm sorts its own copy.
+     *
+     * @param distribution name of distribution of elements.
+     * @param size length of the array.
+     */
+    static void compareSorts(String distribution, int size) {
+        final int[] source;
+        try {
+            source = generate(distribution, size);
+        } catch (OutOfMemoryError e) {
+            System.out.println("all," + distribution + "," + size + ",-1");
+            return;
+        }
+        measure("HeapSort.heapsort", distribution, source, arr -> consume(HeapSort.heapsort(arr)));
+        measure("ParallelHeapSort.heap", distribution, source, arr -> ParallelHeapSort.sortInPlace(
+                arr, ChunkSort.HEAP_SORT, ForkJoinPool.commonPool()));
+        measure("ParallelHeapSort.intro", distribution, source, ParallelHeapSort::sortInPlace);
+        measure("Arrays.sort", distribution, source, Arrays::sort);
+        measure("Arrays.parallelSort", distribution, source, Arrays::parallelSort);
+    }
+
+    /**
+     * Compares heap layouts on one array: arity 2, 4 and 8, both sift strategies,
+     * with and without branchless choice of child. Comparisons are counted by the sorter
+     * and cache misses by the perf hook if it is available.
+     *
+     * @param distribution name of distribution of elements.
+     * @param size length of the array.
+     * @param counter cache miss counter.
+     */
+    static void compareHeaps(String distribution, int size, PerfCounter counter) {
+        final int[] source;
+        try {
+            source = generate(distribution, size);
+        } catch (OutOfMemoryError e) {
+            System.out.println("all,all,all," + distribution + "," + size + ",-1,-1,-1");
+            return;
+        }
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            for (SiftStrategy siftStrategy : SiftStrategy.values()) {
+                for (boolean branchless : new boolean[]{false, true}) {
+                    HeapSorter sorter = new HeapSorter(arity, siftStrategy, branchless);
+                    try {
+                        int[] arr = source.clone();
+                        counter.start();
+                        long start = System.nanoTime();
+                        sorter.sort(arr);
+                        long time = (System.nanoTime() - start) / 1_000_000;
+                        long misses = counter.stop();
+                        consume(arr);
+                        System.out.println(arity + "," + siftStrategy + "," + branchless + ","
+                                + distribution + "," + size + "," + time + ","
+                                + sorter.comparisons() + "," + misses);
+                    } catch (OutOfMemoryError e) {
+                        System.out.println(arity + "," + siftStrategy + "," + branchless + ","
+                                + distribution + "," + size + ",-1,-1,-1");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts file of random ints by {@link ExternalHeapSort} with budgets of 1/8 and 1/64
+     * of the file, so runs are merged in one and in several passes.
+     *
+     * @param size count of ints in the file.
+     */
+    static void compareExternal(int size) {
+        Path input = null;
+        Path output = null;
+        try {
+            input = Files.createTempFile("input", ".bin");
+            output = Files.createTempFile("output", ".bin");
+            Random random = new Random(42);
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+                for (int i = 0; i < size; i++) {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        channel.write(buffer);
+                        buffer.clear();
+                    }
+                    buffer.putInt(random.nextInt());
+                }
+                buffer.flip();
+                channel.write(buffer);
+            }
+            long fileBytes = (long) size * Integer.BYTES;
+            for (int fanIn : new int[]{64, 4}) {
+                long budget = Math.max(1 << 16, fileBytes / (fanIn == 64 ? 8 : 64));
+                ExternalHeapSort sorter = new ExternalHeapSort(budget, fanIn);
+                long start = System.nanoTime();
+                sorter.sortInts(input, output);
+                long time = (System.nanoTime() - start) / 1_000_000;
+                System.out.println(budget + "," + fanIn + "," + size + "," + time);
+            }
+        } catch (IOException e) {
+            System.err.println("External sort error: " + e.getMessage());
+        } finally {
+            try {
+                if (input != null) {
+                    Files.deleteIfExists(input);
+                }
+                if (output != null) {
+                    Files.deleteIfExists(output);
+                }
+            } catch (IOException e) {
+                System.err.println("Can't delete temporary file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compares finding the K largest elements by full heap sort followed by a slice
+     * with one pass of bounded heap over the array and over a parallel stream.
+     *
+     * @param size length of the array.
+     */
+    static void compareTopK(int size) {
+        final int[] source;
+        try {
+            source = generate("random", size);
+        } catch (OutOfMemoryError e) {
+            System.out.println("all,all," + size + ",-1");
+            return;
+        }
+        for (int k : new int[]{10, 1000}) {
+            long start = System.nanoTime();
+            int[] sorted = HeapSort.heapsort(source);
+            int[] slice = new int[Math.min(k, size)];
+            for (int i = 0; i < slice.length; i++) {
+                slice[i] = sorted[size - 1 - i];
+            }
+            reportTopK("heapsort", k, size, start, slice);
+            start = System.nanoTime();
+            reportTopK("topK", k, size, start, HeapSort.topK(source, k));
+            start = System.nanoTime();
+            reportTopK("parallelStream", k, size, start,
+                    HeapSort.topK(IntStream.of(source).parallel(), k));
+        }
+    }
+
+    /**
+     * Prints one csv line of top-K comparison.
+     */
+    private static void reportTopK(String way, int k, int size, long start, int[] result) {
+        long time = (System.nanoTime() - start) / 1_000_000;
+        consume(result);
+        System.out.println(way + "," + k + "," + size + "," + time);
+    }
+
+    /**
+     * Generates array of given distribution with fixed seed.
+     *
+     * @param distribution random, sorted, reversed or duplicates.
+     * @param size length of the array.
+     * @return new array.
+     */
+    static int[] generate(String distribution, int size) {
+        Random random = new Random(42);
+        int[] arr = new int[size];
+        for (int i = 0; i < size; i++) {
+            arr[i] = switch (distribution) {
+                case "sorted" -> i;
+                case "reversed" -> size - i;
+                case "duplicates" -> random.nextInt(16);
+                default -> random.nextInt();
+            };
+        }
+        return arr;
+    }
+
+    /**
+     * Prints time of sorting a copy of source, small arrays are sorted several times
+     * before measuring, so the JIT compiles the algorithm first.
+     */
+    private static void measure(String algorithm, String distribution, int[] source,
+                                Consumer<int[]> sorter) {
+        try {
+            if (source.length <= 1_000_000) {
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    sorter.accept(source.clone());
+                }
+            }
+            int[] arr = source.clone();
+            long start = System.nanoTime();
+            sorter.accept(arr);
+            long time = (System.nanoTime() - start) / 1_000_000;
+            consume(arr);
+            System.out.println(algorithm + "," + distribution + "," + source.length + "," + time);
+        } catch (OutOfMemoryError e) {
+            System.out.println(algorithm + "," + distribution + "," + source.length + ",-1");
+        }
+    }
+
+    /**
+     * Keeps the result of measured code alive, so it can't be removed by JIT.
+     */
+    private static void consume(int[] arr) {
+        if (arr.length > 0) {
+            sink += arr[arr.length / 2];
+        }
+    }
+}
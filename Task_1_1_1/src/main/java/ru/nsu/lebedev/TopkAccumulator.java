@@ -0,0 +1,173 @@
+package ru.nsu.lebedev;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.Collector;
+
+/**
+ * The {@code TopkAccumulator} class keeps the K smallest or the K largest ints of a stream.
+ * It holds a bounded maximum heap of K elements whose root is the worst kept element,
+ * so every element costs O(log(K)) and the whole stream O(n log(K)).
+ * The heap grows by doubling up to K, so a big K costs memory only for kept elements.
+ * For the largest elements values are stored bitwise inverted, which reverses their order
+ * without overflow, so both cases share one heap.
+ * Accumulators of parts of a stream can be combined, so it works in parallel streams:
+ * {@code stream.collect(() -> TopkAccumulator.smallest(k), TopkAccumulator::accept,
+ * TopkAccumulator::combine)}.
+ */
+public class TopkAccumulator implements IntConsumer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int limit;
+    private final boolean largest;
+    private int[] heap;
+    private int size;
+
+    /**
+     * Creates accumulator.
+     */
+    private TopkAccumulator(int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("K must not be negative");
+        }
+        this.limit = k;
+        this.largest = largest;
+        this.heap = new int[Math.min(k, INITIAL_CAPACITY)];
+    }
+
+    /**
+     * Creates accumulator of the K smallest elements.
+     *
+     * @param k count of kept elements.
+     * @return new accumulator.
+     */
+    public static TopkAccumulator smallest(int k) {
+        return new TopkAccumulator(k, false);
+    }
+
+    /**
+     * Creates accumulator of the K largest elements.
+     *
+     * @param k count of kept elements.
+     * @return new accumulator.
+     */
+    public static TopkAccumulator largest(int k) {
+        return new TopkAccumulator(k, true);
+    }
+
+    /**
+     * Creates collector of boxed streams, primitive streams should use the three-argument
+     * {@code collect} with {@code accept} and {@code combine} instead.
+     *
+     * @param k count of kept elements.
+     * @param largest true for the largest elements, false for the smallest.
+     * @return collector that gives the result of {@link #toSortedArray()}.
+     */
+    public static Collector<Integer, TopkAccumulator, int[]> collector(int k, boolean largest) {
+        return Collector.of(() -> new TopkAccumulator(k, largest), TopkAccumulator::accept,
+                TopkAccumulator::combine, TopkAccumulator::toSortedArray);
+    }
+
+    /**
+     * Offers element to the accumulator.
+     *
+     * @param value element of the stream.
+     */
+    @Override
+    public void accept(int value) {
+        offer(largest ? ~value : value);
+    }
+
+    /**
+     * Moves all elements of other accumulator into this one.
+     *
+     * @param other accumulator of the same K and the same direction.
+     * @return this accumulator.
+     */
+    public TopkAccumulator combine(TopkAccumulator other) {
+        if (other.limit != limit || other.largest != largest) {
+            throw new IllegalArgumentException("Accumulators keep different elements");
+        }
+        for (int i = 0; i < other.size; i++) {
+            offer(other.heap[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Returns kept elements from the best one: the smallest elements ascending,
+     * the largest elements descending.
+     *
+     * @return new array of at most K elements.
+     */
+    public int[] toSortedArray() {
+        int[] result = new int[size];
+        System.arraycopy(heap, 0, result, 0, size);
+        HeapSort.heapsortInPlace(result);
+        if (largest) {
+            for (int i = 0; i < size; i++) {
+                result[i] = ~result[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns count of kept elements.
+     *
+     * @return size, at most K.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns maximal count of kept elements, the K.
+     *
+     * @return limit.
+     */
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Adds stored value if the heap is not full or the value is better than the root.
+     */
+    private void offer(int value) {
+        if (size < limit) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(limit, 2L * size));
+            }
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (heap[parent] >= value) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = value;
+        } else if (limit > 0 && value < heap[0]) {
+            siftDown(value);
+        }
+    }
+
+    /**
+     * Places value into the root and moves it down while some child is bigger.
+     */
+    private void siftDown(int value) {
+        int index = 0;
+        int left = 1;
+        while (left < size) {
+            int child = left + 1 < size && heap[left + 1] > heap[left] ? left + 1 : left;
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+            left = index * 2 + 1;
+        }
+        heap[index] = value;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for ExternalHeapSort.
+ */
+public class ExternalHeapSortTest {
+    @TempDir
+    Path directory;
+
+    private Path writeInts(int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+        buffer.asIntBuffer().put(values);
+        return Files.write(directory.resolve("ints.bin"), buffer.array());
+    }
+
+    private Path writeLongs(long[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Long.BYTES);
+        buffer.asLongBuffer().put(values);
+        return Files.write(directory.resolve("longs.bin"), buffer.array());
+    }
+
+    private static int[] readInts(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        int[] values = new int[buffer.remaining() / Integer.BYTES];
+        buffer.asIntBuffer().get(values);
+        return values;
+    }
+
+    private static long[] readLongs(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        long[] values = new long[buffer.remaining() / Long.BYTES];
+        buffer.asLongBuffer().get(values);
+        return values;
+    }
+
+    private long runFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("run")).count();
+        }
+    }
+
+    @Test
+    void sortIntsWithSeveralMergePasses() throws IOException {
+        int[] values = new Random(1).ints(10_000).toArray();
+        Path input = writeInts(values);
+        Path output = directory.resolve("sorted.bin");
+        new ExternalHeapSort(4096, 3, directory).sortInts(input, output);
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, readInts(output));
+        assertArrayEquals(values, readInts(input));
+        assertEquals(0, runFiles());
+    }
+
+    @Test
+    void runsAreDeletedWhenMergeFails() throws IOException {
+        Path input = writeInts(new Random(2).ints(10_000).toArray());
+        Path output = directory.resolve("missing").resolve("sorted.bin");
+        ExternalHeapSort sorter = new ExternalHeapSort(4096, 3, directory);
+        assertThrows(IOException.class, () -> sorter.sortInts(input, output));
+        assertEquals(0, runFiles());
+    }
+
+    @Test
+    void sortLongs() throws IOException {
+        long[] values = new Random(2).longs(5_000).toArray();
+        values[0] = Long.MIN_VALUE;
+        values[1] = Long.MAX_VALUE;
+        Path input = writeLongs(values);
+        Path output = directory.resolve("sorted.bin");
+        new ExternalHeapSort(10_000, 4, directory).sortLongs(input, output);
+        long[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, readLongs(output));
+        assertEquals(0, runFiles());
+    }
+
+    @Test
+    void singleRunAndDefaultDirectory() throws IOException {
+        int[] values = {5, -3, 9, 0, 0, Integer.MIN_VALUE};
+        Path input = writeInts(values);
+        Path output = directory.resolve("sorted.bin");
+        Files.write(output, new byte[100]);
+        new ExternalHeapSort(1 << 20, 16).sortInts(input, output);
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, -3, 0, 0, 5, 9}, readInts(output));
+    }
+
+    @Test
+    void emptyFile() throws IOException {
+        Path input = writeInts(new int[0]);
+        Path output = directory.resolve("sorted.bin");
+        new ExternalHeapSort(4096, 2, directory).sortInts(input, output);
+        assertEquals(0, Files.size(output));
+    }
+
+    @Test
+    void duplicatesAndSortedInput() throws IOException {
+        int[] values = new int[3000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 7;
+        }
+        Path output = directory.resolve("sorted.bin");
+        new ExternalHeapSort(1000, 2, directory).sortInts(writeInts(values), output);
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, readInts(output));
+        new ExternalHeapSort(1000, 2, directory).sortInts(writeInts(expected), output);
+        assertArrayEquals(expected, readInts(output));
+    }
+
+    @Test
+    void illegalArguments() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalHeapSort(1 << 20, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalHeapSort(64, 16));
+        Path input = Files.write(directory.resolve("odd.bin"), new byte[6]);
+        assertThrows(IOException.class, () -> new ExternalHeapSort(4096, 2, directory)
+                .sortInts(input, directory.resolve("out.bin")));
+        assertThrows(IOException.class, () -> new ExternalHeapSort(4096, 2, directory)
+                .sortLongs(directory.resolve("missing.bin"), directory.resolve("out.bin")));
+    }
+}
@@ -0,0 +1,107 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for HeapSort overloads for longs, doubles, objects and index permutations.
+ */
+public class HeapSortTypesTest {
+    private record Event(long timestamp, double score, String name) {
+    }
+
+    private static Event[] events(int count) {
+        Random random = new Random(11);
+        Event[] events = new Event[count];
+        for (int i = 0; i < count; i++) {
+            events[i] = new Event(random.nextLong(), random.nextGaussian(),
+                    "e" + random.nextInt(50));
+        }
+        return events;
+    }
+
+    @Test
+    void longSort() {
+        long[] arr = new Random(1).longs(1000).toArray();
+        long[] expected = arr.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, HeapSort.heapsort(arr));
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE},
+                HeapSort.heapsort(new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 0}));
+        assertArrayEquals(new long[0], HeapSort.heapsort(new long[0]));
+        HeapSort.heapsortInPlace(arr);
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test
+    void doubleSort() {
+        double[] arr = {3.5, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, -7.25,
+            Double.POSITIVE_INFINITY, 1e-300, -1e-300, Double.MAX_VALUE, Double.MIN_VALUE};
+        double[] expected = arr.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, HeapSort.heapsort(arr));
+        double[] random = new Random(2).doubles(1000, -1, 1).toArray();
+        double[] sorted = random.clone();
+        Arrays.sort(sorted);
+        HeapSort.heapsortInPlace(random);
+        assertArrayEquals(sorted, random);
+    }
+
+    @Test
+    void objectSort() {
+        String[] arr = {"pear", "apple", "fig", "banana", "kiwi"};
+        assertArrayEquals(new String[]{"fig", "kiwi", "pear", "apple", "banana"},
+                HeapSort.heapsort(arr, Comparator.comparingInt(String::length)
+                        .thenComparing(Comparator.naturalOrder())));
+        assertArrayEquals(new String[]{"pear", "kiwi", "fig", "banana", "apple"},
+                HeapSort.heapsort(arr, Comparator.reverseOrder()));
+        assertEquals("pear", arr[0]);
+        HeapSort.heapsortInPlace(arr, Comparator.naturalOrder());
+        assertArrayEquals(new String[]{"apple", "banana", "fig", "kiwi", "pear"}, arr);
+    }
+
+    @Test
+    void indicesByLong() {
+        Event[] events = events(500);
+        Event[] copy = events.clone();
+        int[] order = HeapSort.sortedIndicesByLong(events, Event::timestamp);
+        assertArrayEquals(copy, events);
+        assertEquals(events.length, Arrays.stream(order).distinct().count());
+        for (int i = 1; i < order.length; i++) {
+            assertEquals(true, events[order[i - 1]].timestamp() <= events[order[i]].timestamp());
+        }
+    }
+
+    @Test
+    void indicesByDouble() {
+        Event[] events = events(500);
+        events[3] = new Event(0, Double.NaN, "nan");
+        events[4] = new Event(0, -0.0, "minusZero");
+        events[5] = new Event(0, 0.0, "zero");
+        int[] order = HeapSort.sortedIndicesByDouble(events, Event::score);
+        double[] scores = Arrays.stream(events).mapToDouble(Event::score).toArray();
+        Arrays.sort(scores);
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(scores[i], events[order[i]].score());
+        }
+        assertEquals(3, order[order.length - 1]);
+    }
+
+    @Test
+    void indicesByComparator() {
+        Event[] events = events(500);
+        int[] order = HeapSort.sortedIndices(events, Comparator.comparing(Event::name));
+        Event[] sorted = events.clone();
+        Arrays.sort(sorted, Comparator.comparing(Event::name));
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(sorted[i].name(), events[order[i]].name());
+        }
+        assertArrayEquals(new int[0], HeapSort.sortedIndices(new Event[0],
+                Comparator.comparing(Event::name)));
+    }
+}
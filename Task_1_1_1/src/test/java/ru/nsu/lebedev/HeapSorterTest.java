@@ -0,0 +1,104 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for HeapSorter.
+ */
+public class HeapSorterTest {
+    private static final String[] DISTRIBUTIONS = {"random", "sorted", "reversed", "duplicates"};
+
+    @Test
+    void allVariantsSort() {
+        for (int arity = 2; arity <= 16; arity *= 2) {
+            for (SiftStrategy siftStrategy : SiftStrategy.values()) {
+                for (boolean branchless : new boolean[]{false, true}) {
+                    for (String distribution : DISTRIBUTIONS) {
+                        for (int size : new int[]{0, 1, 2, 3, 9, 1000}) {
+                            int[] arr = SortBenchmark.generate(distribution, size);
+                            int[] expected = arr.clone();
+                            Arrays.sort(expected);
+                            new HeapSorter(arity, siftStrategy, branchless).sort(arr);
+                            assertArrayEquals(expected, arr);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void sortRange() {
+        int[] arr = SortBenchmark.generate("random", 100);
+        int[] expected = arr.clone();
+        Arrays.sort(expected, 10, 90);
+        new HeapSorter(4, SiftStrategy.BOTTOM_UP, true).sort(arr, 10, 90);
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test
+    void intMaxMin() {
+        int[] arr = {Integer.MAX_VALUE, Integer.MIN_VALUE, 0, Integer.MIN_VALUE,
+            Integer.MAX_VALUE, -1, 1, Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1};
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            int[] copy = arr.clone();
+            new HeapSorter(arity, SiftStrategy.BOTTOM_UP, true).sort(copy);
+            assertArrayEquals(expected, copy);
+        }
+    }
+
+    @Test
+    void bottomUpSavesComparisons() {
+        int[] arr = SortBenchmark.generate("random", 100_000);
+        HeapSorter topDown = new HeapSorter(2, SiftStrategy.TOP_DOWN, false);
+        HeapSorter bottomUp = new HeapSorter(2, SiftStrategy.BOTTOM_UP, false);
+        topDown.sort(arr.clone());
+        bottomUp.sort(arr.clone());
+        assertTrue(bottomUp.comparisons() * 10 < topDown.comparisons() * 7);
+    }
+
+    @Test
+    void wideHeapIsLower() {
+        int[] arr = SortBenchmark.generate("random", 100_000);
+        HeapSorter binary = new HeapSorter(2, SiftStrategy.TOP_DOWN, false);
+        HeapSorter octal = new HeapSorter(8, SiftStrategy.TOP_DOWN, true);
+        binary.sort(arr.clone());
+        octal.sort(arr.clone());
+        assertTrue(octal.comparisons() > binary.comparisons());
+    }
+
+    @Test
+    void gettersAndArity() {
+        HeapSorter sorter = new HeapSorter(4, SiftStrategy.BOTTOM_UP, true);
+        assertEquals(4, sorter.arity());
+        assertEquals(SiftStrategy.BOTTOM_UP, sorter.siftStrategy());
+        assertTrue(sorter.isBranchless());
+        assertEquals(0, sorter.comparisons());
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeapSorter(3, SiftStrategy.TOP_DOWN, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeapSorter(1, SiftStrategy.TOP_DOWN, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeapSorter(128, SiftStrategy.TOP_DOWN, false));
+    }
+
+    @Test
+    void perfCounterWithoutPerf() {
+        PerfCounter counter = PerfCounter.detect();
+        counter.start();
+        long misses = counter.stop();
+        if (!counter.isAvailable()) {
+            assertEquals(-1, misses);
+        }
+        assertFalse(misses < -1);
+    }
+}
@@ -0,0 +1,98 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests for ParallelHeapSort.
+ */
+public class ParallelHeapSortTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void simpleSort() {
+        int[] arr = {4, 9, 1, -5, 7};
+        assertArrayEquals(new int[]{-5, 1, 4, 7, 9}, ParallelHeapSort.sort(arr));
+        assertArrayEquals(new int[]{4, 9, 1, -5, 7}, arr);
+    }
+
+    @Test
+    void inPlaceSort() {
+        int[] arr = {3, 2, 1};
+        int[] same = arr;
+        ParallelHeapSort.sortInPlace(arr);
+        assertSame(same, arr);
+        assertArrayEquals(new int[]{1, 2, 3}, arr);
+        ParallelHeapSort.sortInPlace(new int[0]);
+    }
+
+    @Test
+    void heapSortInPlace() {
+        int[] arr = {9, -1, 20, -19, 0, 0, 0, -1};
+        HeapSort.heapsortInPlace(arr);
+        assertArrayEquals(new int[]{-19, -1, -1, 0, 0, 0, 9, 20}, arr);
+        int[] copy = HeapSort.heapsort(arr);
+        assertNotSame(arr, copy);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ChunkSort.class)
+    void distributionsSort(ChunkSort chunkSort) {
+        int size = ParallelHeapSort.MIN_CHUNK_LENGTH * 10 + 123;
+        for (String distribution : new String[]{"random", "sorted", "reversed", "duplicates"}) {
+            int[] arr = SortBenchmark.generate(distribution, size);
+            int[] expected = arr.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ParallelHeapSort.sort(arr, chunkSort, POOL));
+            ParallelHeapSort.sortInPlace(arr, chunkSort, POOL);
+            assertArrayEquals(expected, arr);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ChunkSort.class)
+    void chunkSortRange(ChunkSort chunkSort) {
+        int[] arr = SortBenchmark.generate("random", 1000);
+        int[] expected = arr.clone();
+        Arrays.sort(expected, 100, 900);
+        ParallelHeapSort.sortChunk(arr, 100, 900, chunkSort);
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test
+    void introSortDepthLimit() {
+        int size = 100_000;
+        int[] arr = new int[size];
+        for (int i = 0; i < size; i++) {
+            arr[i] = i % 2 == 0 ? i : size - i;
+        }
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        ParallelHeapSort.sortChunk(arr, 0, size, ChunkSort.INTRO_SORT);
+        assertArrayEquals(expected, arr);
+    }
+
+    @Test
+    void intMaxMin() {
+        int[] arr = new int[ParallelHeapSort.MIN_CHUNK_LENGTH * 3];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = i % 3 == 0 ? Integer.MIN_VALUE : i % 3 == 1 ? Integer.MAX_VALUE : 0;
+        }
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, ParallelHeapSort.sort(arr, ChunkSort.HEAP_SORT, POOL));
+    }
+}
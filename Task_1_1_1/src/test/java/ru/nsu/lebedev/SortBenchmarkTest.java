@@ -0,0 +1,19 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for SortBenchmark on small sizes.
+ */
+public class SortBenchmarkTest {
+    @Test
+    void callMain() {
+        SortBenchmark.main(new String[]{"sorts", "1000", "20000"});
+        SortBenchmark.main(new String[]{"heaps", "1000", "20000"});
+        SortBenchmark.main(new String[]{"external", "1000", "100000"});
+        SortBenchmark.main(new String[]{"topk", "1000", "100000"});
+        assertTrue(true);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for TopkAccumulator and top-K methods of HeapSort.
+ */
+public class TopkAccumulatorTest {
+    private static int[] largest(int[] arr, int k) {
+        int[] sorted = arr.clone();
+        Arrays.sort(sorted);
+        int[] result = new int[Math.min(k, arr.length)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sorted[sorted.length - 1 - i];
+        }
+        return result;
+    }
+
+    @Test
+    void topAndBottomOfArray() {
+        int[] arr = SortBenchmark.generate("random", 10_000);
+        int[] sorted = arr.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(largest(arr, 100), HeapSort.topK(arr, 100));
+        assertArrayEquals(Arrays.copyOf(sorted, 100), HeapSort.bottomK(arr, 100));
+        assertArrayEquals(SortBenchmark.generate("random", 10_000), arr);
+    }
+
+    @Test
+    void extremeValuesAndDuplicates() {
+        int[] arr = {Integer.MIN_VALUE, 5, 5, Integer.MAX_VALUE, 5, -1, Integer.MIN_VALUE};
+        assertArrayEquals(new int[]{Integer.MAX_VALUE, 5, 5}, HeapSort.topK(arr, 3));
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE, -1},
+                HeapSort.bottomK(arr, 3));
+    }
+
+    @Test
+    void limitBiggerThanSizeAndZero() {
+        int[] arr = {3, 1, 2};
+        assertArrayEquals(new int[]{3, 2, 1}, HeapSort.topK(arr, 10));
+        assertArrayEquals(new int[]{1, 2, 3}, HeapSort.bottomK(arr, 10));
+        assertArrayEquals(new int[0], HeapSort.topK(arr, 0));
+        assertArrayEquals(new int[0], HeapSort.bottomK(new int[0], 5));
+        assertThrows(IllegalArgumentException.class, () -> HeapSort.topK(arr, -1));
+    }
+
+    @Test
+    void hugeLimit() {
+        int[] arr = SortBenchmark.generate("random", 1000);
+        int[] sorted = arr.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(largest(arr, 1000), HeapSort.topK(arr, Integer.MAX_VALUE));
+        assertArrayEquals(sorted, HeapSort.bottomK(arr, Integer.MAX_VALUE));
+        assertArrayEquals(largest(arr, 1000),
+                HeapSort.topK(IntStream.of(arr).parallel(), Integer.MAX_VALUE));
+        assertArrayEquals(sorted,
+                HeapSort.bottomK(IntStream.of(arr).parallel(), Integer.MAX_VALUE));
+    }
+
+    @Test
+    void parallelStream() {
+        int[] arr = SortBenchmark.generate("duplicates", 100_000);
+        int[] random = SortBenchmark.generate("random", 100_000);
+        int[] sorted = random.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(largest(arr, 50), HeapSort.topK(IntStream.of(arr).parallel(), 50));
+        assertArrayEquals(Arrays.copyOf(sorted, 50),
+                HeapSort.bottomK(IntStream.of(random).parallel(), 50));
+        assertArrayEquals(largest(random, 50), IntStream.of(random).parallel().boxed()
+                .collect(TopkAccumulator.collector(50, true)));
+    }
+
+    @Test
+    void combine() {
+        TopkAccumulator first = TopkAccumulator.smallest(3);
+        TopkAccumulator second = TopkAccumulator.smallest(3);
+        IntStream.of(9, 4, 7, 1).forEach(first);
+        IntStream.of(8, 2, 6).forEach(second);
+        assertEquals(3, first.size());
+        assertEquals(3, first.limit());
+        assertArrayEquals(new int[]{1, 2, 4}, first.combine(second).toSortedArray());
+        assertThrows(IllegalArgumentException.class,
+                () -> first.combine(TopkAccumulator.largest(3)));
+        assertThrows(IllegalArgumentException.class,
+                () -> first.combine(TopkAccumulator.smallest(4)));
+    }
+}
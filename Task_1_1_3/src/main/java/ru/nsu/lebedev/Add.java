@@ -6,8 +6,10 @@ import java.util.Map;
  * Class with addition realisation.
  */
 public class Add extends Expression {
-    private Expression left;
-    private Expression right;
+    private final Expression left;
+    private final Expression right;
+    private final int hash;
+    private final int size;
 
     /**
      * Function with initialization.
@@ -15,6 +17,32 @@ public class Add extends Expression {
     public Add(Expression left, Expression right) {
         this.left = left;
         this.right = right;
+        this.hash = 31 * (31 * left.hashCode() + right.hashCode()) + '+';
+        this.size = (int) Math.min(1L + left.size() + right.size(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns left operand.
+     */
+    @Override
+    Expression left() {
+        return left;
+    }
+
+    /**
+     * Returns right operand.
+     */
+    @Override
+    Expression right() {
+        return right;
+    }
+
+    /**
+     * Returns count of nodes in the tree.
+     */
+    @Override
+    int size() {
+        return size;
     }
 
     /**
@@ -23,12 +51,12 @@ public class Add extends Expression {
      * @return simplify Expression.
      */
     @Override
-    public Expression simplify() {
-        Expression simplifiedLeft = left.simplify();
-        Expression simplifiedRight = right.simplify();
+    Expression simplify(ExpressionFactory factory) {
+        Expression simplifiedLeft = factory.simplify(left);
+        Expression simplifiedRight = factory.simplify(right);
         if (simplifiedLeft instanceof Number && simplifiedRight instanceof Number) {
             int result = simplifiedLeft.eval(Map.of()) + simplifiedRight.eval(Map.of());
-            return new Number(result);
+            return factory.number(result);
         }
         if (simplifiedLeft instanceof Number && ((Number) simplifiedLeft).eval(Map.of()) == 0) {
             return simplifiedRight;
@@ -36,7 +64,7 @@ public class Add extends Expression {
         if (simplifiedRight instanceof Number && ((Number) simplifiedRight).eval(Map.of()) == 0) {
             return simplifiedLeft;
         }
-        return new Add(simplifiedLeft, simplifiedRight);
+        return factory.add(simplifiedLeft, simplifiedRight);
     }
 
     /**
@@ -51,8 +79,8 @@ public class Add extends Expression {
      * Function with derivative of addition.
      */
     @Override
-    public Expression derivative(String variable) {
-        return new Add(left.derivative(variable), right.derivative(variable));
+    Expression derivative(String variable, ExpressionFactory factory) {
+        return factory.add(factory.derivative(left, variable), factory.derivative(right, variable));
     }
 
     /**
@@ -62,4 +90,36 @@ public class Add extends Expression {
     public int eval(Map<String, Integer> env) {
         return left.eval(env) + right.eval(env);
     }
+
+    /**
+     * Function with compiling of addition.
+     */
+    @Override
+    void compile(CompiledExpression.Builder builder) {
+        left.compile(builder);
+        right.compile(builder);
+        builder.operator(CompiledExpression.ADD);
+    }
+
+    /**
+     * Two additions are equal if their operands are equal.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Add that) || hash != that.hash) {
+            return false;
+        }
+        return left.equals(that.left) && right.equals(that.right);
+    }
+
+    /**
+     * Returns structural hash, it is computed once in the constructor.
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
 }
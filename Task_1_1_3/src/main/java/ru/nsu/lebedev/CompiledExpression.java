@@ -0,0 +1,351 @@
+package ru.nsu.lebedev;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class with compiled form of an expression.
+ * The tree is flattened into postfix code for a stack machine and every variable
+ * is resolved to a slot index once, so evaluation is one loop over an int array
+ * without recursion and without map lookups.
+ */
+public final class CompiledExpression {
+    static final int CONST = 0;
+    static final int LOAD = 1;
+    static final int ADD = 2;
+    static final int SUB = 3;
+    static final int MUL = 4;
+    static final int DIV = 5;
+    private static final int BLOCK_ROWS = 1024;
+    private static final int TASK_ROWS = 1 << 15;
+
+    private final int[] code;
+    private final String[] variables;
+    private final int stackDepth;
+
+    /**
+     * Function with initialization.
+     */
+    private CompiledExpression(int[] code, String[] variables, int stackDepth) {
+        this.code = code;
+        this.variables = variables;
+        this.stackDepth = stackDepth;
+    }
+
+    /**
+     * Compiles the expression.
+     *
+     * @param expression expression tree.
+     * @return compiled expression.
+     */
+    static CompiledExpression compile(Expression expression) {
+        Builder builder = new Builder();
+        expression.compile(builder);
+        return builder.build();
+    }
+
+    /**
+     * Returns names of variables in order of their slots.
+     *
+     * @return list of names.
+     */
+    public List<String> variables() {
+        return List.of(variables);
+    }
+
+    /**
+     * Returns slot of the variable.
+     *
+     * @param variable name of variable.
+     * @return index of slot or -1 if the expression doesn't contain the variable.
+     */
+    public int slotOf(String variable) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(variable)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates slots from the map of variables, missing variables are 0 like in
+     * {@link Expression#eval(Map)}.
+     *
+     * @param env values of variables.
+     * @return array of slots.
+     */
+    public int[] bind(Map<String, Integer> env) {
+        int[] slots = new int[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            slots[i] = env.getOrDefault(variables[i], 0);
+        }
+        return slots;
+    }
+
+    /**
+     * Function with eval of compiled expression.
+     *
+     * @param slots values of variables by their slots.
+     * @return value of expression.
+     * @throws IllegalArgumentException if there are fewer slots than variables.
+     * @throws ArithmeticException on division by zero.
+     */
+    public int eval(int[] slots) {
+        if (slots.length < variables.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + variables.length + " slots, got " + slots.length);
+        }
+        final int[] code = this.code;
+        final int[] stack = new int[stackDepth];
+        int top = -1;
+        for (int pc = 0; pc < code.length; pc++) {
+            switch (code[pc]) {
+                case CONST -> stack[++top] = code[++pc];
+                case LOAD -> stack[++top] = slots[code[++pc]];
+                case ADD -> {
+                    top--;
+                    stack[top] += stack[top + 1];
+                }
+                case SUB -> {
+                    top--;
+                    stack[top] -= stack[top + 1];
+                }
+                case MUL -> {
+                    top--;
+                    stack[top] *= stack[top + 1];
+                }
+                default -> {
+                    top--;
+                    stack[top] /= stack[top + 1];
+                }
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Evaluates the expression for every row of the columns, missing columns are 0.
+     *
+     * @param columns values of variables by their names, one value per row.
+     * @param out array for results, its length is the count of rows.
+     * @throws IllegalArgumentException if some column is shorter than {@code out}.
+     * @throws ArithmeticException on division by zero.
+     */
+    public void evalBatch(Map<String, int[]> columns, int[] out) {
+        int[][] slots = new int[variables.length][];
+        for (int i = 0; i < variables.length; i++) {
+            slots[i] = columns.get(variables[i]);
+        }
+        evalBatch(slots, out);
+    }
+
+    /**
+     * Evaluates the expression for every row of the columns.
+     * The code is run once per block of rows, so every operator is a simple loop over
+     * arrays which the JIT can vectorize. Large batches are split between threads
+     * of the common ForkJoin pool.
+     *
+     * @param columns values of variables by their slots, null columns are 0.
+     * @param out array for results, its length is the count of rows.
+     * @throws IllegalArgumentException if some column is shorter than {@code out}.
+     * @throws ArithmeticException on division by zero.
+     */
+    public void evalBatch(int[][] columns, int[] out) {
+        if (columns.length < variables.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + variables.length + " columns, got " + columns.length);
+        }
+        for (int i = 0; i < variables.length; i++) {
+            if (columns[i] != null && columns[i].length < out.length) {
+                throw new IllegalArgumentException("Column " + variables[i] + " has "
+                        + columns[i].length + " rows, expected " + out.length);
+            }
+        }
+        if (out.length > TASK_ROWS) {
+            ForkJoinPool.commonPool().invoke(new BatchTask(columns, out, 0, out.length));
+        } else {
+            evalRows(columns, out, 0, out.length);
+        }
+    }
+
+    /**
+     * Evaluates rows {@code [from, to)} block by block, the stack holds a block of values
+     * in every cell.
+     */
+    private void evalRows(int[][] columns, int[] out, int from, int to) {
+        final int[][] stack = new int[stackDepth][Math.min(BLOCK_ROWS, to - from)];
+        for (int start = from; start < to; start += BLOCK_ROWS) {
+            int length = Math.min(BLOCK_ROWS, to - start);
+            int top = -1;
+            for (int pc = 0; pc < code.length; pc++) {
+                switch (code[pc]) {
+                    case CONST -> Arrays.fill(stack[++top], 0, length, code[++pc]);
+                    case LOAD -> {
+                        int[] column = columns[code[++pc]];
+                        top++;
+                        if (column == null) {
+                            Arrays.fill(stack[top], 0, length, 0);
+                        } else {
+                            System.arraycopy(column, start, stack[top], 0, length);
+                        }
+                    }
+                    case ADD -> {
+                        top--;
+                        int[] left = stack[top];
+                        int[] right = stack[top + 1];
+                        for (int i = 0; i < length; i++) {
+                            left[i] += right[i];
+                        }
+                    }
+                    case SUB -> {
+                        top--;
+                        int[] left = stack[top];
+                        int[] right = stack[top + 1];
+                        for (int i = 0; i < length; i++) {
+                            left[i] -= right[i];
+                        }
+                    }
+                    case MUL -> {
+                        top--;
+                        int[] left = stack[top];
+                        int[] right = stack[top + 1];
+                        for (int i = 0; i < length; i++) {
+                            left[i] *= right[i];
+                        }
+                    }
+                    default -> {
+                        top--;
+                        int[] left = stack[top];
+                        int[] right = stack[top + 1];
+                        for (int i = 0; i < length; i++) {
+                            left[i] /= right[i];
+                        }
+                    }
+                }
+            }
+            System.arraycopy(stack[0], 0, out, start, length);
+        }
+    }
+
+    /**
+     * A method for formating compiled code.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc++) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            switch (code[pc]) {
+                case CONST -> builder.append(code[++pc]);
+                case LOAD -> builder.append(variables[code[++pc]]);
+                case ADD -> builder.append('+');
+                case SUB -> builder.append('-');
+                case MUL -> builder.append('*');
+                default -> builder.append('/');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Task evaluating a range of rows, it halves the range until it is small enough.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] columns;
+        private final int[] out;
+        private final int from;
+        private final int to;
+
+        BatchTask(int[][] columns, int[] out, int from, int to) {
+            this.columns = columns;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TASK_ROWS) {
+                evalRows(columns, out, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(columns, out, from, middle),
+                    new BatchTask(columns, out, middle, to));
+        }
+    }
+
+    /**
+     * Class collecting postfix code while nodes of the tree compile themselves.
+     */
+    static final class Builder {
+        private int[] code = new int[16];
+        private int length;
+        private final List<String> variables = new ArrayList<>();
+        private final Map<String, Integer> slots = new HashMap<>();
+        private int depth;
+        private int maxDepth;
+
+        /**
+         * Pushes a constant.
+         */
+        void constant(int value) {
+            emit(CONST);
+            emit(value);
+            push();
+        }
+
+        /**
+         * Pushes value of a variable, the variable gets a slot on its first use.
+         */
+        void variable(String name) {
+            Integer slot = slots.get(name);
+            if (slot == null) {
+                slot = variables.size();
+                slots.put(name, slot);
+                variables.add(name);
+            }
+            emit(LOAD);
+            emit(slot);
+            push();
+        }
+
+        /**
+         * Replaces two top values by the result of the operator.
+         */
+        void operator(int opcode) {
+            emit(opcode);
+            depth--;
+        }
+
+        /**
+         * Returns compiled expression.
+         */
+        CompiledExpression build() {
+            return new CompiledExpression(Arrays.copyOf(code, length),
+                    variables.toArray(new String[0]), Math.max(maxDepth, 1));
+        }
+
+        private void push() {
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        private void emit(int value) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, length * 2);
+            }
+            code[length++] = value;
+        }
+    }
+}
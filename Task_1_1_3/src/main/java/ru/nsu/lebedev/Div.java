@@ -6,8 +6,10 @@ import java.util.Map;
  * Class with division realisation.
  */
 public class Div extends Expression {
-    private Expression left;
-    private Expression right;
+    private final Expression left;
+    private final Expression right;
+    private final int hash;
+    private final int size;
 
     /**
      * Function with initialization.
@@ -15,6 +17,32 @@ public class Div extends Expression {
     public Div(Expression left, Expression right) {
         this.left = left;
         this.right = right;
+        this.hash = 31 * (31 * left.hashCode() + right.hashCode()) + '/';
+        this.size = (int) Math.min(1L + left.size() + right.size(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns left operand.
+     */
+    @Override
+    Expression left() {
+        return left;
+    }
+
+    /**
+     * Returns right operand.
+     */
+    @Override
+    Expression right() {
+        return right;
+    }
+
+    /**
+     * Returns count of nodes in the tree.
+     */
+    @Override
+    int size() {
+        return size;
     }
 
     /**
@@ -23,20 +51,20 @@ public class Div extends Expression {
      * @return simplify Expression.
      */
     @Override
-    public Expression simplify() {
-        Expression simplifiedLeft = left.simplify();
-        Expression simplifiedRight = right.simplify();
+    Expression simplify(ExpressionFactory factory) {
+        Expression simplifiedLeft = factory.simplify(left);
+        Expression simplifiedRight = factory.simplify(right);
         if (simplifiedLeft instanceof Number && simplifiedRight instanceof Number) {
             int result = simplifiedLeft.eval(Map.of()) / simplifiedRight.eval(Map.of());
-            return new Number(result);
+            return factory.number(result);
         }
         if (simplifiedRight instanceof Number && simplifiedRight.eval(Map.of()) == 1) {
             return simplifiedLeft;
         }
         if (simplifiedLeft instanceof Number && simplifiedLeft.eval(Map.of()) == 0) {
-            return new Number(0);
+            return factory.number(0);
         }
-        return new Div(simplifiedLeft, simplifiedRight);
+        return factory.div(simplifiedLeft, simplifiedRight);
     }
 
     /**
@@ -53,11 +81,11 @@ public class Div extends Expression {
      * By rule: (f / g)' = (f' * g - f * g') / g^2.
      */
     @Override
-    public Expression derivative(String variable) {
-        return new Div(
-            new Sub(new Mul(left.derivative(variable), right),
-                new Mul(left, right.derivative(variable))),
-            new Mul(right, right)
+    Expression derivative(String variable, ExpressionFactory factory) {
+        return factory.div(
+            factory.sub(factory.mul(factory.derivative(left, variable), right),
+                factory.mul(left, factory.derivative(right, variable))),
+            factory.mul(right, right)
         );
     }
 
@@ -68,4 +96,36 @@ public class Div extends Expression {
     public int eval(Map<String, Integer> env) {
         return left.eval(env) / right.eval(env);
     }
+
+    /**
+     * Function with compiling of division.
+     */
+    @Override
+    void compile(CompiledExpression.Builder builder) {
+        left.compile(builder);
+        right.compile(builder);
+        builder.operator(CompiledExpression.DIV);
+    }
+
+    /**
+     * Two divisions are equal if their operands are equal.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Div that) || hash != that.hash) {
+            return false;
+        }
+        return left.equals(that.left) && right.equals(that.right);
+    }
+
+    /**
+     * Returns structural hash, it is computed once in the constructor.
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
 }
@@ -14,6 +14,28 @@ abstract class Expression {
         System.out.println(this);
     }
 
+    /**
+     * Returns left operand of binary operation or null for constants and variables.
+     */
+    Expression left() {
+        return null;
+    }
+
+    /**
+     * Returns right operand of binary operation or null for constants and variables.
+     */
+    Expression right() {
+        return null;
+    }
+
+    /**
+     * Returns count of nodes in the tree, shared subtrees are counted every time
+     * they occur, the count is saturated at {@link Integer#MAX_VALUE}.
+     */
+    int size() {
+        return 1;
+    }
+
     /**
      * A method for formating an expression.
      */
@@ -23,7 +45,15 @@ abstract class Expression {
     /**
      * A method for differentiating an expression by a given variable.
      */
-    public abstract Expression derivative(String variable);
+    public Expression derivative(String variable) {
+        return derivative(variable, ExpressionFactory.PLAIN);
+    }
+
+    /**
+     * A method for differentiating an expression with nodes created by the factory,
+     * derivatives of children are taken through the factory, so it can reuse them.
+     */
+    abstract Expression derivative(String variable, ExpressionFactory factory);
 
     /**
      * A method for calculating the value of a expression when substituting variables.
@@ -38,10 +68,44 @@ abstract class Expression {
         return eval(varMap);
     }
 
+    /**
+     * A method for calculating the value of the expression for many rows of variables at once,
+     * missing variables are 0 like in {@link #eval(Map)}.
+     *
+     * @param columns values of variables by their names, one value per row.
+     * @param out array for results, its length is the count of rows.
+     */
+    public void evalBatch(Map<String, int[]> columns, int[] out) {
+        compile().evalBatch(columns, out);
+    }
+
+    /**
+     * A method for compiling the expression into flat code with variables resolved to slots,
+     * so it can be evaluated many times with different values cheaply.
+     *
+     * @return compiled expression.
+     */
+    public CompiledExpression compile() {
+        return CompiledExpression.compile(this);
+    }
+
+    /**
+     * A method for appending postfix code of the expression to the builder.
+     */
+    abstract void compile(CompiledExpression.Builder builder);
+
     /**
      * A method for simplifying the expression based on specific rules.
      */
-    public abstract Expression simplify();
+    public Expression simplify() {
+        return simplify(ExpressionFactory.PLAIN);
+    }
+
+    /**
+     * A method for simplifying the expression with nodes created by the factory,
+     * children are simplified through the factory, so it can reuse results.
+     */
+    abstract Expression simplify(ExpressionFactory factory);
 
     /**
      * Method for parsing a string with variables.
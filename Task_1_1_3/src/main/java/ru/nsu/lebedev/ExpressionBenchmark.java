@@ -0,0 +1,339 @@
+package ru.nsu.lebedev;
+
+import com.sun.management.ThreadMXBean;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class with comparing ways of evaluating expressions, results are printed as csv lines.
+ */
+public class ExpressionBenchmark {
+    private static final int[] DEFAULT_SIZES = {1_000, 100_000, 1_000_000};
+    private static final String[] VARIABLES = {"x", "y", "z", "w"};
+    private static final int LEAVES = 256;
+    private static final int[] DERIVATIVE_SIZES = {16, 64, 256};
+    private static final int PLAIN_MAX_DEGREE = 24;
+    private static final int MAX_ORDER = 4;
+    private static long sink;
+
+    /**
+     * Function with comparing ways of evaluating.
+     *
+     * @param args name of benchmark (eval, derivative, batch, parse, simplify) and sizes,
+     *             degrees for derivative, all benchmarks with default sizes are run
+     *             when empty.
+     */
+    public static void main(String[] args) {
+        String name = args.length > 0 ? args[0] : "all";
+        int[] sizes = null;
+        if (args.length > 1) {
+            sizes = Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray();
+        }
+        if (name.equals("all") || name.equals("eval")) {
+            System.out.println("way,leaves,evaluations,ms");
+            for (int size : sizes == null ? DEFAULT_SIZES : sizes) {
+                compareEval(size);
+            }
+        }
+        if (name.equals("all") || name.equals("derivative")) {
+            System.out.println("way,degree,order,ms,allocatedBytes,nodes");
+            for (int size : sizes == null ? DERIVATIVE_SIZES : sizes) {
+                compareDerivative(size);
+            }
+        }
+        if (name.equals("all") || name.equals("batch")) {
+            System.out.println("way,leaves,rows,ms");
+            for (int size : sizes == null ? DEFAULT_SIZES : sizes) {
+                compareBatch(size);
+            }
+        }
+        if (name.equals("all") || name.equals("parse")) {
+            System.out.println("way,formulas,chars,ms,mbPerSecond");
+            for (int size : sizes == null ? DEFAULT_SIZES : sizes) {
+                compareParse(size);
+            }
+        }
+        if (name.equals("all") || name.equals("simplify")) {
+            System.out.println("way,leaves,ms,nodes");
+            for (int size : sizes == null ? DEFAULT_SIZES : sizes) {
+                compareSimplify(size);
+            }
+        }
+    }
+
+    /**
+     * Evaluates one random expression with different values of variables
+     * by walking the tree and by compiled code.
+     *
+     * @param evaluations count of evaluations.
+     */
+    static void compareEval(int evaluations) {
+        Expression expression = generate(LEAVES, new Random(42));
+        Random random = new Random(7);
+        int[][] values = new int[evaluations][VARIABLES.length];
+        for (int[] row : values) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextInt(100);
+            }
+        }
+
+        Map<String, Integer> env = new HashMap<>();
+        long start = System.nanoTime();
+        long result = 0;
+        for (int[] row : values) {
+            for (int i = 0; i < VARIABLES.length; i++) {
+                env.put(VARIABLES[i], row[i]);
+            }
+            result += expression.eval(env);
+        }
+        report("tree", evaluations, start, result);
+
+        start = System.nanoTime();
+        CompiledExpression compiled = expression.compile();
+        int[] order = new int[VARIABLES.length];
+        for (int i = 0; i < VARIABLES.length; i++) {
+            order[i] = compiled.slotOf(VARIABLES[i]);
+        }
+        int[] slots = new int[compiled.variables().size()];
+        result = 0;
+        for (int[] row : values) {
+            for (int i = 0; i < VARIABLES.length; i++) {
+                if (order[i] >= 0) {
+                    slots[order[i]] = row[i];
+                }
+            }
+            result += compiled.eval(slots);
+        }
+        report("compiled", evaluations, start, result);
+    }
+
+    /**
+     * Evaluates one random expression over columns of values row by row
+     * with {@link Expression#eval(Map)} and by one call of batch evaluation.
+     *
+     * @param rows count of rows.
+     */
+    static void compareBatch(int rows) {
+        Expression expression = generate(LEAVES, new Random(42));
+        Random random = new Random(7);
+        Map<String, int[]> columns = new HashMap<>();
+        for (String variable : VARIABLES) {
+            columns.put(variable, random.ints(rows, 0, 100).toArray());
+        }
+
+        int[] out = new int[rows];
+        Map<String, Integer> env = new HashMap<>();
+        long start = System.nanoTime();
+        for (int row = 0; row < rows; row++) {
+            for (String variable : VARIABLES) {
+                env.put(variable, columns.get(variable)[row]);
+            }
+            out[row] = expression.eval(env);
+        }
+        report("row", rows, start, rows > 0 ? out[rows / 2] : 0);
+
+        start = System.nanoTime();
+        expression.evalBatch(columns, out);
+        report("batch", rows, start, rows > 0 ? out[rows / 2] : 0);
+    }
+
+    /**
+     * Parses generated formulas of 32 leaves each by a new parser per formula, by one parser
+     * reused for all formulas and by one parser reading lines of a reader.
+     * Throughput counts chars as bytes, so it is MB/s of an ASCII file.
+     *
+     * @param formulas count of formulas.
+     */
+    static void compareParse(int formulas) {
+        Random random = new Random(42);
+        String[] lines = new String[formulas];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < formulas; i++) {
+            lines[i] = generate(32, random).toString();
+            text.append(lines[i]).append('\n');
+        }
+        long chars = text.length();
+
+        long start = System.nanoTime();
+        long result = 0;
+        for (String line : lines) {
+            result += ExpressionParser.parse(line).hashCode();
+        }
+        reportParse("static", formulas, chars, start, result);
+
+        start = System.nanoTime();
+        ExpressionParser parser = new ExpressionParser();
+        result = 0;
+        for (String line : lines) {
+            result += parser.read(line).hashCode();
+        }
+        reportParse("reused", formulas, chars, start, result);
+
+        start = System.nanoTime();
+        long[] sum = new long[1];
+        try {
+            new ExpressionParser().readLines(new StringReader(text.toString()),
+                    expression -> sum[0] += expression.hashCode());
+        } catch (IOException e) {
+            System.err.println("Reading error: " + e.getMessage());
+        }
+        reportParse("reader", formulas, chars, start, sum[0]);
+    }
+
+    /**
+     * Prints one csv line of parsing comparison.
+     */
+    private static void reportParse(String way, int formulas, long chars, long start,
+                                    long result) {
+        long nanos = System.nanoTime() - start;
+        sink += result;
+        double speed = nanos == 0 ? 0 : chars * 1_000.0 / nanos;
+        System.out.println(way + "," + formulas + "," + chars + "," + nanos / 1_000_000 + ","
+                + String.format(Locale.ROOT, "%.1f", speed));
+    }
+
+    /**
+     * Simplifies random expression by local rules of nodes, by the rewrite engine
+     * in one thread and in the pool, and then once more after adding a term to the
+     * expression, which rewrites only the new nodes. Nodes are the size of the result.
+     *
+     * @param leaves count of leaves of the expression.
+     */
+    static void compareSimplify(int leaves) {
+        Expression expression = generate(leaves, new Random(42));
+        try {
+            long start = System.nanoTime();
+            Expression result = expression.simplify();
+            reportSimplify("local", leaves, start, result);
+        } catch (StackOverflowError e) {
+            System.out.println("local," + leaves + ",-1,-1");
+        }
+
+        long start = System.nanoTime();
+        Simplifier sequential = new Simplifier(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        reportSimplify("engine", leaves, start, sequential.simplify(expression));
+
+        start = System.nanoTime();
+        Simplifier parallel = new Simplifier();
+        reportSimplify("parallel", leaves, start, parallel.simplify(expression));
+
+        Expression edited = new Add(expression, new Mul(new Number(2), new Variable("x")));
+        start = System.nanoTime();
+        reportSimplify("incremental", leaves, start, parallel.simplify(edited));
+    }
+
+    /**
+     * Prints one csv line of simplification comparison.
+     */
+    private static void reportSimplify(String way, int leaves, long start, Expression result) {
+        long time = (System.nanoTime() - start) / 1_000_000;
+        sink += result.hashCode();
+        System.out.println(way + "," + leaves + "," + time + "," + result.size());
+    }
+
+    /**
+     * Takes derivatives of order 1 to 4 of a polynomial by plain nodes and by hash-consing
+     * factory, memory is the count of bytes allocated for the polynomial and its
+     * derivatives, nodes are the distinct nodes of the factory.
+     * Plain derivatives copy shared subtrees, so their size grows like the fifth power of
+     * the degree and plain runs use the degree of at most 24, which takes about 80 MB.
+     *
+     * @param degree degree of the polynomial.
+     */
+    static void compareDerivative(int degree) {
+        for (int order = 1; order <= MAX_ORDER; order++) {
+            measureDerivative("plain", Math.min(degree, PLAIN_MAX_DEGREE), order,
+                    ExpressionFactory.PLAIN);
+            measureDerivative("interned", degree, order, new ExpressionFactory());
+        }
+    }
+
+    /**
+     * Prints time and memory of taking derivative of given order through the factory.
+     */
+    private static void measureDerivative(String way, int degree, int order,
+                                          ExpressionFactory factory) {
+        long memory = allocatedBytes();
+        long start = System.nanoTime();
+        Expression expression = polynomial(degree, factory);
+        for (int i = 0; i < order; i++) {
+            expression = factory.derivative(expression, "x");
+        }
+        long time = (System.nanoTime() - start) / 1_000_000;
+        int nodes = factory == ExpressionFactory.PLAIN ? -1 : factory.size();
+        System.out.println(way + "," + degree + "," + order + "," + time + ","
+                + (memory < 0 ? -1 : allocatedBytes() - memory) + "," + nodes);
+        sink += expression.hashCode();
+    }
+
+    /**
+     * Builds polynomial {@code 1*x + 2*x*x + ... + degree*x*...*x}, powers are chains
+     * of multiplications.
+     *
+     * @param degree degree of the polynomial.
+     * @param factory factory of nodes.
+     * @return polynomial.
+     */
+    static Expression polynomial(int degree, ExpressionFactory factory) {
+        Expression x = factory.variable("x");
+        Expression power = x;
+        Expression sum = factory.mul(factory.number(1), power);
+        for (int i = 2; i <= degree; i++) {
+            power = factory.mul(power, x);
+            sum = factory.add(sum, factory.mul(factory.number(i), power));
+        }
+        return sum;
+    }
+
+    /**
+     * Returns count of bytes allocated by the current thread or -1 if the JVM can't count it.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Generates random expression of additions, subtractions and multiplications
+     * with given count of leaves, leaves are small constants and variables.
+     *
+     * @param leaves count of leaves.
+     * @param random source of randomness.
+     * @return expression.
+     */
+    static Expression generate(int leaves, Random random) {
+        if (leaves == 1) {
+            if (random.nextBoolean()) {
+                return new Number(random.nextInt(10));
+            }
+            return new Variable(VARIABLES[random.nextInt(VARIABLES.length)]);
+        }
+        int left = 1 + random.nextInt(leaves - 1);
+        Expression first = generate(left, random);
+        Expression second = generate(leaves - left, random);
+        return switch (random.nextInt(3)) {
+            case 0 -> new Add(first, second);
+            case 1 -> new Sub(first, second);
+            default -> new Mul(first, second);
+        };
+    }
+
+    /**
+     * Prints one csv line.
+     */
+    private static void report(String way, int count, long start, long result) {
+        long time = (System.nanoTime() - start) / 1_000_000;
+        sink += result;
+        System.out.println(way + "," + LEAVES + "," + count + "," + time);
+    }
+}
@@ -0,0 +1,164 @@
+package ru.nsu.lebedev;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class creating expressions with hash-consing.
+ * Structurally equal nodes created by one factory are the same object, so trees
+ * become DAGs with shared subtrees, and results of {@link #simplify(Expression)} and
+ * {@link #derivative(Expression, String)} are remembered for every node.
+ * Repeated differentiation then costs the count of distinct subexpressions instead of
+ * the size of the tree, which grows exponentially.
+ * The factory keeps all its nodes and results, it is not thread-safe.
+ */
+public class ExpressionFactory {
+    /**
+     * Factory used by {@link Expression#simplify()} and {@link Expression#derivative(String)},
+     * it just creates new nodes.
+     */
+    static final ExpressionFactory PLAIN = new ExpressionFactory(false);
+
+    private final boolean interning;
+    private final Map<Expression, Expression> nodes = new HashMap<>();
+    private final Map<Expression, Expression> simplified = new HashMap<>();
+    private final Map<String, Map<Expression, Expression>> derivatives = new HashMap<>();
+
+    /**
+     * Function with initialization of interning factory.
+     */
+    public ExpressionFactory() {
+        this(true);
+    }
+
+    /**
+     * Function with initialization.
+     */
+    private ExpressionFactory(boolean interning) {
+        this.interning = interning;
+    }
+
+    /**
+     * Returns constant.
+     *
+     * @param value value of constant.
+     * @return shared node.
+     */
+    public Expression number(int value) {
+        return intern(new Number(value));
+    }
+
+    /**
+     * Returns variable.
+     *
+     * @param name name of variable.
+     * @return shared node.
+     */
+    public Expression variable(String name) {
+        return intern(new Variable(name));
+    }
+
+    /**
+     * Returns addition.
+     *
+     * @param left left operand.
+     * @param right right operand.
+     * @return shared node.
+     */
+    public Expression add(Expression left, Expression right) {
+        return intern(new Add(left, right));
+    }
+
+    /**
+     * Returns subtraction.
+     *
+     * @param left left operand.
+     * @param right right operand.
+     * @return shared node.
+     */
+    public Expression sub(Expression left, Expression right) {
+        return intern(new Sub(left, right));
+    }
+
+    /**
+     * Returns multiplication.
+     *
+     * @param left left operand.
+     * @param right right operand.
+     * @return shared node.
+     */
+    public Expression mul(Expression left, Expression right) {
+        return intern(new Mul(left, right));
+    }
+
+    /**
+     * Returns division.
+     *
+     * @param left left operand.
+     * @param right right operand.
+     * @return shared node.
+     */
+    public Expression div(Expression left, Expression right) {
+        return intern(new Div(left, right));
+    }
+
+    /**
+     * Simplifies the expression, the result is remembered for the node.
+     *
+     * @param expression expression.
+     * @return simplified expression built by this factory.
+     */
+    public Expression simplify(Expression expression) {
+        if (!interning) {
+            return expression.simplify(this);
+        }
+        Expression result = simplified.get(expression);
+        if (result == null) {
+            result = expression.simplify(this);
+            simplified.put(expression, result);
+        }
+        return result;
+    }
+
+    /**
+     * Differentiates the expression, the result is remembered for the node and variable.
+     *
+     * @param expression expression.
+     * @param variable name of variable.
+     * @return derivative built by this factory.
+     */
+    public Expression derivative(Expression expression, String variable) {
+        if (!interning) {
+            return expression.derivative(variable, this);
+        }
+        Map<Expression, Expression> memo =
+                derivatives.computeIfAbsent(variable, name -> new HashMap<>());
+        Expression result = memo.get(expression);
+        if (result == null) {
+            result = expression.derivative(variable, this);
+            memo.put(expression, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns count of distinct nodes created by the factory.
+     *
+     * @return count of nodes.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the shared node equal to the given one, the given node becomes shared
+     * if there is no such node yet.
+     */
+    Expression intern(Expression expression) {
+        if (!interning) {
+            return expression;
+        }
+        Expression shared = nodes.putIfAbsent(expression, expression);
+        return shared == null ? expression : shared;
+    }
+}
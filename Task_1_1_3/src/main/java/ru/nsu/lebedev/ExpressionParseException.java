@@ -0,0 +1,30 @@
+package ru.nsu.lebedev;
+
+/**
+ * Exception of parsing an expression, it knows the offset of the wrong character.
+ */
+public class ExpressionParseException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final int offset;
+
+    /**
+     * Function with initialization.
+     *
+     * @param message description of the error.
+     * @param offset offset of the error from the start of the input.
+     */
+    public ExpressionParseException(String message, int offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * Returns offset of the error from the start of the input.
+     *
+     * @return offset.
+     */
+    public int getOffset() {
+        return offset;
+    }
+}
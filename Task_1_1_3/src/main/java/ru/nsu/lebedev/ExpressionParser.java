@@ -1,84 +1,321 @@
 package ru.nsu.lebedev;
 
-import java.util.Stack;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * An auxiliary class for processing expressions.
+ * The parser reads the input once, keeps operators in a primitive stack and reuses
+ * its buffers, so one parser instance parses many expressions without garbage except
+ * the nodes themselves. Variable names are interned: every name is allocated once
+ * per parser and its node is shared. Operators are {@code + - * /} with usual
+ * priorities and left associativity, and unary minus.
+ * The parser is not thread-safe.
  */
 class ExpressionParser {
+    private static final char UNARY_MINUS = '~';
+    private static final int READ_BUFFER = 8192;
+
+    private final ExpressionFactory factory;
+    private char[] chars = new char[64];
+    private Expression[] operands = new Expression[16];
+    private int operandCount;
+    private char[] operators = new char[16];
+    private int[] operatorOffsets = new int[16];
+    private int operatorCount;
+    private Expression[] names = new Expression[16];
+    private int nameCount;
+
+    /**
+     * Function with initialization of parser creating plain nodes.
+     */
+    ExpressionParser() {
+        this(ExpressionFactory.PLAIN);
+    }
+
+    /**
+     * Function with initialization of parser creating nodes by the factory.
+     */
+    ExpressionParser(ExpressionFactory factory) {
+        this.factory = factory;
+    }
 
     /**
      * A method for parsing a string and creating an expression.
+     *
+     * @throws ExpressionParseException if the input is not an expression.
      */
-    public static Expression parse(String input) {
-        Stack<Expression> operands = new Stack<>();
-        Stack<Character> operators = new Stack<>();
+    public static Expression parse(CharSequence input) {
+        return new ExpressionParser().read(input);
+    }
 
-        for (int i = 0; i < input.length(); i++) {
-            char ch = input.charAt(i);
-            if (Character.isWhitespace(ch)) {
-                continue;
+    /**
+     * A method for parsing one expression.
+     *
+     * @param input text of expression.
+     * @return expression.
+     * @throws ExpressionParseException if the input is not an expression.
+     */
+    public Expression read(CharSequence input) {
+        int length = input.length();
+        ensureChars(length);
+        if (input instanceof String string) {
+            string.getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[i] = input.charAt(i);
+            }
+        }
+        return parseChars(length, 0);
+    }
+
+    /**
+     * A method for parsing expressions written one per line, blank lines are skipped.
+     *
+     * @param reader source of lines.
+     * @param consumer receiver of expressions in order of lines.
+     * @return count of expressions.
+     * @throws IOException if the reader fails.
+     * @throws ExpressionParseException if some line is not an expression,
+     *                                  its offset is counted from the start of the reader.
+     */
+    public int readLines(Reader reader, Consumer<? super Expression> consumer)
+            throws IOException {
+        char[] buffer = new char[READ_BUFFER];
+        int count = 0;
+        int length = 0;
+        long lineStart = 0;
+        long position = 0;
+        boolean blank = true;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char ch = buffer[i];
+                position++;
+                if (ch == '\n') {
+                    if (!blank) {
+                        consumer.accept(parseChars(length, lineStart));
+                        count++;
+                    }
+                    length = 0;
+                    lineStart = position;
+                    blank = true;
+                    continue;
+                }
+                ensureChars(length + 1);
+                chars[length++] = ch;
+                blank &= Character.isWhitespace(ch);
             }
-            if (Character.isDigit(ch)) {
-                int num = 0;
-                while (i < input.length() && Character.isDigit(input.charAt(i))) {
-                    num = num * 10 + Character.getNumericValue(input.charAt(i));
+        }
+        if (!blank) {
+            consumer.accept(parseChars(length, lineStart));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses {@code chars[0, length)}, offsets of errors are shifted by {@code base}.
+     */
+    private Expression parseChars(int length, long base) {
+        operandCount = 0;
+        operatorCount = 0;
+        boolean expectOperand = true;
+        int i = 0;
+        while (i < length) {
+            char ch = chars[i];
+            if (Character.isWhitespace(ch)) {
+                i++;
+            } else if (ch >= '0' && ch <= '9') {
+                if (!expectOperand) {
+                    throw error("Unexpected number", base, i);
+                }
+                int start = i;
+                long num = 0;
+                boolean negated = operatorCount > 0
+                        && operators[operatorCount - 1] == UNARY_MINUS;
+                long limit = negated ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+                while (i < length && chars[i] >= '0' && chars[i] <= '9') {
+                    num = num * 10 + (chars[i] - '0');
+                    if (num > limit) {
+                        throw error("Too big number", base, start);
+                    }
                     i++;
                 }
-                i--;
-                operands.push(new Number(num));
+                // 2^31 becomes Integer.MIN_VALUE, which unary minus keeps
+                pushOperand(factory.number((int) num));
+                expectOperand = false;
             } else if (Character.isLetter(ch)) {
-                StringBuilder variableName = new StringBuilder();
-                while (i < input.length() && Character.isLetter(input.charAt(i))) {
-                    variableName.append(input.charAt(i));
+                if (!expectOperand) {
+                    throw error("Unexpected variable", base, i);
+                }
+                int start = i;
+                while (i < length && Character.isLetter(chars[i])) {
                     i++;
                 }
-                i--;
-                operands.push(new Variable(variableName.toString()));
+                pushOperand(variable(start, i));
+                expectOperand = false;
             } else if (ch == '(') {
-                operators.push(ch);
+                if (!expectOperand) {
+                    throw error("Unexpected '('", base, i);
+                }
+                pushOperator(ch, i);
+                i++;
             } else if (ch == ')') {
-                while (!operators.empty() && operators.peek() != '(') {
-                    processOperator(operands, operators.pop());
+                if (expectOperand) {
+                    throw error("Unexpected ')'", base, i);
+                }
+                while (operatorCount > 0 && operators[operatorCount - 1] != '(') {
+                    apply(operators[--operatorCount]);
+                }
+                if (operatorCount == 0) {
+                    throw error("Unmatched ')'", base, i);
                 }
-                operators.pop();
+                operatorCount--;
+                i++;
+            } else if (ch == '-' && expectOperand) {
+                pushOperator(UNARY_MINUS, i);
+                i++;
             } else if (isOperator(ch)) {
-                while (!operators.empty() && precedence(operators.peek()) >= precedence(ch)) {
-                    processOperator(operands, operators.pop());
+                if (expectOperand) {
+                    throw error("Missing operand before '" + ch + "'", base, i);
                 }
-                operators.push(ch);
+                while (operatorCount > 0
+                        && precedence(operators[operatorCount - 1]) >= precedence(ch)) {
+                    apply(operators[--operatorCount]);
+                }
+                pushOperator(ch, i);
+                expectOperand = true;
+                i++;
+            } else {
+                throw error("Unexpected character '" + ch + "'", base, i);
             }
         }
+        if (expectOperand) {
+            throw error("Unexpected end of expression", base, length);
+        }
+        while (operatorCount > 0) {
+            char operator = operators[--operatorCount];
+            if (operator == '(') {
+                throw error("Unclosed '('", base, operatorOffsets[operatorCount]);
+            }
+            apply(operator);
+        }
+        Expression result = operands[0];
+        Arrays.fill(operands, 0, operandCount, null);
+        return result;
+    }
 
-        while (!operators.empty()) {
-            processOperator(operands, operators.pop());
+    /**
+     * A method for processing an operator and creating an appropriate expression.
+     */
+    private void apply(char operator) {
+        if (operator == UNARY_MINUS) {
+            Expression operand = operands[operandCount - 1];
+            if (operand instanceof Number) {
+                operands[operandCount - 1] = factory.number(-operand.eval(Map.of()));
+            } else {
+                operands[operandCount - 1] = factory.sub(factory.number(0), operand);
+            }
+            return;
         }
+        Expression right = operands[--operandCount];
+        Expression left = operands[operandCount - 1];
+        operands[operandCount - 1] = switch (operator) {
+            case '+' -> factory.add(left, right);
+            case '-' -> factory.sub(left, right);
+            case '*' -> factory.mul(left, right);
+            default -> factory.div(left, right);
+        };
+    }
 
-        return operands.pop(); // Возвращаем итоговое выражение
+    /**
+     * Returns the shared variable named {@code chars[from, to)},
+     * names are kept in an open addressing table searched without creating strings.
+     */
+    private Expression variable(int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = names.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while (names[index] != null) {
+            if (sameName(names[index].toString(), from, to)) {
+                return names[index];
+            }
+            index = (index + 1) & mask;
+        }
+        Expression variable = factory.variable(new String(chars, from, to - from));
+        names[index] = variable;
+        if (++nameCount * 2 > names.length) {
+            rehashNames();
+        }
+        return variable;
     }
 
     /**
-     * A method for processing an operator and creating an appropriate expression.
+     * Checks whether the name equals {@code chars[from, to)}.
      */
-    private static void processOperator(Stack<Expression> operands, char operator) {
-        Expression right = operands.pop();
-        Expression left = operands.pop();
-        switch (operator) {
-            case '+':
-                operands.push(new Add(left, right));
-                break;
-            case '-':
-                operands.push(new Sub(left, right));
-                break;
-            case '*':
-                operands.push(new Mul(left, right));
-                break;
-            case '/':
-                operands.push(new Div(left, right));
-                break;
-            default:
-                break;
+    private boolean sameName(String name, int from, int to) {
+        if (name.length() != to - from) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (name.charAt(i - from) != chars[i]) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    /**
+     * Doubles the table of names.
+     */
+    private void rehashNames() {
+        Expression[] old = names;
+        names = new Expression[old.length * 2];
+        int mask = names.length - 1;
+        for (Expression variable : old) {
+            if (variable != null) {
+                int hash = variable.toString().hashCode();
+                int index = (hash ^ (hash >>> 16)) & mask;
+                while (names[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                names[index] = variable;
+            }
+        }
+    }
+
+    private void pushOperand(Expression operand) {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        }
+        operands[operandCount++] = operand;
+    }
+
+    private void pushOperator(char operator, int offset) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+            operatorOffsets = Arrays.copyOf(operatorOffsets, operatorCount * 2);
+        }
+        operators[operatorCount] = operator;
+        operatorOffsets[operatorCount++] = offset;
+    }
+
+    private void ensureChars(int length) {
+        if (length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(length, chars.length * 2));
+        }
+    }
+
+    private static ExpressionParseException error(String message, long base, int offset) {
+        return new ExpressionParseException(message, (int) Math.min(base + offset,
+                Integer.MAX_VALUE));
     }
 
     /**
@@ -89,7 +326,7 @@ class ExpressionParser {
     }
 
     /**
-     * Method for determining operator priority.
+     * Method for determining operator priority, unary minus binds tighter than binary ones.
      */
     private static int precedence(char operator) {
         switch (operator) {
@@ -99,6 +336,8 @@ class ExpressionParser {
             case '*':
             case '/':
                 return 2;
+            case UNARY_MINUS:
+                return 3;
             default:
                 return 0;
         }
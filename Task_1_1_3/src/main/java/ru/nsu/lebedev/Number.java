@@ -6,7 +6,7 @@ import java.util.Map;
  * Class with constant realisation.
  */
 public class Number extends Expression {
-    private int value;
+    private final int value;
 
     /**
      * Function with initialization.
@@ -21,8 +21,8 @@ public class Number extends Expression {
      * @return Number.
      */
     @Override
-    public Expression simplify() {
-        return new Number(value);
+    Expression simplify(ExpressionFactory factory) {
+        return factory.intern(this);
     }
 
     /**
@@ -37,8 +37,8 @@ public class Number extends Expression {
      * Function with derivative of constant.
      */
     @Override
-    public Expression derivative(String variable) {
-        return new Number(0);
+    Expression derivative(String variable, ExpressionFactory factory) {
+        return factory.number(0);
     }
 
     /**
@@ -48,4 +48,28 @@ public class Number extends Expression {
     public int eval(Map<String, Integer> var) {
         return value;
     }
+
+    /**
+     * Function with compiling of constant.
+     */
+    @Override
+    void compile(CompiledExpression.Builder builder) {
+        builder.constant(value);
+    }
+
+    /**
+     * Two constants are equal if their values are equal.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Number that && value == that.value;
+    }
+
+    /**
+     * Returns hash of the value.
+     */
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
 }
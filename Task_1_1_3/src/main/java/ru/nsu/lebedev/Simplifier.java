@@ -0,0 +1,380 @@
+package ru.nsu.lebedev;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Class with rule-based simplification of expressions to a canonical form.
+ * Chains of additions and subtractions are flattened into terms, constants are folded,
+ * like terms are collected, products are flattened into a coefficient and factors,
+ * and terms and factors are sorted, so equivalent sums and products converge
+ * to the same tree. Int arithmetic wraps around, so these rewrites keep the value exactly.
+ * Sums inside products are not expanded, a division is kept as one factor.
+ * The result of every rewritten node is remembered and every created node is shared,
+ * so the form is reached in one pass and the next call on an edited tree only
+ * rewrites nodes that were not seen before. Operands bigger than the threshold
+ * are rewritten in parallel in the ForkJoin pool.
+ */
+public class Simplifier {
+    private static final int DEFAULT_THRESHOLD = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final Map<Expression, Expression> nodes = new ConcurrentHashMap<>();
+    private final Map<Expression, Expression> simplified = new ConcurrentHashMap<>();
+    private final Expression one;
+    private final Comparator<Expression> order = Simplifier::compare;
+
+    /**
+     * Function with initialization of simplifier on the common pool.
+     */
+    public Simplifier() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Function with initialization.
+     *
+     * @param pool pool for simplifying big subtrees.
+     * @param threshold count of nodes, bigger operands are simplified in parallel.
+     */
+    public Simplifier(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+        this.one = intern(new Number(1));
+    }
+
+    /**
+     * Simplifies the expression to the canonical form.
+     *
+     * @param expression expression.
+     * @return simplified expression, its nodes are shared with other results.
+     */
+    public Expression simplify(Expression expression) {
+        if (expression.size() > threshold && !ForkJoinTask.inForkJoinPool()) {
+            return pool.invoke(new SimplifyTask(expression));
+        }
+        return normalize(expression);
+    }
+
+    /**
+     * Returns count of nodes whose simplified form is remembered.
+     *
+     * @return count of nodes.
+     */
+    public int rememberedNodes() {
+        return simplified.size();
+    }
+
+    /**
+     * Returns remembered form of the node or rewrites it.
+     */
+    private Expression normalize(Expression expression) {
+        Expression result = simplified.get(expression);
+        if (result != null) {
+            return result;
+        }
+        if (expression instanceof Add || expression instanceof Sub) {
+            result = normalizeSum(expression);
+        } else if (expression instanceof Mul) {
+            result = normalizeProduct(expression);
+        } else if (expression instanceof Div) {
+            result = normalizeDivision(expression);
+        } else {
+            result = intern(expression);
+        }
+        simplified.putIfAbsent(expression, result);
+        simplified.putIfAbsent(result, result);
+        return result;
+    }
+
+    /**
+     * Rule a: constants of a chain of additions and subtractions are summed.
+     * Rule e: like terms are collected, terms with zero coefficient disappear.
+     */
+    private Expression normalizeSum(Expression expression) {
+        List<Expression> operands = new ArrayList<>();
+        List<Integer> signs = new ArrayList<>();
+        ArrayDeque<Expression> stack = new ArrayDeque<>();
+        ArrayDeque<Integer> stackSigns = new ArrayDeque<>();
+        stack.push(expression);
+        stackSigns.push(1);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            int sign = stackSigns.pop();
+            if (node instanceof Add || node instanceof Sub) {
+                stack.push(node.right());
+                stackSigns.push(node instanceof Sub ? -sign : sign);
+                stack.push(node.left());
+                stackSigns.push(sign);
+            } else {
+                operands.add(node);
+                signs.add(sign);
+            }
+        }
+        List<Expression> normalized = normalizeAll(operands);
+        Map<Expression, int[]> terms = new HashMap<>();
+        for (int i = 0; i < normalized.size(); i++) {
+            addTerms(terms, normalized.get(i), signs.get(i));
+        }
+        return buildSum(terms);
+    }
+
+    /**
+     * Rule a: constants of a chain of multiplications are multiplied.
+     * Rule b: multiplication by 0 results in 0.
+     * Rule c: multiplication by 1 disappears.
+     * A constant times a sum is distributed over its terms.
+     */
+    private Expression normalizeProduct(Expression expression) {
+        List<Expression> operands = new ArrayList<>();
+        collectFactors(expression, operands);
+        int coefficient = 1;
+        List<Expression> factors = new ArrayList<>();
+        for (Expression factor : normalizeAll(operands)) {
+            if (factor instanceof Number) {
+                coefficient *= factor.eval(Map.of());
+            } else if (factor instanceof Mul && factor.left() instanceof Number) {
+                coefficient *= factor.left().eval(Map.of());
+                collectFactors(factor.right(), factors);
+            } else if (factor instanceof Mul) {
+                collectFactors(factor, factors);
+            } else {
+                factors.add(factor);
+            }
+        }
+        if (coefficient == 0) {
+            return intern(new Number(0));
+        }
+        if (factors.isEmpty()) {
+            return intern(new Number(coefficient));
+        }
+        if (factors.size() == 1 && isSum(factors.get(0))) {
+            Map<Expression, int[]> terms = new HashMap<>();
+            addTerms(terms, factors.get(0), coefficient);
+            return buildSum(terms);
+        }
+        factors.sort(order);
+        Expression monomial = factors.get(0);
+        for (int i = 1; i < factors.size(); i++) {
+            monomial = intern(new Mul(monomial, factors.get(i)));
+        }
+        return term(coefficient, monomial);
+    }
+
+    /**
+     * Rule a: division of constants is evaluated unless the divisor is 0.
+     * Division by 1 results in the dividend, 0 divided by anything but 0 is 0.
+     */
+    private Expression normalizeDivision(Expression expression) {
+        List<Expression> operands = normalizeAll(List.of(expression.left(), expression.right()));
+        Expression left = operands.get(0);
+        Expression right = operands.get(1);
+        boolean zeroDivisor = right instanceof Number && right.eval(Map.of()) == 0;
+        if (left instanceof Number && right instanceof Number && !zeroDivisor) {
+            return intern(new Number(left.eval(Map.of()) / right.eval(Map.of())));
+        }
+        if (right == one) {
+            return left;
+        }
+        if (left instanceof Number && left.eval(Map.of()) == 0 && !zeroDivisor) {
+            return left;
+        }
+        return intern(new Div(left, right));
+    }
+
+    /**
+     * Simplifies operands, operands bigger than the threshold are forked as tasks
+     * when the simplifier works in the pool.
+     */
+    private List<Expression> normalizeAll(List<Expression> operands) {
+        Expression[] results = new Expression[operands.size()];
+        SimplifyTask[] tasks = new SimplifyTask[operands.size()];
+        boolean parallel = ForkJoinTask.inForkJoinPool();
+        for (int i = 0; i < results.length; i++) {
+            Expression operand = operands.get(i);
+            if (parallel && operand.size() > threshold && !simplified.containsKey(operand)) {
+                tasks[i] = new SimplifyTask(operand);
+                tasks[i].fork();
+            } else {
+                results[i] = normalize(operand);
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (tasks[i] != null) {
+                results[i] = tasks[i].join();
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Adds terms of the simplified expression multiplied by {@code multiplier} to the map
+     * from monomials to coefficients.
+     */
+    private void addTerms(Map<Expression, int[]> terms, Expression expression, int multiplier) {
+        ArrayDeque<Expression> stack = new ArrayDeque<>();
+        ArrayDeque<Integer> signs = new ArrayDeque<>();
+        stack.push(expression);
+        signs.push(multiplier);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            int sign = signs.pop();
+            if (isSum(node)) {
+                stack.push(node.right());
+                signs.push(node instanceof Sub ? -sign : sign);
+                stack.push(node.left());
+                signs.push(sign);
+            } else if (node instanceof Number) {
+                terms.computeIfAbsent(one, key -> new int[1])[0] += sign * node.eval(Map.of());
+            } else if (node instanceof Mul && node.left() instanceof Number) {
+                int coefficient = node.left().eval(Map.of());
+                terms.computeIfAbsent(node.right(), key -> new int[1])[0] += sign * coefficient;
+            } else {
+                terms.computeIfAbsent(node, key -> new int[1])[0] += sign;
+            }
+        }
+    }
+
+    /**
+     * Builds sum of terms sorted by monomials, the constant goes first,
+     * negative terms after the first one are subtracted.
+     */
+    private Expression buildSum(Map<Expression, int[]> terms) {
+        List<Expression> monomials = new ArrayList<>();
+        for (Map.Entry<Expression, int[]> entry : terms.entrySet()) {
+            if (entry.getValue()[0] != 0) {
+                monomials.add(entry.getKey());
+            }
+        }
+        if (monomials.isEmpty()) {
+            return intern(new Number(0));
+        }
+        monomials.sort(order);
+        Expression sum = term(terms.get(monomials.get(0))[0], monomials.get(0));
+        for (int i = 1; i < monomials.size(); i++) {
+            Expression monomial = monomials.get(i);
+            int coefficient = terms.get(monomial)[0];
+            if (coefficient < 0 && coefficient != Integer.MIN_VALUE) {
+                sum = intern(new Sub(sum, term(-coefficient, monomial)));
+            } else {
+                sum = intern(new Add(sum, term(coefficient, monomial)));
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns product of the coefficient and the monomial.
+     */
+    private Expression term(int coefficient, Expression monomial) {
+        if (monomial == one) {
+            return intern(new Number(coefficient));
+        }
+        if (coefficient == 1) {
+            return monomial;
+        }
+        return intern(new Mul(intern(new Number(coefficient)), monomial));
+    }
+
+    /**
+     * Returns the shared node equal to the given one.
+     */
+    private Expression intern(Expression expression) {
+        Expression shared = nodes.putIfAbsent(expression, expression);
+        return shared == null ? expression : shared;
+    }
+
+    /**
+     * Adds operands of the chain of multiplications to the list.
+     */
+    private static void collectFactors(Expression expression, List<Expression> factors) {
+        ArrayDeque<Expression> stack = new ArrayDeque<>();
+        stack.push(expression);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            if (node instanceof Mul) {
+                stack.push(node.right());
+                stack.push(node.left());
+            } else {
+                factors.add(node);
+            }
+        }
+    }
+
+    private static boolean isSum(Expression expression) {
+        return expression instanceof Add || expression instanceof Sub;
+    }
+
+    /**
+     * Canonical order: constants, variables, divisions, products, sums;
+     * nodes of one kind are ordered by size and then by operands.
+     */
+    private static int compare(Expression first, Expression second) {
+        if (first == second) {
+            return 0;
+        }
+        int result = Integer.compare(rank(first), rank(second));
+        if (result != 0) {
+            return result;
+        }
+        if (first instanceof Number) {
+            return Integer.compare(first.eval(Map.of()), second.eval(Map.of()));
+        }
+        if (first instanceof Variable) {
+            return first.toString().compareTo(second.toString());
+        }
+        result = Integer.compare(first.size(), second.size());
+        if (result == 0) {
+            result = compare(first.right(), second.right());
+        }
+        if (result == 0) {
+            result = compare(first.left(), second.left());
+        }
+        return result;
+    }
+
+    private static int rank(Expression expression) {
+        if (expression instanceof Number) {
+            return 0;
+        } else if (expression instanceof Variable) {
+            return 1;
+        } else if (expression instanceof Div) {
+            return 2;
+        } else if (expression instanceof Mul) {
+            return 3;
+        } else if (expression instanceof Add) {
+            return 4;
+        }
+        return 5;
+    }
+
+    /**
+     * Task simplifying one subtree.
+     */
+    private final class SimplifyTask extends RecursiveTask<Expression> {
+        private static final long serialVersionUID = 1L;
+
+        private final Expression expression;
+
+        SimplifyTask(Expression expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        protected Expression compute() {
+            return normalize(expression);
+        }
+    }
+}
@@ -6,7 +6,7 @@ import java.util.Map;
  * Class with variable realisation.
  */
 public class Variable extends Expression {
-    private String variable;
+    private final String variable;
 
     /**
      * Function with initialization.
@@ -21,8 +21,8 @@ public class Variable extends Expression {
      * @return Variable.
      */
     @Override
-    public Expression simplify() {
-        return new Variable(variable);
+    Expression simplify(ExpressionFactory factory) {
+        return factory.intern(this);
     }
 
     /**
@@ -39,11 +39,11 @@ public class Variable extends Expression {
      * by rule2: The derivative of another variable is 0.
      */
     @Override
-    public Expression derivative(String var) {
+    Expression derivative(String var, ExpressionFactory factory) {
         if (variable.equals(var)) {
-            return new Number(1);
+            return factory.number(1);
         } else {
-            return new Number(0);
+            return factory.number(0);
         }
     }
 
@@ -54,4 +54,28 @@ public class Variable extends Expression {
     public int eval(Map<String, Integer> var) {
         return var.getOrDefault(variable, 0);
     }
+
+    /**
+     * Function with compiling of variable.
+     */
+    @Override
+    void compile(CompiledExpression.Builder builder) {
+        builder.variable(variable);
+    }
+
+    /**
+     * Two variables are equal if their names are equal.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Variable that && variable.equals(that.variable);
+    }
+
+    /**
+     * Returns hash of the name.
+     */
+    @Override
+    public int hashCode() {
+        return variable.hashCode();
+    }
 }
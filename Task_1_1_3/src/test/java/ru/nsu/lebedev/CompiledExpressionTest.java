@@ -0,0 +1,98 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing CompiledExpression class.
+ */
+public class CompiledExpressionTest {
+
+    @Test
+    void compileAndEval() {
+        Expression expression = ExpressionParser.parse("(3+2)*x - y / 2 + x");
+        CompiledExpression compiled = expression.compile();
+        assertEquals(List.of("x", "y"), compiled.variables());
+        assertEquals(0, compiled.slotOf("x"));
+        assertEquals(1, compiled.slotOf("y"));
+        assertEquals(-1, compiled.slotOf("z"));
+        assertEquals("3 2 + x * y 2 / - x +", compiled.toString());
+        assertEquals(5 * 4 - 10 / 2 + 4, compiled.eval(new int[]{4, 10}));
+    }
+
+    @Test
+    void bindLikeMap() {
+        Expression expression = new Add(new Mul(new Variable("x"), new Variable("x")),
+                new Variable("y"));
+        CompiledExpression compiled = expression.compile();
+        assertArrayEquals(new int[]{3, 0}, compiled.bind(Map.of("x", 3)));
+        assertEquals(expression.eval(Map.of("x", 3)),
+                compiled.eval(compiled.bind(Map.of("x", 3))));
+    }
+
+    @Test
+    void constantExpression() {
+        CompiledExpression compiled = new Number(7).compile();
+        assertEquals(List.of(), compiled.variables());
+        assertEquals(7, compiled.eval(new int[0]));
+    }
+
+    @Test
+    void sameAsTree() {
+        Random random = new Random(1);
+        for (int leaves = 1; leaves < 64; leaves++) {
+            Expression expression = ExpressionBenchmark.generate(leaves, random);
+            CompiledExpression compiled = expression.compile();
+            Map<String, Integer> env = Map.of("x", random.nextInt(7) - 3,
+                    "y", random.nextInt(7), "z", -2, "w", 5);
+            assertEquals(expression.eval(env), compiled.eval(compiled.bind(env)));
+        }
+    }
+
+    @Test
+    void errors() {
+        CompiledExpression compiled = new Div(new Variable("x"), new Variable("y")).compile();
+        assertThrows(IllegalArgumentException.class, () -> compiled.eval(new int[]{1}));
+        assertThrows(ArithmeticException.class, () -> compiled.eval(new int[]{1, 0}));
+        assertEquals(3, compiled.eval(new int[]{7, 2}));
+    }
+
+    @Test
+    void evalBatchSameAsRows() {
+        Random random = new Random(3);
+        Expression expression = ExpressionBenchmark.generate(40, random);
+        for (int rows : new int[]{0, 1, 1023, 1025, 100_000}) {
+            Map<String, int[]> columns = Map.of("x", random.ints(rows, -5, 5).toArray(),
+                    "y", random.ints(rows + 3, 0, 9).toArray(), "z", new int[rows]);
+            int[] out = new int[rows];
+            expression.evalBatch(columns, out);
+            for (int row = 0; row < rows; row++) {
+                Map<String, Integer> env = Map.of("x", columns.get("x")[row],
+                        "y", columns.get("y")[row]);
+                assertEquals(expression.eval(env), out[row]);
+            }
+        }
+    }
+
+    @Test
+    void evalBatchErrors() {
+        CompiledExpression compiled = new Div(new Number(6), new Variable("x")).compile();
+        int[] out = new int[3];
+        compiled.evalBatch(new int[][]{{1, 2, 3}}, out);
+        assertArrayEquals(new int[]{6, 3, 2}, out);
+        assertThrows(IllegalArgumentException.class,
+                () -> compiled.evalBatch(new int[][]{{1, 2}}, out));
+        assertThrows(IllegalArgumentException.class,
+                () -> compiled.evalBatch(new int[0][], out));
+        assertThrows(ArithmeticException.class,
+                () -> compiled.evalBatch(Map.of(), out));
+        assertThrows(ArithmeticException.class,
+                () -> compiled.evalBatch(Map.of("x", new int[100_000]), new int[100_000]));
+    }
+}
@@ -0,0 +1,20 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing ExpressionBenchmark class.
+ */
+class ExpressionBenchmarkTest {
+    @Test
+    void callMain() {
+        ExpressionBenchmark.main(new String[]{"eval", "100", "1000"});
+        ExpressionBenchmark.main(new String[]{"derivative", "8", "16"});
+        ExpressionBenchmark.main(new String[]{"batch", "100", "1000"});
+        ExpressionBenchmark.main(new String[]{"parse", "100", "1000"});
+        ExpressionBenchmark.main(new String[]{"simplify", "100", "1000"});
+        assertTrue(true);
+    }
+}
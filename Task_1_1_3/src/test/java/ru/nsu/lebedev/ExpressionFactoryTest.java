@@ -0,0 +1,83 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing ExpressionFactory class.
+ */
+public class ExpressionFactoryTest {
+
+    @Test
+    void equalNodesAreShared() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression first = factory.add(factory.mul(factory.number(2), factory.variable("x")),
+                factory.variable("y"));
+        Expression second = factory.add(factory.mul(factory.number(2), factory.variable("x")),
+                factory.variable("y"));
+        assertSame(first, second);
+        assertEquals(5, factory.size());
+        assertNotEquals(factory.sub(factory.variable("x"), factory.variable("y")),
+                factory.sub(factory.variable("y"), factory.variable("x")));
+        assertNotEquals(factory.add(factory.variable("x"), factory.variable("y")),
+                factory.mul(factory.variable("x"), factory.variable("y")));
+    }
+
+    @Test
+    void structuralEquality() {
+        Expression first = new Div(new Variable("x"), new Number(3));
+        Expression second = new Div(new Variable("x"), new Number(3));
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals("0", new Sub(first, second).simplify().toString());
+    }
+
+    @Test
+    void derivativeIsSharedAndRemembered() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression polynomial = ExpressionBenchmark.polynomial(6, factory);
+        Expression derivative = factory.derivative(polynomial, "x");
+        assertSame(derivative, factory.derivative(polynomial, "x"));
+        Expression plain = ExpressionBenchmark.polynomial(6, ExpressionFactory.PLAIN);
+        assertEquals(plain.derivative("x"), derivative);
+        for (int x = -3; x <= 3; x++) {
+            Map<String, Integer> env = Map.of("x", x);
+            assertEquals(plain.derivative("x").derivative("x").eval(env),
+                    factory.derivative(derivative, "x").eval(env));
+        }
+    }
+
+    @Test
+    void simplifyIsSharedAndRemembered() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression expression = factory.add(
+                factory.mul(factory.number(1), factory.variable("x")),
+                factory.mul(factory.variable("x"), factory.number(0)));
+        Expression simplified = factory.simplify(expression);
+        assertSame(factory.variable("x"), simplified);
+        assertSame(simplified, factory.simplify(expression));
+        assertEquals(expression.simplify(), simplified);
+    }
+
+    @Test
+    void repeatedDerivativeStaysSmall() {
+        ExpressionFactory factory = new ExpressionFactory();
+        Expression expression = ExpressionBenchmark.polynomial(32, factory);
+        int before = factory.size();
+        for (int i = 0; i < 4; i++) {
+            expression = factory.derivative(expression, "x");
+        }
+        assertTrue(factory.size() < before * 40, "size " + factory.size());
+        int expected = 0;
+        for (int i = 4; i <= 32; i++) {
+            expected += i * i * (i - 1) * (i - 2) * (i - 3);
+        }
+        assertEquals(expected, expression.eval(Map.of("x", 1)));
+        assertEquals(expected, factory.simplify(expression).eval(Map.of("x", 1)));
+    }
+}
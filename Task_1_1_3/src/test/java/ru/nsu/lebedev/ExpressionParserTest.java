@@ -1,7 +1,15 @@
 package ru.nsu.lebedev;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -29,6 +37,83 @@ public class ExpressionParserTest {
         Expression expression = ExpressionParser.parse(input);
         assertEquals("((2+(3*x))-(5/y))", expression.toString());
     }
-}
 
+    @Test
+    void unaryMinus() {
+        assertEquals("-5", ExpressionParser.parse("-5").toString());
+        assertEquals("((0-x)*y)", ExpressionParser.parse("-x*y").toString());
+        assertEquals("(2*-3)", ExpressionParser.parse("2 * -3").toString());
+        assertEquals("(-2-3)", ExpressionParser.parse("-2-3").toString());
+        assertEquals("(0-(x+1))", ExpressionParser.parse("-(x+1)").toString());
+        assertEquals(7, ExpressionParser.parse("--7").eval(Map.of()));
+    }
+
+    @Test
+    void sameAsToString() {
+        Random random = new Random(5);
+        for (int leaves = 1; leaves < 50; leaves++) {
+            Expression expression = ExpressionBenchmark.generate(leaves, random);
+            assertEquals(expression, ExpressionParser.parse(expression.toString()));
+        }
+    }
+
+    @Test
+    void minimalNumber() {
+        Expression minimal = new Number(Integer.MIN_VALUE);
+        assertEquals(minimal, ExpressionParser.parse(minimal.toString()));
+        Expression product = new Mul(new Variable("x"), minimal);
+        assertEquals(product, ExpressionParser.parse(product.toString()));
+        assertEquals(Integer.MIN_VALUE, ExpressionParser.parse("--2147483648").eval(Map.of()));
+        assertEquals(4, offset("3 - 2147483648"));
+        assertEquals(2, offset("-(2147483648)"));
+        assertEquals(1, offset("-2147483649"));
+    }
+
+    @Test
+    void variablesAreInterned() {
+        ExpressionParser parser = new ExpressionParser();
+        Expression alpha = parser.read("alpha");
+        StringBuilder input = new StringBuilder("alpha");
+        for (int i = 0; i < 100; i++) {
+            input.append("+v").append((char) ('a' + i % 26)).append((char) ('a' + i / 26));
+        }
+        parser.read(input);
+        assertSame(alpha, parser.read(" alpha "));
+        assertEquals("(beta*alpha)", parser.read("beta * alpha").toString());
+        ExpressionFactory factory = new ExpressionFactory();
+        ExpressionParser shared = new ExpressionParser(factory);
+        assertSame(shared.read("(a+b)*c"), shared.read("(a + b) * c"));
+    }
+
+    @Test
+    void errorOffsets() {
+        assertEquals(4, offset("2 + * 3"));
+        assertEquals(5, offset("1 + 2)"));
+        assertEquals(0, offset("(1 + 2"));
+        assertEquals(4, offset("1 + "));
+        assertEquals(0, offset(""));
+        assertEquals(2, offset("x $ y"));
+        assertEquals(2, offset("x y"));
+        assertEquals(4, offset("3 + 99999999999"));
+        assertEquals(1, offset("()"));
+    }
 
+    @Test
+    void readLines() throws IOException {
+        List<Expression> expressions = new ArrayList<>();
+        int count = new ExpressionParser().readLines(
+                new StringReader("1 + x\n\n  \r\n2 * -y\r\nz"), expressions::add);
+        assertEquals(3, count);
+        assertEquals("(1+x)", expressions.get(0).toString());
+        assertEquals("(2*(0-y))", expressions.get(1).toString());
+        assertEquals("z", expressions.get(2).toString());
+        ExpressionParseException exception = assertThrows(ExpressionParseException.class,
+                () -> new ExpressionParser().readLines(new StringReader("x\n1 +"), e -> { }));
+        assertEquals(5, exception.getOffset());
+    }
+
+    private static int offset(String input) {
+        return assertThrows(ExpressionParseException.class,
+                () -> ExpressionParser.parse(input)).getOffset();
+    }
+}
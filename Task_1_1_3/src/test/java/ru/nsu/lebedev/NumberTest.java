@@ -1,7 +1,7 @@
 package ru.nsu.lebedev;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
@@ -24,8 +24,8 @@ public class NumberTest {
 
     @Test
     void simplifyNumber() {
-        assertNotEquals(number, number.simplify(),
-                "Number should simplify to itself (dif obj).");
+        assertSame(number, number.simplify(),
+                "Number should simplify to itself.");
     }
 
     @Test
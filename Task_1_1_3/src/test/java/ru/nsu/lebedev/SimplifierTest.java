@@ -0,0 +1,97 @@
+package ru.nsu.lebedev;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing Simplifier class.
+ */
+public class SimplifierTest {
+
+    private static String simplify(String input) {
+        return new Simplifier().simplify(ExpressionParser.parse(input)).toString();
+    }
+
+    @Test
+    void constantFolding() {
+        assertEquals("10", simplify("2 * 3 + 4"));
+        assertEquals("(5+x)", simplify("2 + x + 3"));
+        assertEquals("0", simplify("x * 0 * y"));
+        assertEquals("x", simplify("1 * x * 1 + 0"));
+        assertEquals("2", simplify("7 / 3"));
+        assertEquals("(6*x)", simplify("2 * x * 3"));
+        assertEquals("((2*x)+(2*y))", simplify("2 * (x + y)"));
+    }
+
+    @Test
+    void likeTerms() {
+        assertEquals("0", simplify("x + 2 * x - 3 * x"));
+        assertEquals("(2*(x*y))", simplify("x * y + y * x"));
+        assertEquals("(x-y)", simplify("x - (y - x) - x"));
+        assertEquals("(-1*x)", simplify("0 - x"));
+        assertEquals("((x+y)*(x+y))", simplify("(y + x) * (x + y)"));
+    }
+
+    @Test
+    void canonicalOrder() {
+        Simplifier simplifier = new Simplifier();
+        assertSame(simplifier.simplify(ExpressionParser.parse("(a + b) * c - d / e")),
+                simplifier.simplify(ExpressionParser.parse("0 - d / e + c * (b + a)")));
+        assertSame(simplifier.simplify(ExpressionParser.parse("x * y * z")),
+                simplifier.simplify(ExpressionParser.parse("z * (y * x)")));
+    }
+
+    @Test
+    void division() {
+        assertEquals("x", simplify("x / 1"));
+        assertEquals("0", simplify("0 / x"));
+        assertEquals("(x/(y+z))", simplify("x / (z + y)"));
+        Expression zero = new Simplifier().simplify(ExpressionParser.parse("1 / (x - x)"));
+        assertEquals("(1/0)", zero.toString());
+        assertThrows(ArithmeticException.class, () -> zero.eval(Map.of()));
+    }
+
+    @Test
+    void sameValueAndFixpoint() {
+        Random random = new Random(11);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int leaves = 1; leaves < 300; leaves += 7) {
+                Expression expression = ExpressionBenchmark.generate(leaves, random);
+                Expression sequential = new Simplifier(pool, Integer.MAX_VALUE)
+                        .simplify(expression);
+                Expression parallel = new Simplifier(pool, 4).simplify(expression);
+                assertEquals(sequential, parallel);
+                assertEquals(sequential, new Simplifier().simplify(sequential));
+                Map<String, Integer> env = Map.of("x", random.nextInt(21) - 10,
+                        "y", random.nextInt(5), "z", -3, "w", 7);
+                assertEquals(expression.eval(env), sequential.eval(env));
+                assertTrue(sequential.size() <= expression.size() * 2);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void incremental() {
+        Simplifier simplifier = new Simplifier();
+        Expression expression = ExpressionBenchmark.generate(500, new Random(2));
+        simplifier.simplify(expression);
+        int remembered = simplifier.rememberedNodes();
+        Expression edited = new Mul(expression, new Variable("x"));
+        Expression result = simplifier.simplify(edited);
+        assertTrue(simplifier.rememberedNodes() - remembered < 10);
+        assertEquals(expression.eval(Map.of("x", 3, "y", 2)) * 3,
+                result.eval(Map.of("x", 3, "y", 2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Simplifier(ForkJoinPool.commonPool(), 0));
+    }
+}
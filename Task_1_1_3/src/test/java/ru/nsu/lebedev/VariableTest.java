@@ -1,7 +1,7 @@
 package ru.nsu.lebedev;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
@@ -24,7 +24,7 @@ public class VariableTest {
 
     @Test
     void testSimplifyVariable() {
-        assertNotEquals(variable, variable.simplify(),
+        assertSame(variable, variable.simplify(),
                 "Variable should simplify to itself.");
     }
 
@@ -1,52 +1,93 @@
 package ru.nsu.lebedev.graph;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
  * Adjacency Matrix Graph class implementation.
  * raw - vertex; col - vertex.
+ * Every row is a bitset of edges, so a cell takes one bit. While all edges have
+ * the same weight it is kept once, the first edge with another weight creates rows
+ * of weights packed in order of columns: weight of edge (i, j) is at the count of
+ * edges of row i before column j. Rows have room for more columns, it grows by half
+ * when it is over, so adding a vertex doesn't touch other rows.
  *
  * @param <T> type of graph's vertices
  */
 public class AdjacentMatrixGraph<T> implements Graph<T> {
-    private final Map<T, Vertex<T>> vertices = new HashMap<>();
+    private static final int MIN_CAPACITY = 16;
+    private static final int BLOCK = 64;
+    private static final int ROWS_GRAIN = 64;
+
     private final Map<T, Integer> vertexIndex = new HashMap<>();
-    private final List<List<Double>> adjMatrix = new ArrayList<>();
+    private final List<T> values = new ArrayList<>();
+    private long[][] adjMatrix = new long[MIN_CAPACITY][];
+    private double[][] weights;
+    private double uniformWeight;
+    private int columns = MIN_CAPACITY;
+    private int edgeCount;
 
     @Override
     public Vertex<T> getVertex(T value) {
-        return vertices.get(value);
+        return vertexIndex.containsKey(value) ? new Vertex<>(value) : null;
     }
 
     @Override
     public void addVertex(T value) {
-        if (vertices.containsKey(value)) {
-            vertices.get(value);
+        if (vertexIndex.containsKey(value)) {
             return;
         }
-        Vertex<T> newVertex = new Vertex<>(value);
-        vertices.put(value, newVertex);
-        vertexIndex.put(value, vertexIndex.size());
-        for (List<Double> row : adjMatrix) {
-            row.add(null);
+        int index = values.size();
+        if (index == columns) {
+            growColumns();
+        }
+        if (index == adjMatrix.length) {
+            adjMatrix = Arrays.copyOf(adjMatrix, index * 2);
+            if (weights != null) {
+                weights = Arrays.copyOf(weights, index * 2);
+            }
         }
-        adjMatrix.add(new ArrayList<>(Collections.nCopies(vertices.size(), null)));
+        adjMatrix[index] = new long[words(columns)];
+        if (weights != null) {
+            weights[index] = new double[0];
+        }
+        vertexIndex.put(value, index);
+        values.add(value);
     }
 
     @Override
     public Vertex<T> removeVertex(T value) {
-        if (!vertices.containsKey(value)) {
+        Integer removed = vertexIndex.remove(value);
+        if (removed == null) {
             return null;
         }
-        int index = vertexIndex.remove(value);
-        vertices.remove(value);
-        adjMatrix.remove(index);
-        for (List<Double> row : adjMatrix) {
-            row.remove(index);
+        int index = removed;
+        int count = values.size();
+        edgeCount -= bitCount(adjMatrix[index]);
+        for (int i = 0; i < count; i++) {
+            if (i != index && hasEdge(i, index)) {
+                removeWeight(i, index);
+                edgeCount--;
+            }
+        }
+        System.arraycopy(adjMatrix, index + 1, adjMatrix, index, count - index - 1);
+        adjMatrix[count - 1] = null;
+        if (weights != null) {
+            System.arraycopy(weights, index + 1, weights, index, count - index - 1);
+            weights[count - 1] = null;
+        }
+        for (int i = 0; i < count - 1; i++) {
+            removeBit(adjMatrix[i], index);
+        }
+        values.remove(index);
+        for (int i = index; i < values.size(); i++) {
+            vertexIndex.put(values.get(i), i);
         }
         return new Vertex<>(value);
     }
@@ -57,8 +98,8 @@ public class AdjacentMatrixGraph<T> implements Graph<T> {
         addVertex(b);
         int indexA = vertexIndex.get(a);
         int indexB = vertexIndex.get(b);
-        if (adjMatrix.get(indexA).get(indexB) == null) {
-            adjMatrix.get(indexA).set(indexB, weight);
+        if (!hasEdge(indexA, indexB)) {
+            putEdge(indexA, indexB, weight);
         }
     }
 
@@ -69,13 +110,14 @@ public class AdjacentMatrixGraph<T> implements Graph<T> {
         }
         int indexA = vertexIndex.get(a);
         int indexB = vertexIndex.get(b);
-        Double weight = adjMatrix.get(indexA).get(indexB);
-        if (weight != null) {
-            Edge<T> removedEdge = new Edge<>(a, b, weight);
-            adjMatrix.get(indexA).set(indexB, null);
-            return removedEdge;
+        if (!hasEdge(indexA, indexB)) {
+            return null;
         }
-        return null;
+        final Edge<T> removedEdge = new Edge<>(a, b, weight(indexA, indexB));
+        removeWeight(indexA, indexB);
+        adjMatrix[indexA][indexB >>> 6] &= ~(1L << indexB);
+        edgeCount--;
+        return removedEdge;
     }
 
     @Override
@@ -85,42 +127,364 @@ public class AdjacentMatrixGraph<T> implements Graph<T> {
         }
         int indexA = vertexIndex.get(a);
         int indexB = vertexIndex.get(b);
-        Double weight = adjMatrix.get(indexA).get(indexB);
-        if (weight != null) {
-            return new Edge<>(a, b, weight);
+        if (hasEdge(indexA, indexB)) {
+            return new Edge<>(a, b, weight(indexA, indexB));
         }
         return null;
     }
 
+    @Override
+    public List<T> getVertices() {
+        return new ArrayList<>(vertexIndex.keySet());
+    }
+
+    @Override
+    public List<T> getAdjacentVertices(T vertex) {
+        List<T> adjacentVertices = new ArrayList<>();
+        Integer index = vertexIndex.get(vertex);
+        if (index == null) {
+            return adjacentVertices;
+        }
+        long[] row = adjMatrix[index];
+        for (int word = 0; word < row.length; word++) {
+            for (long bits = row[word]; bits != 0; bits &= bits - 1) {
+                adjacentVertices.add(values.get((word << 6) + Long.numberOfTrailingZeros(bits)));
+            }
+        }
+        return adjacentVertices;
+    }
+
+    /**
+     * Count of vertices getter.
+     *
+     * @return count of vertices
+     */
+    public int vertexCount() {
+        return values.size();
+    }
+
+    /**
+     * Count of edges getter.
+     *
+     * @return count of edges
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Transitive closure on the common pool.
+     *
+     * @return graph with edge (a, b) of weight 1 if there is a path from a to b
+     */
+    public AdjacentMatrixGraph<T> transitiveClosure() {
+        return transitiveClosure(ForkJoinPool.commonPool());
+    }
+
     /**
-     * Getter of vertex by index.
+     * Transitive closure by Warshall's algorithm with rows as bitsets.
+     * Vertices are taken by blocks of 64: rows of the block are closed over it first,
+     * then other rows are ORed with rows of the block in parallel, so the block
+     * stays in cache while all rows pass it.
      *
-     * @param index of vertex
-     * @return vertex or null if it doesn't exist
+     * @param pool pool for rows
+     * @return graph with edge (a, b) of weight 1 if there is a path from a to b
      */
-    private T getVertexByIndex(int index) {
-        for (Map.Entry<T, Integer> entry : vertexIndex.entrySet()) {
-            if (entry.getValue() == index) {
-                return entry.getKey();
+    public AdjacentMatrixGraph<T> transitiveClosure(ForkJoinPool pool) {
+        int count = values.size();
+        AdjacentMatrixGraph<T> closure = copyVertices();
+        long[][] reach = closure.adjMatrix;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(adjMatrix[i], 0, reach[i], 0, reach[i].length);
+        }
+        for (int start = 0; start < count; start += BLOCK) {
+            final int blockStart = start;
+            final int blockEnd = Math.min(start + BLOCK, count);
+            for (int k = blockStart; k < blockEnd; k++) {
+                for (int i = blockStart; i < blockEnd; i++) {
+                    if (i != k && (reach[i][k >>> 6] & (1L << k)) != 0) {
+                        or(reach[i], reach[k]);
+                    }
+                }
             }
+            invoke(pool, count, ROWS_GRAIN, i -> {
+                if (i < blockStart || i >= blockEnd) {
+                    closeRow(reach, i, blockStart, blockEnd);
+                }
+            });
         }
-        return null;
+        closure.uniformWeight = 1.0;
+        for (int i = 0; i < count; i++) {
+            closure.edgeCount += bitCount(reach[i]);
+        }
+        return closure;
     }
 
-    @Override
-    public List<T> getVertices() {
-        return new ArrayList<>(vertices.keySet());
+    /**
+     * Shortest paths on the common pool.
+     *
+     * @return graph with edge (a, b) weighted by length of the shortest path from a to b
+     */
+    public AdjacentMatrixGraph<T> shortestPaths() {
+        return shortestPaths(ForkJoinPool.commonPool());
     }
 
-    @Override
-    public List<T> getAdjacentVertices(T vertex) {
-        List<T> adjacentVertices = new ArrayList<>();
-        int index = vertexIndex.get(vertex);
-        for (int i = 0; i < adjMatrix.get(index).size(); i++) {
-            if (adjMatrix.get(index).get(i) != null) {
-                adjacentVertices.add(getVertexByIndex(i));
+    /**
+     * Shortest paths by blocked Floyd–Warshall algorithm, a path has at least one edge,
+     * so edge (a, a) is the shortest cycle through a. The matrix is split into blocks
+     * of 64 x 64 and every step updates the diagonal block, then blocks of its row and
+     * column in parallel, then all other blocks in parallel.
+     *
+     * @param pool pool for blocks
+     * @return graph with edge (a, b) weighted by length of the shortest path from a to b
+     * @throws IllegalArgumentException if there is a cycle of negative length
+     */
+    public AdjacentMatrixGraph<T> shortestPaths(ForkJoinPool pool) {
+        int count = values.size();
+        double[][] distance = new double[count][count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < count; j++) {
+                distance[i][j] = hasEdge(i, j) ? weight(i, j) : Double.POSITIVE_INFINITY;
             }
         }
-        return adjacentVertices;
+        int blocks = (count + BLOCK - 1) / BLOCK;
+        for (int block = 0; block < blocks; block++) {
+            final int pivot = block;
+            relaxBlock(distance, pivot, pivot, pivot);
+            invoke(pool, blocks, 1, other -> {
+                if (other != pivot) {
+                    relaxBlock(distance, pivot, other, pivot);
+                    relaxBlock(distance, other, pivot, pivot);
+                }
+            });
+            invoke(pool, blocks, 1, row -> {
+                for (int column = 0; column < blocks; column++) {
+                    if (row != pivot && column != pivot) {
+                        relaxBlock(distance, row, column, pivot);
+                    }
+                }
+            });
+        }
+        AdjacentMatrixGraph<T> paths = copyVertices();
+        for (int i = 0; i < count; i++) {
+            if (distance[i][i] < 0) {
+                throw new IllegalArgumentException("Graph has a negative cycle through "
+                        + values.get(i));
+            }
+            for (int j = 0; j < count; j++) {
+                if (distance[i][j] != Double.POSITIVE_INFINITY) {
+                    paths.putEdge(i, j, distance[i][j]);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * ORs row with closed rows of vertices of the block it has edges to,
+     * in order of vertices, so bits set on the way are taken too.
+     */
+    private static void closeRow(long[][] reach, int row, int blockStart, int blockEnd) {
+        long[] bits = reach[row];
+        int word = blockStart >>> 6;
+        for (int vertex = blockStart; vertex < blockEnd; vertex++) {
+            if ((bits[word] & (1L << vertex)) != 0) {
+                or(bits, reach[vertex]);
+            }
+        }
+    }
+
+    private static void or(long[] bits, long[] other) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] |= other[i];
+        }
+    }
+
+    /**
+     * Relaxes paths from block row to block column through vertices of block pivot.
+     */
+    private static void relaxBlock(double[][] distance, int row, int column, int pivot) {
+        int count = distance.length;
+        int rowEnd = Math.min((row + 1) * BLOCK, count);
+        int columnEnd = Math.min((column + 1) * BLOCK, count);
+        int pivotEnd = Math.min((pivot + 1) * BLOCK, count);
+        for (int k = pivot * BLOCK; k < pivotEnd; k++) {
+            double[] through = distance[k];
+            for (int i = row * BLOCK; i < rowEnd; i++) {
+                double[] from = distance[i];
+                double first = from[k];
+                if (first == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j = column * BLOCK; j < columnEnd; j++) {
+                    double length = first + through[j];
+                    if (length < from[j]) {
+                        from[j] = length;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the body for indices from 0 to count in parallel.
+     */
+    private static void invoke(ForkJoinPool pool, int count, int grain, IntConsumer body) {
+        if (count <= grain) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new RangeTask(0, count, grain, body));
+    }
+
+    /**
+     * Creates graph with the same vertices and no edges.
+     */
+    private AdjacentMatrixGraph<T> copyVertices() {
+        AdjacentMatrixGraph<T> copy = new AdjacentMatrixGraph<>();
+        copy.columns = columns;
+        copy.adjMatrix = new long[adjMatrix.length][];
+        for (int i = 0; i < values.size(); i++) {
+            copy.adjMatrix[i] = new long[words(columns)];
+        }
+        copy.values.addAll(values);
+        copy.vertexIndex.putAll(vertexIndex);
+        return copy;
+    }
+
+    /**
+     * Sets absent edge, rows of weights are created for the first edge with another weight.
+     */
+    private void putEdge(int from, int to, double weight) {
+        if (weights == null && edgeCount == 0) {
+            uniformWeight = weight;
+        } else if (weights == null && Double.compare(weight, uniformWeight) != 0) {
+            createWeights();
+        }
+        if (weights != null) {
+            int size = bitCount(adjMatrix[from]);
+            int position = rank(from, to);
+            double[] row = weights[from];
+            if (size == row.length) {
+                row = Arrays.copyOf(row, Math.max(4, size * 2));
+                weights[from] = row;
+            }
+            System.arraycopy(row, position, row, position + 1, size - position);
+            row[position] = weight;
+        }
+        adjMatrix[from][to >>> 6] |= 1L << to;
+        edgeCount++;
+    }
+
+    /**
+     * Removes weight of the existing edge from its packed row.
+     */
+    private void removeWeight(int from, int to) {
+        if (weights != null) {
+            int position = rank(from, to);
+            System.arraycopy(weights[from], position + 1, weights[from], position,
+                    bitCount(adjMatrix[from]) - position - 1);
+        }
+    }
+
+    /**
+     * Creates rows of weights from the common weight of edges.
+     */
+    private void createWeights() {
+        weights = new double[adjMatrix.length][];
+        for (int i = 0; i < values.size(); i++) {
+            weights[i] = new double[bitCount(adjMatrix[i])];
+            Arrays.fill(weights[i], uniformWeight);
+        }
+    }
+
+    /**
+     * Makes room for more columns in every row.
+     */
+    private void growColumns() {
+        columns += columns >> 1;
+        for (int i = 0; i < values.size(); i++) {
+            adjMatrix[i] = Arrays.copyOf(adjMatrix[i], words(columns));
+        }
+    }
+
+    private boolean hasEdge(int from, int to) {
+        return (adjMatrix[from][to >>> 6] & (1L << to)) != 0;
+    }
+
+    private double weight(int from, int to) {
+        return weights == null ? uniformWeight : weights[from][rank(from, to)];
+    }
+
+    /**
+     * Count of edges of the row before the column.
+     */
+    private int rank(int from, int to) {
+        long[] row = adjMatrix[from];
+        int word = to >>> 6;
+        int count = Long.bitCount(row[word] & ((1L << to) - 1));
+        for (int i = 0; i < word; i++) {
+            count += Long.bitCount(row[i]);
+        }
+        return count;
+    }
+
+    private static int words(int columns) {
+        return (columns + 63) >>> 6;
+    }
+
+    private static int bitCount(long[] row) {
+        int count = 0;
+        for (long word : row) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Removes bit from the bitset, next bits are shifted down.
+     */
+    private static void removeBit(long[] row, int index) {
+        int word = index >>> 6;
+        long lower = (1L << index) - 1;
+        row[word] = (row[word] & lower) | ((row[word] >>> 1) & ~lower);
+        for (int i = word + 1; i < row.length; i++) {
+            row[i - 1] |= row[i] << 63;
+            row[i] >>>= 1;
+        }
+    }
+
+    /**
+     * Task calling the body for a range of indices.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final IntConsumer body;
+
+        RangeTask(int from, int to, int grain, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) {
+                    body.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, grain, body),
+                    new RangeTask(middle, to, grain, body));
+        }
     }
 }
@@ -0,0 +1,540 @@
+package ru.nsu.lebedev.graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compressed Sparse Row Graph class implementation.
+ * Vertices get dense int ids in order of addition. Edges of vertex {@code id} are
+ * {@code targets[offsets[id], offsets[id + 1])} sorted by target id, their weights
+ * are in the same cells of {@code weights}, so an edge takes 12 bytes and neighbors
+ * are iterated without allocations by the primitive methods.
+ * Big graphs should be loaded by {@link Builder}, single changes of the graph
+ * move the arrays and cost O(V + E).
+ *
+ * @param <T> type of graph's vertices
+ */
+public class CsrGraph<T> implements Graph<T> {
+    private final Map<T, Integer> ids;
+    private final List<T> values;
+    private int[] offsets;
+    private int[] targets;
+    private double[] weights;
+    private int edgeCount;
+
+    /**
+     * Empty graph constructor.
+     */
+    public CsrGraph() {
+        this(new HashMap<>(), new ArrayList<>(), new int[16], new int[16], new double[16], 0);
+    }
+
+    /**
+     * Constructor from arrays of builder.
+     */
+    private CsrGraph(Map<T, Integer> ids, List<T> values, int[] offsets, int[] targets,
+                     double[] weights, int edgeCount) {
+        this.ids = ids;
+        this.values = values;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Dense id view of any graph.
+     * Ids of vertices follow the order of {@link Graph#getVertices()}.
+     *
+     * @param graph any type of graph
+     * @param <T> type of graph's vertices
+     * @return the graph itself if it is a CsrGraph, otherwise its copy
+     */
+    public static <T> CsrGraph<T> copyOf(Graph<T> graph) {
+        if (graph instanceof CsrGraph<T> csrGraph) {
+            return csrGraph;
+        }
+        List<T> vertices = graph.getVertices();
+        Builder<T> builder = new Builder<>();
+        for (T vertex : vertices) {
+            builder.addVertex(vertex);
+        }
+        for (T vertex : vertices) {
+            for (T adjacent : graph.getAdjacentVertices(vertex)) {
+                builder.addEdge(vertex, adjacent, graph.getEdge(vertex, adjacent).getWeight());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates graph by counting sort of edges by start vertex, arrays of edges are
+     * indexed by ids of vertices and may be changed.
+     */
+    static <T> CsrGraph<T> fromEdges(Map<T, Integer> ids, List<T> values, int[] sources,
+                                     int[] targets, double[] weights, int edgeCount) {
+        int count = values.size();
+        int[] offsets = new int[count + 2];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            offsets[sources[edge] + 1]++;
+        }
+        int maxDegree = 0;
+        for (int id = 0; id < count; id++) {
+            maxDegree = Math.max(maxDegree, offsets[id + 1]);
+            offsets[id + 1] += offsets[id];
+        }
+        int[] next = Arrays.copyOf(offsets, count);
+        int[] rowTargets = new int[Math.max(edgeCount, 16)];
+        double[] rowWeights = new double[rowTargets.length];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int position = next[sources[edge]]++;
+            rowTargets[position] = targets[edge];
+            rowWeights[position] = weights[edge];
+        }
+        long[] keys = new long[maxDegree];
+        double[] keyWeights = new double[maxDegree];
+        int write = 0;
+        for (int id = 0; id < count; id++) {
+            int start = offsets[id];
+            int degree = offsets[id + 1] - start;
+            for (int i = 0; i < degree; i++) {
+                keys[i] = ((long) rowTargets[start + i] << 32) | i;
+                keyWeights[i] = rowWeights[start + i];
+            }
+            Arrays.sort(keys, 0, degree);
+            offsets[id] = write;
+            int last = -1;
+            for (int i = 0; i < degree; i++) {
+                int target = (int) (keys[i] >>> 32);
+                if (target != last) {
+                    last = target;
+                    rowTargets[write] = target;
+                    rowWeights[write] = keyWeights[(int) keys[i]];
+                    write++;
+                }
+            }
+        }
+        offsets[count] = write;
+        return new CsrGraph<>(ids, values, offsets, rowTargets, rowWeights, write);
+    }
+
+    /**
+     * Creates graph from rows which are already sorted, ids of vertices are their indices.
+     */
+    static <T> CsrGraph<T> fromRows(List<T> values, int[] offsets, int[] targets,
+                                    double[] weights) {
+        Map<T, Integer> ids = new HashMap<>();
+        for (int id = 0; id < values.size(); id++) {
+            ids.put(values.get(id), id);
+        }
+        int edgeCount = offsets[values.size()];
+        return new CsrGraph<>(ids, new ArrayList<>(values), offsets, targets, weights,
+                edgeCount);
+    }
+
+    @Override
+    public Vertex<T> getVertex(T value) {
+        return ids.containsKey(value) ? new Vertex<>(value) : null;
+    }
+
+    @Override
+    public void addVertex(T value) {
+        if (ids.containsKey(value)) {
+            return;
+        }
+        int id = values.size();
+        ids.put(value, id);
+        values.add(value);
+        if (id + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(id + 2, offsets.length * 2));
+        }
+        offsets[id + 1] = offsets[id];
+    }
+
+    @Override
+    public Vertex<T> removeVertex(T value) {
+        Integer removed = ids.get(value);
+        if (removed == null) {
+            return null;
+        }
+        int count = values.size();
+        int write = 0;
+        int vertex = 0;
+        for (int id = 0; id < count; id++) {
+            int start = offsets[id];
+            int end = offsets[id + 1];
+            if (id == removed) {
+                continue;
+            }
+            offsets[vertex++] = write;
+            for (int edge = start; edge < end; edge++) {
+                int target = targets[edge];
+                if (target != removed) {
+                    targets[write] = target > removed ? target - 1 : target;
+                    weights[write] = weights[edge];
+                    write++;
+                }
+            }
+        }
+        offsets[vertex] = write;
+        edgeCount = write;
+        ids.remove(value);
+        values.remove((int) removed);
+        for (int id = removed; id < values.size(); id++) {
+            ids.put(values.get(id), id);
+        }
+        return new Vertex<>(value);
+    }
+
+    @Override
+    public Edge<T> getEdge(T a, T b) {
+        int from = idOf(a);
+        int to = idOf(b);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        int edge = find(from, to);
+        return edge < 0 ? null : new Edge<>(a, b, weights[edge]);
+    }
+
+    @Override
+    public void addEdge(T a, T b, double weight) {
+        addVertex(a);
+        addVertex(b);
+        int from = ids.get(a);
+        int to = ids.get(b);
+        int edge = find(from, to);
+        if (edge >= 0) {
+            return;
+        }
+        int position = -edge - 1;
+        if (edgeCount == targets.length) {
+            targets = Arrays.copyOf(targets, Math.max(16, edgeCount * 2));
+            weights = Arrays.copyOf(weights, targets.length);
+        }
+        System.arraycopy(targets, position, targets, position + 1, edgeCount - position);
+        System.arraycopy(weights, position, weights, position + 1, edgeCount - position);
+        targets[position] = to;
+        weights[position] = weight;
+        edgeCount++;
+        for (int id = from + 1; id <= values.size(); id++) {
+            offsets[id]++;
+        }
+    }
+
+    @Override
+    public Edge<T> removeEdge(T a, T b) {
+        int from = idOf(a);
+        int to = idOf(b);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        int edge = find(from, to);
+        if (edge < 0) {
+            return null;
+        }
+        final Edge<T> removedEdge = new Edge<>(a, b, weights[edge]);
+        System.arraycopy(targets, edge + 1, targets, edge, edgeCount - edge - 1);
+        System.arraycopy(weights, edge + 1, weights, edge, edgeCount - edge - 1);
+        edgeCount--;
+        for (int id = from + 1; id <= values.size(); id++) {
+            offsets[id]--;
+        }
+        return removedEdge;
+    }
+
+    @Override
+    public List<T> getVertices() {
+        return new ArrayList<>(values);
+    }
+
+    @Override
+    public List<T> getAdjacentVertices(T vertex) {
+        int id = idOf(vertex);
+        if (id < 0) {
+            return new ArrayList<>();
+        }
+        List<T> adjacentVertices = new ArrayList<>(degree(id));
+        for (int edge = offsets[id]; edge < offsets[id + 1]; edge++) {
+            adjacentVertices.add(values.get(targets[edge]));
+        }
+        return adjacentVertices;
+    }
+
+    /**
+     * Count of vertices getter.
+     *
+     * @return count of vertices, ids are from 0 to count - 1
+     */
+    public int vertexCount() {
+        return values.size();
+    }
+
+    /**
+     * Count of edges getter.
+     *
+     * @return count of edges, edge indices are from 0 to count - 1
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Id of vertex getter.
+     *
+     * @param value value of vertex
+     * @return id or -1 if vertex doesn't exist
+     */
+    public int idOf(T value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Vertex by id getter.
+     *
+     * @param id id of vertex
+     * @return value of vertex
+     */
+    public T valueOf(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * Count of outgoing edges getter.
+     *
+     * @param id id of vertex
+     * @return degree
+     */
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Index of the first outgoing edge of vertex.
+     *
+     * @param id id of vertex
+     * @return first edge index, inclusive
+     */
+    public int edgeStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Index after the last outgoing edge of vertex.
+     *
+     * @param id id of vertex
+     * @return last edge index, exclusive
+     */
+    public int edgeEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * End vertex of edge getter.
+     *
+     * @param edge index of edge
+     * @return id of end vertex
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Weight of edge getter.
+     *
+     * @param edge index of edge
+     * @return weight double value
+     */
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Passes every outgoing edge of vertex to consumer.
+     *
+     * @param id id of vertex
+     * @param consumer receiver of end vertex id and weight
+     */
+    public void forEachNeighbor(int id, NeighborConsumer consumer) {
+        for (int edge = offsets[id]; edge < offsets[id + 1]; edge++) {
+            consumer.accept(targets[edge], weights[edge]);
+        }
+    }
+
+    /**
+     * Binary search of edge in sorted row of vertex.
+     *
+     * @return index of edge or {@code -(insertion point) - 1}
+     */
+    private int find(int from, int to) {
+        return Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+    }
+
+    /**
+     * Receiver of edges for {@link #forEachNeighbor(int, NeighborConsumer)}.
+     */
+    @FunctionalInterface
+    public interface NeighborConsumer {
+        /**
+         * Receives one edge.
+         *
+         * @param target id of end vertex
+         * @param weight weight of edge
+         */
+        void accept(int target, double weight);
+    }
+
+    /**
+     * Builder collecting edges in plain arrays and sorting them into rows once.
+     * Repeated edges are kept once with the weight of the first one, like in
+     * {@link Graph#addEdge(Object, Object, double)}.
+     *
+     * @param <T> type of graph's vertices
+     */
+    public static class Builder<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+        private int[] sources;
+        private int[] targets;
+        private double[] weights;
+        private int edgeCount;
+
+        /**
+         * Empty builder constructor.
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Constructor of builder with room for edges, so big graphs are collected
+         * without copying arrays.
+         *
+         * @param edges expected count of edges
+         */
+        public Builder(int edges) {
+            int capacity = Math.max(edges, 16);
+            sources = new int[capacity];
+            targets = new int[capacity];
+            weights = new double[capacity];
+        }
+
+        /**
+         * Vertex creation.
+         *
+         * @param value value of vertex
+         * @return this builder
+         */
+        public Builder<T> addVertex(T value) {
+            idOf(value);
+            return this;
+        }
+
+        /**
+         * Edge creation.
+         *
+         * @param a first vertex
+         * @param b second vertex
+         * @param weight double value
+         * @return this builder
+         */
+        public Builder<T> addEdge(T a, T b, double weight) {
+            int from = idOf(a);
+            int to = idOf(b);
+            if (edgeCount == sources.length) {
+                int capacity = edgeCount * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            sources[edgeCount] = from;
+            targets[edgeCount] = to;
+            weights[edgeCount] = weight;
+            edgeCount++;
+            return this;
+        }
+
+        /**
+         * Reads edges from file by {@link Graph#readDataForGraphFromFile}.
+         * The reader may only add vertices and edges.
+         *
+         * @param filename file with data
+         * @param reader type of realization if interface VertexReader
+         * @return this builder
+         * @throws IOException if the file can't be read
+         */
+        public Builder<T> readFile(String filename, VertexReader<T> reader) throws IOException {
+            Graph.readDataForGraphFromFile(new Loader(), filename, reader);
+            return this;
+        }
+
+        /**
+         * Creates graph by counting sort of edges by start vertex.
+         *
+         * @return new graph, the builder shouldn't be used after it
+         */
+        public CsrGraph<T> build() {
+            return fromEdges(ids, values, sources, targets, weights, edgeCount);
+        }
+
+        private int idOf(T value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+
+        /**
+         * Graph view of builder for vertex readers.
+         */
+        private class Loader implements Graph<T> {
+            @Override
+            public Vertex<T> getVertex(T value) {
+                return ids.containsKey(value) ? new Vertex<>(value) : null;
+            }
+
+            @Override
+            public void addVertex(T value) {
+                Builder.this.addVertex(value);
+            }
+
+            @Override
+            public Vertex<T> removeVertex(T value) {
+                throw new UnsupportedOperationException("Builder can only add");
+            }
+
+            @Override
+            public Edge<T> getEdge(T a, T b) {
+                throw new UnsupportedOperationException("Builder can't find edges");
+            }
+
+            @Override
+            public void addEdge(T a, T b, double weight) {
+                Builder.this.addEdge(a, b, weight);
+            }
+
+            @Override
+            public Edge<T> removeEdge(T a, T b) {
+                throw new UnsupportedOperationException("Builder can only add");
+            }
+
+            @Override
+            public List<T> getVertices() {
+                return new ArrayList<>(values);
+            }
+
+            @Override
+            public List<T> getAdjacentVertices(T vertex) {
+                throw new UnsupportedOperationException("Builder can't find edges");
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.nsu.lebedev.graph;
+
+import java.util.List;
+
+/**
+ * Exception of sorting a graph with a cycle, it knows vertices of one cycle.
+ */
+public class CycleException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> cycle;
+
+    /**
+     * Function with initialization.
+     *
+     * @param cycle vertices of the cycle, the first one is repeated at the end.
+     */
+    public CycleException(List<?> cycle) {
+        super("Graph has a cycle " + cycle);
+        this.cycle = List.copyOf(cycle);
+    }
+
+    /**
+     * Returns path of the cycle, every vertex has an edge to the next one.
+     *
+     * @return vertices of the cycle, the first one is repeated at the end.
+     */
+    public List<?> getCycle() {
+        return cycle;
+    }
+}
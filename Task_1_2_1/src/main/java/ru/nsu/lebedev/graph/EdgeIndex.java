@@ -0,0 +1,110 @@
+package ru.nsu.lebedev.graph;
+
+import java.util.Arrays;
+
+/**
+ * Hash table from pair of vertex ids to edge id without boxing.
+ * Pairs are packed into one long key and kept by open addressing with linear probing,
+ * a removed key is filled by shifting next keys back, so there are no tombstones.
+ */
+final class EdgeIndex {
+    private static final long EMPTY = -1L;
+
+    private long[] keys = new long[16];
+    private int[] ids = new int[16];
+    private int size;
+
+    EdgeIndex() {
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns id of edge (from, to) or -1.
+     */
+    int get(int from, int to) {
+        long key = key(from, to);
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return ids[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets id of edge (from, to).
+     */
+    void put(int from, int to, int id) {
+        long key = key(from, to);
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                ids[slot] = id;
+                rehash();
+                return;
+            }
+        }
+        ids[slot] = id;
+    }
+
+    /**
+     * Removes edge (from, to) if it is in the table.
+     */
+    void remove(int from, int to) {
+        long key = key(from, to);
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        size--;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                ids[slot] = ids[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = EMPTY;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldIds = ids;
+        keys = new long[oldKeys.length * 2];
+        ids = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,616 @@
+package ru.nsu.lebedev.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loader of edge lists in format of {@link DefaultVertexReader}: a line has names of
+ * two vertices and weight separated by spaces or tabs, blank lines are skipped and
+ * words after the weight are ignored.
+ * The file is memory-mapped and split into chunks at line ends, chunks are parsed in
+ * parallel from bytes: names are interned per chunk without creating strings for
+ * repeated ones and weights are parsed without strings. Then chunks are joined in
+ * order, so vertices get ids in order of the first appearance like with line by line
+ * reading. The binary format keeps rows of CSR graph and is read by bulk copying.
+ */
+public class EdgeListLoader {
+    private static final int DEFAULT_CHUNK = 1 << 28;
+    private static final int MIN_CHUNK = 1 << 20;
+    private static final int MAGIC = 0x43535247;
+    private static final int VERSION = 1;
+    private static final int MAX_MAPPED = 1 << 30;
+    private static final int BUFFER = 1 << 16;
+    private static final double[] POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Function with initialization of loader with chunks of at most 256 MB
+     * on the common pool.
+     */
+    public EdgeListLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK);
+    }
+
+    /**
+     * Function with initialization.
+     *
+     * @param pool pool for parsing chunks.
+     * @param chunkSize maximal count of bytes in chunk, it is extended to the line end.
+     *                  Every chunk interns its names again, so a file is split into
+     *                  two chunks per thread of the pool when they fit into this size.
+     */
+    public EdgeListLoader(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads edge list into new graph, repeated edges are kept once with the first weight.
+     *
+     * @param file file with edges.
+     * @return graph.
+     * @throws IOException if the file can't be read or has a wrong line.
+     */
+    public CsrGraph<String> load(Path file) throws IOException {
+        List<Chunk> chunks = parse(file);
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.edgeCount;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IOException("Too many edges: " + total);
+        }
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        int[] sources = new int[(int) total];
+        int[] targets = new int[(int) total];
+        double[] weights = new double[(int) total];
+        int write = 0;
+        for (Chunk chunk : chunks) {
+            int[] global = new int[chunk.names.size()];
+            for (int i = 0; i < global.length; i++) {
+                global[i] = ids.computeIfAbsent(chunk.names.get(i), name -> {
+                    values.add(name);
+                    return values.size() - 1;
+                });
+            }
+            for (int edge = 0; edge < chunk.edgeCount; edge++) {
+                sources[write] = global[chunk.sources[edge]];
+                targets[write] = global[chunk.targets[edge]];
+                weights[write] = chunk.weights[edge];
+                write++;
+            }
+        }
+        return CsrGraph.fromEdges(ids, values, sources, targets, weights, write);
+    }
+
+    /**
+     * Adds edges of edge list to the graph in order of lines.
+     *
+     * @param graph graph upcasted to Graph class.
+     * @param file file with edges.
+     * @throws IOException if the file can't be read or has a wrong line.
+     */
+    public void addEdges(Graph<String> graph, Path file) throws IOException {
+        for (Chunk chunk : parse(file)) {
+            for (int edge = 0; edge < chunk.edgeCount; edge++) {
+                graph.addEdge(chunk.names.get(chunk.sources[edge]),
+                        chunk.names.get(chunk.targets[edge]), chunk.weights[edge]);
+            }
+        }
+    }
+
+    /**
+     * Writes graph in binary format: magic number, version, counts of vertices and edges,
+     * names as length and UTF-8 bytes, then offsets of rows, targets and weights.
+     *
+     * @param graph graph.
+     * @param file file for graph.
+     * @throws IOException if the file can't be written.
+     */
+    public static void writeBinary(CsrGraph<String> graph, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+            int count = graph.vertexCount();
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(graph.edgeCount());
+            for (int id = 0; id < count; id++) {
+                byte[] name = graph.valueOf(id).getBytes(StandardCharsets.UTF_8);
+                flush(channel, buffer, 4);
+                buffer.putInt(name.length);
+                for (int written = 0; written < name.length; ) {
+                    flush(channel, buffer, 1);
+                    int length = Math.min(buffer.remaining(), name.length - written);
+                    buffer.put(name, written, length);
+                    written += length;
+                }
+            }
+            for (int id = 0; id <= count; id++) {
+                flush(channel, buffer, 4);
+                buffer.putInt(id < count ? graph.edgeStart(id) : graph.edgeCount());
+            }
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                flush(channel, buffer, 4);
+                buffer.putInt(graph.target(edge));
+            }
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                flush(channel, buffer, 8);
+                buffer.putDouble(graph.weight(edge));
+            }
+            flush(channel, buffer, BUFFER);
+        }
+    }
+
+    /**
+     * Loads graph written by {@link #writeBinary(CsrGraph, Path)}.
+     *
+     * @param file file with graph.
+     * @return graph.
+     * @throws IOException if the file can't be read or isn't a correct graph.
+     */
+    public static CsrGraph<String> loadBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input input = new Input(channel);
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a binary graph file: " + file);
+            }
+            int count = input.readInt();
+            int edgeCount = input.readInt();
+            long minimalSize = 16 + 4L * count + 4L * (count + 1L) + 12L * edgeCount;
+            if (count < 0 || edgeCount < 0 || minimalSize > channel.size()) {
+                throw new IOException("Corrupted graph file: " + file);
+            }
+            List<String> values = new ArrayList<>(count);
+            for (int id = 0; id < count; id++) {
+                int length = input.readInt();
+                if (length < 0 || length > channel.size()) {
+                    throw new IOException("Corrupted graph file: " + file);
+                }
+                values.add(new String(input.readBytes(length), StandardCharsets.UTF_8));
+            }
+            int[] offsets = new int[count + 1];
+            input.readInts(offsets, count + 1);
+            int[] targets = new int[edgeCount];
+            input.readInts(targets, edgeCount);
+            double[] weights = new double[edgeCount];
+            input.readDoubles(weights, edgeCount);
+            boolean correct = offsets[0] == 0 && offsets[count] == edgeCount;
+            for (int id = 0; id < count && correct; id++) {
+                correct = offsets[id] <= offsets[id + 1];
+                for (int edge = offsets[id] + 1; edge < offsets[id + 1] && correct; edge++) {
+                    correct = targets[edge - 1] < targets[edge];
+                }
+            }
+            for (int edge = 0; edge < edgeCount && correct; edge++) {
+                correct = targets[edge] >= 0 && targets[edge] < count;
+            }
+            if (!correct) {
+                throw new IOException("Corrupted graph file: " + file);
+            }
+            return CsrGraph.fromRows(values, offsets, targets, weights);
+        }
+    }
+
+    /**
+     * Maps chunks of the file and parses them in the pool.
+     */
+    private List<Chunk> parse(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long perThread = size / (2L * pool.getParallelism()) + 1;
+            long step = Math.min(chunkSize, Math.max(MIN_CHUNK, perThread));
+            List<ParseTask> tasks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = lineStart(channel, Math.min(size, start + step), size);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        end - start);
+                ParseTask task = new ParseTask(buffer, start);
+                tasks.add(task);
+                pool.execute(task);
+                start = end;
+            }
+            List<Chunk> chunks = new ArrayList<>(tasks.size());
+            for (ParseTask task : tasks) {
+                Chunk chunk = task.join();
+                if (task.error != null) {
+                    throw task.error;
+                }
+                chunks.add(chunk);
+            }
+            return chunks;
+        }
+    }
+
+    /**
+     * Returns position after the first line end at {@code position - 1} or later.
+     */
+    private static long lineStart(FileChannel channel, long position, long size)
+            throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Writes buffer to the channel if it has less than {@code bytes} free bytes.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer, int bytes)
+            throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Edges of one chunk with ids local to the chunk.
+     */
+    private static final class Chunk {
+        private final List<String> names = new ArrayList<>();
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private double[] weights = new double[16];
+        private int edgeCount;
+
+        void addEdge(int from, int to, double weight) {
+            if (edgeCount == sources.length) {
+                int capacity = edgeCount * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            sources[edgeCount] = from;
+            targets[edgeCount] = to;
+            weights[edgeCount] = weight;
+            edgeCount++;
+        }
+    }
+
+    /**
+     * Task parsing one chunk, an error is kept for the caller.
+     */
+    private static final class ParseTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final long base;
+        private final Chunk chunk = new Chunk();
+        private int[] table = new int[128];
+        private byte[] nameBytes = new byte[256];
+        private int nameBytesSize;
+        private int[] nameOffsets = new int[16];
+        private int[] nameLengths = new int[16];
+        private IOException error;
+
+        ParseTask(ByteBuffer buffer, long base) {
+            this.buffer = buffer;
+            this.base = base;
+        }
+
+        @Override
+        protected Chunk compute() {
+            try {
+                parseLines();
+            } catch (IOException e) {
+                error = e;
+            }
+            return chunk;
+        }
+
+        private void parseLines() throws IOException {
+            int limit = buffer.limit();
+            int position = 0;
+            while (position < limit) {
+                final int lineStart = position;
+                position = skipBlanks(position, limit);
+                if (position == limit) {
+                    break;
+                }
+                if (buffer.get(position) == '\n') {
+                    position++;
+                    continue;
+                }
+                int end = wordEnd(position, limit);
+                final int from = intern(position, end);
+                position = skipBlanks(end, limit);
+                if (position == limit || buffer.get(position) == '\n') {
+                    throw error(lineStart);
+                }
+                end = wordEnd(position, limit);
+                final int to = intern(position, end);
+                position = skipBlanks(end, limit);
+                if (position == limit || buffer.get(position) == '\n') {
+                    throw error(lineStart);
+                }
+                end = wordEnd(position, limit);
+                final double weight = parseNumber(position, end, lineStart);
+                position = end;
+                while (position < limit && buffer.get(position) != '\n') {
+                    position++;
+                }
+                position++;
+                chunk.addEdge(from, to, weight);
+            }
+        }
+
+        private int skipBlanks(int position, int limit) {
+            while (position < limit) {
+                byte current = buffer.get(position);
+                if (current != ' ' && current != '\t' && current != '\r') {
+                    break;
+                }
+                position++;
+            }
+            return position;
+        }
+
+        private int wordEnd(int position, int limit) {
+            while (position < limit) {
+                byte current = buffer.get(position);
+                if (current == ' ' || current == '\t' || current == '\r' || current == '\n') {
+                    break;
+                }
+                position++;
+            }
+            return position;
+        }
+
+        /**
+         * Returns local id of name {@code buffer[from, to)}, names are kept in
+         * an open addressing table with pairs of id + 1 and hash, so other names are
+         * skipped without reading them. Bytes of names are copied together, so they are
+         * compared without random reads of the mapped file.
+         */
+        private int intern(int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int mask = table.length / 2 - 1;
+            int slot = slot(hash, mask);
+            while (table[2 * slot] != 0) {
+                int id = table[2 * slot] - 1;
+                if (table[2 * slot + 1] == hash && sameName(id, from, to)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int id = chunk.names.size();
+            if (id == nameOffsets.length) {
+                nameOffsets = Arrays.copyOf(nameOffsets, id * 2);
+                nameLengths = Arrays.copyOf(nameLengths, id * 2);
+            }
+            int length = to - from;
+            if (nameBytesSize + length > nameBytes.length) {
+                nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2,
+                        nameBytesSize + length));
+            }
+            buffer.get(from, nameBytes, nameBytesSize, length);
+            nameOffsets[id] = nameBytesSize;
+            nameLengths[id] = length;
+            nameBytesSize += length;
+            chunk.names.add(new String(nameBytes, nameOffsets[id], length,
+                    StandardCharsets.UTF_8));
+            table[2 * slot] = id + 1;
+            table[2 * slot + 1] = hash;
+            if ((id + 1) * 4 > table.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private boolean sameName(int id, int from, int to) {
+            if (nameLengths[id] != to - from) {
+                return false;
+            }
+            int offset = nameOffsets[id] - from;
+            for (int i = from; i < to; i++) {
+                if (nameBytes[offset + i] != buffer.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            int mask = table.length / 2 - 1;
+            for (int i = 0; i < old.length; i += 2) {
+                if (old[i] != 0) {
+                    int slot = slot(old[i + 1], mask);
+                    while (table[2 * slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[2 * slot] = old[i];
+                    table[2 * slot + 1] = old[i + 1];
+                }
+            }
+        }
+
+        /**
+         * Parses decimal number with optional sign, fraction and exponent. Digits are
+         * collected into a long, when it and the power of ten are exact doubles one
+         * division or multiplication rounds like {@link Double#parseDouble(String)},
+         * other numbers are passed to it.
+         */
+        private double parseNumber(int from, int to, int lineStart) throws IOException {
+            int position = from;
+            boolean negative = buffer.get(position) == '-';
+            if (negative || buffer.get(position) == '+') {
+                position++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int exponent = 0;
+            for (; position < to && isDigit(buffer.get(position)); position++) {
+                mantissa = mantissa * 10 + buffer.get(position) - '0';
+                digits++;
+            }
+            if (position < to && buffer.get(position) == '.') {
+                for (position++; position < to && isDigit(buffer.get(position)); position++) {
+                    mantissa = mantissa * 10 + buffer.get(position) - '0';
+                    digits++;
+                    exponent--;
+                }
+            }
+            if (digits > 0 && position < to && (buffer.get(position) | 0x20) == 'e') {
+                position++;
+                boolean negativeExponent = position < to && buffer.get(position) == '-';
+                if (position < to && (negativeExponent || buffer.get(position) == '+')) {
+                    position++;
+                }
+                int value = 0;
+                int start = position;
+                for (; position < to && isDigit(buffer.get(position)); position++) {
+                    value = Math.min(value * 10 + buffer.get(position) - '0', 1 << 16);
+                }
+                digits = position == start ? 0 : digits;
+                exponent += negativeExponent ? -value : value;
+            }
+            if (digits == 0 || digits > 18 || position != to || mantissa >= 1L << 53
+                    || exponent < -22 || exponent > 22) {
+                return parseSlowly(from, to, lineStart);
+            }
+            double value = exponent < 0 ? mantissa / POWERS[-exponent]
+                    : mantissa * POWERS[exponent];
+            return negative ? -value : value;
+        }
+
+        private double parseSlowly(int from, int to, int lineStart) throws IOException {
+            byte[] bytes = new byte[to - from];
+            buffer.get(from, bytes);
+            try {
+                return Double.parseDouble(new String(bytes, StandardCharsets.UTF_8));
+            } catch (NumberFormatException e) {
+                throw error(lineStart);
+            }
+        }
+
+        private IOException error(int lineStart) {
+            return new IOException("Wrong edge in line at byte " + (base + lineStart));
+        }
+
+        /**
+         * Mixes hash of name, hashes of names with sequential numbers are close
+         * and would make long runs of probes.
+         */
+        private static int slot(int hash, int mask) {
+            int mixed = hash * 0x9E3779B9;
+            return (mixed ^ (mixed >>> 15)) & mask;
+        }
+
+        private static boolean isDigit(byte current) {
+            return current >= '0' && current <= '9';
+        }
+    }
+
+    /**
+     * Reader of the file by mapped windows of at most 1 GB.
+     */
+    private static final class Input {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(size, MAX_MAPPED));
+        }
+
+        int readInt() throws IOException {
+            ensure(4);
+            return window.getInt();
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            for (int read = 0; read < length; ) {
+                ensure(1);
+                int count = Math.min(window.remaining(), length - read);
+                window.get(bytes, read, count);
+                read += count;
+            }
+            return bytes;
+        }
+
+        void readInts(int[] array, int length) throws IOException {
+            for (int read = 0; read < length; ) {
+                ensure(4);
+                int count = Math.min(window.remaining() / 4, length - read);
+                window.asIntBuffer().get(array, read, count);
+                window.position(window.position() + count * 4);
+                read += count;
+            }
+        }
+
+        void readDoubles(double[] array, int length) throws IOException {
+            for (int read = 0; read < length; ) {
+                ensure(8);
+                int count = Math.min(window.remaining() / 8, length - read);
+                window.asDoubleBuffer().get(array, read, count);
+                window.position(window.position() + count * 8);
+                read += count;
+            }
+        }
+
+        /**
+         * Maps next window if the current one has less than {@code bytes} bytes.
+         */
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            windowStart += window.position();
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                    Math.min(size - windowStart, MAX_MAPPED));
+            if (window.remaining() < bytes) {
+                throw new IOException("Unexpected end of graph file");
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ru.nsu.lebedev.graph;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -68,6 +69,7 @@ public interface Graph<T> {
 
     /**
      * Method for reading graph's data from file.
+     * Files for {@link DefaultVertexReader} are parsed by {@link EdgeListLoader}.
      *
      * @param graph graph upcasted to Graph class.
      * @param filename file with data.
@@ -75,6 +77,12 @@ public interface Graph<T> {
      */
     static <T> void readDataForGraphFromFile(Graph<T> graph, String filename,
                                              VertexReader<T> reader) throws IOException {
+        if (reader.getClass() == DefaultVertexReader.class) {
+            @SuppressWarnings("unchecked")
+            Graph<String> strings = (Graph<String>) graph;
+            new EdgeListLoader().addEdges(strings, Path.of(filename));
+            return;
+        }
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = br.readLine()) != null) {
@@ -0,0 +1,469 @@
+package ru.nsu.lebedev.graph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import ru.nsu.lebedev.graph.algorithms.BreadthFirstSearch;
+import ru.nsu.lebedev.graph.algorithms.ConnectedComponents;
+import ru.nsu.lebedev.graph.algorithms.DeltaStepping;
+import ru.nsu.lebedev.graph.algorithms.PageRank;
+
+/**
+ * Class with comparing graph implementations, results are printed as csv lines.
+ */
+public class GraphBenchmark {
+    private static final int[] DEFAULT_SIZES = {10_000, 1_000_000, 10_000_000};
+    private static final int[] ALGORITHM_SIZES = {1_000_000, 10_000_000, 100_000_000};
+    private static final int AVERAGE_DEGREE = 10;
+    private static final int RMAT_EDGE_FACTOR = 16;
+    private static final int[] SORT_SIZES = {100_000, 1_000_000, 10_000_000};
+    private static final int DAG_DEGREE = 2;
+    private static final int[] MATRIX_SIZES = {5_000, 20_000};
+    private static final int[] CLOSURE_SIZES = {500, 1_000, 2_000};
+    private static final int[] INCIDENCE_SIZES = {100_000, 1_000_000};
+    private static final int[] LOADER_SIZES = {1_000_000, 10_000_000};
+    private static long sink;
+
+    /**
+     * Function with comparing graph implementations.
+     *
+     * @param args name of benchmark (csr, algorithms, toposort, matrix, closure,
+     *             incidence, loader) and
+     *             counts of edges or vertices for toposort, matrix and closure,
+     *             all benchmarks with default sizes are run when empty.
+     */
+    public static void main(String[] args) throws IOException {
+        String name = args.length > 0 ? args[0] : "all";
+        int[] sizes = null;
+        if (args.length > 1) {
+            sizes = Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray();
+        }
+        if (name.equals("all") || name.equals("csr")) {
+            System.out.println("graph,edges,loadMs,bytes,traverseMs");
+            for (int size : sizes == null ? DEFAULT_SIZES : sizes) {
+                compareCsr(size);
+            }
+        }
+        if (name.equals("all") || name.equals("algorithms")) {
+            System.out.println("algorithm,vertices,edges,ms");
+            for (int size : sizes == null ? ALGORITHM_SIZES : sizes) {
+                runAlgorithms(size);
+            }
+        }
+        if (name.equals("all") || name.equals("toposort")) {
+            System.out.println("vertices,edges,sortMs,wavesMs,waves");
+            for (int size : sizes == null ? SORT_SIZES : sizes) {
+                compareTopologicalSort(size);
+            }
+        }
+        if (name.equals("all") || name.equals("matrix")) {
+            System.out.println("matrix,vertices,edges,bytes");
+            for (int size : sizes == null ? MATRIX_SIZES : sizes) {
+                compareMatrix(size);
+            }
+        }
+        if (name.equals("all") || name.equals("closure")) {
+            System.out.println("vertices,edges,closureMs,shortestPathsMs");
+            for (int size : sizes == null ? CLOSURE_SIZES : sizes) {
+                runClosure(size);
+            }
+        }
+        if (name.equals("all") || name.equals("incidence")) {
+            System.out.println("graph,edges,addMs,bytes,getMs,removeMs");
+            for (int size : sizes == null ? INCIDENCE_SIZES : sizes) {
+                compareIncidence(new AdjacentListGraph<>(), size);
+                compareIncidence(new IncidenceMatrixGraph<>(), size);
+            }
+        }
+        if (name.equals("all") || name.equals("loader")) {
+            System.out.println("loader,edges,bytes,ms,mbPerSecond");
+            for (int size : sizes == null ? LOADER_SIZES : sizes) {
+                compareLoaders(size);
+            }
+        }
+    }
+
+    /**
+     * Loads random graph from file into adjacency list and CSR graph, then visits
+     * all neighbors of all vertices. Bytes are growth of used heap after loading.
+     *
+     * @param edges count of edges.
+     */
+    static void compareCsr(int edges) throws IOException {
+        Path file = Files.createTempFile("graph", ".txt");
+        try {
+            writeRandomGraph(file, Math.max(1, edges / AVERAGE_DEGREE), edges, new Random(42));
+            DefaultVertexReader reader = new DefaultVertexReader();
+            try {
+                long memory = usedMemory();
+                long start = System.nanoTime();
+                AdjacentListGraph<String> graph = new AdjacentListGraph<>();
+                Graph.readDataForGraphFromFile(graph, file.toString(), reader);
+                final long load = (System.nanoTime() - start) / 1_000_000;
+                final long bytes = usedMemory() - memory;
+                start = System.nanoTime();
+                long visited = 0;
+                for (String vertex : graph.getVertices()) {
+                    visited += graph.getAdjacentVertices(vertex).size();
+                }
+                sink += visited;
+                System.out.println("AdjacentListGraph," + edges + "," + load + "," + bytes + ","
+                        + (System.nanoTime() - start) / 1_000_000);
+            } catch (OutOfMemoryError e) {
+                System.out.println("AdjacentListGraph," + edges + ",-1,-1,-1");
+            }
+            try {
+                long memory = usedMemory();
+                long start = System.nanoTime();
+                CsrGraph<String> graph = new CsrGraph.Builder<String>()
+                        .readFile(file.toString(), reader)
+                        .build();
+                final long load = (System.nanoTime() - start) / 1_000_000;
+                final long bytes = usedMemory() - memory;
+                start = System.nanoTime();
+                double total = 0;
+                for (int id = 0; id < graph.vertexCount(); id++) {
+                    for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                        total += graph.weight(edge);
+                    }
+                }
+                sink += (long) total;
+                System.out.println("CsrGraph," + edges + "," + load + "," + bytes + ","
+                        + (System.nanoTime() - start) / 1_000_000);
+            } catch (OutOfMemoryError e) {
+                System.out.println("CsrGraph," + edges + ",-1,-1,-1");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Runs parallel algorithms on the common pool over RMAT graph.
+     *
+     * @param edges count of generated edges, repeated ones are kept once.
+     */
+    static void runAlgorithms(int edges) {
+        CsrGraph<Integer> graph;
+        try {
+            graph = rmatGraph(edges, new Random(42));
+        } catch (OutOfMemoryError e) {
+            System.out.println("rmat,-1," + edges + ",-1");
+            return;
+        }
+        String size = graph.vertexCount() + "," + graph.edgeCount() + ",";
+        try {
+            long start = System.nanoTime();
+            sink += new BreadthFirstSearch().distancesById(graph, 0)[graph.vertexCount() - 1];
+            System.out.println("bfs," + size + (System.nanoTime() - start) / 1_000_000);
+            start = System.nanoTime();
+            sink += (long) new DeltaStepping().distancesById(graph, 0)[1];
+            System.out.println("sssp," + size + (System.nanoTime() - start) / 1_000_000);
+            start = System.nanoTime();
+            sink += (long) new PageRank().ranksById(graph)[0];
+            System.out.println("pagerank," + size + (System.nanoTime() - start) / 1_000_000);
+            start = System.nanoTime();
+            sink += new ConnectedComponents().labelsById(graph)[graph.vertexCount() - 1];
+            System.out.println("components," + size + (System.nanoTime() - start) / 1_000_000);
+        } catch (OutOfMemoryError e) {
+            System.out.println("algorithms," + size + "-1");
+        }
+    }
+
+    /**
+     * Sorts random acyclic graph by Kahn's algorithm and splits it into parallel waves.
+     *
+     * @param vertices count of vertices.
+     */
+    static void compareTopologicalSort(int vertices) {
+        try {
+            CsrGraph<Integer> graph = randomDag(vertices, new Random(42));
+            TopologicalSort<Integer> sorter = new TopologicalSort<>();
+            long start = System.nanoTime();
+            sink += sorter.sortById(graph)[vertices - 1];
+            final long sort = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            int[] waves = sorter.wavesById(graph);
+            final long split = (System.nanoTime() - start) / 1_000_000;
+            int count = Arrays.stream(waves).max().orElse(-1) + 1;
+            System.out.println(vertices + "," + graph.edgeCount() + "," + sort + "," + split
+                    + "," + count);
+        } catch (OutOfMemoryError e) {
+            System.out.println(vertices + ",-1,-1,-1,-1");
+        }
+    }
+
+    /**
+     * Compares heap used by adjacency matrix with average degree 10: rows of boxed
+     * weights with nulls like in the former AdjacentMatrixGraph, bitset rows of
+     * a graph with equal weights and bitset rows with weights.
+     *
+     * @param vertices count of vertices.
+     */
+    static void compareMatrix(int vertices) {
+        int edges = vertices * AVERAGE_DEGREE;
+        try {
+            System.out.println("boxed," + vertices + "," + edges + ","
+                    + boxedMatrixBytes(vertices, edges));
+        } catch (OutOfMemoryError e) {
+            System.out.println("boxed," + vertices + "," + edges + ",-1");
+        }
+        for (boolean weighted : new boolean[]{false, true}) {
+            String name = weighted ? "weighted" : "bitset";
+            try {
+                System.out.println(name + "," + vertices + "," + edges + ","
+                        + matrixGraphBytes(vertices, edges, weighted));
+            } catch (OutOfMemoryError e) {
+                System.out.println(name + "," + vertices + "," + edges + ",-1");
+            }
+        }
+    }
+
+    /**
+     * Returns heap used by rows of boxed weights.
+     */
+    private static long boxedMatrixBytes(int vertices, int edges) {
+        long memory = usedMemory();
+        Random random = new Random(42);
+        List<List<Double>> boxed = new ArrayList<>();
+        for (int i = 0; i < vertices; i++) {
+            boxed.add(new ArrayList<>(Collections.nCopies(vertices, null)));
+        }
+        for (int i = 0; i < edges; i++) {
+            boxed.get(random.nextInt(vertices)).set(random.nextInt(vertices),
+                    (double) random.nextInt(100));
+        }
+        long bytes = usedMemory() - memory;
+        sink += boxed.size();
+        return bytes;
+    }
+
+    /**
+     * Returns heap used by AdjacentMatrixGraph.
+     */
+    private static long matrixGraphBytes(int vertices, int edges, boolean weighted) {
+        long memory = usedMemory();
+        Random random = new Random(42);
+        AdjacentMatrixGraph<Integer> graph = new AdjacentMatrixGraph<>();
+        for (int i = 0; i < vertices; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 0; i < edges; i++) {
+            graph.addEdge(random.nextInt(vertices), random.nextInt(vertices),
+                    weighted ? random.nextInt(100) : 1.0);
+        }
+        long bytes = usedMemory() - memory;
+        sink += graph.edgeCount();
+        return bytes;
+    }
+
+    /**
+     * Finds transitive closure and shortest paths of random graph with average degree 2.
+     *
+     * @param vertices count of vertices.
+     */
+    static void runClosure(int vertices) {
+        Random random = new Random(42);
+        AdjacentMatrixGraph<Integer> graph = new AdjacentMatrixGraph<>();
+        for (int i = 0; i < vertices; i++) {
+            graph.addVertex(i);
+        }
+        for (int i = 0; i < vertices * DAG_DEGREE; i++) {
+            graph.addEdge(random.nextInt(vertices), random.nextInt(vertices),
+                    1 + random.nextInt(100));
+        }
+        long start = System.nanoTime();
+        sink += graph.transitiveClosure().edgeCount();
+        final long closure = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        sink += graph.shortestPaths().edgeCount();
+        System.out.println(vertices + "," + graph.edgeCount() + "," + closure + ","
+                + (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds random edges with average degree 10 to the empty graph, finds all of them
+     * and removes half of them.
+     *
+     * @param graph empty graph.
+     * @param edges count of edges.
+     */
+    static void compareIncidence(Graph<Integer> graph, int edges) {
+        String name = graph.getClass().getSimpleName();
+        try {
+            int vertices = Math.max(1, edges / AVERAGE_DEGREE);
+            int[] from = new int[edges];
+            int[] to = new int[edges];
+            Random random = new Random(42);
+            for (int i = 0; i < edges; i++) {
+                from[i] = random.nextInt(vertices);
+                to[i] = random.nextInt(vertices);
+            }
+            long memory = usedMemory();
+            long start = System.nanoTime();
+            for (int i = 0; i < edges; i++) {
+                graph.addEdge(from[i], to[i], i);
+            }
+            final long add = (System.nanoTime() - start) / 1_000_000;
+            final long bytes = usedMemory() - memory;
+            start = System.nanoTime();
+            for (int i = 0; i < edges; i++) {
+                sink += (long) graph.getEdge(from[i], to[i]).getWeight();
+            }
+            final long get = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            for (int i = 0; i < edges; i += 2) {
+                graph.removeEdge(from[i], to[i]);
+            }
+            System.out.println(name + "," + edges + "," + add + "," + bytes + "," + get + ","
+                    + (System.nanoTime() - start) / 1_000_000);
+        } catch (OutOfMemoryError e) {
+            System.out.println(name + "," + edges + ",-1,-1,-1,-1");
+        }
+    }
+
+    /**
+     * Loads random graph from file line by line, by {@link DefaultVertexReader} which
+     * uses {@link EdgeListLoader} for adding edges, by parallel {@link EdgeListLoader}
+     * and from binary file.
+     *
+     * @param edges count of edges.
+     */
+    static void compareLoaders(int edges) throws IOException {
+        Path file = Files.createTempFile("graph", ".txt");
+        Path binary = Files.createTempFile("graph", ".bin");
+        try {
+            writeRandomGraph(file, Math.max(1, edges / AVERAGE_DEGREE), edges, new Random(42));
+            DefaultVertexReader reader = new DefaultVertexReader();
+            long start = System.nanoTime();
+            new CsrGraph.Builder<String>(edges)
+                    .readFile(file.toString(), (graph, line) -> reader.readVertex(graph, line))
+                    .build();
+            printLoader("lines", edges, Files.size(file), start);
+            start = System.nanoTime();
+            new CsrGraph.Builder<String>(edges).readFile(file.toString(), reader).build();
+            printLoader("defaultReader", edges, Files.size(file), start);
+            start = System.nanoTime();
+            CsrGraph<String> graph = new EdgeListLoader().load(file);
+            printLoader("parallel", edges, Files.size(file), start);
+            EdgeListLoader.writeBinary(graph, binary);
+            start = System.nanoTime();
+            EdgeListLoader.loadBinary(binary);
+            printLoader("binary", edges, Files.size(binary), start);
+        } catch (OutOfMemoryError e) {
+            System.out.println("loader," + edges + ",-1,-1,-1");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    private static void printLoader(String name, int edges, long bytes, long start) {
+        long nanos = Math.max(1, System.nanoTime() - start);
+        System.out.println(name + "," + edges + "," + bytes + "," + nanos / 1_000_000 + ","
+                + bytes * 1_000 / nanos);
+    }
+
+    /**
+     * Generates acyclic graph: every vertex but the first has edges from two random
+     * vertices with smaller numbers, one of them is near, so chains are long.
+     *
+     * @param vertices count of vertices.
+     * @param random source of randomness.
+     * @return graph with integer vertices equal to ids.
+     */
+    static CsrGraph<Integer> randomDag(int vertices, Random random) {
+        CsrGraph.Builder<Integer> builder = new CsrGraph.Builder<>(vertices * DAG_DEGREE);
+        for (int id = 0; id < vertices; id++) {
+            builder.addVertex(id);
+        }
+        for (int id = 1; id < vertices; id++) {
+            builder.addEdge(Math.max(0, id - 1 - random.nextInt(16)), id, 1.0);
+            builder.addEdge(random.nextInt(id), id, 1.0);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Generates graph by recursive matrix model with probabilities 0.57, 0.19, 0.19, 0.05
+     * of quadrants, so degrees are skewed like in real networks. Vertices are integers
+     * equal to their ids, there are 16 times fewer vertices than edges rounded up to
+     * a power of two, weights are integers from 1 to 100.
+     *
+     * @param edges count of generated edges.
+     * @param random source of randomness.
+     * @return graph.
+     */
+    static CsrGraph<Integer> rmatGraph(int edges, Random random) {
+        int scale = 1;
+        while ((1L << scale) * RMAT_EDGE_FACTOR < edges) {
+            scale++;
+        }
+        int vertices = 1 << scale;
+        CsrGraph.Builder<Integer> builder = new CsrGraph.Builder<>(edges);
+        for (int id = 0; id < vertices; id++) {
+            builder.addVertex(id);
+        }
+        for (int i = 0; i < edges; i++) {
+            int from = 0;
+            int to = 0;
+            for (int bit = 0; bit < scale; bit++) {
+                double quadrant = random.nextDouble();
+                if (quadrant >= 0.57) {
+                    if (quadrant < 0.76) {
+                        to |= 1 << bit;
+                    } else if (quadrant < 0.95) {
+                        from |= 1 << bit;
+                    } else {
+                        from |= 1 << bit;
+                        to |= 1 << bit;
+                    }
+                }
+            }
+            builder.addEdge(from, to, 1 + random.nextInt(100));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes random graph in format of {@link DefaultVertexReader}.
+     *
+     * @param file file for graph.
+     * @param vertices count of vertices.
+     * @param edges count of edges.
+     * @param random source of randomness.
+     */
+    static void writeRandomGraph(Path file, int vertices, int edges, Random random)
+            throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < edges; i++) {
+                writer.write("v" + random.nextInt(vertices) + " v" + random.nextInt(vertices)
+                        + " " + random.nextInt(100) + ".0\n");
+            }
+        }
+    }
+
+    /**
+     * Returns used heap after garbage collection, it is repeated while heap shrinks.
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long current = runtime.totalMemory() - runtime.freeMemory();
+            if (current >= used) {
+                break;
+            }
+            used = current;
+        }
+        return used;
+    }
+}
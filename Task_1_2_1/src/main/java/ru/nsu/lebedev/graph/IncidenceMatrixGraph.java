@@ -1,7 +1,7 @@
 package ru.nsu.lebedev.graph;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,102 +9,272 @@ import java.util.Map;
 /**
  * Incidence Matrix Graph class implementation.
  * raw - vertex; col - edge.
+ * The matrix is sparse: column of edge e has only weight in the row of its start and
+ * minus weight in the row of its end, so columns are kept as arrays of starts, ends and
+ * weights, and every row keeps ids of its outgoing and incoming edges. Edge ids are found
+ * by the pair of vertex ids in {@link EdgeIndex}. A removed edge or vertex is replaced by
+ * the last one, so ids stay dense and removal costs O(degree).
  *
  * @param <T> type of graph's vertices
  */
 public class IncidenceMatrixGraph<T> implements Graph<T> {
-    private final Map<T, Vertex<T>> vertices = new HashMap<>();
+    private static final int[] NO_EDGES = new int[0];
+
     private final Map<T, Integer> vertexIndex = new HashMap<>();
-    private final List<Map.Entry<Edge<T>, Double>> edges = new ArrayList<>();
-    private final List<List<Double>> incMatrix = new ArrayList<>();
+    private final List<T> values = new ArrayList<>();
+    private final EdgeIndex edgeIndex = new EdgeIndex();
+    private int[][] outEdges = new int[16][];
+    private int[] outSizes = new int[16];
+    private int[][] inEdges = new int[16][];
+    private int[] inSizes = new int[16];
+    private int[] sources = new int[16];
+    private int[] targets = new int[16];
+    private double[] weights = new double[16];
+    private int[] outPositions = new int[16];
+    private int[] inPositions = new int[16];
+    private int edgeCount;
 
     @Override
     public Vertex<T> getVertex(T value) {
-        return vertices.get(value);
+        return vertexIndex.containsKey(value) ? new Vertex<>(value) : null;
     }
 
     @Override
     public void addVertex(T value) {
-        if (vertices.containsKey(value)) {
-            vertices.get(value);
+        if (vertexIndex.containsKey(value)) {
             return;
         }
-        Vertex<T> newVertex = new Vertex<>(value);
-        vertices.put(value, newVertex);
-        vertexIndex.put(value, vertexIndex.size());
-        incMatrix.add(new ArrayList<>(Collections.nCopies(edges.size(), null)));
+        int index = values.size();
+        if (index == outEdges.length) {
+            int capacity = index * 2;
+            outEdges = Arrays.copyOf(outEdges, capacity);
+            outSizes = Arrays.copyOf(outSizes, capacity);
+            inEdges = Arrays.copyOf(inEdges, capacity);
+            inSizes = Arrays.copyOf(inSizes, capacity);
+        }
+        outEdges[index] = NO_EDGES;
+        inEdges[index] = NO_EDGES;
+        vertexIndex.put(value, index);
+        values.add(value);
     }
 
     @Override
     public Vertex<T> removeVertex(T value) {
-        if (!vertices.containsKey(value)) {
+        Integer removed = vertexIndex.remove(value);
+        if (removed == null) {
             return null;
         }
-        int index = vertexIndex.remove(value);
-        vertices.remove(value);
-        incMatrix.remove(index);
-        for (List<Double> row : incMatrix) {
-            row.remove(index);
+        int index = removed;
+        while (outSizes[index] > 0) {
+            removeEdgeById(outEdges[index][outSizes[index] - 1]);
+        }
+        while (inSizes[index] > 0) {
+            removeEdgeById(inEdges[index][inSizes[index] - 1]);
         }
+        int last = values.size() - 1;
+        if (index != last) {
+            moveVertex(last, index);
+        }
+        outEdges[last] = null;
+        inEdges[last] = null;
+        values.remove(last);
         return new Vertex<>(value);
     }
 
     @Override
     public Edge<T> getEdge(T a, T b) {
-        for (Map.Entry<Edge<T>, Double> edge : edges) {
-            if (edge.getKey().getFrom().equals(a) && edge.getKey().getTo().equals(b)) {
-                return edge.getKey();
-            }
-        }
-        return null;
+        int edge = find(a, b);
+        return edge < 0 ? null : new Edge<>(a, b, weights[edge]);
     }
 
     @Override
     public void addEdge(T a, T b, double weight) {
         addVertex(a);
         addVertex(b);
-        Edge<T> newEdge = new Edge<>(a, b, weight);
-        edges.add(Map.entry(newEdge, weight));
-        for (List<Double> row : incMatrix) {
-            row.add(null);
+        int from = vertexIndex.get(a);
+        int to = vertexIndex.get(b);
+        if (edgeIndex.get(from, to) >= 0) {
+            return;
+        }
+        int edge = edgeCount;
+        if (edge == sources.length) {
+            int capacity = edge * 2;
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            outPositions = Arrays.copyOf(outPositions, capacity);
+            inPositions = Arrays.copyOf(inPositions, capacity);
+        }
+        sources[edge] = from;
+        targets[edge] = to;
+        weights[edge] = weight;
+        if (outSizes[from] == outEdges[from].length) {
+            outEdges[from] = Arrays.copyOf(outEdges[from], Math.max(4, outSizes[from] * 2));
         }
-        int indexA = vertexIndex.get(a);
-        int indexB = vertexIndex.get(b);
-        incMatrix.get(indexA).set(edges.size() - 1, weight);
-        incMatrix.get(indexB).set(edges.size() - 1, -weight);
+        outPositions[edge] = outSizes[from];
+        outEdges[from][outSizes[from]++] = edge;
+        if (inSizes[to] == inEdges[to].length) {
+            inEdges[to] = Arrays.copyOf(inEdges[to], Math.max(4, inSizes[to] * 2));
+        }
+        inPositions[edge] = inSizes[to];
+        inEdges[to][inSizes[to]++] = edge;
+        edgeIndex.put(from, to, edge);
+        edgeCount++;
     }
 
     @Override
     public Edge<T> removeEdge(T a, T b) {
-        for (int i = 0; i < edges.size(); i++) {
-            Edge<T> edge = edges.get(i).getKey();
-            if (edge.getFrom().equals(a) && edge.getTo().equals(b)) {
-                Edge<T> removedEdge = edges.remove(i).getKey();
-                for (List<Double> row : incMatrix) {
-                    row.remove(i);
-                }
-                return removedEdge;
-            }
+        int edge = find(a, b);
+        if (edge < 0) {
+            return null;
         }
-        return null;
+        final Edge<T> removedEdge = new Edge<>(a, b, weights[edge]);
+        removeEdgeById(edge);
+        return removedEdge;
     }
 
     @Override
     public List<T> getVertices() {
-        return new ArrayList<>(vertices.keySet());
+        return new ArrayList<>(vertexIndex.keySet());
     }
 
     @Override
     public List<T> getAdjacentVertices(T vertex) {
         List<T> adjacentVertices = new ArrayList<>();
-        int index = vertexIndex.get(vertex);
-        for (int i = 0; i < edges.size(); i++) {
-            Double weight = incMatrix.get(index).get(i);
-            if (weight != null && weight > 0) {
-                adjacentVertices.add(edges.get(i).getKey().getTo());
-            }
+        Integer index = vertexIndex.get(vertex);
+        if (index == null) {
+            return adjacentVertices;
+        }
+        for (int i = 0; i < outSizes[index]; i++) {
+            adjacentVertices.add(values.get(targets[outEdges[index][i]]));
         }
         return adjacentVertices;
     }
-}
 
+    /**
+     * Method for getting edges of the vertex.
+     *
+     * @param vertex of graph
+     * @return outgoing edges and then incoming edges, a loop is in both parts
+     */
+    public List<Edge<T>> getIncidentEdges(T vertex) {
+        List<Edge<T>> incidentEdges = new ArrayList<>();
+        Integer index = vertexIndex.get(vertex);
+        if (index == null) {
+            return incidentEdges;
+        }
+        for (int i = 0; i < outSizes[index]; i++) {
+            incidentEdges.add(edge(outEdges[index][i]));
+        }
+        for (int i = 0; i < inSizes[index]; i++) {
+            incidentEdges.add(edge(inEdges[index][i]));
+        }
+        return incidentEdges;
+    }
+
+    /**
+     * Cell of the incidence matrix getter.
+     *
+     * @param vertex row of matrix
+     * @param a first vertex of the edge
+     * @param b second vertex of the edge
+     * @return weight if the vertex is a, minus weight if it is b, 0 if the edge
+     *         doesn't exist or isn't incident to the vertex
+     */
+    public double getIncidence(T vertex, T a, T b) {
+        int edge = find(a, b);
+        if (edge < 0) {
+            return 0;
+        }
+        if (a.equals(vertex)) {
+            return weights[edge];
+        }
+        return b.equals(vertex) ? -weights[edge] : 0;
+    }
+
+    /**
+     * Count of vertices getter.
+     *
+     * @return count of vertices
+     */
+    public int vertexCount() {
+        return values.size();
+    }
+
+    /**
+     * Count of edges getter.
+     *
+     * @return count of edges
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    private int find(T a, T b) {
+        Integer from = vertexIndex.get(a);
+        Integer to = vertexIndex.get(b);
+        if (from == null || to == null) {
+            return -1;
+        }
+        return edgeIndex.get(from, to);
+    }
+
+    private Edge<T> edge(int edge) {
+        return new Edge<>(values.get(sources[edge]), values.get(targets[edge]), weights[edge]);
+    }
+
+    /**
+     * Removes edge from rows of its vertices by moving their last edges to its places,
+     * then the last edge takes its id.
+     */
+    private void removeEdgeById(int edge) {
+        int from = sources[edge];
+        int to = targets[edge];
+        int moved = outEdges[from][--outSizes[from]];
+        outEdges[from][outPositions[edge]] = moved;
+        outPositions[moved] = outPositions[edge];
+        moved = inEdges[to][--inSizes[to]];
+        inEdges[to][inPositions[edge]] = moved;
+        inPositions[moved] = inPositions[edge];
+        edgeIndex.remove(from, to);
+        int last = --edgeCount;
+        if (edge != last) {
+            sources[edge] = sources[last];
+            targets[edge] = targets[last];
+            weights[edge] = weights[last];
+            outPositions[edge] = outPositions[last];
+            inPositions[edge] = inPositions[last];
+            outEdges[sources[edge]][outPositions[edge]] = edge;
+            inEdges[targets[edge]][inPositions[edge]] = edge;
+            edgeIndex.put(sources[edge], targets[edge], edge);
+        }
+    }
+
+    /**
+     * Gives id {@code to} of removed vertex to vertex {@code from}, its edges are rekeyed.
+     */
+    private void moveVertex(int from, int to) {
+        outEdges[to] = outEdges[from];
+        outSizes[to] = outSizes[from];
+        inEdges[to] = inEdges[from];
+        inSizes[to] = inSizes[from];
+        outSizes[from] = 0;
+        inSizes[from] = 0;
+        for (int i = 0; i < outSizes[to]; i++) {
+            rekey(outEdges[to][i], from, to);
+        }
+        for (int i = 0; i < inSizes[to]; i++) {
+            rekey(inEdges[to][i], from, to);
+        }
+        T value = values.get(from);
+        values.set(to, value);
+        vertexIndex.put(value, to);
+    }
+
+    private void rekey(int edge, int from, int to) {
+        edgeIndex.remove(sources[edge], targets[edge]);
+        sources[edge] = sources[edge] == from ? to : sources[edge];
+        targets[edge] = targets[edge] == from ? to : targets[edge];
+        edgeIndex.put(sources[edge], targets[edge], edge);
+    }
+}
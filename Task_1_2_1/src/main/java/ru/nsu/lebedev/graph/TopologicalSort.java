@@ -1,54 +1,263 @@
 package ru.nsu.lebedev.graph;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Topological sorter.
+ * Vertices are sorted by Kahn's algorithm over the dense id view of the graph:
+ * in-degrees are kept in an int array and a vertex is taken when all its incoming edges
+ * are taken, so long chains don't need a deep stack. Waves are levels of this order,
+ * vertices of one wave don't depend on each other; a wave is expanded in parallel
+ * when it is bigger than the threshold. A graph with a cycle is reported by
+ * {@link CycleException} with one of the cycles.
  */
 public class TopologicalSort<T> {
+    private static final int DEFAULT_THRESHOLD = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Function with initialization of sorter on the common pool.
+     */
+    public TopologicalSort() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Function with initialization.
+     *
+     * @param pool pool for expanding waves.
+     * @param threshold count of vertices, bigger waves are expanded in parallel.
+     */
+    public TopologicalSort(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
 
     /**
      * Topological sorter.
      *
      * @param graph any type of graph
      * @return list of vertices in topological sort
+     * @throws CycleException if the graph has a cycle
      */
     public List<T> sort(Graph<T> graph) {
-        List<T> sorted = new ArrayList<>();
-        Set<T> visited = new HashSet<>();
-        Deque<T> stack = new ArrayDeque<>();
-        for (T vertex : graph.getVertices()) {
-            if (!visited.contains(vertex)) {
-                dfs(graph, vertex, visited, stack);
+        CsrGraph<T> view = CsrGraph.copyOf(graph);
+        int[] order = sortById(view);
+        List<T> sorted = new ArrayList<>(order.length);
+        for (int id : order) {
+            sorted.add(view.valueOf(id));
+        }
+        return sorted;
+    }
+
+    /**
+     * Topological sorter of ids.
+     *
+     * @param graph dense id view of graph
+     * @return ids of vertices in topological sort
+     * @throws CycleException if the graph has a cycle
+     */
+    public int[] sortById(CsrGraph<?> graph) {
+        int count = graph.vertexCount();
+        int[] inDegree = inDegrees(graph);
+        int[] order = new int[count];
+        int tail = 0;
+        for (int id = 0; id < count; id++) {
+            if (inDegree[id] == 0) {
+                order[tail++] = id;
             }
         }
-        while (!stack.isEmpty()) {
-            sorted.add(stack.pop());
+        for (int head = 0; head < tail; head++) {
+            int vertex = order[head];
+            for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+                if (--inDegree[graph.target(edge)] == 0) {
+                    order[tail++] = graph.target(edge);
+                }
+            }
         }
-        return sorted;
+        if (tail < count) {
+            throw cycle(graph, inDegree);
+        }
+        return order;
     }
 
     /**
-     * DFS method for graph.
+     * Splits vertices into waves: the first wave has no incoming edges,
+     * every next one has incoming edges only from previous waves.
      *
      * @param graph any type of graph
-     * @param vertex vertex of search
-     * @param visited list of visited vertices
-     * @param stack topological sort stack
+     * @return waves, vertices of a wave are in order of {@link Graph#getVertices()}
+     * @throws CycleException if the graph has a cycle
      */
-    private void dfs(Graph<T> graph, T vertex, Set<T> visited, Deque<T> stack) {
-        visited.add(vertex);
-        for (T adjacent : graph.getAdjacentVertices(vertex)) {
-            if (!visited.contains(adjacent)) {
-                dfs(graph, adjacent, visited, stack);
+    public List<List<T>> waves(Graph<T> graph) {
+        CsrGraph<T> view = CsrGraph.copyOf(graph);
+        int[] wave = wavesById(view);
+        List<List<T>> waves = new ArrayList<>();
+        for (int id = 0; id < wave.length; id++) {
+            while (waves.size() <= wave[id]) {
+                waves.add(new ArrayList<>());
             }
+            waves.get(wave[id]).add(view.valueOf(id));
         }
-        stack.push(vertex);
+        return waves;
+    }
+
+    /**
+     * Numbers of waves of vertices.
+     *
+     * @param graph dense id view of graph
+     * @return number of wave by ids of vertices, waves are counted from 0
+     * @throws CycleException if the graph has a cycle
+     */
+    public int[] wavesById(CsrGraph<?> graph) {
+        int count = graph.vertexCount();
+        int[] degrees = inDegrees(graph);
+        int[] current = new int[count];
+        int size = 0;
+        for (int id = 0; id < count; id++) {
+            if (degrees[id] == 0) {
+                current[size++] = id;
+            }
+        }
+        AtomicIntegerArray inDegree = new AtomicIntegerArray(degrees);
+        int[] wave = new int[count];
+        int[] next = new int[count];
+        int taken = 0;
+        for (int level = 0; size > 0; level++) {
+            for (int i = 0; i < size; i++) {
+                wave[current[i]] = level;
+            }
+            taken += size;
+            AtomicInteger nextSize = new AtomicInteger();
+            WaveTask task = new WaveTask(graph, inDegree, current, 0, size, next, nextSize);
+            if (size > threshold && !ForkJoinTask.inForkJoinPool()) {
+                pool.invoke(task);
+            } else {
+                task.compute();
+            }
+            int[] swap = current;
+            current = next;
+            next = swap;
+            size = nextSize.get();
+        }
+        if (taken < count) {
+            for (int id = 0; id < count; id++) {
+                degrees[id] = inDegree.get(id);
+            }
+            throw cycle(graph, degrees);
+        }
+        return wave;
     }
-}
 
+    /**
+     * Counts incoming edges of vertices.
+     */
+    private static int[] inDegrees(CsrGraph<?> graph) {
+        int[] inDegree = new int[graph.vertexCount()];
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            inDegree[graph.target(edge)]++;
+        }
+        return inDegree;
+    }
+
+    /**
+     * Finds a cycle among vertices which weren't taken. Every such vertex has
+     * an edge from another one, so going back by these edges repeats a vertex.
+     */
+    private static CycleException cycle(CsrGraph<?> graph, int[] inDegree) {
+        int count = graph.vertexCount();
+        int[] previous = new int[count];
+        Arrays.fill(previous, -1);
+        int start = -1;
+        for (int id = 0; id < count; id++) {
+            if (inDegree[id] == 0) {
+                continue;
+            }
+            start = start < 0 ? id : start;
+            for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                if (inDegree[graph.target(edge)] > 0) {
+                    previous[graph.target(edge)] = id;
+                }
+            }
+        }
+        int[] step = new int[count];
+        int vertex = start;
+        for (int i = 1; step[vertex] == 0; i++) {
+            step[vertex] = i;
+            vertex = previous[vertex];
+        }
+        List<Object> cycle = new ArrayList<>();
+        int first = vertex;
+        do {
+            cycle.add(graph.valueOf(vertex));
+            vertex = previous[vertex];
+        } while (vertex != first);
+        cycle.add(graph.valueOf(first));
+        Collections.reverse(cycle);
+        return new CycleException(cycle);
+    }
+
+    /**
+     * Task taking edges of a part of the wave, vertices without other incoming edges
+     * are appended to the next wave.
+     */
+    private final class WaveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CsrGraph<?> graph;
+        private final AtomicIntegerArray inDegree;
+        private final int[] wave;
+        private final int from;
+        private final int to;
+        private final int[] next;
+        private final AtomicInteger nextSize;
+
+        WaveTask(CsrGraph<?> graph, AtomicIntegerArray inDegree, int[] wave, int from, int to,
+                 int[] next, AtomicInteger nextSize) {
+            this.graph = graph;
+            this.inDegree = inDegree;
+            this.wave = wave;
+            this.from = from;
+            this.to = to;
+            this.next = next;
+            this.nextSize = nextSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new WaveTask(graph, inDegree, wave, from, middle, next, nextSize),
+                        new WaveTask(graph, inDegree, wave, middle, to, next, nextSize));
+                return;
+            }
+            int[] ready = new int[16];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                int vertex = wave[i];
+                for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+                    if (inDegree.decrementAndGet(graph.target(edge)) == 0) {
+                        if (size == ready.length) {
+                            ready = Arrays.copyOf(ready, size * 2);
+                        }
+                        ready[size++] = graph.target(edge);
+                    }
+                }
+            }
+            System.arraycopy(ready, 0, next, nextSize.getAndAdd(size), size);
+        }
+    }
+}
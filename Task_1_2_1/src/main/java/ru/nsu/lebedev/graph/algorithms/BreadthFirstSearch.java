@@ -0,0 +1,171 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.Graph;
+
+/**
+ * Direction-optimizing parallel breadth-first search.
+ * A small frontier is expanded top-down: its edges are visited in parallel and
+ * new vertices are claimed by compare-and-set. When edges of the frontier exceed
+ * {@code 1 / ALPHA} of not yet checked edges, levels are built bottom-up: every
+ * unvisited vertex looks for a parent in the frontier among its incoming edges and
+ * stops at the first one, it switches back when the frontier is smaller than
+ * {@code 1 / BETA} of vertices. Incoming edges are built on the first bottom-up level.
+ */
+public class BreadthFirstSearch {
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Function with initialization of search on the common pool.
+     */
+    public BreadthFirstSearch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Function with initialization.
+     *
+     * @param pool pool for levels of search.
+     */
+    public BreadthFirstSearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Counts edges in shortest paths from the source.
+     *
+     * @param graph dense id view of graph.
+     * @param source id of the first vertex.
+     * @return distances by ids of vertices, -1 for unreachable ones.
+     */
+    public int[] distancesById(CsrGraph<?> graph, int source) {
+        int count = graph.vertexCount();
+        if (source < 0 || source >= count) {
+            throw new IllegalArgumentException("No vertex with id " + source);
+        }
+        AtomicIntegerArray distance = new AtomicIntegerArray(count);
+        for (int id = 0; id < count; id++) {
+            distance.set(id, -1);
+        }
+        distance.set(source, 0);
+        int[] frontier = new int[count];
+        int[] next = new int[count];
+        frontier[0] = source;
+        int size = 1;
+        long frontierEdges = graph.degree(source);
+        long uncheckedEdges = graph.edgeCount();
+        IncomingEdges incoming = null;
+        boolean bottomUp = false;
+        for (int level = 0; size > 0; level++) {
+            if (!bottomUp && frontierEdges > uncheckedEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && size < count / BETA) {
+                bottomUp = false;
+            }
+            uncheckedEdges -= frontierEdges;
+            AtomicInteger nextSize = new AtomicInteger();
+            AtomicLong nextEdges = new AtomicLong();
+            if (bottomUp) {
+                if (incoming == null) {
+                    incoming = new IncomingEdges(graph);
+                }
+                bottomUpStep(graph, incoming, distance, level, next, nextSize, nextEdges);
+            } else {
+                topDownStep(graph, frontier, size, distance, level, next, nextSize, nextEdges);
+            }
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+            size = nextSize.get();
+            frontierEdges = nextEdges.get();
+        }
+        int[] result = new int[count];
+        for (int id = 0; id < count; id++) {
+            result[id] = distance.get(id);
+        }
+        return result;
+    }
+
+    /**
+     * Counts edges in shortest paths from the source.
+     *
+     * @param graph any type of graph.
+     * @param source first vertex.
+     * @param <T> type of graph's vertices.
+     * @return distances of reachable vertices.
+     */
+    public <T> Map<T, Integer> distances(Graph<T> graph, T source) {
+        CsrGraph<T> view = CsrGraph.copyOf(graph);
+        if (view.idOf(source) < 0) {
+            throw new IllegalArgumentException("No vertex " + source);
+        }
+        int[] distance = distancesById(view, view.idOf(source));
+        Map<T, Integer> result = new HashMap<>();
+        for (int id = 0; id < distance.length; id++) {
+            if (distance[id] >= 0) {
+                result.put(view.valueOf(id), distance[id]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visits edges of the frontier, claimed vertices form the next frontier.
+     */
+    private void topDownStep(CsrGraph<?> graph, int[] frontier, int size,
+                             AtomicIntegerArray distance, int level, int[] next,
+                             AtomicInteger nextSize, AtomicLong nextEdges) {
+        Ranges.forEach(pool, size, (from, to) -> {
+            IntList found = new IntList();
+            long edges = 0;
+            for (int i = from; i < to; i++) {
+                int vertex = frontier[i];
+                for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+                    int target = graph.target(edge);
+                    if (distance.get(target) < 0 && distance.compareAndSet(target, -1, level + 1)) {
+                        found.add(target);
+                        edges += graph.degree(target);
+                    }
+                }
+            }
+            found.copyTo(next, nextSize.getAndAdd(found.size()));
+            nextEdges.addAndGet(edges);
+        });
+    }
+
+    /**
+     * Finds a parent in the frontier for every unvisited vertex.
+     */
+    private void bottomUpStep(CsrGraph<?> graph, IncomingEdges incoming,
+                              AtomicIntegerArray distance, int level, int[] next,
+                              AtomicInteger nextSize, AtomicLong nextEdges) {
+        Ranges.forEach(pool, graph.vertexCount(), (from, to) -> {
+            IntList found = new IntList();
+            long edges = 0;
+            for (int vertex = from; vertex < to; vertex++) {
+                if (distance.get(vertex) >= 0) {
+                    continue;
+                }
+                for (int i = incoming.offsets[vertex]; i < incoming.offsets[vertex + 1]; i++) {
+                    if (distance.get(incoming.sources[i]) == level) {
+                        distance.set(vertex, level + 1);
+                        found.add(vertex);
+                        edges += graph.degree(vertex);
+                        break;
+                    }
+                }
+            }
+            found.copyTo(next, nextSize.getAndAdd(found.size()));
+            nextEdges.addAndGet(edges);
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.Graph;
+
+/**
+ * Parallel connected components by label propagation, directions of edges are ignored.
+ * Every vertex starts with its own id as label, both ends of every edge take the smaller
+ * label of them by compare-and-set, and labels jump to the label of their label.
+ * Passes are repeated until no edge changes a label, then every component is labeled
+ * by its smallest id.
+ */
+public class ConnectedComponents {
+    private final ForkJoinPool pool;
+
+    /**
+     * Function with initialization of search on the common pool.
+     */
+    public ConnectedComponents() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Function with initialization.
+     *
+     * @param pool pool for passes over edges.
+     */
+    public ConnectedComponents(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Finds components of vertices.
+     *
+     * @param graph dense id view of graph.
+     * @return smallest id of component by ids of vertices.
+     */
+    public int[] labelsById(CsrGraph<?> graph) {
+        int count = graph.vertexCount();
+        AtomicIntegerArray label = new AtomicIntegerArray(count);
+        for (int id = 0; id < count; id++) {
+            label.set(id, id);
+        }
+        AtomicBoolean changed = new AtomicBoolean(true);
+        while (changed.get()) {
+            changed.set(false);
+            Ranges.forEach(pool, count, (from, to) -> {
+                boolean lowered = false;
+                for (int id = from; id < to; id++) {
+                    for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                        int target = graph.target(edge);
+                        int own = label.get(id);
+                        int other = label.get(target);
+                        if (own < other) {
+                            lowered |= lower(label, target, own);
+                        } else if (other < own) {
+                            lowered |= lower(label, id, other);
+                        }
+                    }
+                }
+                if (lowered) {
+                    changed.set(true);
+                }
+            });
+            Ranges.forEach(pool, count, (from, to) -> {
+                for (int id = from; id < to; id++) {
+                    lower(label, id, label.get(label.get(id)));
+                }
+            });
+        }
+        int[] result = new int[count];
+        for (int id = 0; id < count; id++) {
+            result[id] = label.get(id);
+        }
+        return result;
+    }
+
+    /**
+     * Finds components of vertices.
+     *
+     * @param graph any type of graph.
+     * @param <T> type of graph's vertices.
+     * @return first vertex of {@link Graph#getVertices()} in the component by vertices.
+     */
+    public <T> Map<T, T> labels(Graph<T> graph) {
+        CsrGraph<T> view = CsrGraph.copyOf(graph);
+        int[] label = labelsById(view);
+        Map<T, T> result = new HashMap<>();
+        for (int id = 0; id < label.length; id++) {
+            result.put(view.valueOf(id), view.valueOf(label[id]));
+        }
+        return result;
+    }
+
+    /**
+     * Atomic minimum of labels.
+     */
+    private static boolean lower(AtomicIntegerArray label, int id, int value) {
+        int current = label.get(id);
+        while (value < current) {
+            if (label.compareAndSet(id, current, value)) {
+                return true;
+            }
+            current = label.get(id);
+        }
+        return false;
+    }
+}
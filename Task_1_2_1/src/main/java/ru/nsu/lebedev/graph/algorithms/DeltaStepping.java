@@ -0,0 +1,209 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.Graph;
+
+/**
+ * Parallel single-source shortest paths by delta-stepping, weights of edges are lengths.
+ * Vertices wait in buckets of width delta by their tentative distance. The lowest bucket
+ * relaxes its light edges (not longer than delta) in parallel rounds until it stays
+ * empty, then heavy edges of all its vertices are relaxed once. Distances are
+ * non-negative, so their bits compare as longs and are lowered by compare-and-set.
+ * Delta is the mean weight of edges unless it is given.
+ */
+public class DeltaStepping {
+    private final ForkJoinPool pool;
+    private final double delta;
+
+    /**
+     * Function with initialization of search on the common pool.
+     */
+    public DeltaStepping() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Function with initialization with delta chosen by the graph.
+     *
+     * @param pool pool for relaxing edges.
+     */
+    public DeltaStepping(ForkJoinPool pool) {
+        this.pool = pool;
+        this.delta = Double.NaN;
+    }
+
+    /**
+     * Function with initialization.
+     *
+     * @param pool pool for relaxing edges.
+     * @param delta width of buckets.
+     */
+    public DeltaStepping(ForkJoinPool pool, double delta) {
+        if (!(delta > 0) || Double.isInfinite(delta)) {
+            throw new IllegalArgumentException("Delta must be positive");
+        }
+        this.pool = pool;
+        this.delta = delta;
+    }
+
+    /**
+     * Finds lengths of shortest paths from the source.
+     *
+     * @param graph dense id view of graph with non-negative weights.
+     * @param source id of the first vertex.
+     * @return distances by ids of vertices, infinity for unreachable ones.
+     */
+    public double[] distancesById(CsrGraph<?> graph, int source) {
+        int count = graph.vertexCount();
+        if (source < 0 || source >= count) {
+            throw new IllegalArgumentException("No vertex with id " + source);
+        }
+        double mean = meanWeight(graph);
+        double width = Double.isNaN(delta) ? mean : delta;
+        AtomicLongArray distance = new AtomicLongArray(count);
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int id = 0; id < count; id++) {
+            distance.set(id, infinity);
+        }
+        distance.set(source, Double.doubleToRawLongBits(0.0));
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        buckets.computeIfAbsent(0L, key -> new IntList()).add(source);
+        int[] roundMarks = new int[count];
+        int[] settledMarks = new int[count];
+        int round = 0;
+        int settledRound = 0;
+        while (!buckets.isEmpty()) {
+            long index = buckets.firstKey();
+            settledRound++;
+            IntList settled = new IntList();
+            IntList bucket = buckets.remove(index);
+            while (bucket != null) {
+                round++;
+                IntList current = new IntList();
+                for (int i = 0; i < bucket.size(); i++) {
+                    int vertex = bucket.get(i);
+                    if (roundMarks[vertex] != round
+                            && bucketOf(distance.get(vertex), width) == index) {
+                        roundMarks[vertex] = round;
+                        current.add(vertex);
+                        if (settledMarks[vertex] != settledRound) {
+                            settledMarks[vertex] = settledRound;
+                            settled.add(vertex);
+                        }
+                    }
+                }
+                distribute(relax(graph, current, distance, width, true), distance, width,
+                        buckets);
+                bucket = buckets.remove(index);
+            }
+            distribute(relax(graph, settled, distance, width, false), distance, width, buckets);
+        }
+        double[] result = new double[count];
+        for (int id = 0; id < count; id++) {
+            result[id] = Double.longBitsToDouble(distance.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Finds lengths of shortest paths from the source.
+     *
+     * @param graph any type of graph with non-negative weights.
+     * @param source first vertex.
+     * @param <T> type of graph's vertices.
+     * @return distances of reachable vertices.
+     */
+    public <T> Map<T, Double> distances(Graph<T> graph, T source) {
+        CsrGraph<T> view = CsrGraph.copyOf(graph);
+        if (view.idOf(source) < 0) {
+            throw new IllegalArgumentException("No vertex " + source);
+        }
+        double[] distance = distancesById(view, view.idOf(source));
+        Map<T, Double> result = new HashMap<>();
+        for (int id = 0; id < distance.length; id++) {
+            if (distance[id] != Double.POSITIVE_INFINITY) {
+                result.put(view.valueOf(id), distance[id]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Relaxes light or heavy edges of vertices in parallel.
+     *
+     * @return vertices whose distance became shorter, maybe repeated.
+     */
+    private IntList relax(CsrGraph<?> graph, IntList vertices, AtomicLongArray distance,
+                          double width, boolean light) {
+        IntList improved = new IntList();
+        Ranges.forEach(pool, vertices.size(), (from, to) -> {
+            IntList found = new IntList();
+            for (int i = from; i < to; i++) {
+                int vertex = vertices.get(i);
+                double length = Double.longBitsToDouble(distance.get(vertex));
+                for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+                    double weight = graph.weight(edge);
+                    if ((weight <= width) == light
+                            && lower(distance, graph.target(edge), length + weight)) {
+                        found.add(graph.target(edge));
+                    }
+                }
+            }
+            synchronized (improved) {
+                improved.addAll(found);
+            }
+        });
+        return improved;
+    }
+
+    /**
+     * Puts improved vertices to buckets of their new distances.
+     */
+    private static void distribute(IntList improved, AtomicLongArray distance, double width,
+                                   TreeMap<Long, IntList> buckets) {
+        for (int i = 0; i < improved.size(); i++) {
+            int vertex = improved.get(i);
+            long index = bucketOf(distance.get(vertex), width);
+            buckets.computeIfAbsent(index, key -> new IntList()).add(vertex);
+        }
+    }
+
+    /**
+     * Atomic minimum, bits of non-negative doubles are ordered like the doubles.
+     */
+    private static boolean lower(AtomicLongArray distance, int vertex, double length) {
+        long bits = Double.doubleToRawLongBits(length);
+        long current = distance.get(vertex);
+        while (bits < current) {
+            if (distance.compareAndSet(vertex, current, bits)) {
+                return true;
+            }
+            current = distance.get(vertex);
+        }
+        return false;
+    }
+
+    private static long bucketOf(long bits, double width) {
+        return (long) (Double.longBitsToDouble(bits) / width);
+    }
+
+    /**
+     * Checks weights and returns their mean, or 1 if there are no positive weights.
+     */
+    private static double meanWeight(CsrGraph<?> graph) {
+        double sum = 0;
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            double weight = graph.weight(edge);
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException("Negative weight " + weight);
+            }
+            sum += weight;
+        }
+        return sum > 0 && sum != Double.POSITIVE_INFINITY ? sum / graph.edgeCount() : 1;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import ru.nsu.lebedev.graph.CsrGraph;
+
+/**
+ * Reversed rows of a CSR graph: sources of edges entering vertex {@code id}
+ * are {@code sources[offsets[id], offsets[id + 1])}.
+ */
+final class IncomingEdges {
+    final int[] offsets;
+    final int[] sources;
+
+    /**
+     * Builds reversed rows by counting sort of edges by end vertex.
+     */
+    IncomingEdges(CsrGraph<?> graph) {
+        int count = graph.vertexCount();
+        offsets = new int[count + 1];
+        sources = new int[graph.edgeCount()];
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            offsets[graph.target(edge) + 1]++;
+        }
+        for (int id = 0; id < count; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+        int[] next = new int[count];
+        System.arraycopy(offsets, 0, next, 0, count);
+        for (int id = 0; id < count; id++) {
+            for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                sources[next[graph.target(edge)]++] = id;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Growing list of primitive ints for frontiers and buckets.
+ */
+final class IntList {
+    private int[] items = new int[16];
+    private int size;
+
+    void add(int item) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size++] = item;
+    }
+
+    void addAll(IntList other) {
+        if (size + other.size > items.length) {
+            items = Arrays.copyOf(items, Math.max(size + other.size, items.length * 2));
+        }
+        System.arraycopy(other.items, 0, items, size, other.size);
+        size += other.size;
+    }
+
+    int get(int index) {
+        return items[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies items to the array, returns count of copied items.
+     */
+    int copyTo(int[] array, int offset) {
+        System.arraycopy(items, 0, array, offset, size);
+        return size;
+    }
+}
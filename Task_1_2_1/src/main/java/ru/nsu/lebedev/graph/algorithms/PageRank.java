@@ -0,0 +1,128 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.Graph;
+
+/**
+ * Parallel PageRank by power iterations, weights of edges are not used.
+ * Every iteration first divides ranks by outgoing degrees, then every vertex pulls
+ * shares of its incoming edges, so vertices are written without synchronization.
+ * Rank of vertices without outgoing edges is spread over all vertices.
+ * Iterations stop when the sum of rank changes is less than the tolerance.
+ */
+public class PageRank {
+    private static final double DEFAULT_DAMPING = 0.85;
+    private static final double DEFAULT_TOLERANCE = 1e-9;
+    private static final int DEFAULT_ITERATIONS = 100;
+
+    private final ForkJoinPool pool;
+    private final double damping;
+    private final double tolerance;
+    private final int maxIterations;
+
+    /**
+     * Function with initialization of PageRank with damping 0.85 on the common pool.
+     */
+    public PageRank() {
+        this(ForkJoinPool.commonPool(), DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Function with initialization.
+     *
+     * @param pool pool for iterations.
+     * @param damping probability to follow an edge.
+     * @param tolerance sum of rank changes that stops iterations.
+     * @param maxIterations maximal count of iterations.
+     */
+    public PageRank(ForkJoinPool pool, double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping <= 1)) {
+            throw new IllegalArgumentException("Damping must be from 0 to 1");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Count of iterations must be positive");
+        }
+        this.pool = pool;
+        this.damping = damping;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Computes ranks of vertices.
+     *
+     * @param graph dense id view of graph.
+     * @return ranks by ids of vertices, their sum is 1.
+     */
+    public double[] ranksById(CsrGraph<?> graph) {
+        int count = graph.vertexCount();
+        if (count == 0) {
+            return new double[0];
+        }
+        IncomingEdges incoming = new IncomingEdges(graph);
+        double[] rank = new double[count];
+        Arrays.fill(rank, 1.0 / count);
+        double[] next = new double[count];
+        double[] share = new double[count];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            final double[] current = rank;
+            final double[] updated = next;
+            DoubleAdder dangling = new DoubleAdder();
+            Ranges.forEach(pool, count, (from, to) -> {
+                double lost = 0;
+                for (int id = from; id < to; id++) {
+                    int degree = graph.degree(id);
+                    if (degree == 0) {
+                        lost += current[id];
+                        share[id] = 0;
+                    } else {
+                        share[id] = current[id] / degree;
+                    }
+                }
+                dangling.add(lost);
+            });
+            final double base = (1 - damping) / count + damping * dangling.sum() / count;
+            DoubleAdder change = new DoubleAdder();
+            Ranges.forEach(pool, count, (from, to) -> {
+                double difference = 0;
+                for (int id = from; id < to; id++) {
+                    double sum = 0;
+                    for (int i = incoming.offsets[id]; i < incoming.offsets[id + 1]; i++) {
+                        sum += share[incoming.sources[i]];
+                    }
+                    updated[id] = base + damping * sum;
+                    difference += Math.abs(updated[id] - current[id]);
+                }
+                change.add(difference);
+            });
+            rank = updated;
+            next = current;
+            if (change.sum() < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Computes ranks of vertices.
+     *
+     * @param graph any type of graph.
+     * @param <T> type of graph's vertices.
+     * @return ranks of vertices, their sum is 1.
+     */
+    public <T> Map<T, Double> ranks(Graph<T> graph) {
+        CsrGraph<T> view = CsrGraph.copyOf(graph);
+        double[] rank = ranksById(view);
+        Map<T, Double> result = new HashMap<>();
+        for (int id = 0; id < rank.length; id++) {
+            result.put(view.valueOf(id), rank[id]);
+        }
+        return result;
+    }
+}
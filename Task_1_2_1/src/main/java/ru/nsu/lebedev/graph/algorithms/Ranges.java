@@ -0,0 +1,66 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel loop over a range of indices in a ForkJoin pool.
+ * The range is split in halves until pieces are not bigger than the grain,
+ * the grain gives about four pieces per worker, but not less than {@link #MIN_GRAIN}.
+ */
+final class Ranges {
+    static final int MIN_GRAIN = 256;
+
+    private Ranges() {
+    }
+
+    /**
+     * Body of the loop called for pieces of the range.
+     */
+    @FunctionalInterface
+    interface Body {
+        void apply(int from, int to);
+    }
+
+    /**
+     * Calls the body for pieces of {@code [0, count)} in parallel and waits for all of them.
+     */
+    static void forEach(ForkJoinPool pool, int count, Body body) {
+        int grain = Math.max(MIN_GRAIN, count / (pool.getParallelism() * 4));
+        if (count <= grain) {
+            body.apply(0, count);
+            return;
+        }
+        pool.invoke(new RangeAction(body, 0, count, grain));
+    }
+
+    /**
+     * Task of one piece of the range.
+     */
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Body body;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeAction(Body body, int from, int to, int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.apply(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(body, from, middle, grain),
+                    new RangeAction(body, middle, to, grain));
+        }
+    }
+}
@@ -2,9 +2,13 @@ package ru.nsu.lebedev.graph;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -81,4 +85,114 @@ public class AdjacentMatrixGraphTest {
     void getAdjacentVerticesAdjacentMatrixGraph() throws Exception {
         assertEquals(new ArrayList<>(Arrays.asList("B", "C")), graph.getAdjacentVertices("A"));
     }
+
+    @Test
+    void removeVertexShiftsAdjacentMatrixGraph() throws Exception {
+        graph.addEdge("D", "A", 6.0);
+        graph.addEdge("D", "D", 7.0);
+        graph.removeVertex("B");
+        AdjacentMatrixGraph<String> matrix = (AdjacentMatrixGraph<String>) graph;
+        assertEquals(5, matrix.vertexCount());
+        assertEquals(5, matrix.edgeCount());
+        assertEquals(List.of("C"), graph.getAdjacentVertices("A"));
+        assertEquals(List.of(), graph.getAdjacentVertices("C"));
+        assertEquals(List.of("A", "D"), graph.getAdjacentVertices("D"));
+        assertEquals(new Edge<>("E", "D", 5.0), graph.getEdge("E", "D"));
+        assertEquals(new Edge<>("D", "D", 7.0), graph.getEdge("D", "D"));
+        graph.removeVertex("D");
+        assertEquals(2, matrix.edgeCount());
+        assertEquals(List.of(), graph.getAdjacentVertices("Z"));
+    }
+
+    @Test
+    void manyVerticesAdjacentMatrixGraph() {
+        AdjacentMatrixGraph<Integer> matrix = new AdjacentMatrixGraph<>();
+        for (int i = 0; i < 300; i++) {
+            matrix.addEdge(i, (i * 7) % 300, 1.0);
+        }
+        assertEquals(new Edge<>(299, 293, 1.0), matrix.getEdge(299, 293));
+        matrix.addEdge(5, 250, 2.5);
+        assertEquals(new Edge<>(5, 35, 1.0), matrix.getEdge(5, 35));
+        assertEquals(new Edge<>(5, 250, 2.5), matrix.getEdge(5, 250));
+        matrix.removeVertex(70);
+        matrix.addVertex(300);
+        assertEquals(List.of(35, 250), matrix.getAdjacentVertices(5));
+        assertEquals(List.of(), matrix.getAdjacentVertices(300));
+        assertEquals(new Edge<>(299, 293, 1.0), matrix.getEdge(299, 293));
+        assertEquals(299, matrix.edgeCount());
+    }
+
+    @Test
+    void transitiveClosureAdjacentMatrixGraph() {
+        AdjacentMatrixGraph<Integer> matrix = randomMatrix(300, 400, new Random(3));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AdjacentMatrixGraph<Integer> closure = matrix.transitiveClosure(pool);
+            AdjacentMatrixGraph<Integer> paths = matrix.shortestPaths(pool);
+            int edges = 0;
+            for (int from = 0; from < 300; from++) {
+                for (int to = 0; to < 300; to++) {
+                    boolean reachable = paths.getEdge(from, to) != null;
+                    assertEquals(reachable, closure.getEdge(from, to) != null);
+                    edges += reachable ? 1 : 0;
+                }
+            }
+            assertEquals(edges, closure.edgeCount());
+            assertEquals(0, new AdjacentMatrixGraph<Integer>().transitiveClosure().edgeCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void shortestPathsAdjacentMatrixGraph() {
+        AdjacentMatrixGraph<Integer> matrix = randomMatrix(200, 1500, new Random(9));
+        double[][] expected = new double[200][200];
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 200; j++) {
+                Edge<Integer> edge = matrix.getEdge(i, j);
+                expected[i][j] = edge == null ? Double.POSITIVE_INFINITY : edge.getWeight();
+            }
+        }
+        for (int k = 0; k < 200; k++) {
+            for (int i = 0; i < 200; i++) {
+                for (int j = 0; j < 200; j++) {
+                    expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+                }
+            }
+        }
+        AdjacentMatrixGraph<Integer> paths = matrix.shortestPaths();
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 200; j++) {
+                Edge<Integer> edge = paths.getEdge(i, j);
+                assertEquals(expected[i][j], edge == null ? Double.POSITIVE_INFINITY
+                        : edge.getWeight());
+            }
+        }
+    }
+
+    @Test
+    void shortestPathsFileGraphAdjacentMatrixGraph() {
+        AdjacentMatrixGraph<String> matrix = (AdjacentMatrixGraph<String>) graph;
+        AdjacentMatrixGraph<String> paths = matrix.shortestPaths();
+        assertEquals(new Edge<>("A", "B", 1.0), paths.getEdge("A", "B"));
+        assertEquals(new Edge<>("F", "D", 9.0), paths.getEdge("F", "D"));
+        assertNull(paths.getEdge("A", "A"));
+        assertEquals(6, paths.edgeCount());
+        graph.addEdge("B", "A", -2.0);
+        assertThrows(IllegalArgumentException.class, matrix::shortestPaths);
+    }
+
+    private static AdjacentMatrixGraph<Integer> randomMatrix(int vertices, int edges,
+                                                              Random random) {
+        AdjacentMatrixGraph<Integer> matrix = new AdjacentMatrixGraph<>();
+        for (int i = 0; i < vertices; i++) {
+            matrix.addVertex(i);
+        }
+        for (int i = 0; i < edges; i++) {
+            matrix.addEdge(random.nextInt(vertices), random.nextInt(vertices),
+                    1 + random.nextInt(20));
+        }
+        return matrix;
+    }
 }
@@ -0,0 +1,158 @@
+package ru.nsu.lebedev.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing CsrGraph class.
+ */
+public class CsrGraphTest {
+    private Graph<String> graph;
+
+    /**
+     * Function for creating default graph.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        graph = new CsrGraph<>();
+        DefaultVertexReader reader = new DefaultVertexReader();
+        Graph.readDataForGraphFromFile(graph, "file.txt", reader);
+    }
+
+    @Test
+    void getVertexCsrGraph() throws Exception {
+        assertEquals(new Vertex<String>("A"), graph.getVertex("A"));
+    }
+
+    @Test
+    void addVertexCsrGraph() throws Exception {
+        graph.addVertex("Q");
+        assertEquals(new Vertex<String>("Q"), graph.getVertex("Q"));
+    }
+
+    @Test
+    void removeVertexCsrGraph() throws Exception {
+        Vertex<String> vertex = graph.removeVertex("A");
+        assertNull(graph.getVertex("A"));
+        assertEquals(new Vertex<String>("A"), vertex);
+    }
+
+    @Test
+    void removeVertexNullCsrGraph() throws Exception {
+        assertNull(graph.removeVertex("Z"));
+    }
+
+    @Test
+    void getEdgeCsrGraph() throws Exception {
+        assertEquals(new Edge<>("A", "B", 1.0), graph.getEdge("A", "B"));
+    }
+
+    @Test
+    void addEdgeCsrGraph() throws Exception {
+        graph.addEdge("A", "Z", 7.0);
+        assertEquals(new Edge<>("A", "Z", 7.0), graph.getEdge("A", "Z"));
+    }
+
+    @Test
+    void removeEdgeCsrGraph() throws Exception {
+        Edge<String> edge = graph.removeEdge("A", "B");
+        assertEquals(new Edge<>("A", "B", 1.0), edge);
+        assertNull(graph.getEdge("A", "B"));
+    }
+
+    @Test
+    void removeEdgeNullCsrGraph() throws Exception {
+        graph.removeEdge("A", "Z");
+        assertNull(graph.removeEdge("A", "Z"));
+    }
+
+    @Test
+    void getVerticesCsrGraph() throws Exception {
+        assertEquals(new ArrayList<>(
+                Arrays.asList("A", "B", "C", "F", "E", "D")), graph.getVertices());
+    }
+
+    @Test
+    void getAdjacentVerticesCsrGraph() throws Exception {
+        assertEquals(new ArrayList<>(Arrays.asList("B", "C")), graph.getAdjacentVertices("A"));
+    }
+
+    @Test
+    void builderCsrGraph() throws Exception {
+        CsrGraph<String> built = new CsrGraph.Builder<String>()
+                .readFile("file.txt", new DefaultVertexReader())
+                .addEdge("A", "C", 9.0)
+                .addEdge("A", "A", 0.5)
+                .addVertex("Q")
+                .build();
+        assertEquals(7, built.vertexCount());
+        assertEquals(6, built.edgeCount());
+        assertEquals(new Edge<>("A", "C", 3.0), built.getEdge("A", "C"));
+        assertEquals(3.0, built.getEdge("A", "C").getWeight());
+        assertEquals(List.of("A", "B", "C"), built.getAdjacentVertices("A"));
+        assertEquals(List.of(), built.getAdjacentVertices("Q"));
+        built.addEdge("Q", "A", 2.0);
+        assertEquals(List.of("A"), built.getAdjacentVertices("Q"));
+    }
+
+    @Test
+    void primitiveApiCsrGraph() throws Exception {
+        CsrGraph<String> csr = (CsrGraph<String>) graph;
+        int id = csr.idOf("A");
+        assertEquals(0, id);
+        assertEquals(-1, csr.idOf("Z"));
+        assertEquals(2, csr.degree(id));
+        double[] sum = new double[1];
+        csr.forEachNeighbor(id, (target, weight) -> sum[0] += target * weight);
+        assertEquals(csr.idOf("B") * 1.0 + csr.idOf("C") * 3.0, sum[0]);
+        int edge = csr.edgeStart(id);
+        assertEquals("B", csr.valueOf(csr.target(edge)));
+        assertEquals(1.0, csr.weight(edge));
+        assertEquals(csr.edgeStart(id) + 2, csr.edgeEnd(id));
+    }
+
+    @Test
+    void renumberCsrGraph() throws Exception {
+        graph.addEdge("D", "A", 6.0);
+        graph.addEdge("D", "F", 7.0);
+        graph.removeVertex("B");
+        CsrGraph<String> csr = (CsrGraph<String>) graph;
+        assertEquals(5, csr.vertexCount());
+        assertEquals(5, csr.edgeCount());
+        assertEquals(List.of("C"), graph.getAdjacentVertices("A"));
+        assertEquals(List.of(), graph.getAdjacentVertices("C"));
+        assertEquals(List.of("A", "F"), graph.getAdjacentVertices("D"));
+        assertEquals(new Edge<>("E", "D", 5.0), graph.getEdge("E", "D"));
+        assertEquals(4, csr.idOf("D"));
+        graph.addEdge("A", "B", 1.0);
+        assertEquals(List.of("C", "B"), graph.getAdjacentVertices("A"));
+    }
+
+    @Test
+    void loaderCsrGraph() {
+        VertexReader<String> reader = (g, line) -> g.removeEdge("A", "B");
+        assertThrows(UnsupportedOperationException.class,
+                () -> new CsrGraph.Builder<String>().readFile("file.txt", reader));
+    }
+
+    @Test
+    void copyOfCsrGraph() throws Exception {
+        Graph<String> list = new AdjacentListGraph<>();
+        Graph.readDataForGraphFromFile(list, "file.txt", new DefaultVertexReader());
+        list.addVertex("Q");
+        CsrGraph<String> copy = CsrGraph.copyOf(list);
+        assertEquals(list.getVertices(), copy.getVertices());
+        assertEquals(5, copy.edgeCount());
+        assertEquals(new Edge<>("C", "B", 2.0), copy.getEdge("C", "B"));
+        assertEquals(List.of("B", "C"), copy.getAdjacentVertices("A"));
+        assertSame(graph, CsrGraph.copyOf(graph));
+    }
+}
@@ -0,0 +1,144 @@
+package ru.nsu.lebedev.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Class for testing EdgeListLoader class.
+ */
+class EdgeListLoaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadFile() throws IOException {
+        CsrGraph<String> graph = new EdgeListLoader().load(Path.of("file.txt"));
+        assertEquals(Arrays.asList("A", "B", "C", "F", "E", "D"), graph.getVertices());
+        assertEquals(Arrays.asList("B", "C"), graph.getAdjacentVertices("A"));
+        assertEquals(new Edge<>("E", "D", 5.0), graph.getEdge("E", "D"));
+        assertEquals(5, graph.edgeCount());
+    }
+
+    @Test
+    void readDataForGraphFromFile() throws IOException {
+        Graph<String> graph = new AdjacentListGraph<>();
+        Graph.readDataForGraphFromFile(graph, "file.txt", new DefaultVertexReader());
+        assertEquals(new Edge<>("C", "B", 2.0), graph.getEdge("C", "B"));
+        assertEquals(Arrays.asList("B", "C"), graph.getAdjacentVertices("A"));
+    }
+
+    @Test
+    void loadSpacesAndNumbers() throws IOException {
+        Path file = write("\n  A\tB  -1.5e1 comment\r\n\r\n"
+                + "B C +2.5E-3\nC A 1e400\nA C 0.1\nA B 7\n   \nC C .5");
+        CsrGraph<String> graph = new EdgeListLoader().load(file);
+        assertEquals(-15.0, graph.getEdge("A", "B").getWeight());
+        assertEquals(0.0025, graph.getEdge("B", "C").getWeight());
+        assertEquals(Double.POSITIVE_INFINITY, graph.getEdge("C", "A").getWeight());
+        assertEquals(0.1, graph.getEdge("A", "C").getWeight());
+        assertEquals(0.5, graph.getEdge("C", "C").getWeight());
+        assertEquals(5, graph.edgeCount());
+    }
+
+    @Test
+    void loadPreciseNumbers() throws IOException {
+        List<String> numbers = Arrays.asList("3.141592653589793", "123456789012345678.9",
+                "1e-22", "9007199254740993", "-0.0", "4.9e-324", "1.7976931348623157e308");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < numbers.size(); i++) {
+            text.append("v").append(i).append(" w ").append(numbers.get(i)).append('\n');
+        }
+        CsrGraph<String> graph = new EdgeListLoader().load(write(text.toString()));
+        for (int i = 0; i < numbers.size(); i++) {
+            assertEquals(Double.parseDouble(numbers.get(i)),
+                    graph.getEdge("v" + i, "w").getWeight());
+        }
+    }
+
+    @Test
+    void loadChunks() throws IOException {
+        Path file = directory.resolve("random.txt");
+        GraphBenchmark.writeRandomGraph(file, 300, 5000, new Random(7));
+        CsrGraph<String> expected = new CsrGraph.Builder<String>()
+                .readFile(file.toString(), (graph, line) -> new DefaultVertexReader()
+                        .readVertex(graph, line))
+                .build();
+        CsrGraph<String> graph = new EdgeListLoader(new ForkJoinPool(4), 1000).load(file);
+        assertEquals(expected.getVertices(), graph.getVertices());
+        assertEquals(expected.edgeCount(), graph.edgeCount());
+        for (String vertex : expected.getVertices()) {
+            assertEquals(expected.getAdjacentVertices(vertex), graph.getAdjacentVertices(vertex));
+            for (String neighbor : expected.getAdjacentVertices(vertex)) {
+                assertEquals(expected.getEdge(vertex, neighbor), graph.getEdge(vertex, neighbor));
+            }
+        }
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        CsrGraph<String> graph = new EdgeListLoader().load(write("A B 1\nБ A 2.5\nC C 3\n"));
+        graph.addVertex("isolated");
+        Path file = directory.resolve("graph.bin");
+        EdgeListLoader.writeBinary(graph, file);
+        CsrGraph<String> loaded = EdgeListLoader.loadBinary(file);
+        assertEquals(graph.getVertices(), loaded.getVertices());
+        assertEquals(new Edge<>("Б", "A", 2.5), loaded.getEdge("Б", "A"));
+        assertEquals(Arrays.asList("C"), loaded.getAdjacentVertices("C"));
+        assertEquals(3, loaded.edgeCount());
+    }
+
+    @Test
+    void loadBinaryWrongFile() throws IOException {
+        Path file = write("A B 1\n");
+        assertThrows(IOException.class, () -> EdgeListLoader.loadBinary(file));
+    }
+
+    @Test
+    void loadBinaryCorruptedCounts() throws IOException {
+        Path file = directory.resolve("graph.bin");
+        EdgeListLoader.writeBinary(new EdgeListLoader().load(write("A B 1\n")), file);
+        byte[] bytes = Files.readAllBytes(file);
+        for (int offset : new int[]{8, 12}) {
+            byte[] corrupted = bytes.clone();
+            ByteBuffer.wrap(corrupted).putInt(offset, Integer.MAX_VALUE - 1);
+            Files.write(file, corrupted);
+            assertThrows(IOException.class, () -> EdgeListLoader.loadBinary(file));
+            ByteBuffer.wrap(corrupted).putInt(offset, -5);
+            Files.write(file, corrupted);
+            assertThrows(IOException.class, () -> EdgeListLoader.loadBinary(file));
+        }
+    }
+
+    @Test
+    void loadWrongLine() throws IOException {
+        Path file = write("A B 1\nA B\n");
+        IOException exception = assertThrows(IOException.class,
+                () -> new EdgeListLoader().load(file));
+        assertEquals("Wrong edge in line at byte 6", exception.getMessage());
+        Path number = write("A B 1x\n");
+        assertThrows(IOException.class, () -> new EdgeListLoader().load(number));
+    }
+
+    @Test
+    void loadEmptyFile() throws IOException {
+        assertEquals(0, new EdgeListLoader().load(write("")).vertexCount());
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = Files.createTempFile(directory, "graph", ".txt");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.nsu.lebedev.graph;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing GraphBenchmark class.
+ */
+class GraphBenchmarkTest {
+    @Test
+    void callMain() throws IOException {
+        GraphBenchmark.main(new String[]{"csr", "100", "10000"});
+        GraphBenchmark.main(new String[]{"algorithms", "100", "10000"});
+        GraphBenchmark.main(new String[]{"toposort", "100", "10000"});
+        GraphBenchmark.main(new String[]{"matrix", "100", "1000"});
+        GraphBenchmark.main(new String[]{"closure", "100", "200"});
+        GraphBenchmark.main(new String[]{"incidence", "100", "10000"});
+        GraphBenchmark.main(new String[]{"loader", "100", "10000"});
+        assertTrue(true);
+    }
+}
@@ -5,6 +5,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -81,4 +85,76 @@ public class IncidenceMatrixGraphTest {
     void getAdjacentVerticesIncidenceMatrixGraph() throws Exception {
         assertEquals(new ArrayList<>(Arrays.asList("B", "C")), graph.getAdjacentVertices("A"));
     }
+
+    @Test
+    void repeatedEdgeIncidenceMatrixGraph() throws Exception {
+        graph.addEdge("A", "B", 9.0);
+        IncidenceMatrixGraph<String> incidence = (IncidenceMatrixGraph<String>) graph;
+        assertEquals(5, incidence.edgeCount());
+        assertEquals(new Edge<>("A", "B", 1.0), graph.getEdge("A", "B"));
+    }
+
+    @Test
+    void removeVertexIncidentEdgesIncidenceMatrixGraph() throws Exception {
+        graph.addEdge("D", "D", 6.0);
+        graph.addEdge("D", "A", 7.0);
+        graph.removeVertex("B");
+        IncidenceMatrixGraph<String> incidence = (IncidenceMatrixGraph<String>) graph;
+        assertEquals(5, incidence.vertexCount());
+        assertEquals(5, incidence.edgeCount());
+        assertNull(graph.getEdge("A", "B"));
+        assertEquals(List.of("C"), graph.getAdjacentVertices("A"));
+        assertEquals(List.of("D", "A"), graph.getAdjacentVertices("D"));
+        assertEquals(new Edge<>("D", "D", 6.0), graph.getEdge("D", "D"));
+        graph.removeVertex("A");
+        assertEquals(3, incidence.edgeCount());
+        assertEquals(List.of("D"), graph.getAdjacentVertices("D"));
+        assertEquals(List.of(), graph.getAdjacentVertices("A"));
+    }
+
+    @Test
+    void incidenceIncidenceMatrixGraph() throws Exception {
+        IncidenceMatrixGraph<String> incidence = (IncidenceMatrixGraph<String>) graph;
+        assertEquals(3.0, incidence.getIncidence("A", "A", "C"));
+        assertEquals(-3.0, incidence.getIncidence("C", "A", "C"));
+        assertEquals(0.0, incidence.getIncidence("B", "A", "C"));
+        assertEquals(0.0, incidence.getIncidence("A", "C", "A"));
+        assertEquals(List.of(new Edge<>("C", "B", 2.0), new Edge<>("A", "C", 3.0)),
+                incidence.getIncidentEdges("C"));
+        assertEquals(List.of(), incidence.getIncidentEdges("Z"));
+    }
+
+    @Test
+    void randomChangesIncidenceMatrixGraph() {
+        IncidenceMatrixGraph<Integer> incidence = new IncidenceMatrixGraph<>();
+        Map<List<Integer>, Double> expected = new HashMap<>();
+        Random random = new Random(17);
+        for (int step = 0; step < 20000; step++) {
+            int a = random.nextInt(60);
+            int b = random.nextInt(60);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                incidence.addEdge(a, b, step);
+                expected.putIfAbsent(List.of(a, b), (double) step);
+            } else if (action < 9) {
+                Edge<Integer> edge = incidence.removeEdge(a, b);
+                Double weight = expected.remove(List.of(a, b));
+                assertEquals(weight == null ? null : new Edge<>(a, b, weight), edge);
+            } else if (step % 7 == 0) {
+                incidence.removeVertex(a);
+                expected.keySet().removeIf(key -> key.contains(a));
+            }
+        }
+        assertEquals(expected.size(), incidence.edgeCount());
+        for (int a = 0; a < 60; a++) {
+            int degree = 0;
+            for (int b = 0; b < 60; b++) {
+                Double weight = expected.get(List.of(a, b));
+                assertEquals(weight == null ? null : new Edge<>(a, b, weight),
+                        incidence.getEdge(a, b));
+                degree += weight == null ? 0 : 1;
+            }
+            assertEquals(degree, incidence.getAdjacentVertices(a).size());
+        }
+    }
 }
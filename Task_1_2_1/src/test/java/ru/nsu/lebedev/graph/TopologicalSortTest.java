@@ -0,0 +1,108 @@
+package ru.nsu.lebedev.graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing TopologicalSort class.
+ */
+class TopologicalSortTest {
+    @Test
+    void sortFileGraphs() throws Exception {
+        List<Graph<String>> graphs = List.of(new AdjacentListGraph<>(),
+                new AdjacentMatrixGraph<>(), new IncidenceMatrixGraph<>(), new CsrGraph<>());
+        for (Graph<String> graph : graphs) {
+            Graph.readDataForGraphFromFile(graph, "file.txt", new DefaultVertexReader());
+            List<String> sorted = new TopologicalSort<String>().sort(graph);
+            assertEquals(6, sorted.size());
+            Map<String, Integer> position = new HashMap<>();
+            for (int i = 0; i < sorted.size(); i++) {
+                position.put(sorted.get(i), i);
+            }
+            for (String vertex : graph.getVertices()) {
+                for (String adjacent : graph.getAdjacentVertices(vertex)) {
+                    assertTrue(position.get(vertex) < position.get(adjacent));
+                }
+            }
+        }
+    }
+
+    @Test
+    void sortLongChain() {
+        CsrGraph.Builder<Integer> builder = new CsrGraph.Builder<>();
+        for (int id = 99_999; id > 0; id--) {
+            builder.addEdge(id, id - 1, 1.0);
+        }
+        List<Integer> sorted = new TopologicalSort<Integer>().sort(builder.build());
+        assertEquals(99_999, sorted.get(0));
+        assertEquals(0, sorted.get(99_999));
+    }
+
+    @Test
+    void sortCycle() {
+        Graph<String> graph = new AdjacentListGraph<>();
+        graph.addEdge("D", "A", 1.0);
+        graph.addEdge("A", "B", 1.0);
+        graph.addEdge("B", "C", 1.0);
+        graph.addEdge("C", "A", 1.0);
+        graph.addEdge("C", "E", 1.0);
+        TopologicalSort<String> sorter = new TopologicalSort<>();
+        CycleException exception = assertThrows(CycleException.class, () -> sorter.sort(graph));
+        List<?> cycle = exception.getCycle();
+        assertEquals(4, cycle.size());
+        assertEquals(cycle.get(0), cycle.get(3));
+        for (int i = 0; i + 1 < cycle.size(); i++) {
+            assertTrue(graph.getEdge((String) cycle.get(i), (String) cycle.get(i + 1)) != null);
+        }
+        assertThrows(CycleException.class, () -> sorter.waves(graph));
+    }
+
+    @Test
+    void sortSelfLoop() {
+        Graph<String> graph = new CsrGraph<>();
+        graph.addEdge("A", "B", 1.0);
+        graph.addEdge("B", "B", 1.0);
+        CycleException exception = assertThrows(CycleException.class,
+                () -> new TopologicalSort<String>().sort(graph));
+        assertEquals(List.of("B", "B"), exception.getCycle());
+    }
+
+    @Test
+    void wavesFileGraph() throws Exception {
+        Graph<String> graph = new CsrGraph<>();
+        Graph.readDataForGraphFromFile(graph, "file.txt", new DefaultVertexReader());
+        assertEquals(List.of(List.of("A", "F"), List.of("C", "E"), List.of("B", "D")),
+                new TopologicalSort<String>().waves(graph));
+    }
+
+    @Test
+    void wavesRandomGraph() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsrGraph<Integer> graph = GraphBenchmark.randomDag(20_000, new Random(1));
+            int[] waves = new TopologicalSort<Integer>(pool, 16).wavesById(graph);
+            assertArrayEquals(waves, new TopologicalSort<Integer>().wavesById(graph));
+            int[] longest = new int[graph.vertexCount()];
+            for (int id : new TopologicalSort<Integer>().sortById(graph)) {
+                for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                    int target = graph.target(edge);
+                    longest[target] = Math.max(longest[target], longest[id] + 1);
+                }
+            }
+            assertArrayEquals(longest, waves);
+            assertThrows(IllegalArgumentException.class,
+                    () -> new TopologicalSort<Integer>(pool, 0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import ru.nsu.lebedev.graph.AdjacentListGraph;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.DefaultVertexReader;
+import ru.nsu.lebedev.graph.Graph;
+
+/**
+ * Class for testing BreadthFirstSearch class.
+ */
+class BreadthFirstSearchTest {
+    @Test
+    void distancesFileGraph() throws Exception {
+        Graph<String> graph = new AdjacentListGraph<>();
+        Graph.readDataForGraphFromFile(graph, "file.txt", new DefaultVertexReader());
+        assertEquals(Map.of("A", 0, "B", 1, "C", 1),
+                new BreadthFirstSearch().distances(graph, "A"));
+        assertEquals(Map.of("F", 0, "E", 1, "D", 2),
+                new BreadthFirstSearch().distances(graph, "F"));
+    }
+
+    @Test
+    void distancesMissingSource() throws Exception {
+        Graph<String> graph = new AdjacentListGraph<>();
+        graph.addEdge("A", "B", 1.0);
+        assertThrows(IllegalArgumentException.class,
+                () -> new BreadthFirstSearch().distances(graph, "Z"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BreadthFirstSearch().distancesById(CsrGraph.copyOf(graph), 5));
+    }
+
+    @Test
+    void distancesRandomGraphs() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(7);
+            for (int degree : new int[]{1, 3, 16}) {
+                CsrGraph<Integer> graph = randomGraph(5000, 5000 * degree, random);
+                for (int source : new int[]{0, 17, 4999}) {
+                    assertArrayEquals(expected(graph, source),
+                            new BreadthFirstSearch(pool).distancesById(graph, source));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Random graph with integer vertices equal to ids.
+     */
+    static CsrGraph<Integer> randomGraph(int vertices, int edges, Random random) {
+        CsrGraph.Builder<Integer> builder = new CsrGraph.Builder<>(edges);
+        for (int id = 0; id < vertices; id++) {
+            builder.addVertex(id);
+        }
+        for (int i = 0; i < edges; i++) {
+            builder.addEdge(random.nextInt(vertices), random.nextInt(vertices),
+                    random.nextInt(100));
+        }
+        return builder.build();
+    }
+
+    private static int[] expected(CsrGraph<Integer> graph, int source) {
+        int[] distance = new int[graph.vertexCount()];
+        Arrays.fill(distance, -1);
+        distance[source] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+            for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+                if (distance[graph.target(edge)] < 0) {
+                    distance[graph.target(edge)] = distance[vertex] + 1;
+                    queue.add(graph.target(edge));
+                }
+            }
+        }
+        return distance;
+    }
+}
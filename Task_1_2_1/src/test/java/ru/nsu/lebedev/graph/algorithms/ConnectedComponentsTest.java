@@ -0,0 +1,87 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import ru.nsu.lebedev.graph.AdjacentListGraph;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.DefaultVertexReader;
+import ru.nsu.lebedev.graph.Graph;
+
+/**
+ * Class for testing ConnectedComponents class.
+ */
+class ConnectedComponentsTest {
+    @Test
+    void labelsFileGraph() throws Exception {
+        Graph<String> graph = new AdjacentListGraph<>();
+        Graph.readDataForGraphFromFile(graph, "file.txt", new DefaultVertexReader());
+        graph.addVertex("Q");
+        Map<String, String> labels = new ConnectedComponents().labels(graph);
+        String first = labels.get("A");
+        assertEquals(first, labels.get("B"));
+        assertEquals(first, labels.get("C"));
+        assertEquals(labels.get("D"), labels.get("E"));
+        assertEquals(labels.get("D"), labels.get("F"));
+        assertEquals("Q", labels.get("Q"));
+        assertEquals(3, labels.values().stream().distinct().count());
+    }
+
+    @Test
+    void labelsRandomGraphs() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(3);
+            for (int edges : new int[]{1000, 2500, 5000, 20000}) {
+                CsrGraph<Integer> graph =
+                        BreadthFirstSearchTest.randomGraph(5000, edges, random);
+                assertArrayEquals(unionFind(graph),
+                        new ConnectedComponents(pool).labelsById(graph));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void labelsPath() {
+        CsrGraph.Builder<Integer> builder = new CsrGraph.Builder<>();
+        for (int id = 0; id < 3000; id++) {
+            builder.addVertex(id);
+        }
+        for (int id = 2999; id > 0; id--) {
+            builder.addEdge(id, id - 1, 1.0);
+        }
+        int[] labels = new ConnectedComponents().labelsById(builder.build());
+        assertArrayEquals(new int[3000], labels);
+    }
+
+    private static int[] unionFind(CsrGraph<Integer> graph) {
+        int[] parent = new int[graph.vertexCount()];
+        for (int id = 0; id < parent.length; id++) {
+            parent[id] = id;
+        }
+        for (int id = 0; id < parent.length; id++) {
+            for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                int first = find(parent, id);
+                int second = find(parent, graph.target(edge));
+                parent[Math.max(first, second)] = Math.min(first, second);
+            }
+        }
+        for (int id = 0; id < parent.length; id++) {
+            parent[id] = find(parent, id);
+        }
+        return parent;
+    }
+
+    private static int find(int[] parent, int id) {
+        while (parent[id] != id) {
+            id = parent[id];
+        }
+        return id;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import ru.nsu.lebedev.graph.AdjacentMatrixGraph;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.DefaultVertexReader;
+import ru.nsu.lebedev.graph.Graph;
+
+/**
+ * Class for testing DeltaStepping class.
+ */
+class DeltaSteppingTest {
+    @Test
+    void distancesFileGraph() throws Exception {
+        Graph<String> graph = new AdjacentMatrixGraph<>();
+        Graph.readDataForGraphFromFile(graph, "file.txt", new DefaultVertexReader());
+        graph.addEdge("A", "D", 20.0);
+        graph.addEdge("B", "F", 1.5);
+        assertEquals(Map.of("A", 0.0, "B", 1.0, "C", 3.0, "F", 2.5, "E", 6.5, "D", 11.5),
+                new DeltaStepping().distances(graph, "A"));
+    }
+
+    @Test
+    void distancesWrongArguments() {
+        Graph<String> graph = new CsrGraph<>();
+        graph.addEdge("A", "B", -1.0);
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeltaStepping().distances(graph, "A"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeltaStepping().distances(graph, "Z"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeltaStepping(ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    void distancesRandomGraphs() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(11);
+            for (int degree : new int[]{1, 4, 16}) {
+                CsrGraph<Integer> graph =
+                        BreadthFirstSearchTest.randomGraph(5000, 5000 * degree, random);
+                double[] expected = dijkstra(graph, 3);
+                assertArrayEquals(expected, new DeltaStepping(pool).distancesById(graph, 3));
+                assertArrayEquals(expected, new DeltaStepping(pool, 3).distancesById(graph, 3));
+                assertArrayEquals(expected, new DeltaStepping(pool, 1000).distancesById(graph, 3));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static double[] dijkstra(CsrGraph<Integer> graph, int source) {
+        double[] distance = new double[graph.vertexCount()];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, source});
+        while (!queue.isEmpty()) {
+            double[] item = queue.poll();
+            int vertex = (int) item[1];
+            if (item[0] > distance[vertex]) {
+                continue;
+            }
+            for (int edge = graph.edgeStart(vertex); edge < graph.edgeEnd(vertex); edge++) {
+                double length = item[0] + graph.weight(edge);
+                if (length < distance[graph.target(edge)]) {
+                    distance[graph.target(edge)] = length;
+                    queue.add(new double[]{length, graph.target(edge)});
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.nsu.lebedev.graph.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import ru.nsu.lebedev.graph.CsrGraph;
+import ru.nsu.lebedev.graph.DefaultVertexReader;
+import ru.nsu.lebedev.graph.Graph;
+import ru.nsu.lebedev.graph.IncidenceMatrixGraph;
+
+/**
+ * Class for testing PageRank class.
+ */
+class PageRankTest {
+    @Test
+    void ranksFileGraph() throws Exception {
+        Graph<String> graph = new IncidenceMatrixGraph<>();
+        Graph.readDataForGraphFromFile(graph, "file.txt", new DefaultVertexReader());
+        Map<String, Double> ranks = new PageRank().ranks(graph);
+        assertEquals(6, ranks.size());
+        assertEquals(1.0, ranks.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-9);
+        assertTrue(ranks.get("B") > ranks.get("C"));
+        assertTrue(ranks.get("C") > ranks.get("A"));
+        assertTrue(ranks.get("D") > ranks.get("E"));
+        assertEquals(ranks.get("A"), ranks.get("F"), 1e-12);
+    }
+
+    @Test
+    void ranksCycle() {
+        Graph<Integer> graph = new CsrGraph<>();
+        for (int i = 0; i < 10; i++) {
+            graph.addEdge(i, (i + 1) % 10, 1.0);
+        }
+        for (double rank : new PageRank().ranks(graph).values()) {
+            assertEquals(0.1, rank, 1e-12);
+        }
+        assertEquals(0, new PageRank().ranks(new CsrGraph<Integer>()).size());
+    }
+
+    @Test
+    void ranksRandomGraph() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CsrGraph<Integer> graph =
+                    BreadthFirstSearchTest.randomGraph(5000, 20000, new Random(5));
+            double[] expected = powerIteration(graph, 0.85, 100);
+            assertArrayEquals(expected, new PageRank(pool, 0.85, 0, 100).ranksById(graph), 1e-12);
+            assertThrows(IllegalArgumentException.class, () -> new PageRank(pool, 2, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> new PageRank(pool, 0.5, 0, 0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static double[] powerIteration(CsrGraph<Integer> graph, double damping,
+                                           int iterations) {
+        int count = graph.vertexCount();
+        double[] rank = new double[count];
+        Arrays.fill(rank, 1.0 / count);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] next = new double[count];
+            double dangling = 0;
+            for (int id = 0; id < count; id++) {
+                if (graph.degree(id) == 0) {
+                    dangling += rank[id];
+                }
+                for (int edge = graph.edgeStart(id); edge < graph.edgeEnd(id); edge++) {
+                    next[graph.target(edge)] += damping * rank[id] / graph.degree(id);
+                }
+            }
+            for (int id = 0; id < count; id++) {
+                next[id] += (1 - damping) / count + damping * dangling / count;
+            }
+            rank = next;
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.nsu.lebedev.hashtable;
+
+/**
+ * Record with counters of CacheTable for metrics.
+ *
+ * @param hitCount count of get calls that found the key.
+ * @param missCount count of get calls that didn't find the key.
+ * @param evictionCount count of entries removed because the cache was full.
+ */
+public record CacheStats(long hitCount, long missCount, long evictionCount) {
+    /**
+     * Method for getting share of get calls that found the key.
+     *
+     * @return hit rate from 0 to 1, 1 if there were no get calls.
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,413 @@
+package ru.nsu.lebedev.hashtable;
+
+import java.util.Arrays;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Class bounded cache on top of HashTable, the hashtable maps keys to nodes.
+ * Nodes are kept in parallel arrays and linked into recency lists by indices
+ * stored in prev and next arrays, so eviction metadata needs no extra objects.
+ * The cache is bounded by total weight of entries, every entry weighs 1 by default.
+ *
+ * @param <K> type of key.
+ * @param <V> type of value.
+ */
+public class CacheTable<K, V> {
+    private static final int NIL = -1;
+    private static final int INITIAL_NODES = 16;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private final EvictionPolicy policy;
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final HashTable<K, Integer> index =
+            new HashTable<>(ProbingMode.ROBIN_HOOD, ResizeMode.EAGER, HashingMode.MIXED_CACHED);
+    private final FrequencySketch sketch;
+    private final int[] heads = {NIL, NIL, NIL};
+    private final int[] tails = {NIL, NIL, NIL};
+    private final long[] segmentWeights = new long[3];
+    private K[] keys;
+    private V[] values;
+    private int[] prev;
+    private int[] next;
+    private int[] weights;
+    private byte[] segments;
+    private boolean[] referenced;
+    private int freeHead = NIL;
+    private int usedNodes;
+    private int hand = NIL;
+    private long totalWeight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Initial method for cache bounded by count of entries.
+     *
+     * @param policy eviction policy.
+     * @param maxEntries maximal count of entries.
+     */
+    public CacheTable(EvictionPolicy policy, int maxEntries) {
+        this(policy, maxEntries, (key, value) -> 1);
+    }
+
+    /**
+     * Initial method for cache bounded by total weight of entries.
+     *
+     * @param policy eviction policy.
+     * @param maxWeight maximal total weight of entries.
+     * @param weigher function that gives not negative weight of entry.
+     */
+    @SuppressWarnings("unchecked")
+    public CacheTable(EvictionPolicy policy, long maxWeight,
+                      ToIntBiFunction<? super K, ? super V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximal weight must be positive");
+        }
+        this.policy = policy;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.windowMaxWeight = Math.max(1, maxWeight / 100);
+        this.protectedMaxWeight = (maxWeight - windowMaxWeight) * 4 / 5;
+        this.sketch = policy == EvictionPolicy.W_TINY_LFU
+                ? new FrequencySketch((int) Math.min(maxWeight, Integer.MAX_VALUE)) : null;
+        this.keys = (K[]) new Object[INITIAL_NODES];
+        this.values = (V[]) new Object[INITIAL_NODES];
+        this.prev = new int[INITIAL_NODES];
+        this.next = new int[INITIAL_NODES];
+        this.weights = new int[INITIAL_NODES];
+        this.segments = new byte[INITIAL_NODES];
+        this.referenced = new boolean[INITIAL_NODES];
+    }
+
+    /**
+     * Method for getting value from cache[key], counts a hit or a miss.
+     *
+     * @param key key.
+     * @return cache[key] or null if it doesn't exist.
+     */
+    public V get(K key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Integer node = index.get(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        onAccess(node);
+        return values[node];
+    }
+
+    /**
+     * Method for adding key and value to the cache, may evict other entries.
+     * An entry heavier than the whole cache is not stored.
+     *
+     * @param key new key.
+     * @param value new value.
+     */
+    public void put(K key, V value) {
+        int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative");
+        }
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Integer existing = index.get(key);
+        if (weight > maxWeight) {
+            if (existing != null) {
+                remove(key);
+            }
+            return;
+        }
+        if (existing != null) {
+            int node = existing;
+            segmentWeights[segments[node]] += weight - weights[node];
+            totalWeight += weight - weights[node];
+            weights[node] = weight;
+            values[node] = value;
+            onAccess(node);
+            evict(node);
+        } else {
+            int node = allocate();
+            keys[node] = key;
+            values[node] = value;
+            weights[node] = weight;
+            referenced[node] = false;
+            totalWeight += weight;
+            index.put(key, node);
+            if (policy == EvictionPolicy.CLOCK) {
+                linkBefore(node, hand);
+            } else {
+                linkHead(node, WINDOW);
+            }
+            evict(node);
+        }
+    }
+
+    /**
+     * Method for remove key and value from cache, it doesn't count as eviction.
+     *
+     * @param key key that will be deleted.
+     * @return oldValue that was removed or null if it doesn't exist.
+     */
+    public V remove(K key) {
+        Integer node = index.get(key);
+        if (node == null) {
+            return null;
+        }
+        final V oldValue = values[node];
+        unlink(node);
+        release(node);
+        return oldValue;
+    }
+
+    /**
+     * Method for checking key existence without touching recency and counters.
+     *
+     * @param key the key.
+     * @return True or False.
+     */
+    public boolean containsKey(K key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Method for getting count of entries.
+     *
+     * @return size.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Method for getting total weight of entries.
+     *
+     * @return weight.
+     */
+    public long weight() {
+        return totalWeight;
+    }
+
+    /**
+     * Method for getting maximal total weight of entries.
+     *
+     * @return maximal weight.
+     */
+    public long maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Method for getting eviction policy.
+     *
+     * @return policy.
+     */
+    public EvictionPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Method for getting snapshot of hit, miss and eviction counters.
+     *
+     * @return counters.
+     */
+    public CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * Method for updating eviction metadata of node after a hit or an update.
+     */
+    private void onAccess(int node) {
+        switch (policy) {
+            case LRU -> moveToHead(node, WINDOW);
+            case CLOCK -> referenced[node] = true;
+            default -> {
+                if (segments[node] == PROBATION) {
+                    moveToHead(node, PROTECTED);
+                    while (segmentWeights[PROTECTED] > protectedMaxWeight
+                            && tails[PROTECTED] != node) {
+                        moveToHead(tails[PROTECTED], PROBATION);
+                    }
+                } else {
+                    moveToHead(node, segments[node]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method for evicting entries while total weight is bigger than maximal,
+     * the clock hand skips the entry that was just written.
+     */
+    private void evict(int written) {
+        if (policy == EvictionPolicy.W_TINY_LFU) {
+            admitFromWindow();
+        }
+        while (totalWeight > maxWeight) {
+            if (policy == EvictionPolicy.CLOCK) {
+                if (hand == NIL) {
+                    hand = heads[WINDOW];
+                }
+                int node = hand;
+                hand = next[node];
+                if (referenced[node] || node == written) {
+                    referenced[node] = false;
+                } else {
+                    evictNode(node);
+                }
+            } else {
+                int victim = tails[PROBATION];
+                if (victim == NIL) {
+                    victim = tails[PROTECTED];
+                }
+                if (victim == NIL) {
+                    victim = tails[WINDOW];
+                }
+                evictNode(victim);
+            }
+        }
+    }
+
+    /**
+     * Method for moving entries that overflow the window into the main space.
+     * If the main space is full, the entry replaces the probation victim only if
+     * the frequency sketch saw it more often, otherwise the entry itself is evicted.
+     */
+    private void admitFromWindow() {
+        while (segmentWeights[WINDOW] > windowMaxWeight && tails[WINDOW] != heads[WINDOW]) {
+            int candidate = tails[WINDOW];
+            if (totalWeight <= maxWeight) {
+                moveToHead(candidate, PROBATION);
+                continue;
+            }
+            int victim = tails[PROBATION] != NIL ? tails[PROBATION] : tails[PROTECTED];
+            if (victim == NIL
+                    || sketch.frequency(keys[candidate]) > sketch.frequency(keys[victim])) {
+                moveToHead(candidate, PROBATION);
+                if (victim != NIL) {
+                    evictNode(victim);
+                }
+            } else {
+                evictNode(candidate);
+            }
+        }
+    }
+
+    /**
+     * Method for removing node because the cache is full.
+     */
+    private void evictNode(int node) {
+        unlink(node);
+        release(node);
+        evictionCount++;
+    }
+
+    /**
+     * Method for returning unlinked node to the free list and removing its key.
+     */
+    private void release(int node) {
+        index.remove(keys[node]);
+        totalWeight -= weights[node];
+        keys[node] = null;
+        values[node] = null;
+        next[node] = freeHead;
+        freeHead = node;
+    }
+
+    /**
+     * Method for taking node from the free list, node arrays grow twice when it is empty.
+     */
+    private int allocate() {
+        if (freeHead != NIL) {
+            int node = freeHead;
+            freeHead = next[node];
+            return node;
+        }
+        if (usedNodes == keys.length) {
+            int newLength = keys.length * 2;
+            keys = Arrays.copyOf(keys, newLength);
+            values = Arrays.copyOf(values, newLength);
+            prev = Arrays.copyOf(prev, newLength);
+            next = Arrays.copyOf(next, newLength);
+            weights = Arrays.copyOf(weights, newLength);
+            segments = Arrays.copyOf(segments, newLength);
+            referenced = Arrays.copyOf(referenced, newLength);
+        }
+        return usedNodes++;
+    }
+
+    /**
+     * Method for moving node to the head of the list of segment.
+     */
+    private void moveToHead(int node, int segment) {
+        unlink(node);
+        linkHead(node, segment);
+    }
+
+    /**
+     * Method for linking node as the head of the list of segment.
+     */
+    private void linkHead(int node, int segment) {
+        segments[node] = (byte) segment;
+        segmentWeights[segment] += weights[node];
+        prev[node] = NIL;
+        next[node] = heads[segment];
+        if (heads[segment] != NIL) {
+            prev[heads[segment]] = node;
+        } else {
+            tails[segment] = node;
+        }
+        heads[segment] = node;
+    }
+
+    /**
+     * Method for linking node right before other node of the window list or to its tail
+     * if other is NIL, the clock hand reaches such node last.
+     */
+    private void linkBefore(int node, int other) {
+        segments[node] = WINDOW;
+        segmentWeights[WINDOW] += weights[node];
+        int before = other == NIL ? tails[WINDOW] : prev[other];
+        prev[node] = before;
+        next[node] = other;
+        if (before != NIL) {
+            next[before] = node;
+        } else {
+            heads[WINDOW] = node;
+        }
+        if (other != NIL) {
+            prev[other] = node;
+        } else {
+            tails[WINDOW] = node;
+        }
+    }
+
+    /**
+     * Method for unlinking node from the list of its segment, the clock hand moves on.
+     */
+    private void unlink(int node) {
+        int segment = segments[node];
+        if (hand == node) {
+            hand = next[node];
+        }
+        segmentWeights[segment] -= weights[node];
+        if (prev[node] != NIL) {
+            next[prev[node]] = next[node];
+        } else {
+            heads[segment] = next[node];
+        }
+        if (next[node] != NIL) {
+            prev[next[node]] = prev[node];
+        } else {
+            tails[segment] = prev[node];
+        }
+    }
+}
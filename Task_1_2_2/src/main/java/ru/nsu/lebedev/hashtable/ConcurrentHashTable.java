@@ -0,0 +1,399 @@
+package ru.nsu.lebedev.hashtable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class thread-safe hashtable split into independently locked segments.
+ * Writers lock only the segment of the key, readers never lock: every segment publishes
+ * its slot array through a volatile field and slots hold immutable entries.
+ * Each segment is resized on its own, so a resize stalls only writers of that segment.
+ *
+ * @param <K> type of key.
+ * @param <V> type of value.
+ */
+public class ConcurrentHashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    private static final int DEFAULT_SEGMENT_CAPACITY = 16;
+    private static final HashTableEntry<Object, Object> TOMBSTONE =
+            new HashTableEntry<>(null, null);
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+
+    /**
+     * Initial method for hashtable with 16 segments.
+     */
+    public ConcurrentHashTable() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Initial method for hashtable.
+     *
+     * @param concurrencyLevel expected count of concurrent writers,
+     *                         rounded up to a power of two segments.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentHashTable(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive");
+        }
+        int count = 1;
+        int bits = 0;
+        while (count < concurrencyLevel) {
+            count <<= 1;
+            bits++;
+        }
+        this.segmentShift = 32 - bits;
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] created = (Segment<K, V>[]) new Segment<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new Segment<>();
+        }
+        this.segments = created;
+    }
+
+    /**
+     * Method for mixing bits of key hash, high bits choose the segment
+     * and low bits choose the slot inside it.
+     *
+     * @param key not null key.
+     * @return mixed hash.
+     */
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Method for getting the segment of hash.
+     */
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+    }
+
+    /**
+     * Method for adding key and value to the hashtable.
+     *
+     * @param key new key, not null.
+     * @param value new value, not null.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int hash = spread(key);
+        segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Method for getting value from hashtable[key] without locking.
+     *
+     * @param key key.
+     * @return hashtable[key] or null if it doesn't exist.
+     */
+    public V get(K key) {
+        Objects.requireNonNull(key);
+        int hash = spread(key);
+        AtomicReferenceArray<HashTableEntry<K, V>> table = segmentFor(hash).table;
+        int mask = table.length() - 1;
+        int index = hash & mask;
+        HashTableEntry<K, V> entry;
+        while ((entry = table.get(index)) != null) {
+            if (entry != TOMBSTONE && key.equals(entry.key)) {
+                return entry.value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Method for remove key and value from hashtable.
+     *
+     * @param key key that will be deleted.
+     * @return oldValue that was removed or null if it doesn't exist.
+     */
+    public V remove(K key) {
+        Objects.requireNonNull(key);
+        int hash = spread(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Method for checking key existence in hashtable.
+     *
+     * @param key the key.
+     * @return True or False.
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Method for atomically updating the value by key, absent keys are not added.
+     *
+     * @param key old key.
+     * @param value new value.
+     */
+    public void update(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int hash = spread(key);
+        segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Method for getting size of hashtable, may be stale while writers are active.
+     *
+     * @return size.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * Method for getting capacity of hashtable.
+     *
+     * @return sum of capacities of all segments.
+     */
+    public int capacity() {
+        int capacity = 0;
+        for (Segment<K, V> segment : segments) {
+            capacity += segment.table.length();
+        }
+        return capacity;
+    }
+
+    /**
+     * Method for clear hashtable, segments are cleared one by one.
+     */
+    void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                segment.table = new AtomicReferenceArray<>(DEFAULT_SEGMENT_CAPACITY);
+                segment.used = 0;
+                segment.count = 0;
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    /**
+     * Method for getting string representation of the hash table.
+     *
+     * @return string representation.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (HashTableEntry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.key).append(" = ").append(entry.value);
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Weakly consistent iterator of hashtable: it never throws
+     * ConcurrentModificationException and may or may not see concurrent changes.
+     *
+     * @return pointer to new iterator class of hashtable.
+     */
+    @Override
+    public Iterator<HashTableEntry<K, V>> iterator() {
+        return new ConcurrentHashTableIterator();
+    }
+
+    /**
+     * Class of one independently locked part of hashtable.
+     * Removed slots are marked with a tombstone, so a lock-free reader never misses
+     * an entry that was moved, tombstones are dropped by the next resize.
+     */
+    private static final class Segment<K, V> extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        private volatile AtomicReferenceArray<HashTableEntry<K, V>> table =
+                new AtomicReferenceArray<>(DEFAULT_SEGMENT_CAPACITY);
+        private volatile int count;
+        private int used;
+
+        /**
+         * Method for adding or replacing value under the segment lock.
+         *
+         * @param onlyIfPresent if true absent keys are not added.
+         */
+        void put(K key, int hash, V value, boolean onlyIfPresent) {
+            lock();
+            try {
+                AtomicReferenceArray<HashTableEntry<K, V>> tab = table;
+                int mask = tab.length() - 1;
+                int index = hash & mask;
+                int free = -1;
+                HashTableEntry<K, V> entry;
+                while ((entry = tab.get(index)) != null) {
+                    if (entry == TOMBSTONE) {
+                        if (free < 0) {
+                            free = index;
+                        }
+                    } else if (key.equals(entry.key)) {
+                        tab.set(index, new HashTableEntry<>(key, value));
+                        return;
+                    }
+                    index = (index + 1) & mask;
+                }
+                if (onlyIfPresent) {
+                    return;
+                }
+                if (free >= 0) {
+                    tab.set(free, new HashTableEntry<>(key, value));
+                } else if ((used + 1) * 2 > tab.length()) {
+                    resize(key, hash, value);
+                } else {
+                    tab.set(index, new HashTableEntry<>(key, value));
+                    used++;
+                }
+                count = count + 1;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Method for remove key under the segment lock.
+         */
+        V remove(K key, int hash) {
+            lock();
+            try {
+                AtomicReferenceArray<HashTableEntry<K, V>> tab = table;
+                int mask = tab.length() - 1;
+                int index = hash & mask;
+                HashTableEntry<K, V> entry;
+                while ((entry = tab.get(index)) != null) {
+                    if (entry != TOMBSTONE && key.equals(entry.key)) {
+                        tab.set(index, tombstone());
+                        count = count - 1;
+                        return entry.value;
+                    }
+                    index = (index + 1) & mask;
+                }
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Method for copying live entries and the new entry into a fresh array,
+         * capacity is doubled only if live entries fill a quarter of the old one.
+         * Readers keep using the old array until the new one is published.
+         */
+        private void resize(K key, int hash, V value) {
+            AtomicReferenceArray<HashTableEntry<K, V>> oldTable = table;
+            int newCapacity = oldTable.length();
+            if ((count + 1) * 4 >= newCapacity) {
+                newCapacity *= 2;
+            }
+            AtomicReferenceArray<HashTableEntry<K, V>> newTable =
+                    new AtomicReferenceArray<>(newCapacity);
+            int mask = newCapacity - 1;
+            for (int i = 0; i < oldTable.length(); i++) {
+                HashTableEntry<K, V> entry = oldTable.get(i);
+                if (entry != null && entry != TOMBSTONE) {
+                    insertFresh(newTable, spread(entry.key) & mask, entry);
+                }
+            }
+            insertFresh(newTable, hash & mask, new HashTableEntry<>(key, value));
+            used = count + 1;
+            table = newTable;
+        }
+
+        /**
+         * Method for placing entry into the first empty slot of an unpublished array.
+         */
+        private static <K, V> void insertFresh(AtomicReferenceArray<HashTableEntry<K, V>> table,
+                                               int index, HashTableEntry<K, V> entry) {
+            int mask = table.length() - 1;
+            while (table.get(index) != null) {
+                index = (index + 1) & mask;
+            }
+            table.set(index, entry);
+        }
+
+        /**
+         * Method for getting typed tombstone.
+         */
+        @SuppressWarnings("unchecked")
+        private static <K, V> HashTableEntry<K, V> tombstone() {
+            return (HashTableEntry<K, V>) (HashTableEntry<?, ?>) TOMBSTONE;
+        }
+    }
+
+    /**
+     * Class realization of weakly consistent iterator for hashtable.
+     */
+    private class ConcurrentHashTableIterator implements Iterator<HashTableEntry<K, V>> {
+        private int segmentIndex = 0;
+        private int currentIndex = 0;
+        private AtomicReferenceArray<HashTableEntry<K, V>> table = segments[0].table;
+        private HashTableEntry<K, V> nextEntry;
+
+        /**
+         * Method for checking existence of next element of hashtable.
+         *
+         * @return True or False.
+         */
+        @Override
+        public boolean hasNext() {
+            while (nextEntry == null) {
+                if (currentIndex == table.length()) {
+                    if (segmentIndex + 1 == segments.length) {
+                        return false;
+                    }
+                    segmentIndex++;
+                    table = segments[segmentIndex].table;
+                    currentIndex = 0;
+                    continue;
+                }
+                HashTableEntry<K, V> entry = table.get(currentIndex++);
+                if (entry != null && entry != TOMBSTONE) {
+                    nextEntry = entry;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Method for getting next element of hashtable.
+         *
+         * @return next entry.
+         */
+        @Override
+        public HashTableEntry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HashTableEntry<K, V> entry = nextEntry;
+            nextEntry = null;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.nsu.lebedev.hashtable;
+
+/**
+ * Ways of choosing the entry that CacheTable evicts when it is full.
+ */
+public enum EvictionPolicy {
+    /**
+     * Least recently used entry is evicted.
+     */
+    LRU,
+    /**
+     * Second chance: a clock hand skips and clears entries that were read since its last pass.
+     */
+    CLOCK,
+    /**
+     * Small LRU window in front of a segmented LRU main space, an entry leaving the window
+     * replaces the main space victim only if it was accessed more often.
+     */
+    W_TINY_LFU
+}
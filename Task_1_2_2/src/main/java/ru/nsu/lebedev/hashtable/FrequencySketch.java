@@ -0,0 +1,105 @@
+package ru.nsu.lebedev.hashtable;
+
+/**
+ * Count-min sketch of access frequencies with four 4-bit counters per key packed into longs.
+ * After 10 * width increments all counters are halved, so old popularity fades away.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Initial method for sketch.
+     *
+     * @param expectedEntries expected count of entries in the cache.
+     */
+    FrequencySketch(int expectedEntries) {
+        int width = 16;
+        while (width < expectedEntries && width < (1 << 20)) {
+            width <<= 1;
+        }
+        this.table = new long[width];
+        this.tableMask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Method for getting estimated count of recent accesses of key.
+     *
+     * @param key the key.
+     * @return count from 0 to 15.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long word = table[indexOf(hash, i)];
+            min = Math.min(min, (int) ((word >>> offsetOf(hash, i)) & 0xf));
+        }
+        return min;
+    }
+
+    /**
+     * Method for counting one access of key.
+     *
+     * @param key the key.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            if (((table[index] >>> offset) & 0xf) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Method for halving all counters.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    /**
+     * Method for getting index of long that holds counter of row i.
+     */
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    /**
+     * Method for getting bit offset of counter of row i inside its long.
+     */
+    private static int offsetOf(int hash, int i) {
+        return ((hash >>> (i << 3)) & 0xf) << 2;
+    }
+
+    /**
+     * Method for mixing bits of hashCode.
+     */
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -1,55 +1,355 @@
 package ru.nsu.lebedev.hashtable;
 
-import java.util.ArrayList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 /**
  * Class hashtable with methods support a full set of operations.
+ * A snapshot keeps the raw slot layout with capacity, so readSnapshot restores
+ * the table by one sequential read and iterates entries in the same order.
  *
  * @param <K> type of key.
  * @param <V> type of value.
  */
 public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
     private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_PROBE_DISTANCE = 32;
+    private static final int REHASH_STEP = 16;
+    private static final Object TOMBSTONE = new Object();
+    private static final long SNAPSHOT_MAGIC = 0x4854534e41505348L;
+    private static final int SNAPSHOT_VERSION = 1;
+    private final ProbingMode probingMode;
+    private final ResizeMode resizeMode;
+    private final HashingMode hashingMode;
     private int capacity;
     private int size;
     private int modCount;
-    private ArrayList<K> keys;
-    private ArrayList<V> values;
+    private K[] keys;
+    private V[] values;
+    private int[] distances;
+    private int[] hashes;
+    private K[] oldKeys;
+    private V[] oldValues;
+    private int[] oldHashes;
+    private int oldCapacity;
+    private int rehashIndex;
 
     /**
-     * Initial method for hashtable.
+     * Initial method for hashtable with linear probing.
      */
     public HashTable() {
+        this(ProbingMode.LINEAR);
+    }
+
+    /**
+     * Initial method for hashtable with eager resize.
+     *
+     * @param probingMode way of resolving collisions.
+     */
+    public HashTable(ProbingMode probingMode) {
+        this(probingMode, ResizeMode.EAGER);
+    }
+
+    /**
+     * Initial method for hashtable.
+     *
+     * @param probingMode way of resolving collisions.
+     * @param resizeMode way of moving entries when capacity grows.
+     */
+    public HashTable(ProbingMode probingMode, ResizeMode resizeMode) {
+        this(probingMode, resizeMode, HashingMode.MODULO);
+    }
+
+    /**
+     * Initial method for hashtable.
+     *
+     * @param probingMode way of resolving collisions.
+     * @param resizeMode way of moving entries when capacity grows.
+     * @param hashingMode way of turning hashCode of key into index of slot.
+     */
+    public HashTable(ProbingMode probingMode, ResizeMode resizeMode, HashingMode hashingMode) {
+        this.probingMode = probingMode;
+        this.resizeMode = resizeMode;
+        this.hashingMode = hashingMode;
         this.capacity = DEFAULT_CAPACITY;
         this.size = 0;
         this.modCount = 0;
-        this.keys = new ArrayList<>(capacity);
-        this.values = new ArrayList<>(capacity);
-        initializeLists(capacity);
+        initializeArrays(capacity);
     }
 
     /**
-     * Initial method for lists of keys and values.
+     * Method for loading snapshot written by writeSnapshot. Slots are read by one
+     * sequential pass and keep their places, hashes and probe distances are computed
+     * from the keys. If hashCode of some key differs from the run that wrote
+     * the snapshot, the table is rehashed once instead.
+     *
+     * @param path path of the snapshot.
+     * @param <K> type of key.
+     * @param <V> type of value.
+     * @return new hashtable with modes of the written one.
+     * @throws IOException if file can't be read or it is not a valid snapshot.
      */
-    private void initializeLists(int capacity) {
-        for (int i = 0; i < capacity; i++) {
-            keys.add(null);
-            values.add(null);
+    @SuppressWarnings("unchecked")
+    public static <K, V> HashTable<K, V> readSnapshot(Path path) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readLong() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a hashtable snapshot: " + path);
+            }
+            int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            final ProbingMode probingMode = modeAt(ProbingMode.values(), in.readInt());
+            final ResizeMode resizeMode = modeAt(ResizeMode.values(), in.readInt());
+            final HashingMode hashingMode = modeAt(HashingMode.values(), in.readInt());
+            int capacity = in.readInt();
+            int size = in.readInt();
+            if (capacity < DEFAULT_CAPACITY || Integer.bitCount(capacity) != 1
+                    || size < 0 || (long) size * 2 > capacity) {
+                throw new IOException("Wrong capacity " + capacity + " or size " + size);
+            }
+            HashTable<K, V> table = new HashTable<>(probingMode, resizeMode, hashingMode);
+            table.capacity = capacity;
+            table.initializeArrays(capacity);
+            for (int i = 0; i < capacity; i++) {
+                table.keys[i] = (K) in.readObject();
+                table.values[i] = (V) in.readObject();
+            }
+            table.restoreSlots(size);
+            return table;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in snapshot: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Method for creating hash key.
+     * Method for getting mode by ordinal read from a snapshot.
+     */
+    private static <T> T modeAt(T[] modes, int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= modes.length) {
+            throw new IOException("Wrong mode in snapshot: " + ordinal);
+        }
+        return modes[ordinal];
+    }
+
+    /**
+     * Method for writing modes, capacity and raw slots to the file, keys and values
+     * must be serializable. A pending incremental rehash is finished first.
+     * Data goes to a sibling file which then atomically replaces the target.
+     *
+     * @param path path of the snapshot.
+     * @throws IOException if file can't be written or a key or value isn't serializable.
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        while (oldKeys != null) {
+            rehashStep();
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeLong(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(probingMode.ordinal());
+            out.writeInt(resizeMode.ordinal());
+            out.writeInt(hashingMode.ordinal());
+            out.writeInt(capacity);
+            out.writeInt(size);
+            for (int i = 0; i < capacity; i++) {
+                out.writeObject(keys[i]);
+                out.writeObject(values[i]);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method for streaming all entries as size and then (key, value) pairs.
+     * Unlike a snapshot it doesn't depend on capacity, so exports of several tables
+     * can be replayed one after another by importEntries.
+     *
+     * @param out output stream, it is not closed.
+     * @throws IOException if stream can't be written or a key or value isn't serializable.
+     */
+    public void exportEntries(OutputStream out) throws IOException {
+        ObjectOutputStream data = new ObjectOutputStream(out);
+        data.writeInt(size);
+        for (int i = 0; i < capacity + oldCapacity; i++) {
+            K key = keyAt(i);
+            if (key != null) {
+                data.writeObject(key);
+                data.writeObject(valueAt(i));
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Method for putting entries written by exportEntries, existing keys get new values.
+     *
+     * @param in input stream, it is not closed.
+     * @throws IOException if stream can't be read or ends too early.
+     */
+    @SuppressWarnings("unchecked")
+    public void importEntries(InputStream in) throws IOException {
+        ObjectInputStream data = new ObjectInputStream(in);
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Negative count of entries: " + count);
+        }
+        try {
+            for (int i = 0; i < count; i++) {
+                K key = (K) data.readObject();
+                put(key, (V) data.readObject());
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in entries: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Method for restoring size, cached hashes and probe distances of slots read from
+     * a snapshot. The scan starts after an empty slot, so every probe chain is seen
+     * from its beginning: each entry must be reachable from its home slot and with
+     * Robin Hood probing be at most one slot farther from home than the previous one.
+     *
+     * @param expectedSize size written to the snapshot.
+     * @throws IOException if slots don't match the size.
+     */
+    private void restoreSlots(int expectedSize) throws IOException {
+        int empty = 0;
+        while (empty < capacity && keys[empty] != null) {
+            empty++;
+        }
+        if (empty == capacity) {
+            throw new IOException("Snapshot has no empty slots");
+        }
+        int count = 0;
+        int run = 0;
+        int previousDistance = -1;
+        boolean placed = true;
+        for (int step = 1; step <= capacity; step++) {
+            int index = (empty + step) & (capacity - 1);
+            K key = keys[index];
+            if (key == null) {
+                run = 0;
+                previousDistance = -1;
+                continue;
+            }
+            run++;
+            int hash = spread(key);
+            int distance = (index - home(hash, capacity)) & (capacity - 1);
+            placed &= probingMode == ProbingMode.ROBIN_HOOD
+                    ? distance <= previousDistance + 1 : distance < run;
+            previousDistance = distance;
+            if (hashes != null) {
+                hashes[index] = hash;
+            }
+            if (distances != null) {
+                distances[index] = distance;
+            }
+            count++;
+        }
+        if (count != expectedSize) {
+            throw new IOException("Snapshot has " + count + " entries instead of "
+                    + expectedSize);
+        }
+        size = count;
+        if (!placed) {
+            rebuild(capacity, null);
+        }
+    }
+
+    /**
+     * Initial method for arrays of keys and values.
+     */
+    @SuppressWarnings("unchecked")
+    private void initializeArrays(int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            distances = new int[capacity];
+        }
+        if (hashingMode == HashingMode.MIXED_CACHED) {
+            hashes = new int[capacity];
+        }
+    }
+
+    /**
+     * Method for creating full hash of key, in mixed modes hashCode goes through
+     * the murmur3 finalizer, so sequential and strided hashCodes spread over all slots.
      *
      * @param key key for value.
      * @return hash of key or 0 if key doesn't have value.
      */
+    private int spread(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        if (hashingMode == HashingMode.MODULO) {
+            return Math.abs(h);
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Method for getting home slot of full hash. Capacity is always a power of two,
+     * so mixed modes take the low bits by mask instead of integer division.
+     *
+     * @param hash full hash of key.
+     * @param capacity capacity of the table.
+     * @return index of home slot.
+     */
+    private int home(int hash, int capacity) {
+        return hashingMode == HashingMode.MODULO ? hash % capacity : hash & (capacity - 1);
+    }
+
+    /**
+     * Method for creating hash key.
+     *
+     * @param key key for value.
+     * @return index of home slot of key or 0 if key doesn't have value.
+     */
     private int hash(K key) {
-        return (key == null) ? 0 : Math.abs(key.hashCode()) % capacity;
+        return home(spread(key), capacity);
+    }
+
+    /**
+     * Method for checking that slot of the current table holds key,
+     * with cached hashes equals is called only for slots with the same hash.
+     *
+     * @param index index of slot.
+     * @param key the key.
+     * @param hash full hash of key.
+     * @return True or False.
+     */
+    private boolean matches(int index, K key, int hash) {
+        return (hashes == null || hashes[index] == hash) && Objects.equals(keys[index], key);
     }
 
     /**
@@ -59,28 +359,118 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
         size = 0;
         capacity = DEFAULT_CAPACITY;
         modCount = 0;
-        keys.clear();
-        values.clear();
-        initializeLists(capacity);
+        initializeArrays(capacity);
+        oldKeys = null;
+        oldValues = null;
+        oldHashes = null;
+        oldCapacity = 0;
     }
 
     /**
      * Method for resize hashtable if size * 2 bigger than capacity.
      */
     private void resize() {
+        if (resizeMode == ResizeMode.INCREMENTAL) {
+            startRehash();
+            return;
+        }
         int newCapacity = capacity * 2;
-        final ArrayList<K> oldKeys = keys;
-        final ArrayList<V> oldValues = values;
-        keys = new ArrayList<>(newCapacity);
-        values = new ArrayList<>(newCapacity);
-        initializeLists(newCapacity);
+        final K[] previousKeys = keys;
+        final V[] previousValues = values;
+        final int[] previousHashes = hashes;
+        initializeArrays(newCapacity);
         capacity = newCapacity;
         size = 0;
-        for (int i = 0; i < oldKeys.size(); i++) {
-            if (oldKeys.get(i) != null) {
-                put(oldKeys.get(i), oldValues.get(i));
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (previousKeys[i] != null) {
+                insert(previousKeys[i], previousValues[i], previousHashes == null
+                        ? spread(previousKeys[i]) : previousHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * Method for starting incremental rehash: the current table becomes the old one
+     * and is drained into a new table of double capacity by REHASH_STEP slots
+     * on every put and remove. Lookups check both tables meanwhile.
+     */
+    private void startRehash() {
+        while (oldKeys != null) {
+            rehashStep();
+        }
+        oldKeys = keys;
+        oldValues = values;
+        oldHashes = hashes;
+        oldCapacity = capacity;
+        rehashIndex = 0;
+        capacity = capacity * 2;
+        initializeArrays(capacity);
+    }
+
+    /**
+     * Method for moving next REHASH_STEP slots of the old table into the current one.
+     * Moved slots are marked with a tombstone, so probe chains of the old table stay intact.
+     */
+    @SuppressWarnings("unchecked")
+    private void rehashStep() {
+        if (oldKeys == null) {
+            return;
+        }
+        int end = Math.min(rehashIndex + REHASH_STEP, oldCapacity);
+        for (; rehashIndex < end; rehashIndex++) {
+            K key = oldKeys[rehashIndex];
+            if (key != null && key != TOMBSTONE) {
+                final V value = oldValues[rehashIndex];
+                oldKeys[rehashIndex] = (K) TOMBSTONE;
+                oldValues[rehashIndex] = null;
+                size--;
+                insert(key, value, oldHashes == null ? spread(key) : oldHashes[rehashIndex]);
+            }
+        }
+        if (rehashIndex == oldCapacity) {
+            oldKeys = null;
+            oldValues = null;
+            oldHashes = null;
+            oldCapacity = 0;
+        }
+    }
+
+    /**
+     * Method for finding key in the old table while rehash is in progress.
+     *
+     * @param key the key.
+     * @return index in the old table or -1 if it doesn't exist there.
+     */
+    private int oldIndexOf(K key) {
+        if (oldKeys == null) {
+            return -1;
+        }
+        int hash = spread(key);
+        int index = home(hash, oldCapacity);
+        while (oldKeys[index] != null) {
+            if (oldKeys[index] != TOMBSTONE && (oldHashes == null || oldHashes[index] == hash)
+                    && Objects.equals(oldKeys[index], key)) {
+                return index;
             }
+            index = (index + 1) & (oldCapacity - 1);
         }
+        return -1;
+    }
+
+    /**
+     * Method for remove the slot of the old table.
+     *
+     * @param index index in the old table.
+     * @return value that was removed.
+     */
+    @SuppressWarnings("unchecked")
+    private V removeOld(int index) {
+        final V oldValue = oldValues[index];
+        oldKeys[index] = (K) TOMBSTONE;
+        oldValues[index] = null;
+        size--;
+        modCount++;
+        return oldValue;
     }
 
     /**
@@ -90,19 +480,101 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
      * @param value new value.
      */
     public void put(K key, V value) {
+        if (resizeMode == ResizeMode.INCREMENTAL) {
+            rehashStep();
+        }
         if (size * 2 >= capacity) {
             resize();
         }
-        int index = hash(key);
-        while (keys.get(index) != null) {
-            if (Objects.equals(keys.get(index), key)) {
-                values.set(index, value);
+        int oldIndex = oldIndexOf(key);
+        if (oldIndex >= 0) {
+            removeOld(oldIndex);
+        }
+        insert(key, value, spread(key));
+    }
+
+    /**
+     * Method for adding key and value to the current table without resize checks.
+     *
+     * @param key new key.
+     * @param value new value.
+     * @param hash full hash of key.
+     */
+    private void insert(K key, V value, int hash) {
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            putRobinHood(key, value, hash);
+            return;
+        }
+        int index = home(hash, capacity);
+        while (keys[index] != null) {
+            if (matches(index, key, hash)) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (hashes != null) {
+            hashes[index] = hash;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Method for adding key and value with Robin Hood probing: an entry that is closer
+     * to its home slot gives the slot away to the entry being inserted.
+     *
+     * @param key new key.
+     * @param value new value.
+     * @param hash full hash of key.
+     */
+    private void putRobinHood(K key, V value, int hash) {
+        int index = home(hash, capacity);
+        int distance = 0;
+        K currentKey = key;
+        V currentValue = value;
+        int currentHash = hash;
+        while (keys[index] != null) {
+            if (matches(index, currentKey, currentHash)) {
+                values[index] = currentValue;
+                return;
+            }
+            if (distances[index] < distance) {
+                final K tempKey = keys[index];
+                final V tempValue = values[index];
+                final int tempDistance = distances[index];
+                keys[index] = currentKey;
+                values[index] = currentValue;
+                distances[index] = distance;
+                if (hashes != null) {
+                    final int tempHash = hashes[index];
+                    hashes[index] = currentHash;
+                    currentHash = tempHash;
+                }
+                currentKey = tempKey;
+                currentValue = tempValue;
+                distance = tempDistance;
+            }
+            index = (index + 1) & (capacity - 1);
+            distance++;
+            if (distance > MAX_PROBE_DISTANCE && size * 4 >= capacity && oldKeys == null) {
+                if (currentKey != key) {
+                    size++;
+                    modCount++;
+                }
+                resize();
+                putRobinHood(currentKey, currentValue, spread(currentKey));
                 return;
             }
-            index = (index + 1) % capacity;
         }
-        keys.set(index, key);
-        values.set(index, value);
+        keys[index] = currentKey;
+        values[index] = currentValue;
+        distances[index] = distance;
+        if (hashes != null) {
+            hashes[index] = currentHash;
+        }
         size++;
         modCount++;
     }
@@ -114,14 +586,35 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
      * @return hashtable[key] or null if it doesn't exist.
      */
     public V get(K key) {
-        int index = hash(key);
-        while (keys.get(index) != null) {
-            if (key.equals(keys.get(index))) {
-                return values.get(index);
+        int index = indexOf(key);
+        if (index >= 0) {
+            return values[index];
+        }
+        int oldIndex = oldIndexOf(key);
+        return oldIndex >= 0 ? oldValues[oldIndex] : null;
+    }
+
+    /**
+     * Method for finding key in the current table.
+     *
+     * @param key the key.
+     * @return index of the slot or -1 if key doesn't exist there.
+     */
+    private int indexOf(K key) {
+        int hash = spread(key);
+        int index = home(hash, capacity);
+        int distance = 0;
+        while (keys[index] != null) {
+            if (matches(index, key, hash)) {
+                return index;
+            }
+            if (probingMode == ProbingMode.ROBIN_HOOD && distances[index] < distance) {
+                return -1;
             }
-            index = (index + 1) % capacity;
+            index = (index + 1) & (capacity - 1);
+            distance++;
         }
-        return null;
+        return -1;
     }
 
     /**
@@ -131,31 +624,270 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
      * @return oldValue that was removed or null if it doesn't exist.
      */
     public V remove(K key) {
-        int index = hash(key);
-        while (keys.get(index) != null) {
-            if (Objects.equals(keys.get(index), key)) {
-                final V oldValue = values.get(index);
-                values.set(index, null);
-                keys.set(index, null);
+        if (resizeMode == ResizeMode.INCREMENTAL) {
+            rehashStep();
+        }
+        int oldIndex = oldIndexOf(key);
+        if (oldIndex >= 0) {
+            return removeOld(oldIndex);
+        }
+        if (probingMode == ProbingMode.ROBIN_HOOD) {
+            return removeRobinHood(key);
+        }
+        int hash = spread(key);
+        int index = home(hash, capacity);
+        while (keys[index] != null) {
+            if (matches(index, key, hash)) {
+                final V oldValue = values[index];
+                values[index] = null;
+                keys[index] = null;
                 size--;
                 modCount++;
-                index = (index + 1) % capacity;
-                while (keys.get(index) != null) {
-                    final K tempKey = keys.get(index);
-                    final V tempValue = values.get(index);
-                    keys.set(index, null);
-                    values.set(index, null);
+                index = (index + 1) & (capacity - 1);
+                while (keys[index] != null) {
+                    final K tempKey = keys[index];
+                    final V tempValue = values[index];
+                    keys[index] = null;
+                    values[index] = null;
                     size--;
-                    put(tempKey, tempValue);
-                    index = (index + 1) % capacity;
+                    insert(tempKey, tempValue, hashes == null ? spread(tempKey) : hashes[index]);
+                    index = (index + 1) & (capacity - 1);
+                }
+                return oldValue;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Method for remove key and value with backward shift: following entries of
+     * the probe chain move one slot closer to their home, nothing is re-inserted.
+     *
+     * @param key key that will be deleted.
+     * @return oldValue that was removed or null if it doesn't exist.
+     */
+    private V removeRobinHood(K key) {
+        int hash = spread(key);
+        int index = home(hash, capacity);
+        int distance = 0;
+        while (keys[index] != null && distances[index] >= distance) {
+            if (matches(index, key, hash)) {
+                final V oldValue = values[index];
+                int next = (index + 1) & (capacity - 1);
+                while (keys[next] != null && distances[next] > 0) {
+                    keys[index] = keys[next];
+                    values[index] = values[next];
+                    distances[index] = distances[next] - 1;
+                    if (hashes != null) {
+                        hashes[index] = hashes[next];
+                    }
+                    index = next;
+                    next = (next + 1) & (capacity - 1);
                 }
+                keys[index] = null;
+                values[index] = null;
+                distances[index] = 0;
+                size--;
+                modCount++;
                 return oldValue;
             }
-            index = (index + 1) % capacity;
+            index = (index + 1) & (capacity - 1);
+            distance++;
         }
         return null;
     }
 
+    /**
+     * Method for adding all entries of other hashtable. The table grows at most once
+     * and entries are read directly from the slot arrays of other hashtable.
+     *
+     * @param other hashtable with new entries.
+     */
+    public void putAll(HashTable<? extends K, ? extends V> other) {
+        if (other == this || other.size == 0) {
+            return;
+        }
+        int newCapacity = capacity;
+        while ((size + other.size) * 2 >= newCapacity) {
+            newCapacity *= 2;
+        }
+        if (newCapacity != capacity || oldKeys != null) {
+            rebuild(newCapacity, null);
+        }
+        for (int i = 0; i < other.capacity + other.oldCapacity; i++) {
+            K key = other.keyAt(i);
+            if (key != null) {
+                insert(key, other.valueAt(i), spread(key));
+            }
+        }
+    }
+
+    /**
+     * Method for remove all entries that satisfy the filter. The filter is tested on
+     * every slot before the table is changed, so an exception of the filter leaves
+     * the table as it was; matching slots are marked in a bitmap and the table is
+     * rebuilt once without them, nothing is allocated if no entry matches.
+     *
+     * @param filter predicate of key and value, true means that the entry will be removed.
+     * @return True if any entry was removed.
+     */
+    public boolean removeIf(BiPredicate<? super K, ? super V> filter) {
+        final int slots = capacity + oldCapacity;
+        long[] removed = null;
+        for (int i = 0; i < slots; i++) {
+            K key = keyAt(i);
+            if (key != null && filter.test(key, valueAt(i))) {
+                if (removed == null) {
+                    removed = new long[(slots + 63) >>> 6];
+                }
+                removed[i >>> 6] |= 1L << i;
+            }
+        }
+        if (removed == null) {
+            return false;
+        }
+        rebuild(capacity, removed);
+        return true;
+    }
+
+    /**
+     * Method for moving entries of both tables into fresh arrays of given capacity.
+     *
+     * @param newCapacity capacity of new arrays.
+     * @param removed bitmap of slots that are dropped, slots of the old table follow
+     *                the current ones; null keeps all entries.
+     */
+    private void rebuild(int newCapacity, long[] removed) {
+        final K[] previousKeys = keys;
+        final V[] previousValues = values;
+        final int[] previousHashes = hashes;
+        final K[] previousOldKeys = oldKeys;
+        final V[] previousOldValues = oldValues;
+        final int[] previousOldHashes = oldHashes;
+        oldKeys = null;
+        oldValues = null;
+        oldHashes = null;
+        oldCapacity = 0;
+        capacity = newCapacity;
+        initializeArrays(newCapacity);
+        size = 0;
+        reinsert(previousKeys, previousValues, previousHashes, removed, 0);
+        if (previousOldKeys != null) {
+            reinsert(previousOldKeys, previousOldValues, previousOldHashes, removed,
+                    previousKeys.length);
+        }
+    }
+
+    /**
+     * Method for inserting entries of slot arrays that are not marked as removed.
+     *
+     * @param first index of the first slot of the arrays in the bitmap.
+     */
+    private void reinsert(K[] fromKeys, V[] fromValues, int[] fromHashes, long[] removed,
+                          int first) {
+        for (int i = 0; i < fromKeys.length; i++) {
+            K key = fromKeys[i];
+            int slot = first + i;
+            if (key != null && key != TOMBSTONE
+                    && (removed == null || (removed[slot >>> 6] & (1L << slot)) == 0)) {
+                insert(key, fromValues[i], fromHashes == null ? spread(key) : fromHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * Method for visiting every entry without allocating an entry object per element.
+     *
+     * @param action consumer of key and value.
+     * @throws ConcurrentModificationException if action changes the hashtable.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        final int expectedModCount = modCount;
+        for (int i = 0; i < capacity + oldCapacity; i++) {
+            K key = keyAt(i);
+            if (key != null) {
+                action.accept(key, valueAt(i));
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Method for getting reusable cursor over entries, it allocates nothing per element.
+     *
+     * @return cursor placed before the first entry.
+     */
+    public HashTableCursor<K, V> cursor() {
+        return new SlotCursor();
+    }
+
+    /**
+     * Method for getting the longest probe distance of the stored entries.
+     *
+     * @return count of slots between the farthest entry and its home slot.
+     */
+    int maxProbeDistance() {
+        return probeDistanceHistogram().length - 1;
+    }
+
+    /**
+     * Method for getting distribution of probe distances of the current table.
+     *
+     * @return array where element i is count of entries placed i slots after their home.
+     */
+    int[] probeDistanceHistogram() {
+        int[] histogram = new int[capacity];
+        int max = 0;
+        for (int i = 0; i < capacity; i++) {
+            K key = keys[i];
+            if (key != null) {
+                int distance = (i - hash(key)) & (capacity - 1);
+                histogram[distance]++;
+                max = Math.max(max, distance);
+            }
+        }
+        return Arrays.copyOf(histogram, max + 1);
+    }
+
+    /**
+     * Method for checking whether entries are still being moved from the old table.
+     *
+     * @return True or False.
+     */
+    boolean isRehashing() {
+        return oldKeys != null;
+    }
+
+    /**
+     * Method for getting way of turning hashCode of key into index of slot.
+     *
+     * @return hashing mode.
+     */
+    public HashingMode hashingMode() {
+        return hashingMode;
+    }
+
+    /**
+     * Method for getting way of moving entries when capacity grows.
+     *
+     * @return resize mode.
+     */
+    public ResizeMode resizeMode() {
+        return resizeMode;
+    }
+
+    /**
+     * Method for getting way of resolving collisions.
+     *
+     * @return probing mode.
+     */
+    public ProbingMode probingMode() {
+        return probingMode;
+    }
+
     /**
      * Method for getting size of hashtable.
      *
@@ -214,10 +946,10 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
         if (this.size != other.size || this.hashCodeAll() != other.hashCodeAll()) {
             return false;
         }
-        for (int i = 0; i < capacity; i++) {
-            K key = keys.get(i);
+        for (int i = 0; i < capacity + oldCapacity; i++) {
+            K key = keyAt(i);
             if (key != null) {
-                V value = values.get(i);
+                V value = valueAt(i);
                 Object otherValue = other.get(key);
                 if (!Objects.equals(value, otherValue)) {
                     return false;
@@ -234,14 +966,38 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
      */
     private int hashCodeAll() {
         int hash = 0;
-        for (int i = 0; i < capacity; i++) {
-            if (keys.get(i) != null) {
-                hash += Objects.hashCode(keys.get(i)) ^ Objects.hashCode(values.get(i));
+        for (int i = 0; i < capacity + oldCapacity; i++) {
+            if (keyAt(i) != null) {
+                hash += Objects.hashCode(keyAt(i)) ^ Objects.hashCode(valueAt(i));
             }
         }
         return hash;
     }
 
+    /**
+     * Method for getting key of slot, slots of the old table follow the current ones.
+     *
+     * @param index index of slot from 0 to capacity + oldCapacity.
+     * @return key or null if slot is empty or removed.
+     */
+    private K keyAt(int index) {
+        if (index < capacity) {
+            return keys[index];
+        }
+        K key = oldKeys[index - capacity];
+        return key == TOMBSTONE ? null : key;
+    }
+
+    /**
+     * Method for getting value of slot, slots of the old table follow the current ones.
+     *
+     * @param index index of slot from 0 to capacity + oldCapacity.
+     * @return value.
+     */
+    private V valueAt(int index) {
+        return index < capacity ? values[index] : oldValues[index - capacity];
+    }
+
     /**
      * Method for getting string representation of the hash table.
      *
@@ -250,14 +1006,12 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("{");
-        boolean first = true;
-        for (HashTableEntry<K, V> entry : this) {
-            if (!first) {
+        forEach((key, value) -> {
+            if (sb.length() > 1) {
                 sb.append(", ");
             }
-            sb.append(entry.key).append(" = ").append(entry.value);
-            first = false;
-        }
+            sb.append(key).append(" = ").append(value);
+        });
         sb.append("}");
         return sb.toString();
     }
@@ -286,10 +1040,10 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
          */
         @Override
         public boolean hasNext() {
-            while (currentIndex < capacity && keys.get(currentIndex) == null) {
+            while (currentIndex < capacity + oldCapacity && keyAt(currentIndex) == null) {
                 currentIndex++;
             }
-            return currentIndex < capacity;
+            return currentIndex < capacity + oldCapacity;
         }
 
         /**
@@ -306,9 +1060,77 @@ public class HashTable<K, V> implements Iterable<HashTableEntry<K, V>> {
                 throw new NoSuchElementException();
             }
             HashTableEntry<K, V> entry =
-                    new HashTableEntry<>(keys.get(currentIndex), values.get(currentIndex));
+                    new HashTableEntry<>(keyAt(currentIndex), valueAt(currentIndex));
             currentIndex++;
             return entry;
         }
     }
+
+    /**
+     * Class realization of cursor for hashtable, it keeps only the index of current slot.
+     */
+    private class SlotCursor implements HashTableCursor<K, V> {
+        private int currentIndex = -1;
+        private int expectedModCount = modCount;
+
+        /**
+         * Method for moving cursor to the next entry.
+         *
+         * @return True if cursor stands on an entry, False if entries are over.
+         */
+        @Override
+        public boolean next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            currentIndex++;
+            while (currentIndex < capacity + oldCapacity && keyAt(currentIndex) == null) {
+                currentIndex++;
+            }
+            return currentIndex < capacity + oldCapacity;
+        }
+
+        /**
+         * Method for getting key of current entry.
+         *
+         * @return key.
+         */
+        @Override
+        public K key() {
+            checkPosition();
+            return keyAt(currentIndex);
+        }
+
+        /**
+         * Method for getting value of current entry.
+         *
+         * @return value.
+         */
+        @Override
+        public V value() {
+            checkPosition();
+            return valueAt(currentIndex);
+        }
+
+        /**
+         * Method for moving cursor back before the first entry.
+         */
+        @Override
+        public void reset() {
+            currentIndex = -1;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Method for checking that cursor stands on an entry of unchanged hashtable.
+         */
+        private void checkPosition() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (currentIndex < 0 || currentIndex >= capacity + oldCapacity) {
+                throw new NoSuchElementException();
+            }
+        }
+    }
 }
@@ -0,0 +1,544 @@
+package ru.nsu.lebedev.hashtable;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Class with comparing hashtable implementations, results are printed as csv lines.
+ */
+public class HashTableBenchmark {
+    private static final int[] DEFAULT_SIZES = {1_000_000, 10_000_000, 100_000_000};
+    private static final int ADVERSARIAL_KEYS = 1 << 16;
+
+    /**
+     * Main function with comparing hashtable implementations.
+     *
+     * @param args name of benchmark (long, churn, concurrent, resize, gc, iterate, probe,
+     *             warmup) and sizes of tables,
+     *             all benchmarks with default sizes are run when empty.
+     */
+    public static void main(String[] args) {
+        String name = args.length > 0 ? args[0] : "all";
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        if (name.equals("all") || name.equals("long")) {
+            System.out.println("table,size,putMs,getMs");
+            for (int size : sizes) {
+                compareLongTables(size);
+            }
+        }
+        if (name.equals("all") || name.equals("churn")) {
+            System.out.println("mode,size,p50Ns,p99Ns,maxNs");
+            for (int size : sizes) {
+                compareChurn(size);
+            }
+        }
+        if (name.equals("all") || name.equals("concurrent")) {
+            System.out.println("threads,size,opsPerMs");
+            for (int size : sizes) {
+                for (int threads = 1; threads <= 32; threads *= 2) {
+                    compareConcurrentThroughput(size, threads);
+                }
+            }
+        }
+        if (name.equals("all") || name.equals("resize")) {
+            System.out.println("mode,size,histogram of put latency by powers of two ns,maxNs");
+            for (int size : sizes) {
+                compareResizeLatency(size);
+            }
+        }
+        if (name.equals("all") || name.equals("gc")) {
+            System.out.println("table,size,gcCount,gcMs,fullGcMs");
+            for (int size : sizes) {
+                compareGcPauses(size);
+            }
+        }
+        if (name.equals("all") || name.equals("iterate")) {
+            System.out.println("way,size,ms,bytesPerElement");
+            for (int size : sizes) {
+                compareIteration(size);
+            }
+        }
+        if (name.equals("all") || name.equals("probe")) {
+            System.out.println("keys,mode,size,meanProbe,p99Probe,maxProbe,getMs");
+            for (int size : sizes) {
+                compareProbeLengths(size);
+            }
+        }
+        if (name.equals("all") || name.equals("warmup")) {
+            System.out.println("way,size,loadMs,firstGetNs");
+            for (int size : sizes) {
+                compareWarmup(size);
+            }
+        }
+    }
+
+    /**
+     * Compares LongLongHashTable with HashTable and HashMap on the same numeric ids.
+     *
+     * @param size count of entries.
+     */
+    static void compareLongTables(int size) {
+        try {
+            LongLongHashTable primitive = new LongLongHashTable();
+            long putTime = measureExecutionTime(() -> {
+                for (long i = 0; i < size; i++) {
+                    primitive.put(i * 31, i);
+                }
+            });
+            long getTime = measureExecutionTime(() -> {
+                long sum = 0;
+                for (long i = 0; i < size; i++) {
+                    sum += primitive.get(i * 31);
+                }
+                consume(sum);
+            });
+            report("LongLongHashTable", size, putTime, getTime);
+        } catch (OutOfMemoryError e) {
+            report("LongLongHashTable", size, -1, -1);
+        }
+        try {
+            HashTable<Long, Long> generic = new HashTable<>();
+            long putTime = measureExecutionTime(() -> {
+                for (long i = 0; i < size; i++) {
+                    generic.put(i * 31, i);
+                }
+            });
+            long getTime = measureExecutionTime(() -> {
+                long sum = 0;
+                for (long i = 0; i < size; i++) {
+                    sum += generic.get(i * 31);
+                }
+                consume(sum);
+            });
+            report("HashTable", size, putTime, getTime);
+        } catch (OutOfMemoryError e) {
+            report("HashTable", size, -1, -1);
+        }
+        try {
+            HashMap<Long, Long> map = new HashMap<>();
+            long putTime = measureExecutionTime(() -> {
+                for (long i = 0; i < size; i++) {
+                    map.put(i * 31, i);
+                }
+            });
+            long getTime = measureExecutionTime(() -> {
+                long sum = 0;
+                for (long i = 0; i < size; i++) {
+                    sum += map.get(i * 31);
+                }
+                consume(sum);
+            });
+            report("HashMap", size, putTime, getTime);
+        } catch (OutOfMemoryError e) {
+            report("HashMap", size, -1, -1);
+        }
+    }
+
+    /**
+     * Measures latency of remove under churn: every step removes a random present key
+     * and inserts a new one, so the table size stays the same.
+     *
+     * @param size count of entries kept in the table.
+     */
+    static void compareChurn(int size) {
+        for (ProbingMode mode : ProbingMode.values()) {
+            HashTable<Integer, Integer> table = new HashTable<>(mode);
+            int[] present = new int[size];
+            for (int i = 0; i < size; i++) {
+                present[i] = i;
+                table.put(i, i);
+            }
+            Random random = new Random(size);
+            long[] latencies = new long[size];
+            int nextKey = size;
+            for (int i = 0; i < size; i++) {
+                int position = random.nextInt(size);
+                long start = System.nanoTime();
+                table.remove(present[position]);
+                latencies[i] = System.nanoTime() - start;
+                present[position] = nextKey;
+                table.put(nextKey, nextKey);
+                nextKey += 1 + random.nextInt(7);
+            }
+            Arrays.sort(latencies);
+            System.out.println(mode + "," + size + "," + latencies[size / 2] + ","
+                    + latencies[(int) (size * 0.99)] + "," + latencies[size - 1]);
+        }
+    }
+
+    /**
+     * Measures throughput of ConcurrentHashTable: every thread does size operations,
+     * 80% of them are reads and 20% are writes over keys from 0 to size.
+     *
+     * @param size count of keys and operations per thread.
+     * @param threads count of threads.
+     */
+    static void compareConcurrentThroughput(int size, int threads) {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>(threads * 4);
+        for (int i = 0; i < size; i += 2) {
+            table.put(i, i);
+        }
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            workers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                long sum = 0;
+                for (int i = 0; i < size; i++) {
+                    int key = random.nextInt(size);
+                    if (random.nextInt(5) == 0) {
+                        table.put(key, i);
+                    } else {
+                        Integer value = table.get(key);
+                        sum += value == null ? 0 : value;
+                    }
+                }
+                consume(sum);
+            });
+        }
+        long time = measureExecutionTime(() -> {
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            try {
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long operations = (long) size * threads;
+        System.out.println(threads + "," + size + "," + operations / Math.max(1, time));
+    }
+
+    /**
+     * Builds histogram of put latency for eager and incremental resize,
+     * bucket i counts puts that took from 2^(i-1) to 2^i - 1 nanoseconds.
+     *
+     * @param size count of inserted entries.
+     */
+    static void compareResizeLatency(int size) {
+        for (ResizeMode mode : ResizeMode.values()) {
+            HashTable<Integer, Integer> table = new HashTable<>(ProbingMode.LINEAR, mode);
+            long[] histogram = new long[64];
+            long max = 0;
+            for (int i = 0; i < size; i++) {
+                long start = System.nanoTime();
+                table.put(i, i);
+                long latency = System.nanoTime() - start;
+                histogram[64 - Long.numberOfLeadingZeros(latency)]++;
+                max = Math.max(max, latency);
+            }
+            int last = 63;
+            while (last > 0 && histogram[last] == 0) {
+                last--;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i <= last; i++) {
+                sb.append(i == 0 ? "" : " ").append(histogram[i]);
+            }
+            System.out.println(mode + "," + size + "," + sb + "," + max);
+        }
+    }
+
+    /**
+     * Compares GC work while a table of given size is alive: GC count and time spent
+     * while filling it and churning short-lived garbage, then the time of a full GC.
+     *
+     * @param size count of entries.
+     */
+    static void compareGcPauses(int size) {
+        try {
+            HashTable<Long, Long> onHeap = new HashTable<>();
+            long[] gc = measureGc(() -> {
+                for (long i = 0; i < size; i++) {
+                    onHeap.put(i, i);
+                }
+            });
+            reportGc("HashTable", size, gc, measureExecutionTime(System::gc));
+            consume(onHeap.size());
+        } catch (OutOfMemoryError e) {
+            reportGc("HashTable", size, new long[]{-1, -1}, -1);
+        }
+        try {
+            LongLongHashTable primitive = new LongLongHashTable();
+            long[] gc = measureGc(() -> {
+                for (long i = 0; i < size; i++) {
+                    primitive.put(i, i);
+                }
+            });
+            reportGc("LongLongHashTable", size, gc, measureExecutionTime(System::gc));
+            consume(primitive.size());
+        } catch (OutOfMemoryError e) {
+            reportGc("LongLongHashTable", size, new long[]{-1, -1}, -1);
+        }
+        try {
+            Path path = Files.createTempFile("hashtable", ".bin");
+            try (MappedLongHashTable mapped = MappedLongHashTable.create(path, size * 2L)) {
+                long[] gc = measureGc(() -> {
+                    try {
+                        for (long i = 0; i < size; i++) {
+                            mapped.put(i, i);
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                reportGc("MappedLongHashTable", size, gc, measureExecutionTime(System::gc));
+                consume(mapped.size());
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            System.err.println("File mapping error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compares ways of getting a ready LongLongHashTable at startup: put of every entry,
+     * sequential read of a snapshot and a memory-mapped snapshot view.
+     *
+     * @param size count of entries.
+     */
+    static void compareWarmup(int size) {
+        Random random = new Random(42);
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextLong();
+        }
+        LongLongHashTable source = new LongLongHashTable();
+        for (long key : keys) {
+            source.put(key, key);
+        }
+        try {
+            Path path = Files.createTempFile("snapshot", ".bin");
+            try {
+                source.writeSnapshot(path);
+                final LongLongHashTable[] loaded = new LongLongHashTable[1];
+                long time = measureExecutionTime(() -> {
+                    loaded[0] = new LongLongHashTable();
+                    for (long key : keys) {
+                        loaded[0].put(key, key);
+                    }
+                });
+                reportWarmup("put", size, time, loaded[0], keys[size / 2]);
+                time = measureExecutionTime(() -> loaded[0] = readSnapshot(path, false));
+                reportWarmup("readSnapshot", size, time, loaded[0], keys[size / 2]);
+                time = measureExecutionTime(() -> loaded[0] = readSnapshot(path, true));
+                reportWarmup("mapSnapshot", size, time, loaded[0], keys[size / 2]);
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            System.err.println("Snapshot error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method for loading snapshot inside measured task.
+     */
+    private static LongLongHashTable readSnapshot(Path path, boolean mapped) {
+        try {
+            return mapped ? LongLongHashTable.mapSnapshot(path)
+                    : LongLongHashTable.readSnapshot(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Prints one csv line of warmup comparison with latency of the first get.
+     */
+    private static void reportWarmup(String way, int size, long loadTime,
+                                     LongLongHashTable table, long key) {
+        final long start = System.nanoTime();
+        consume(table.get(key));
+        final long firstGet = System.nanoTime() - start;
+        System.out.println(way + "," + size + "," + loadTime + "," + firstGet);
+    }
+
+    /**
+     * Runs task together with allocation of short-lived garbage and collects GC statistics.
+     *
+     * @return count of collections and milliseconds spent in them.
+     */
+    private static long[] measureGc(Runnable task) {
+        System.gc();
+        final long[] before = gcStatistics();
+        task.run();
+        long sum = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            sum += new long[16].length;
+        }
+        consume(sum);
+        long[] after = gcStatistics();
+        return new long[]{after[0] - before[0], after[1] - before[1]};
+    }
+
+    /**
+     * Method for getting total count and time of collections of all collectors.
+     */
+    private static long[] gcStatistics() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+
+    /**
+     * Compares iterator, forEach and cursor by time and by bytes allocated per element.
+     * Allocation is measured by the thread allocation counter of HotSpot, -1 if it is absent.
+     *
+     * @param size count of entries.
+     */
+    static void compareIteration(int size) {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int i = 0; i < size; i++) {
+            table.put(i, i);
+        }
+        long[] sum = new long[1];
+        Runnable iterator = () -> {
+            for (HashTableEntry<Integer, Integer> entry : table) {
+                sum[0] += entry.value;
+            }
+        };
+        Runnable forEach = () -> table.forEach((key, value) -> sum[0] += value);
+        HashTableCursor<Integer, Integer> cursor = table.cursor();
+        Runnable cursorLoop = () -> {
+            cursor.reset();
+            while (cursor.next()) {
+                sum[0] += cursor.value();
+            }
+        };
+        String[] names = {"iterator", "forEach", "cursor"};
+        Runnable[] ways = {iterator, forEach, cursorLoop};
+        for (int i = 0; i < ways.length; i++) {
+            ways[i].run();
+            final long before = allocatedBytes();
+            long time = measureExecutionTime(ways[i]);
+            long allocated = allocatedBytes() - before;
+            System.out.println(names[i] + "," + size + "," + time + ","
+                    + (before < 0 ? -1 : (double) allocated / size));
+        }
+        consume(sum[0]);
+    }
+
+    /**
+     * Method for getting count of bytes allocated by current thread.
+     *
+     * @return bytes or -1 if JVM doesn't count them.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Compares distributions of probe distances of hashing modes on adversarial key sets:
+     * sequential ints, ints with equal low bits, multiples of a large power of two and
+     * strings that differ only in the last characters. Under MODULO hashing the keys with
+     * equal low bits and the strided keys fall into a few home slots of a power of two
+     * table, so each put and get walks one cluster and the cost is quadratic; these two
+     * sets have at most 2^16 keys, which are distinct, and the size column shows
+     * the count of keys actually used.
+     *
+     * @param size count of keys.
+     */
+    static void compareProbeLengths(int size) {
+        String[] keySets = {"sequential", "highBits", "stride", "strings"};
+        for (String keySet : keySets) {
+            int count = keySet.equals("highBits") || keySet.equals("stride")
+                    ? Math.min(size, ADVERSARIAL_KEYS) : size;
+            Object[] keys = new Object[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = switch (keySet) {
+                    case "sequential" -> i;
+                    case "highBits" -> i << 16;
+                    case "stride" -> i * 4096 + 7;
+                    default -> "key-" + i;
+                };
+            }
+            for (HashingMode mode : HashingMode.values()) {
+                HashTable<Object, Integer> table =
+                        new HashTable<>(ProbingMode.LINEAR, ResizeMode.EAGER, mode);
+                for (int i = 0; i < count; i++) {
+                    table.put(keys[i], i);
+                }
+                long getTime = measureExecutionTime(() -> {
+                    long sum = 0;
+                    for (Object key : keys) {
+                        sum += table.get(key);
+                    }
+                    consume(sum);
+                });
+                int[] histogram = table.probeDistanceHistogram();
+                long total = 0;
+                int p99 = -1;
+                long seen = 0;
+                for (int distance = 0; distance < histogram.length; distance++) {
+                    total += (long) distance * histogram[distance];
+                    seen += histogram[distance];
+                    if (p99 < 0 && seen >= table.size() * 0.99) {
+                        p99 = distance;
+                    }
+                }
+                System.out.println(keySet + "," + mode + "," + count + ","
+                        + (double) total / table.size() + "," + p99 + ","
+                        + (histogram.length - 1) + "," + getTime);
+            }
+        }
+    }
+
+    /**
+     * Prints one csv line of gc benchmark.
+     */
+    private static void reportGc(String table, int size, long[] gc, long fullGcTime) {
+        System.out.println(table + "," + size + "," + gc[0] + "," + gc[1] + "," + fullGcTime);
+    }
+
+    /**
+     * Prints one csv line, -1 means that the table did not fit into the heap.
+     */
+    private static void report(String table, int size, long putTime, long getTime) {
+        System.out.println(table + "," + size + "," + putTime + "," + getTime);
+    }
+
+    /**
+     * Keeps the result of measured code alive, so it can't be removed by JIT.
+     */
+    private static void consume(long value) {
+        if (value == Long.MIN_VALUE) {
+            System.out.print("");
+        }
+    }
+
+    /**
+     * Measures execution time of a given task in milliseconds.
+     *
+     * @param task The task to measure.
+     * @return Execution time in milliseconds.
+     */
+    private static long measureExecutionTime(Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
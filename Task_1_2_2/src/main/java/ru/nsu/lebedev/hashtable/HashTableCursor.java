@@ -0,0 +1,36 @@
+package ru.nsu.lebedev.hashtable;
+
+/**
+ * Reusable cursor over entries of hashtable, unlike iterator it doesn't create
+ * an entry object for every element.
+ *
+ * @param <K> type of key.
+ * @param <V> type of value.
+ */
+public interface HashTableCursor<K, V> {
+    /**
+     * Method for moving cursor to the next entry.
+     *
+     * @return True if cursor stands on an entry, False if entries are over.
+     */
+    boolean next();
+
+    /**
+     * Method for getting key of current entry.
+     *
+     * @return key.
+     */
+    K key();
+
+    /**
+     * Method for getting value of current entry.
+     *
+     * @return value.
+     */
+    V value();
+
+    /**
+     * Method for moving cursor back before the first entry.
+     */
+    void reset();
+}
@@ -0,0 +1,21 @@
+package ru.nsu.lebedev.hashtable;
+
+/**
+ * Ways of turning hashCode of key into index of slot in HashTable.
+ * Capacity of HashTable is always a power of two.
+ */
+public enum HashingMode {
+    /**
+     * Absolute value of hashCode modulo capacity, sequential keys fill sequential slots.
+     */
+    MODULO,
+    /**
+     * HashCode mixed by the murmur3 finalizer, the slot is taken by mask.
+     */
+    MIXED,
+    /**
+     * Same as MIXED, and the mixed hash is stored next to the key of every slot,
+     * so equals is called only for keys with equal hash and resize never calls hashCode.
+     */
+    MIXED_CACHED
+}
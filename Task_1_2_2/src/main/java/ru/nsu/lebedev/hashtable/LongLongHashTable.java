@@ -0,0 +1,513 @@
+package ru.nsu.lebedev.hashtable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Class hashtable specialized for primitive long keys and long values.
+ * Keys and values are kept in parallel long arrays, 0 is used as the sentinel
+ * for empty slots and the key 0 itself is stored outside the arrays.
+ * A table loaded by mapSnapshot serves get and containsKey straight from the mapped file
+ * and copies the slots into its arrays only before the first write or a full scan.
+ */
+public class LongLongHashTable implements Iterable<HashTableEntry<Long, Long>> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+    private final long missingValue;
+    private int capacity;
+    private int size;
+    private int modCount;
+    private long[] keys;
+    private long[] values;
+    private boolean hasZeroKey;
+    private long zeroValue;
+    private LongLongSnapshot view;
+
+    /**
+     * Initial method for hashtable, missing keys are reported as 0.
+     */
+    public LongLongHashTable() {
+        this(0L);
+    }
+
+    /**
+     * Initial method for hashtable.
+     *
+     * @param missingValue value returned by get and remove for missing keys.
+     */
+    public LongLongHashTable(long missingValue) {
+        this.missingValue = missingValue;
+        this.capacity = DEFAULT_CAPACITY;
+        this.size = 0;
+        this.modCount = 0;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    /**
+     * Method for loading snapshot written by writeSnapshot, missing keys are reported as 0.
+     * The slot arrays are read by one sequential pass without rehashing.
+     *
+     * @param path path of the snapshot.
+     * @return new hashtable.
+     * @throws IOException if file can't be read or it is not a valid snapshot.
+     */
+    public static LongLongHashTable readSnapshot(Path path) throws IOException {
+        return readSnapshot(path, 0L);
+    }
+
+    /**
+     * Method for loading snapshot written by writeSnapshot.
+     * The slot arrays are read by one sequential pass without rehashing.
+     *
+     * @param path path of the snapshot.
+     * @param missingValue value returned by get and remove for missing keys.
+     * @return new hashtable.
+     * @throws IOException if file can't be read or it is not a valid snapshot.
+     */
+    public static LongLongHashTable readSnapshot(Path path, long missingValue)
+            throws IOException {
+        LongLongHashTable table = mapSnapshot(path, missingValue);
+        table.materialize();
+        return table;
+    }
+
+    /**
+     * Method for opening snapshot as a read-only view, missing keys are reported as 0.
+     *
+     * @param path path of the snapshot.
+     * @return new hashtable over the mapped file.
+     * @throws IOException if file can't be read or it is not a valid snapshot.
+     */
+    public static LongLongHashTable mapSnapshot(Path path) throws IOException {
+        return mapSnapshot(path, 0L);
+    }
+
+    /**
+     * Method for opening snapshot as a read-only view over the memory-mapped file.
+     * Nothing is copied until the first write, then the whole file is read once.
+     *
+     * @param path path of the snapshot.
+     * @param missingValue value returned by get and remove for missing keys.
+     * @return new hashtable over the mapped file.
+     * @throws IOException if file can't be read or it is not a valid snapshot.
+     */
+    public static LongLongHashTable mapSnapshot(Path path, long missingValue)
+            throws IOException {
+        LongLongSnapshot snapshot = LongLongSnapshot.open(path);
+        LongLongHashTable table = new LongLongHashTable(missingValue);
+        table.view = snapshot;
+        table.capacity = snapshot.capacity();
+        table.size = snapshot.size();
+        table.hasZeroKey = snapshot.hasZeroKey();
+        table.zeroValue = snapshot.zeroValue();
+        table.keys = null;
+        table.values = null;
+        return table;
+    }
+
+    /**
+     * Method for writing raw slot arrays with capacity to the file,
+     * the file has the layout of MappedLongHashTable and can be opened by it.
+     *
+     * @param path path of the snapshot, an existing file is atomically replaced.
+     * @throws IOException if file can't be written.
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        materialize();
+        LongLongSnapshot.write(path, keys, values, size, hasZeroKey, zeroValue);
+    }
+
+    /**
+     * Method for streaming all entries as size and then (key, value) pairs.
+     * Unlike a snapshot it doesn't depend on capacity, so exports of several tables
+     * can be replayed one after another by importEntries.
+     *
+     * @param out output stream, it is not closed.
+     * @throws IOException if stream can't be written.
+     */
+    public void exportEntries(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(size);
+        if (hasZeroKey) {
+            data.writeLong(EMPTY);
+            data.writeLong(zeroValue);
+        }
+        for (int i = 0; i < capacity; i++) {
+            long key = view == null ? keys[i] : view.keyAt(i);
+            if (key != EMPTY) {
+                data.writeLong(key);
+                data.writeLong(view == null ? values[i] : view.valueAt(i));
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Method for putting entries written by exportEntries, existing keys get new values.
+     *
+     * @param in input stream, it is not closed.
+     * @throws IOException if stream can't be read or ends too early.
+     */
+    public void importEntries(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Negative count of entries: " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            long key = data.readLong();
+            put(key, data.readLong());
+        }
+    }
+
+    /**
+     * Method for copying mapped snapshot into arrays, it is done once before the first write.
+     */
+    private void materialize() {
+        if (view != null) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            view.copyTo(keys, values);
+            view = null;
+        }
+    }
+
+    /**
+     * Method for creating hash key, capacity is always a power of two.
+     *
+     * @param key key for value.
+     * @return index of the first slot for key.
+     */
+    private int hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & (capacity - 1);
+    }
+
+    /**
+     * Method for clear hashtable.
+     */
+    void clear() {
+        size = 0;
+        capacity = DEFAULT_CAPACITY;
+        modCount = 0;
+        keys = new long[capacity];
+        values = new long[capacity];
+        hasZeroKey = false;
+        zeroValue = 0L;
+        view = null;
+    }
+
+    /**
+     * Method for resize hashtable if size * 2 bigger than capacity.
+     */
+    private void resize() {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        capacity = capacity * 2;
+        keys = new long[capacity];
+        values = new long[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = hash(oldKeys[i]);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & (capacity - 1);
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Method for finding the slot of key.
+     *
+     * @param key non zero key.
+     * @return index of the slot or -1 if key doesn't exist.
+     */
+    private int indexOf(long key) {
+        if (view != null) {
+            return view.indexOf(key);
+        }
+        int index = hash(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Method for adding key and value to the hashtable.
+     *
+     * @param key new key.
+     * @param value new value.
+     */
+    public void put(long key, long value) {
+        materialize();
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+                modCount++;
+            }
+            zeroValue = value;
+            return;
+        }
+        if (size * 2 >= capacity) {
+            resize();
+        }
+        int index = hash(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Method for getting value from hashtable[key].
+     *
+     * @param key key.
+     * @return hashtable[key] or missing value if it doesn't exist.
+     */
+    public long get(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return missingValue;
+        }
+        return view == null ? values[index] : view.valueAt(index);
+    }
+
+    /**
+     * Method for remove key and value from hashtable.
+     * Following entries of the probe chain are shifted back into the freed slot,
+     * so remove never inserts and never resizes.
+     *
+     * @param key key that will be deleted.
+     * @return oldValue that was removed or missing value if it doesn't exist.
+     */
+    public long remove(long key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                return missingValue;
+            }
+            hasZeroKey = false;
+            size--;
+            modCount++;
+            return zeroValue;
+        }
+        materialize();
+        int index = indexOf(key);
+        if (index < 0) {
+            return missingValue;
+        }
+        final long oldValue = values[index];
+        int mask = capacity - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0L;
+        size--;
+        modCount++;
+        return oldValue;
+    }
+
+    /**
+     * Method for getting size of hashtable.
+     *
+     * @return size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method for getting capacity of hashtable.
+     *
+     * @return capacity.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Method for checking key existence in hashtable.
+     *
+     * @param key the key.
+     * @return True or False.
+     */
+    public boolean containsKey(long key) {
+        return key == EMPTY ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Method for updating the value by key.
+     *
+     * @param key old key.
+     * @param value new value.
+     */
+    public void update(long key, long value) {
+        if (containsKey(key)) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * Method for checking equality of two hashtable.
+     *
+     * @param o other hashtable.
+     * @return True or False.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        LongLongHashTable other = (LongLongHashTable) o;
+        materialize();
+        other.materialize();
+        if (this.size != other.size || this.hasZeroKey != other.hasZeroKey) {
+            return false;
+        }
+        if (hasZeroKey && zeroValue != other.zeroValue) {
+            return false;
+        }
+        for (int i = 0; i < capacity; i++) {
+            if (keys[i] != EMPTY) {
+                int index = other.indexOf(keys[i]);
+                if (index < 0 || other.values[index] != values[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method for getting hash of all values of hashtable.
+     *
+     * @return hash of hashtable.
+     */
+    @Override
+    public int hashCode() {
+        materialize();
+        int hash = hasZeroKey ? Long.hashCode(zeroValue) : 0;
+        for (int i = 0; i < capacity; i++) {
+            if (keys[i] != EMPTY) {
+                hash += Long.hashCode(keys[i]) ^ Long.hashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Method for getting string representation of the hash table.
+     *
+     * @return string representation.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (HashTableEntry<Long, Long> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.key).append(" = ").append(entry.value);
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Iterator of hashtable.
+     *
+     * @return pointer to new iterator class of hashtable.
+     */
+    @Override
+    public Iterator<HashTableEntry<Long, Long>> iterator() {
+        materialize();
+        return new LongLongHashTableIterator();
+    }
+
+    /**
+     * Class realization of iterator for hashtable, the zero key goes first.
+     */
+    private class LongLongHashTableIterator implements Iterator<HashTableEntry<Long, Long>> {
+        private int currentIndex = hasZeroKey ? -1 : 0;
+        private final int expectedModCount = modCount;
+
+        /**
+         * Method for checking existence of next element of hashtable.
+         *
+         * @return True or False.
+         */
+        @Override
+        public boolean hasNext() {
+            if (currentIndex < 0) {
+                return true;
+            }
+            while (currentIndex < capacity && keys[currentIndex] == EMPTY) {
+                currentIndex++;
+            }
+            return currentIndex < capacity;
+        }
+
+        /**
+         * Method for getting next element of hashtable.
+         *
+         * @return next entry.
+         */
+        @Override
+        public HashTableEntry<Long, Long> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HashTableEntry<Long, Long> entry = currentIndex < 0
+                    ? new HashTableEntry<>(EMPTY, zeroValue)
+                    : new HashTableEntry<>(keys[currentIndex], values[currentIndex]);
+            currentIndex++;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package ru.nsu.lebedev.hashtable;
+
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.CAPACITY_OFFSET;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.CHUNK_BITS;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.HEADER_SIZE;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.MAGIC;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.MAGIC_OFFSET;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.SIZE_OFFSET;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.SLOT_SIZE;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.VERSION;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.VERSION_OFFSET;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.ZERO_KEY_OFFSET;
+import static ru.nsu.lebedev.hashtable.MappedLongHashTable.ZERO_VALUE_OFFSET;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class read-only view of LongLongHashTable snapshot file mapped into memory.
+ * The file has the layout of MappedLongHashTable: 64 bytes of header and then
+ * the raw slot array of (key, value) pairs, so a snapshot can be opened by both classes.
+ */
+final class LongLongSnapshot {
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long EMPTY = 0L;
+    private final MappedByteBuffer[] chunks;
+    private final int capacity;
+    private final int size;
+    private final boolean hasZeroKey;
+    private final long zeroValue;
+
+    /**
+     * Initial method for view over already mapped and validated file.
+     */
+    private LongLongSnapshot(MappedByteBuffer[] chunks) {
+        this.chunks = chunks;
+        this.capacity = (int) chunks[0].getLong(CAPACITY_OFFSET);
+        this.size = (int) chunks[0].getLong(SIZE_OFFSET);
+        this.hasZeroKey = chunks[0].getLong(ZERO_KEY_OFFSET) != 0;
+        this.zeroValue = chunks[0].getLong(ZERO_VALUE_OFFSET);
+    }
+
+    /**
+     * Method for writing slot arrays to the file by one sequential pass.
+     * Data goes to a sibling file which then atomically replaces the target,
+     * so a reader never sees a half written snapshot.
+     *
+     * @throws IOException if file can't be written.
+     */
+    static void write(Path path, long[] keys, long[] values, int size,
+                      boolean hasZeroKey, long zeroValue) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putLong(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putLong(CAPACITY_OFFSET, keys.length);
+            buffer.putLong(SIZE_OFFSET, size);
+            buffer.putLong(ZERO_KEY_OFFSET, hasZeroKey ? 1L : 0L);
+            buffer.putLong(ZERO_VALUE_OFFSET, zeroValue);
+            buffer.position(HEADER_SIZE);
+            for (int i = 0; i < keys.length; i++) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(keys[i]).putLong(values[i]);
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method for writing all bytes of buffer to channel and clearing it.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Method for mapping snapshot file, its header is validated.
+     *
+     * @throws IOException if file can't be read or it is not a valid snapshot.
+     */
+    static LongLongSnapshot open(Path path) throws IOException {
+        long length = Files.size(path);
+        if (length < HEADER_SIZE) {
+            throw new IOException("File is too short for hashtable header: " + path);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("File is not a hashtable: " + path);
+            }
+            if (header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(
+                        "Unsupported hashtable version " + header.getInt(VERSION_OFFSET));
+            }
+            long capacity = header.getLong(CAPACITY_OFFSET);
+            long size = header.getLong(SIZE_OFFSET);
+            if (capacity < 1 || capacity > MAX_CAPACITY || Long.bitCount(capacity) != 1
+                    || length != HEADER_SIZE + capacity * SLOT_SIZE) {
+                throw new IOException("Hashtable capacity doesn't match file length: " + path);
+            }
+            if (size < 0 || size > capacity) {
+                throw new IOException("Hashtable size is corrupted: " + path);
+            }
+            int count = (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(CHUNK_SIZE, length - position));
+            }
+            return new LongLongSnapshot(chunks);
+        }
+    }
+
+    /**
+     * Method for getting count of slots.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Method for getting count of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Method for checking presence of the key 0.
+     */
+    boolean hasZeroKey() {
+        return hasZeroKey;
+    }
+
+    /**
+     * Method for getting value of the key 0.
+     */
+    long zeroValue() {
+        return zeroValue;
+    }
+
+    /**
+     * Method for getting key of slot.
+     */
+    long keyAt(int index) {
+        long offset = HEADER_SIZE + (long) index * SLOT_SIZE;
+        return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+
+    /**
+     * Method for getting value of slot.
+     */
+    long valueAt(int index) {
+        long offset = HEADER_SIZE + (long) index * SLOT_SIZE + Long.BYTES;
+        return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+
+    /**
+     * Method for finding the slot of key with the probing of LongLongHashTable.
+     *
+     * @param key non zero key.
+     * @return index of the slot or -1 if key doesn't exist.
+     */
+    int indexOf(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        int index = (int) h & (capacity - 1);
+        long current;
+        while ((current = keyAt(index)) != EMPTY) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Method for copying the slot array into key and value arrays by one sequential pass.
+     * Slots are never split between chunks because chunk size is a multiple of slot size.
+     */
+    void copyTo(long[] keys, long[] values) {
+        long[] block = new long[BUFFER_SIZE / Long.BYTES];
+        int slot = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            int start = i == 0 ? HEADER_SIZE : 0;
+            LongBuffer longs = chunks[i].slice(start, chunks[i].limit() - start).asLongBuffer();
+            while (longs.hasRemaining()) {
+                int length = Math.min(block.length, longs.remaining());
+                longs.get(block, 0, length);
+                for (int j = 0; j < length; j += 2) {
+                    keys[slot] = block[j];
+                    values[slot] = block[j + 1];
+                    slot++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package ru.nsu.lebedev.hashtable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Class hashtable for long keys and long values that lives in a memory-mapped file.
+ * It uses the open-addressing layout of LongLongHashTable: linear probing over slots of
+ * (key, value) pairs with 0 as the empty key, the key 0 itself is kept in the header.
+ * Entries are outside the GC heap and survive restarts, open validates the header.
+ * Files bigger than 2 GB are mapped by several chunks.
+ */
+public class MappedLongHashTable implements Iterable<HashTableEntry<Long, Long>>, Closeable {
+    static final long MAGIC = 0x4e53554c48415348L;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 16;
+    static final int CHUNK_BITS = 30;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 8;
+    static final int CAPACITY_OFFSET = 16;
+    static final int SIZE_OFFSET = 24;
+    static final int ZERO_KEY_OFFSET = 32;
+    static final int ZERO_VALUE_OFFSET = 40;
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+    private final Path path;
+    private MappedByteBuffer[] chunks;
+    private long capacity;
+    private long size;
+    private int modCount;
+
+    /**
+     * Initial method for hashtable over already mapped and validated file.
+     */
+    private MappedLongHashTable(Path path, MappedByteBuffer[] chunks) {
+        this.path = path;
+        this.chunks = chunks;
+        this.capacity = chunks[0].getLong(CAPACITY_OFFSET);
+        this.size = chunks[0].getLong(SIZE_OFFSET);
+        this.modCount = 0;
+    }
+
+    /**
+     * Method for creating new empty hashtable file, an existing file is overwritten.
+     *
+     * @param path path of the file.
+     * @return hashtable over the file.
+     * @throws IOException if file can't be created or mapped.
+     */
+    public static MappedLongHashTable create(Path path) throws IOException {
+        return create(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Method for creating new empty hashtable file, an existing file is overwritten.
+     *
+     * @param path path of the file.
+     * @param capacity initial count of slots, rounded up to a power of two.
+     * @return hashtable over the file.
+     * @throws IOException if file can't be created or mapped.
+     */
+    public static MappedLongHashTable create(Path path, long capacity) throws IOException {
+        long roundedCapacity = DEFAULT_CAPACITY;
+        while (roundedCapacity < capacity) {
+            roundedCapacity <<= 1;
+        }
+        Files.deleteIfExists(path);
+        MappedByteBuffer[] chunks = map(path, roundedCapacity);
+        chunks[0].putLong(MAGIC_OFFSET, MAGIC);
+        chunks[0].putInt(VERSION_OFFSET, VERSION);
+        chunks[0].putLong(CAPACITY_OFFSET, roundedCapacity);
+        chunks[0].putLong(SIZE_OFFSET, 0L);
+        return new MappedLongHashTable(path, chunks);
+    }
+
+    /**
+     * Method for reopening hashtable file written earlier.
+     *
+     * @param path path of the file.
+     * @return hashtable over the file.
+     * @throws IOException if file can't be read or its header is not valid.
+     */
+    public static MappedLongHashTable open(Path path) throws IOException {
+        long length = Files.size(path);
+        if (length < HEADER_SIZE) {
+            throw new IOException("File is too short for hashtable header: " + path);
+        }
+        MappedByteBuffer header;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        }
+        if (header.getLong(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException("File is not a hashtable: " + path);
+        }
+        if (header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported hashtable version " + header.getInt(VERSION_OFFSET));
+        }
+        long capacity = header.getLong(CAPACITY_OFFSET);
+        long size = header.getLong(SIZE_OFFSET);
+        if (capacity < DEFAULT_CAPACITY || Long.bitCount(capacity) != 1
+                || length != HEADER_SIZE + capacity * SLOT_SIZE) {
+            throw new IOException("Hashtable capacity doesn't match file length: " + path);
+        }
+        if (size < 0 || size > capacity) {
+            throw new IOException("Hashtable size is corrupted: " + path);
+        }
+        return new MappedLongHashTable(path, map(path, capacity));
+    }
+
+    /**
+     * Method for mapping the whole file of given capacity by chunks of 1 GB.
+     */
+    private static MappedByteBuffer[] map(Path path, long capacity) throws IOException {
+        long length = HEADER_SIZE + capacity * SLOT_SIZE;
+        int count = (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+        MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < count; i++) {
+                long position = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                        Math.min(CHUNK_SIZE, length - position));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Method for creating hash key, capacity is always a power of two.
+     *
+     * @param key key for value.
+     * @return index of the first slot for key.
+     */
+    private long hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h & (capacity - 1);
+    }
+
+    /**
+     * Method for getting key of slot.
+     */
+    private long keyAt(long index) {
+        long offset = HEADER_SIZE + index * SLOT_SIZE;
+        return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+
+    /**
+     * Method for getting value of slot.
+     */
+    private long valueAt(long index) {
+        long offset = HEADER_SIZE + index * SLOT_SIZE + Long.BYTES;
+        return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+
+    /**
+     * Method for writing key and value into slot.
+     */
+    private void setSlot(long index, long key, long value) {
+        long offset = HEADER_SIZE + index * SLOT_SIZE;
+        MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_BITS)];
+        int position = (int) (offset & (CHUNK_SIZE - 1));
+        chunk.putLong(position, key);
+        chunk.putLong(position + Long.BYTES, value);
+    }
+
+    /**
+     * Method for changing size in memory and in the header.
+     */
+    private void setSize(long newSize) {
+        size = newSize;
+        chunks[0].putLong(SIZE_OFFSET, newSize);
+        modCount++;
+    }
+
+    /**
+     * Method for checking presence of the key 0, which is stored in the header.
+     */
+    private boolean hasZeroKey() {
+        return chunks[0].getLong(ZERO_KEY_OFFSET) != 0;
+    }
+
+    /**
+     * Method for resize hashtable if size * 2 bigger than capacity.
+     * Entries are rehashed into a sibling file which then atomically replaces this one,
+     * so the file on disk is always a complete table.
+     */
+    private void resize() throws IOException {
+        Path resized = path.resolveSibling(path.getFileName() + ".resize");
+        try (MappedLongHashTable bigger = create(resized, capacity * 2)) {
+            for (long i = 0; i < capacity; i++) {
+                long key = keyAt(i);
+                if (key != EMPTY) {
+                    bigger.put(key, valueAt(i));
+                }
+            }
+            if (hasZeroKey()) {
+                bigger.put(EMPTY, chunks[0].getLong(ZERO_VALUE_OFFSET));
+            }
+            bigger.force();
+        }
+        Files.move(resized, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        chunks = map(path, capacity * 2);
+        capacity = capacity * 2;
+        modCount++;
+    }
+
+    /**
+     * Method for finding the slot of key.
+     *
+     * @param key non zero key.
+     * @return index of the slot or -1 if key doesn't exist.
+     */
+    private long indexOf(long key) {
+        long index = hash(key);
+        long slotKey;
+        while ((slotKey = keyAt(index)) != EMPTY) {
+            if (slotKey == key) {
+                return index;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Method for adding key and value to the hashtable.
+     *
+     * @param key new key.
+     * @param value new value.
+     * @throws IOException if the file can't be grown.
+     */
+    public void put(long key, long value) throws IOException {
+        if (key == EMPTY) {
+            chunks[0].putLong(ZERO_VALUE_OFFSET, value);
+            if (!hasZeroKey()) {
+                chunks[0].putLong(ZERO_KEY_OFFSET, 1L);
+                setSize(size + 1);
+            }
+            return;
+        }
+        if (size * 2 >= capacity) {
+            resize();
+        }
+        long index = hash(key);
+        long slotKey;
+        while ((slotKey = keyAt(index)) != EMPTY) {
+            if (slotKey == key) {
+                setSlot(index, key, value);
+                return;
+            }
+            index = (index + 1) & (capacity - 1);
+        }
+        setSlot(index, key, value);
+        setSize(size + 1);
+    }
+
+    /**
+     * Method for getting value from hashtable[key].
+     *
+     * @param key key.
+     * @return hashtable[key] or 0 if it doesn't exist.
+     */
+    public long get(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey() ? chunks[0].getLong(ZERO_VALUE_OFFSET) : 0L;
+        }
+        long index = indexOf(key);
+        return index < 0 ? 0L : valueAt(index);
+    }
+
+    /**
+     * Method for remove key and value from hashtable with backward shift.
+     *
+     * @param key key that will be deleted.
+     * @return oldValue that was removed or 0 if it doesn't exist.
+     */
+    public long remove(long key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey()) {
+                return 0L;
+            }
+            chunks[0].putLong(ZERO_KEY_OFFSET, 0L);
+            setSize(size - 1);
+            return chunks[0].getLong(ZERO_VALUE_OFFSET);
+        }
+        long index = indexOf(key);
+        if (index < 0) {
+            return 0L;
+        }
+        final long oldValue = valueAt(index);
+        long mask = capacity - 1;
+        long hole = index;
+        long next = (hole + 1) & mask;
+        long nextKey;
+        while ((nextKey = keyAt(next)) != EMPTY) {
+            long home = hash(nextKey);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                setSlot(hole, nextKey, valueAt(next));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        setSlot(hole, EMPTY, 0L);
+        setSize(size - 1);
+        return oldValue;
+    }
+
+    /**
+     * Method for checking key existence in hashtable.
+     *
+     * @param key the key.
+     * @return True or False.
+     */
+    public boolean containsKey(long key) {
+        return key == EMPTY ? hasZeroKey() : indexOf(key) >= 0;
+    }
+
+    /**
+     * Method for getting size of hashtable.
+     *
+     * @return size.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Method for getting capacity of hashtable.
+     *
+     * @return capacity.
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Method for writing all changes of the mapped file to the storage.
+     */
+    public void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Method for flushing the table, the mapping itself is released by GC.
+     */
+    @Override
+    public void close() {
+        force();
+    }
+
+    /**
+     * Method for getting string representation of the hash table.
+     *
+     * @return string representation.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (HashTableEntry<Long, Long> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+            sb.append(entry.key).append(" = ").append(entry.value);
+            first = false;
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Iterator of hashtable.
+     *
+     * @return pointer to new iterator class of hashtable.
+     */
+    @Override
+    public Iterator<HashTableEntry<Long, Long>> iterator() {
+        return new MappedLongHashTableIterator();
+    }
+
+    /**
+     * Class realization of iterator for hashtable, the zero key goes first.
+     */
+    private class MappedLongHashTableIterator implements Iterator<HashTableEntry<Long, Long>> {
+        private long currentIndex = hasZeroKey() ? -1 : 0;
+        private final int expectedModCount = modCount;
+
+        /**
+         * Method for checking existence of next element of hashtable.
+         *
+         * @return True or False.
+         */
+        @Override
+        public boolean hasNext() {
+            if (currentIndex < 0) {
+                return true;
+            }
+            while (currentIndex < capacity && keyAt(currentIndex) == EMPTY) {
+                currentIndex++;
+            }
+            return currentIndex < capacity;
+        }
+
+        /**
+         * Method for getting next element of hashtable.
+         *
+         * @return next entry.
+         */
+        @Override
+        public HashTableEntry<Long, Long> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HashTableEntry<Long, Long> entry = currentIndex < 0
+                    ? new HashTableEntry<>(EMPTY, chunks[0].getLong(ZERO_VALUE_OFFSET))
+                    : new HashTableEntry<>(keyAt(currentIndex), valueAt(currentIndex));
+            currentIndex++;
+            return entry;
+        }
+    }
+}
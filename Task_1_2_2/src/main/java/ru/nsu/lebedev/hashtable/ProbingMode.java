@@ -0,0 +1,15 @@
+package ru.nsu.lebedev.hashtable;
+
+/**
+ * Ways of resolving collisions in HashTable.
+ */
+public enum ProbingMode {
+    /**
+     * Classic linear probing, remove re-inserts the rest of the probe chain.
+     */
+    LINEAR,
+    /**
+     * Robin Hood probing with capped probe distance and backward shift deletion.
+     */
+    ROBIN_HOOD
+}
@@ -0,0 +1,16 @@
+package ru.nsu.lebedev.hashtable;
+
+/**
+ * Ways of moving entries of HashTable into a bigger table.
+ */
+public enum ResizeMode {
+    /**
+     * All entries are moved by the put that crosses the load threshold.
+     */
+    EAGER,
+    /**
+     * Old and new tables live side by side and every write moves a bounded
+     * number of slots, so no single operation pays for the whole resize.
+     */
+    INCREMENTAL
+}
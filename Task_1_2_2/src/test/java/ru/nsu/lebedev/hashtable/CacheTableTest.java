@@ -0,0 +1,179 @@
+package ru.nsu.lebedev.hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Class for testing CacheTable class.
+ */
+public class CacheTableTest {
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void putGetRemoveTest(EvictionPolicy policy) {
+        CacheTable<String, Integer> cache = new CacheTable<>(policy, 10);
+        assertNull(cache.get("a"));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(1, cache.get("a"));
+        cache.put("a", 3);
+        assertEquals(3, cache.get("a"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.weight());
+        assertEquals(2, cache.remove("b"));
+        assertNull(cache.remove("b"));
+        assertFalse(cache.containsKey("b"));
+        assertEquals(1, cache.size());
+        assertEquals(policy, cache.policy());
+        assertEquals(new CacheStats(2, 1, 0), cache.stats());
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void boundTest(EvictionPolicy policy) {
+        CacheTable<Integer, Integer> cache = new CacheTable<>(policy, 100);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(1000);
+            if (cache.get(key) == null) {
+                cache.put(key, key * 2);
+            } else {
+                assertEquals(key * 2, cache.get(key));
+            }
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+        CacheStats stats = cache.stats();
+        assertEquals(stats.missCount() - 100, stats.evictionCount());
+    }
+
+    @Test
+    void lruOrderTest() {
+        CacheTable<Integer, Integer> cache = new CacheTable<>(EvictionPolicy.LRU, 3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1);
+        cache.put(4, 4);
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(1));
+        assertTrue(cache.containsKey(3));
+        assertTrue(cache.containsKey(4));
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    @Test
+    void clockSecondChanceTest() {
+        CacheTable<Integer, Integer> cache = new CacheTable<>(EvictionPolicy.CLOCK, 3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(3);
+        cache.get(2);
+        cache.put(4, 4);
+        assertFalse(cache.containsKey(1));
+        cache.put(5, 5);
+        assertFalse(cache.containsKey(4));
+        assertTrue(cache.containsKey(2));
+        assertTrue(cache.containsKey(3));
+        assertTrue(cache.containsKey(5));
+    }
+
+    @Test
+    void tinyLfuKeepsHotKeysTest() {
+        CacheTable<Integer, Integer> cache = new CacheTable<>(EvictionPolicy.W_TINY_LFU, 100);
+        for (int round = 0; round < 20; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        for (int key = 1000; key < 1500; key++) {
+            cache.put(key, key);
+        }
+        for (int key = 0; key < 50; key++) {
+            assertTrue(cache.containsKey(key));
+        }
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    void scanResistanceTest() {
+        CacheTable<Integer, Integer> lru = new CacheTable<>(EvictionPolicy.LRU, 100);
+        CacheTable<Integer, Integer> tinyLfu =
+                new CacheTable<>(EvictionPolicy.W_TINY_LFU, 100);
+        Random random = new Random(3);
+        int scanKey = 1_000_000;
+        for (int i = 0; i < 200_000; i++) {
+            int key = i % 2 == 0 ? random.nextInt(80) : scanKey++;
+            for (CacheTable<Integer, Integer> cache : List.of(lru, tinyLfu)) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        assertTrue(tinyLfu.stats().hitRate() > lru.stats().hitRate());
+    }
+
+    @ParameterizedTest
+    @EnumSource(EvictionPolicy.class)
+    void weigherTest(EvictionPolicy policy) {
+        CacheTable<String, String> cache =
+                new CacheTable<>(policy, 10, (key, value) -> value.length());
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals(8, cache.weight());
+        cache.put("c", "cccc");
+        assertTrue(cache.weight() <= 10);
+        assertEquals(2, cache.size());
+        cache.put("d", "dddddddddddd");
+        assertFalse(cache.containsKey("d"));
+        String kept = cache.containsKey("c") ? "c" : "b";
+        cache.put(kept, "dddddddddddd");
+        assertFalse(cache.containsKey(kept));
+        assertEquals(4, cache.weight());
+        assertEquals(10, cache.maxWeight());
+    }
+
+    @Test
+    void illegalArgumentsTest() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CacheTable<Integer, Integer>(EvictionPolicy.LRU, 0));
+        CacheTable<Integer, Integer> cache =
+                new CacheTable<>(EvictionPolicy.LRU, 10, (key, value) -> value);
+        assertThrows(IllegalArgumentException.class, () -> cache.put(1, -1));
+    }
+
+    @Test
+    void statsTest() {
+        assertEquals(1.0, new CacheStats(0, 0, 0).hitRate());
+        assertEquals(0.25, new CacheStats(1, 3, 0).hitRate());
+    }
+
+    @Test
+    void frequencySketchTest() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        assertEquals(0, sketch.frequency("key"));
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(5, sketch.frequency("key"));
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(15, sketch.frequency("key"));
+        for (int i = 0; i < 10 * 64; i++) {
+            sketch.increment(i);
+        }
+        assertTrue(sketch.frequency("key") < 15);
+    }
+}
@@ -0,0 +1,164 @@
+package ru.nsu.lebedev.hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing ConcurrentHashTable class.
+ */
+public class ConcurrentHashTableTest {
+    private ConcurrentHashTable<String, Number> hashTable;
+
+    /**
+     * Function for creating default hashtable.
+     */
+    @BeforeEach
+    public void setUp() {
+        hashTable = new ConcurrentHashTable<>();
+        hashTable.put("one", 1);
+    }
+
+    @Test
+    void putGetRemoveTest() {
+        assertFalse(hashTable.containsKey("two"));
+        hashTable.put("two", 2);
+        hashTable.put("one", 1.0);
+        assertEquals(1.0, hashTable.get("one"));
+        assertEquals(2, hashTable.size());
+        assertEquals(2, hashTable.remove("two"));
+        assertNull(hashTable.remove("two"));
+        assertFalse(hashTable.containsKey("two"));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    void updateTest() {
+        hashTable.update("one", 1.0);
+        hashTable.update("two", 2);
+        assertEquals(1.0, hashTable.get("one"));
+        assertFalse(hashTable.containsKey("two"));
+    }
+
+    @Test
+    void nullTest() {
+        assertThrows(NullPointerException.class, () -> hashTable.put(null, 1));
+        assertThrows(NullPointerException.class, () -> hashTable.put("two", null));
+        assertThrows(NullPointerException.class, () -> hashTable.get(null));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentHashTable<>(0));
+    }
+
+    @Test
+    void resizeAndTombstonesTest() {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>(1);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                table.put(i, i + round);
+            }
+            for (int i = 0; i < 1_000; i += 2) {
+                assertEquals(i + round, table.remove(i));
+            }
+            assertEquals(500, table.size());
+        }
+        assertTrue(table.capacity() <= 4096);
+        for (int i = 1; i < 1_000; i += 2) {
+            assertEquals(i + 9, table.get(i));
+        }
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(16, table.capacity());
+    }
+
+    @Test
+    void toStringAndIteratorTest() {
+        assertEquals("{one = 1}", hashTable.toString());
+        hashTable.put("two", 2);
+        hashTable.remove("one");
+        Iterator<HashTableEntry<String, Number>> iterator = hashTable.iterator();
+        assertTrue(iterator.hasNext());
+        assertEquals("two", iterator.next().key);
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void iteratorIsWeaklyConsistentTest() {
+        hashTable.put("two", 2);
+        Iterator<HashTableEntry<String, Number>> iterator = hashTable.iterator();
+        for (int i = 0; i < 100; i++) {
+            hashTable.put("key" + i, i);
+        }
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertTrue(count >= 2);
+    }
+
+    @Test
+    void concurrentWritersTest() throws InterruptedException {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>(4);
+        int threadsCount = 8;
+        int perThread = 20_000;
+        Thread[] threads = new Thread[threadsCount];
+        for (int t = 0; t < threadsCount; t++) {
+            final int offset = t * perThread;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    table.put(offset + i, i);
+                }
+                for (int i = 0; i < perThread; i += 2) {
+                    table.remove(offset + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threadsCount * perThread / 2, table.size());
+        for (int t = 0; t < threadsCount; t++) {
+            for (int i = 1; i < perThread; i += 2) {
+                assertEquals(i, table.get(t * perThread + i));
+            }
+        }
+    }
+
+    @Test
+    void lockFreeReadersSeeStableKeysTest() throws InterruptedException {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>(2);
+        for (int i = 0; i < 1_000; i++) {
+            table.put(i, i);
+        }
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            for (int i = 1_000; i < 100_000; i++) {
+                table.put(i, i);
+                table.remove(i - 500 < 1_000 ? i : i - 500);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < 1_000; i++) {
+                    if (!Integer.valueOf(i).equals(table.get(i))) {
+                        failed.set(true);
+                    }
+                }
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        assertFalse(failed.get());
+    }
+}
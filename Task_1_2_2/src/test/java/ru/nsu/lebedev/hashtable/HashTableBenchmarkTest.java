@@ -0,0 +1,23 @@
+package ru.nsu.lebedev.hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing HashTableBenchmark class on small sizes.
+ */
+class HashTableBenchmarkTest {
+    @Test
+    void callMain() {
+        HashTableBenchmark.main(new String[]{"long", "1000"});
+        HashTableBenchmark.main(new String[]{"churn", "1000"});
+        HashTableBenchmark.main(new String[]{"concurrent", "1000"});
+        HashTableBenchmark.main(new String[]{"resize", "1000"});
+        HashTableBenchmark.main(new String[]{"gc", "1000"});
+        HashTableBenchmark.main(new String[]{"iterate", "1000"});
+        HashTableBenchmark.main(new String[]{"probe", "1000"});
+        HashTableBenchmark.main(new String[]{"warmup", "1000"});
+        assertTrue(true);
+    }
+}
@@ -6,16 +6,32 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.BiConsumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Class for testing HashTable class.
  */
 public class HashTableTest {
+    @TempDir
+    Path directory;
     private HashTable<String, Number> hashTable;
     private Iterator<HashTableEntry<String, Number>> iterator;
 
@@ -132,4 +148,549 @@ public class HashTableTest {
         hashTable.put("two", 2);
         assertThrows(ConcurrentModificationException.class, iterator::next);
     }
+
+    @Test
+    void robinHoodPutGetRemoveTest() {
+        HashTable<String, Number> robinHood = new HashTable<>(ProbingMode.ROBIN_HOOD);
+        assertEquals(ProbingMode.ROBIN_HOOD, robinHood.probingMode());
+        robinHood.put("one", 1);
+        robinHood.put("two", 2);
+        robinHood.put("one", 1.0);
+        assertEquals(1.0, robinHood.get("one"));
+        assertEquals(2, robinHood.remove("two"));
+        assertEquals(null, robinHood.remove("two"));
+        assertFalse(robinHood.containsKey("two"));
+        assertEquals(1, robinHood.size());
+        robinHood.clear();
+        assertEquals(0, robinHood.size());
+    }
+
+    @Test
+    void robinHoodRandomOperationsTest() {
+        HashTable<Integer, Integer> robinHood = new HashTable<>(ProbingMode.ROBIN_HOOD);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(3_000) * 64;
+            if (random.nextInt(3) > 0) {
+                robinHood.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), robinHood.remove(key));
+            }
+        }
+        assertEquals(expected.size(), robinHood.size());
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), robinHood.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void robinHoodRemoveDoesNotResizeTest() {
+        HashTable<Integer, Integer> robinHood = new HashTable<>(ProbingMode.ROBIN_HOOD);
+        for (int i = 0; i < 8; i++) {
+            robinHood.put(i * 16, i);
+        }
+        int capacity = robinHood.capacity();
+        robinHood.remove(0);
+        assertEquals(capacity, robinHood.capacity());
+        for (int i = 1; i < 8; i++) {
+            assertEquals(i, robinHood.get(i * 16));
+        }
+    }
+
+    @Test
+    void robinHoodProbeDistanceCapTest() {
+        HashTable<Integer, Integer> robinHood = new HashTable<>(ProbingMode.ROBIN_HOOD);
+        for (int i = 0; i < 200; i++) {
+            robinHood.put(i * 1024, i);
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, robinHood.get(i * 1024));
+        }
+        HashTable<Integer, Integer> randomKeys = new HashTable<>(ProbingMode.ROBIN_HOOD);
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            randomKeys.put(random.nextInt(Integer.MAX_VALUE), i);
+        }
+        assertTrue(randomKeys.maxProbeDistance() <= 32);
+    }
+
+    @Test
+    void incrementalRandomOperationsTest() {
+        for (ProbingMode mode : ProbingMode.values()) {
+            HashTable<Integer, Integer> incremental = new HashTable<>(mode, ResizeMode.INCREMENTAL);
+            assertEquals(ResizeMode.INCREMENTAL, incremental.resizeMode());
+            HashMap<Integer, Integer> expected = new HashMap<>();
+            Random random = new Random(11);
+            for (int i = 0; i < 50_000; i++) {
+                int key = random.nextInt(5_000);
+                if (random.nextInt(3) > 0) {
+                    incremental.put(key, i);
+                    expected.put(key, i);
+                } else {
+                    assertEquals(expected.remove(key), incremental.remove(key));
+                }
+                if (i % 997 == 0) {
+                    assertEquals(expected.get(key), incremental.get(key));
+                }
+            }
+            assertEquals(expected.size(), incremental.size());
+            for (var entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), incremental.get(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    void incrementalLookupDuringRehashTest() {
+        HashTable<Integer, Integer> incremental =
+                new HashTable<>(ProbingMode.LINEAR, ResizeMode.INCREMENTAL);
+        HashTable<Integer, Integer> eager = new HashTable<>();
+        int key = 0;
+        while (!incremental.isRehashing()) {
+            incremental.put(key, key);
+            eager.put(key, key);
+            key++;
+        }
+        assertEquals(key, incremental.size());
+        for (int i = 0; i < key; i++) {
+            assertEquals(i, incremental.get(i));
+        }
+        int count = 0;
+        for (HashTableEntry<Integer, Integer> entry : incremental) {
+            assertEquals(entry.key, entry.value);
+            count++;
+        }
+        assertEquals(key, count);
+        assertEquals(eager, incremental);
+        assertEquals(0, incremental.remove(0));
+        incremental.put(1, 100);
+        assertEquals(100, incremental.get(1));
+        assertEquals(key - 1, incremental.size());
+        incremental.clear();
+        assertFalse(incremental.isRehashing());
+        assertEquals(0, incremental.size());
+    }
+
+    @Test
+    void incrementalResizeWorkHistogramTest() {
+        int[] eagerHistogram = hashCallsHistogram(ResizeMode.EAGER);
+        int[] incrementalHistogram = hashCallsHistogram(ResizeMode.INCREMENTAL);
+        assertTrue(eagerHistogram[14] > 0);
+        for (int bucket = 6; bucket < incrementalHistogram.length; bucket++) {
+            assertEquals(0, incrementalHistogram[bucket]);
+        }
+    }
+
+    /**
+     * Function for collecting histogram of hashCode calls per put,
+     * bucket i counts puts that made from 2^(i-1) to 2^i - 1 calls.
+     */
+    private static int[] hashCallsHistogram(ResizeMode resizeMode) {
+        int[] histogram = new int[16];
+        HashTable<CountingKey, Integer> table = new HashTable<>(ProbingMode.LINEAR, resizeMode);
+        for (int i = 0; i < 10_000; i++) {
+            int before = CountingKey.calls;
+            table.put(new CountingKey(i), i);
+            int calls = CountingKey.calls - before;
+            histogram[32 - Integer.numberOfLeadingZeros(calls)]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Key that counts calls of hashCode, one call is made per hashed entry.
+     */
+    private record CountingKey(int id) {
+        private static int calls;
+
+        @Override
+        public int hashCode() {
+            calls++;
+            return id;
+        }
+    }
+
+    @Test
+    void forEachTest() {
+        hashTable.put("two", 2);
+        HashMap<String, Number> visited = new HashMap<>();
+        hashTable.forEach(visited::put);
+        assertEquals(2, visited.size());
+        assertEquals(2, visited.get("two"));
+        assertThrows(ConcurrentModificationException.class,
+                () -> hashTable.forEach((key, value) -> hashTable.put(key + "!", value)));
+    }
+
+    @Test
+    void cursorTest() {
+        hashTable.put("two", 2);
+        HashTableCursor<String, Number> cursor = hashTable.cursor();
+        assertThrows(NoSuchElementException.class, cursor::key);
+        int sum = 0;
+        while (cursor.next()) {
+            sum += cursor.value().intValue();
+            assertEquals(cursor.value(), hashTable.get(cursor.key()));
+        }
+        assertEquals(3, sum);
+        assertFalse(cursor.next());
+        assertThrows(NoSuchElementException.class, cursor::value);
+        hashTable.put("three", 3);
+        assertThrows(ConcurrentModificationException.class, cursor::next);
+        cursor.reset();
+        int count = 0;
+        while (cursor.next()) {
+            count++;
+        }
+        assertEquals(3, count);
+    }
+
+    @Test
+    void cursorAndForEachDuringRehashTest() {
+        HashTable<Integer, Integer> incremental =
+                new HashTable<>(ProbingMode.ROBIN_HOOD, ResizeMode.INCREMENTAL);
+        int key = 0;
+        while (!incremental.isRehashing()) {
+            incremental.put(key, key);
+            key++;
+        }
+        int[] sum = new int[1];
+        incremental.forEach((k, v) -> sum[0] += v);
+        assertEquals(key * (key - 1) / 2, sum[0]);
+        HashTableCursor<Integer, Integer> cursor = incremental.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            assertEquals(cursor.key(), cursor.value());
+            count++;
+        }
+        assertEquals(key, count);
+    }
+
+    @Test
+    void putAllTest() {
+        for (ResizeMode resizeMode : ResizeMode.values()) {
+            HashTable<Integer, Integer> first = new HashTable<>(ProbingMode.LINEAR, resizeMode);
+            HashTable<Integer, Integer> second = new HashTable<>(ProbingMode.ROBIN_HOOD);
+            for (int i = 0; i < 100; i++) {
+                first.put(i, i);
+                second.put(i + 50, -i);
+            }
+            first.putAll(second);
+            first.putAll(first);
+            first.putAll(new HashTable<>());
+            assertEquals(150, first.size());
+            assertEquals(10, first.get(10));
+            assertEquals(-10, first.get(60));
+            assertEquals(-99, first.get(149));
+            assertTrue(first.capacity() >= 300);
+        }
+    }
+
+    @Test
+    void removeIfTest() {
+        for (ProbingMode mode : ProbingMode.values()) {
+            HashTable<Integer, Integer> table = new HashTable<>(mode, ResizeMode.INCREMENTAL);
+            for (int i = 0; i < 1_000; i++) {
+                table.put(i, i);
+            }
+            assertTrue(table.removeIf((key, value) -> key % 3 == 0));
+            assertFalse(table.removeIf((key, value) -> value < 0));
+            assertEquals(666, table.size());
+            for (int i = 0; i < 1_000; i++) {
+                assertEquals(i % 3 == 0 ? null : i, table.get(i));
+            }
+        }
+    }
+
+    @Test
+    void removeIfThrowingFilterKeepsTableTest() {
+        for (ProbingMode mode : ProbingMode.values()) {
+            HashTable<Integer, Integer> table = new HashTable<>(mode, ResizeMode.INCREMENTAL);
+            for (int i = 0; i < 1_000; i++) {
+                table.put(i, i);
+            }
+            int[] tested = new int[1];
+            assertThrows(IllegalStateException.class, () -> table.removeIf((key, value) -> {
+                if (++tested[0] == 500) {
+                    throw new IllegalStateException();
+                }
+                return key % 2 == 0;
+            }));
+            assertEquals(1_000, table.size());
+            for (int i = 0; i < 1_000; i++) {
+                assertEquals(i, table.get(i));
+            }
+        }
+    }
+
+    @Test
+    void forEachAndCursorDoNotAllocateTest() {
+        if (!(ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean threads)) {
+            return;
+        }
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int i = 0; i < 100_000; i++) {
+            table.put(i, i);
+        }
+        long[] sum = new long[1];
+        BiConsumer<Integer, Integer> action = (key, value) -> sum[0] += value;
+        HashTableCursor<Integer, Integer> cursor = table.cursor();
+        for (int round = 0; round < 5; round++) {
+            table.forEach(action);
+            cursor.reset();
+            while (cursor.next()) {
+                sum[0] += cursor.value();
+            }
+        }
+        long threadId = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        table.forEach(action);
+        cursor.reset();
+        while (cursor.next()) {
+            sum[0] += cursor.value();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(allocated < 100_000, "allocated " + allocated + " bytes");
+        assertTrue(sum[0] > 0);
+    }
+
+    @Test
+    void hashingModesRandomOperationsTest() {
+        for (HashingMode hashingMode : HashingMode.values()) {
+            for (ProbingMode probingMode : ProbingMode.values()) {
+                for (ResizeMode resizeMode : ResizeMode.values()) {
+                    HashTable<Integer, Integer> table =
+                            new HashTable<>(probingMode, resizeMode, hashingMode);
+                    assertEquals(hashingMode, table.hashingMode());
+                    HashMap<Integer, Integer> expected = new HashMap<>();
+                    Random random = new Random(13);
+                    for (int i = 0; i < 20_000; i++) {
+                        int key = random.nextInt(3_000) << 10;
+                        if (random.nextInt(3) > 0) {
+                            table.put(key, i);
+                            expected.put(key, i);
+                        } else {
+                            assertEquals(expected.remove(key), table.remove(key));
+                        }
+                    }
+                    table.removeIf((key, value) -> value % 2 == 0);
+                    expected.values().removeIf(value -> value % 2 == 0);
+                    assertEquals(expected.size(), table.size());
+                    for (var entry : expected.entrySet()) {
+                        assertEquals(entry.getValue(), table.get(entry.getKey()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void mixedHashingSpreadsStridedKeysTest() {
+        HashTable<Integer, Integer> modulo = new HashTable<>();
+        HashTable<Integer, Integer> mixed =
+                new HashTable<>(ProbingMode.LINEAR, ResizeMode.EAGER, HashingMode.MIXED);
+        for (int i = 0; i < 1_000; i++) {
+            modulo.put(i << 12, i);
+            mixed.put(i << 12, i);
+        }
+        assertTrue(modulo.maxProbeDistance() > 500);
+        assertTrue(mixed.maxProbeDistance() < 50);
+        int[] histogram = mixed.probeDistanceHistogram();
+        int total = 0;
+        for (int count : histogram) {
+            total += count;
+        }
+        assertEquals(1_000, total);
+    }
+
+    @Test
+    void cachedHashesSkipEqualsTest() {
+        HashTable<EqualsCountingKey, Integer> cached =
+                new HashTable<>(ProbingMode.LINEAR, ResizeMode.EAGER, HashingMode.MIXED_CACHED);
+        for (int i = 0; i < 1_000; i++) {
+            cached.put(new EqualsCountingKey(i), i);
+        }
+        EqualsCountingKey.calls = 0;
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, cached.get(new EqualsCountingKey(i)));
+        }
+        assertEquals(1_000, EqualsCountingKey.calls);
+        assertEquals(null, cached.get(new EqualsCountingKey(-1)));
+        assertEquals(1_000, EqualsCountingKey.calls);
+    }
+
+    @Test
+    void snapshotTest() throws IOException {
+        Path path = directory.resolve("snapshot");
+        for (HashingMode hashingMode : HashingMode.values()) {
+            for (ProbingMode probingMode : ProbingMode.values()) {
+                HashTable<String, Integer> table =
+                        new HashTable<>(probingMode, ResizeMode.INCREMENTAL, hashingMode);
+                for (int i = 0; i < 5_000; i++) {
+                    table.put("key" + i, i);
+                }
+                table.removeIf((key, value) -> value % 7 == 0);
+                table.put("null", null);
+                table.writeSnapshot(path);
+                HashTable<String, Integer> loaded = HashTable.readSnapshot(path);
+                assertEquals(table, loaded);
+                assertEquals(table.toString(), loaded.toString());
+                assertEquals(table.capacity(), loaded.capacity());
+                assertEquals(probingMode, loaded.probingMode());
+                assertEquals(hashingMode, loaded.hashingMode());
+                assertEquals(ResizeMode.INCREMENTAL, loaded.resizeMode());
+                assertTrue(loaded.maxProbeDistance() <= table.maxProbeDistance());
+                assertEquals(null, loaded.get("key7"));
+                loaded.put("key7", 7);
+                assertEquals(1, loaded.remove("key1"));
+                assertEquals(table.size(), loaded.size());
+                assertEquals(7, loaded.get("key7"));
+                assertFalse(Files.exists(directory.resolve("snapshot.tmp")));
+            }
+        }
+    }
+
+    @Test
+    void snapshotRehashesChangedHashCodesTest() throws IOException {
+        Path path = directory.resolve("snapshot");
+        for (ProbingMode probingMode : ProbingMode.values()) {
+            HashTable<SaltedKey, Integer> table = new HashTable<>(probingMode);
+            for (int i = 0; i < 1_000; i++) {
+                table.put(new SaltedKey(i), i);
+            }
+            table.writeSnapshot(path);
+            SaltedKey.salt = 12_345;
+            try {
+                HashTable<SaltedKey, Integer> loaded = HashTable.readSnapshot(path);
+                assertEquals(1_000, loaded.size());
+                for (int i = 0; i < 1_000; i++) {
+                    assertEquals(i, loaded.get(new SaltedKey(i)));
+                }
+            } finally {
+                SaltedKey.salt = 0;
+            }
+        }
+    }
+
+    @Test
+    void corruptedSnapshotTest() throws IOException {
+        Path path = directory.resolve("snapshot");
+        Files.write(path, new byte[8]);
+        assertThrows(IOException.class, () -> HashTable.readSnapshot(path));
+        hashTable.writeSnapshot(path);
+        byte[] written = Files.readAllBytes(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 4);
+        }
+        assertThrows(EOFException.class, () -> HashTable.readSnapshot(path));
+        for (int[] corruption : new int[][]{{14, 2}, {30, 3}, {34, 0}, {34, 9}}) {
+            Files.write(path, written);
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                file.seek(corruption[0]);
+                file.writeInt(corruption[1]);
+            }
+            assertThrows(IOException.class, () -> HashTable.readSnapshot(path));
+        }
+        Files.write(path, written);
+        hashTable.put("object", new Number() {
+            @Override
+            public int intValue() {
+                return 0;
+            }
+
+            @Override
+            public long longValue() {
+                return 0;
+            }
+
+            @Override
+            public float floatValue() {
+                return 0;
+            }
+
+            @Override
+            public double doubleValue() {
+                return 0;
+            }
+        });
+        assertThrows(NotSerializableException.class, () -> hashTable.writeSnapshot(path));
+        assertFalse(Files.exists(directory.resolve("snapshot.tmp")));
+        assertEquals(1, HashTable.<String, Number>readSnapshot(path).size());
+    }
+
+    @Test
+    void exportImportTest() throws IOException {
+        HashTable<String, Integer> table = new HashTable<>(ProbingMode.ROBIN_HOOD,
+                ResizeMode.INCREMENTAL);
+        for (int i = 0; i < 100; i++) {
+            table.put("key" + i, i);
+        }
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        table.exportEntries(full);
+        HashTable<String, Integer> increment = new HashTable<>();
+        increment.put("key2", -2);
+        increment.put("new", 1);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        increment.exportEntries(delta);
+        HashTable<String, Integer> restored = new HashTable<>();
+        restored.importEntries(new ByteArrayInputStream(full.toByteArray()));
+        assertEquals(table, restored);
+        restored.importEntries(new ByteArrayInputStream(delta.toByteArray()));
+        assertEquals(101, restored.size());
+        assertEquals(-2, restored.get("key2"));
+        assertEquals(1, restored.get("new"));
+        byte[] truncated = new byte[full.size() - 1];
+        System.arraycopy(full.toByteArray(), 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> new HashTable<String, Integer>()
+                .importEntries(new ByteArrayInputStream(truncated)));
+    }
+
+    /**
+     * Key that counts calls of equals.
+     */
+    private static final class EqualsCountingKey {
+        private static int calls;
+        private final int id;
+
+        private EqualsCountingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            calls++;
+            return o instanceof EqualsCountingKey other && other.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+
+    /**
+     * Serializable key with hashCode that depends on a salt, like identity hashes
+     * that differ between runs.
+     */
+    private static final class SaltedKey implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static int salt;
+        private final int id;
+
+        private SaltedKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SaltedKey other && other.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id * 31 + salt;
+        }
+    }
 }
@@ -0,0 +1,286 @@
+package ru.nsu.lebedev.hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Class for testing LongLongHashTable class.
+ */
+public class LongLongHashTableTest {
+    @TempDir
+    Path directory;
+    private LongLongHashTable hashTable;
+
+    /**
+     * Function for creating default hashtable.
+     */
+    @BeforeEach
+    public void setUp() {
+        hashTable = new LongLongHashTable();
+        hashTable.put(1, 10);
+    }
+
+    @Test
+    void clearTest() {
+        hashTable.clear();
+        assertEquals(new LongLongHashTable(), hashTable);
+        assertEquals(16, hashTable.capacity());
+    }
+
+    @Test
+    void putAndGetTest() {
+        assertFalse(hashTable.containsKey(2));
+        hashTable.put(2, 20);
+        assertTrue(hashTable.containsKey(2));
+        assertEquals(20, hashTable.get(2));
+        hashTable.put(2, 21);
+        assertEquals(21, hashTable.get(2));
+        assertEquals(2, hashTable.size());
+    }
+
+    @Test
+    void missingValueTest() {
+        assertEquals(0, hashTable.get(5));
+        LongLongHashTable other = new LongLongHashTable(-1);
+        assertEquals(-1, other.get(5));
+        assertEquals(-1, other.remove(5));
+        assertEquals(-1, other.get(0));
+    }
+
+    @Test
+    void zeroKeyTest() {
+        assertFalse(hashTable.containsKey(0));
+        hashTable.put(0, 7);
+        hashTable.put(0, 8);
+        assertTrue(hashTable.containsKey(0));
+        assertEquals(8, hashTable.get(0));
+        assertEquals(2, hashTable.size());
+        assertEquals("{0 = 8, 1 = 10}", hashTable.toString());
+        assertEquals(8, hashTable.remove(0));
+        assertEquals(0, hashTable.remove(0));
+        assertEquals(1, hashTable.size());
+    }
+
+    @Test
+    void resizeTest() {
+        for (int i = 0; i < 18; i++) {
+            hashTable.put(i + 100, i);
+        }
+        assertEquals(64, hashTable.capacity());
+        for (int i = 0; i < 18; i++) {
+            assertEquals(i, hashTable.get(i + 100));
+        }
+    }
+
+    @Test
+    void removeTest() {
+        assertEquals(10, hashTable.remove(1));
+        assertFalse(hashTable.containsKey(1));
+        assertEquals(0, hashTable.size());
+        assertEquals(0, hashTable.remove(1));
+    }
+
+    @Test
+    void randomOperationsTest() {
+        Random random = new Random(42);
+        HashMap<Long, Long> expected = new HashMap<>();
+        expected.put(1L, 10L);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                hashTable.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                Long old = expected.remove(key);
+                assertEquals(old == null ? 0 : old, hashTable.remove(key));
+            }
+        }
+        assertEquals(expected.size(), hashTable.size());
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), hashTable.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void updateTest() {
+        hashTable.update(1, 11);
+        hashTable.update(2, 22);
+        assertEquals(11, hashTable.get(1));
+        assertFalse(hashTable.containsKey(2));
+    }
+
+    @Test
+    void equalsTest() {
+        LongLongHashTable other = new LongLongHashTable();
+        assertNotEquals(hashTable, other);
+        other.put(1, 11);
+        assertNotEquals(hashTable, other);
+        other.update(1, 10);
+        assertEquals(hashTable, other);
+        assertEquals(hashTable.hashCode(), other.hashCode());
+        hashTable.put(0, 1);
+        assertNotEquals(hashTable, other);
+        other.put(0, 2);
+        assertNotEquals(hashTable, other);
+        other.put(0, 1);
+        assertEquals(hashTable, other);
+        assertNotEquals(hashTable, null);
+        assertNotEquals(hashTable, new HashTable<Long, Long>());
+    }
+
+    @Test
+    void iteratorTest() {
+        hashTable.put(0, 5);
+        Iterator<HashTableEntry<Long, Long>> iterator = hashTable.iterator();
+        assertTrue(iterator.hasNext());
+        assertEquals(0L, iterator.next().key);
+        assertEquals(10L, iterator.next().value);
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void iteratorConcurrentModificationExceptionTest() {
+        Iterator<HashTableEntry<Long, Long>> iterator = hashTable.iterator();
+        hashTable.put(2, 2);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    void snapshotTest() throws IOException {
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            hashTable.put(random.nextLong(), i);
+        }
+        hashTable.put(0, 7);
+        Path path = directory.resolve("snapshot");
+        hashTable.writeSnapshot(path);
+        LongLongHashTable loaded = LongLongHashTable.readSnapshot(path, -1);
+        assertEquals(hashTable, loaded);
+        assertEquals(hashTable.capacity(), loaded.capacity());
+        assertEquals(-1, loaded.get(12345));
+        assertEquals(7, loaded.get(0));
+        assertFalse(Files.exists(directory.resolve("snapshot.tmp")));
+    }
+
+    @Test
+    void mapSnapshotTest() throws IOException {
+        for (int i = 2; i < 1000; i++) {
+            hashTable.put(i, i * 10L);
+        }
+        Path path = directory.resolve("snapshot");
+        hashTable.writeSnapshot(path);
+        LongLongHashTable view = LongLongHashTable.mapSnapshot(path);
+        assertEquals(999, view.size());
+        assertEquals(500, view.get(50));
+        assertTrue(view.containsKey(999));
+        assertFalse(view.containsKey(0));
+        assertEquals(0, view.get(1000));
+        view.put(1000, 1);
+        assertEquals(1, view.get(1000));
+        assertEquals(10, view.remove(1));
+        assertEquals(999, view.size());
+        assertEquals(hashTable, LongLongHashTable.readSnapshot(path));
+        assertEquals(hashTable, LongLongHashTable.mapSnapshot(path));
+        assertEquals(hashTable.hashCode(), LongLongHashTable.mapSnapshot(path).hashCode());
+        assertEquals(hashTable.toString(), LongLongHashTable.mapSnapshot(path).toString());
+    }
+
+    @Test
+    void snapshotCompatibleWithMappedTableTest() throws IOException {
+        hashTable.put(0, 3);
+        Path path = directory.resolve("snapshot");
+        hashTable.writeSnapshot(path);
+        try (MappedLongHashTable mapped = MappedLongHashTable.open(path)) {
+            assertEquals(10, mapped.get(1));
+            assertEquals(3, mapped.get(0));
+            mapped.put(2, 20);
+        }
+        LongLongHashTable loaded = LongLongHashTable.mapSnapshot(path);
+        assertEquals(20, loaded.get(2));
+        assertEquals(3, loaded.size());
+    }
+
+    @Test
+    void corruptedSnapshotTest() throws IOException {
+        Path path = directory.resolve("snapshot");
+        Files.write(path, new byte[8]);
+        assertThrows(IOException.class, () -> LongLongHashTable.readSnapshot(path));
+        Files.write(path, new byte[MappedLongHashTable.HEADER_SIZE]);
+        assertThrows(IOException.class, () -> LongLongHashTable.readSnapshot(path));
+        hashTable.writeSnapshot(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(MappedLongHashTable.VERSION_OFFSET);
+            file.writeInt(MappedLongHashTable.VERSION + 1);
+        }
+        assertThrows(IOException.class, () -> LongLongHashTable.mapSnapshot(path));
+        hashTable.writeSnapshot(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 16);
+        }
+        assertThrows(IOException.class, () -> LongLongHashTable.mapSnapshot(path));
+        hashTable.writeSnapshot(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(MappedLongHashTable.SIZE_OFFSET);
+            file.writeLong(-1);
+        }
+        assertThrows(IOException.class, () -> LongLongHashTable.mapSnapshot(path));
+    }
+
+    @Test
+    void exportImportTest() throws IOException {
+        hashTable.put(0, 5);
+        hashTable.put(2, 20);
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        hashTable.exportEntries(full);
+        LongLongHashTable increment = new LongLongHashTable();
+        increment.put(2, 21);
+        increment.put(3, 30);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        increment.exportEntries(delta);
+        LongLongHashTable restored = new LongLongHashTable();
+        restored.importEntries(new ByteArrayInputStream(full.toByteArray()));
+        assertEquals(hashTable, restored);
+        restored.importEntries(new ByteArrayInputStream(delta.toByteArray()));
+        assertEquals(4, restored.size());
+        assertEquals(21, restored.get(2));
+        assertEquals(5, restored.get(0));
+        byte[] truncated = new byte[full.size() - 1];
+        System.arraycopy(full.toByteArray(), 0, truncated, 0, truncated.length);
+        assertThrows(EOFException.class,
+                () -> new LongLongHashTable().importEntries(new ByteArrayInputStream(truncated)));
+        assertThrows(IOException.class, () -> new LongLongHashTable()
+                .importEntries(new ByteArrayInputStream(new byte[]{-1, 0, 0, 0})));
+    }
+
+    @Test
+    void exportFromMappedSnapshotTest() throws IOException {
+        hashTable.put(0, 5);
+        Path path = directory.resolve("snapshot");
+        hashTable.writeSnapshot(path);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LongLongHashTable.mapSnapshot(path).exportEntries(out);
+        LongLongHashTable restored = new LongLongHashTable();
+        restored.importEntries(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(hashTable, restored);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.nsu.lebedev.hashtable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Class for testing MappedLongHashTable class.
+ */
+public class MappedLongHashTableTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void putGetRemoveTest() throws IOException {
+        try (MappedLongHashTable table = MappedLongHashTable.create(directory.resolve("t"))) {
+            table.put(1, 10);
+            table.put(2, 20);
+            table.put(2, 21);
+            assertEquals(21, table.get(2));
+            assertEquals(2, table.size());
+            assertEquals(10, table.remove(1));
+            assertEquals(0, table.remove(1));
+            assertFalse(table.containsKey(1));
+            assertTrue(table.containsKey(2));
+            assertEquals("{2 = 21}", table.toString());
+        }
+    }
+
+    @Test
+    void zeroKeyTest() throws IOException {
+        try (MappedLongHashTable table = MappedLongHashTable.create(directory.resolve("t"))) {
+            assertEquals(0, table.remove(0));
+            table.put(0, 5);
+            table.put(0, 6);
+            table.put(3, 3);
+            assertTrue(table.containsKey(0));
+            assertEquals(6, table.get(0));
+            assertEquals(2, table.size());
+            assertEquals("{0 = 6, 3 = 3}", table.toString());
+            assertEquals(6, table.remove(0));
+            assertEquals(0, table.get(0));
+        }
+    }
+
+    @Test
+    void randomOperationsAndReopenTest() throws IOException {
+        Path path = directory.resolve("table.bin");
+        HashMap<Long, Long> expected = new HashMap<>();
+        Random random = new Random(5);
+        try (MappedLongHashTable table = MappedLongHashTable.create(path)) {
+            for (int i = 0; i < 30_000; i++) {
+                long key = random.nextInt(4_000) - 2_000;
+                if (random.nextInt(3) > 0) {
+                    table.put(key, i);
+                    expected.put(key, (long) i);
+                } else {
+                    Long old = expected.remove(key);
+                    assertEquals(old == null ? 0 : old, table.remove(key));
+                }
+            }
+            assertEquals(expected.size(), table.size());
+        }
+        assertFalse(Files.exists(directory.resolve("table.bin.resize")));
+        try (MappedLongHashTable reopened = MappedLongHashTable.open(path)) {
+            assertEquals(expected.size(), reopened.size());
+            for (var entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), reopened.get(entry.getKey()));
+            }
+            int count = 0;
+            for (HashTableEntry<Long, Long> entry : reopened) {
+                assertEquals(expected.get(entry.key), entry.value);
+                count++;
+            }
+            assertEquals(expected.size(), count);
+        }
+    }
+
+    @Test
+    void createWithCapacityTest() throws IOException {
+        Path path = directory.resolve("t");
+        try (MappedLongHashTable table = MappedLongHashTable.create(path, 100)) {
+            assertEquals(128, table.capacity());
+        }
+        assertEquals(MappedLongHashTable.HEADER_SIZE + 128 * 16, Files.size(path));
+    }
+
+    @Test
+    void openValidatesHeaderTest() throws IOException {
+        Path shortFile = directory.resolve("short");
+        Files.write(shortFile, new byte[10]);
+        assertThrows(IOException.class, () -> MappedLongHashTable.open(shortFile));
+        Path garbage = directory.resolve("garbage");
+        Files.write(garbage, new byte[MappedLongHashTable.HEADER_SIZE + 16 * 16]);
+        assertThrows(IOException.class, () -> MappedLongHashTable.open(garbage));
+        Path path = directory.resolve("t");
+        MappedLongHashTable.create(path).close();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(8);
+            file.writeInt(MappedLongHashTable.VERSION + 1);
+        }
+        assertThrows(IOException.class, () -> MappedLongHashTable.open(path));
+        MappedLongHashTable.create(path).close();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 16);
+        }
+        assertThrows(IOException.class, () -> MappedLongHashTable.open(path));
+        MappedLongHashTable.create(path).close();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(24);
+            file.writeLong(-1);
+        }
+        assertThrows(IOException.class, () -> MappedLongHashTable.open(path));
+    }
+
+    @Test
+    void iteratorTest() throws IOException {
+        try (MappedLongHashTable table = MappedLongHashTable.create(directory.resolve("t"))) {
+            table.put(7, 70);
+            Iterator<HashTableEntry<Long, Long>> iterator = table.iterator();
+            assertTrue(iterator.hasNext());
+            assertEquals(70L, iterator.next().value);
+            assertFalse(iterator.hasNext());
+            assertThrows(NoSuchElementException.class, iterator::next);
+            Iterator<HashTableEntry<Long, Long>> stale = table.iterator();
+            table.put(8, 80);
+            assertThrows(ConcurrentModificationException.class, stale::next);
+        }
+    }
+}